@@ -0,0 +1,72 @@
+package ru.practicum.dbConcurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Настройки режима виртуальных потоков ({@code spring.threads.virtual.enabled=true}).
+ * В этом режиме Tomcat обрабатывает каждый запрос в отдельном виртуальном потоке и не ограничивает
+ * их количество, поэтому доступ к базе ограничивается семафором {@link ConcurrencyLimitedDataSource}:
+ * не больше {@code db.concurrency.limit} соединений одновременно, ожидание не дольше
+ * {@code db.concurrency.acquire-timeout}. Лимит по умолчанию равен
+ * {@code spring.datasource.hikari.maximum-pool-size}; лимит больше размера пула — ошибка конфигурации,
+ * и приложение не запускается. Состояние семафора публикуется в метриках {@code db.concurrency.*}.
+ * <p>
+ * Общая для ewm-service и stats-server автоконфигурация: подключается зависимостью {@code db-concurrency}.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofSeconds(30);
+
+    @Bean
+    public static BeanPostProcessor databaseConcurrencyLimiter(Environment environment) {
+
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class,
+                DEFAULT_POOL_SIZE);
+        int limit = environment.getProperty("db.concurrency.limit", Integer.class, poolSize);
+        Duration acquireTimeout = environment.getProperty("db.concurrency.acquire-timeout", Duration.class,
+                DEFAULT_ACQUIRE_TIMEOUT);
+        validate(limit, poolSize);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    return new ConcurrencyLimitedDataSource(dataSource, limit, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder databaseConcurrencyMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConcurrencyLimitedDataSource limited) {
+                Gauge.builder("db.concurrency.available", limited, ConcurrencyLimitedDataSource::availablePermits)
+                        .register(registry);
+                Gauge.builder("db.concurrency.waiting", limited, ConcurrencyLimitedDataSource::waitingThreads)
+                        .register(registry);
+            }
+        };
+    }
+
+    static void validate(int limit, int poolSize) {
+
+        if (limit < 1 || limit > poolSize) {
+            throw new IllegalStateException(("db.concurrency.limit=%d must be between 1 and "
+                    + "spring.datasource.hikari.maximum-pool-size=%d").formatted(limit, poolSize));
+        }
+    }
+}
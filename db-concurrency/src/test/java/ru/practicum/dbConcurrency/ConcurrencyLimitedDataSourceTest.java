@@ -0,0 +1,70 @@
+package ru.practicum.dbConcurrency;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitedDataSourceTest {
+
+    @Mock
+    private DataSource delegate;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    void getConnection_whenLimitIsReached_shouldFailAfterTimeout() throws SQLException {
+        when(delegate.getConnection()).thenReturn(connection);
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(delegate, 1, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        first.close();
+        dataSource.getConnection();
+        verify(delegate, times(2)).getConnection();
+    }
+
+    @Test
+    void close_calledTwice_shouldReleasePermitOnce() throws SQLException {
+        when(delegate.getConnection()).thenReturn(connection);
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(delegate, 2, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+        first.close();
+        first.close();
+
+        assertEquals(1, dataSource.availablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_whenDelegateFails_shouldReleasePermit() throws SQLException {
+        when(delegate.getConnection()).thenThrow(new SQLException("Connection refused"));
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(delegate, 1, Duration.ofMillis(50));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    void validate_whenLimitExceedsPoolSize_shouldFail() {
+        assertThrows(IllegalStateException.class, () -> VirtualThreadsConfig.validate(11, 10));
+    }
+}
@@ -1,9 +1,11 @@
 package ru.practicum.ewmService.category.mapper;
 
 import lombok.experimental.UtilityClass;
+import org.hibernate.Hibernate;
 import ru.practicum.ewmService.category.dto.CategoryDto;
 import ru.practicum.ewmService.category.dto.NewCategoryDto;
 import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.service.CategoryCache;
 
 @UtilityClass
 public class CategoryMapper {
@@ -15,4 +17,12 @@ public class CategoryMapper {
     public CategoryDto toCategoryDto(Category category) {
         return new CategoryDto(category.getId(), category.getName());
     }
-}
\ No newline at end of file
+
+    /**
+     * DTO категории связанной сущности: загруженная категория отображается напрямую,
+     * для ленивой ссылки DTO берется из кэша без обращения к базе.
+     */
+    public CategoryDto toCategoryDto(Category category, CategoryCache categories) {
+        return Hibernate.isInitialized(category) ? toCategoryDto(category) : categories.get(category.getId());
+    }
+}
@@ -19,7 +19,8 @@ import java.util.Objects;
  * Представляет сущность категории в системе.
  * Этот класс сопоставлен с таблицей "categories" в базе данных и включает
  * ограничения для обеспечения уникальности имени категории.
- * Переопределяет методы equals и hashCode, используя поле id для сравнения.
+ * Переопределяет методы equals и hashCode, используя id для сравнения; сравнение корректно
+ * и для ленивых прокси Hibernate.
  */
 @Getter
 @Setter
@@ -42,13 +43,13 @@ public class Category {
 
     @Override
     public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        Category category = (Category) o;
-        return Objects.equals(id, category.id);
+        if (this == o) return true;
+        if (!(o instanceof Category category)) return false;
+        return Objects.equals(getId(), category.getId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(id);
+        return Objects.hashCode(getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package ru.practicum.ewmService.category.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewmService.category.dto.CategoryDto;
+import ru.practicum.ewmService.category.mapper.CategoryMapper;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.exceptions.NotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Локальный кэш категорий по id. Категорий мало и они почти не меняются, поэтому все они
+ * загружаются при старте приложения; промах загружает категорию из базы.
+ * Записи обновляются и сбрасываются сервисом категорий при изменениях, а {@code expire-after-write}
+ * ограничивает устаревание, если категорию изменил другой экземпляр сервиса.
+ * Метрики кэша публикуются под именем {@code cache.*} с тегом {@code cache=categories}.
+ */
+@Slf4j
+@Component
+public class CategoryCache implements MeterBinder {
+
+    private final CategoryRepository categoryRepository;
+    private final long maximumSize;
+    private final Cache<Long, CategoryDto> categories;
+
+    public CategoryCache(CategoryRepository categoryRepository,
+                         @Value("${categories.cache.maximum-size:1000}") long maximumSize,
+                         @Value("${categories.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+
+        this.categoryRepository = categoryRepository;
+        this.maximumSize = maximumSize;
+        this.categories = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+
+        var page = categoryRepository.findAll(PageRequest.of(0, (int) Math.min(maximumSize, Integer.MAX_VALUE)));
+        page.forEach(this::put);
+        log.info("{} categories have been preloaded to cache", page.getNumberOfElements());
+    }
+
+    public Optional<CategoryDto> find(long catId) {
+        return Optional.ofNullable(categories.get(catId,
+                id -> categoryRepository.findById(id).map(CategoryMapper::toCategoryDto).orElse(null)));
+    }
+
+    public CategoryDto get(long catId) {
+        return find(catId).orElseThrow(
+                () -> new NotFoundException("Category with id=%d not found".formatted(catId)));
+    }
+
+    public void put(Category category) {
+        categories.put(category.getId(), CategoryMapper.toCategoryDto(category));
+    }
+
+    public void evict(long catId) {
+        categories.invalidate(catId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, categories, "categories");
+    }
+}
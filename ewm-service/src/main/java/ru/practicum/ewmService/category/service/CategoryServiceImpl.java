@@ -29,6 +29,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
+    private final CategoryCache categoryCache;
 
     @Override
     public CategoryDto addCategory(NewCategoryDto dto) {
@@ -39,6 +40,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
         Category category = CategoryMapper.toCategory(dto);
         category = categoryRepository.save(category);
+        categoryCache.put(category);
         return CategoryMapper.toCategoryDto(category);
     }
 
@@ -54,6 +56,7 @@ public class CategoryServiceImpl implements CategoryService {
             }
             category.setName(dto.getName());
             category = categoryRepository.save(category);
+            categoryCache.put(category);
         }
         return CategoryMapper.toCategoryDto(category);
     }
@@ -69,6 +72,7 @@ public class CategoryServiceImpl implements CategoryService {
             throw new IntegrityException("Category id=%d is not empty".formatted(catId));
         }
         categoryRepository.delete(category);
+        categoryCache.evict(catId);
     }
 
     @Override
@@ -2,9 +2,10 @@ package ru.practicum.ewmService.comment.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewmService.category.service.CategoryCache;
 import ru.practicum.ewmService.comment.dto.CommentDetailedDto;
 import ru.practicum.ewmService.comment.dto.CommentDto;
 import ru.practicum.ewmService.comment.dto.CommentWithEventDetailedDto;
@@ -27,9 +28,9 @@ import ru.practicum.ewmService.participation.repository.ParticipationRepository;
 import ru.practicum.ewmService.user.mapper.UserMapper;
 import ru.practicum.ewmService.user.model.User;
 import ru.practicum.ewmService.user.repository.UserRepository;
+import ru.practicum.ewmService.user.service.UserShortDtoCache;
 
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Реализация сервиса для управления комментариями.
@@ -49,7 +50,9 @@ import java.util.Objects;
  *   <li>Один пользователь может оставить только один комментарий к событию</li>
  *   <li>Рейтинг события может выставлять только пользователь, подтвердивший участие</li>
  *   <li>После обновления комментарий требует модерации</li>
- *   <li>Изменение рейтинга обновляет средний рейтинг события</li>
+ *   <li>Рейтинг события — средняя оценка одобренных комментариев; одобрение, изменение
+ *   и удаление оцененного комментария меняют сумму и количество оценок события одним атомарным запросом
+ *   {@link EventRepository#addRating}, без пересчета по всем комментариям</li>
  * </ul>
  *
  * <p>Сервис использует следующие репозитории:</p>
@@ -75,6 +78,8 @@ public class CommentsServiceImpl implements CommentsService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final ParticipationRepository participationRepository;
+    private final CategoryCache categoryCache;
+    private final UserShortDtoCache userCache;
 
     @Override
     public CommentDto addComment(long userId, long eventId, NewCommentDto newCommentDto) {
@@ -104,6 +109,7 @@ public class CommentsServiceImpl implements CommentsService {
     }
 
     @Override
+    @Transactional
     public CommentDto updateComment(long userId, long commentId, UpdateCommentDto updateCommentDto) {
         User user = checkUser(userId);
 
@@ -127,8 +133,8 @@ public class CommentsServiceImpl implements CommentsService {
         comment.setStatus(CommentStatus.PENDING);
         comment = commentsRepository.save(comment);
 
-        if (!Objects.equals(oldRate, comment.getRate()) && oldStatus == CommentStatus.APPROVED) {
-            updateEventRate(comment.getEvent());
+        if (oldStatus == CommentStatus.APPROVED) {
+            removeRate(comment.getEvent(), oldRate);
         }
 
         log.info("Comment with id={} from user id={} to event id={} has been updated",
@@ -137,6 +143,7 @@ public class CommentsServiceImpl implements CommentsService {
     }
 
     @Override
+    @Transactional
     public CommentDto updateCommentStatus(long commentId, CommentStatus status) {
 
         if (status != CommentStatus.APPROVED && status != CommentStatus.REJECTED) {
@@ -149,14 +156,11 @@ public class CommentsServiceImpl implements CommentsService {
             throw new IntegrityException("Comment with id=%d must has status PENDING for moderation");
         }
 
-        CommentStatus oldStatus = comment.getStatus();
         comment.setStatus(status);
         comment = commentsRepository.save(comment);
 
-        if (comment.getRate() != null) {
-            if (status == CommentStatus.APPROVED) {
-                updateEventRate(comment.getEvent());
-            }
+        if (status == CommentStatus.APPROVED) {
+            addRate(comment.getEvent(), comment.getRate());
         }
 
         log.info("Status of comment with id={} has been updated to {}", commentId, status);
@@ -167,42 +171,44 @@ public class CommentsServiceImpl implements CommentsService {
     public CommentDetailedDto getComment(long commentId) {
 
         Comment comment = checkComment(commentId);
-        var userDto = UserMapper.toUserShortDto(comment.getCommenter());
-        var eventDto = EventMapper.toShortDto(comment.getEvent());
+        var userDto = UserMapper.toUserShortDto(comment.getCommenter(), userCache);
+        var eventDto = EventMapper.toShortDto(comment.getEvent(), categoryCache, userCache);
         var commentDto = CommentsMapper.toCommentDetailedDto(comment, userDto, eventDto);
         log.info("Get comment request returns comment dto with id={}", commentId);
         return commentDto;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CommentWithUserDetailedDto> getCommentsByEvent(long eventId, Boolean rated, int from, int size) {
 
         Event event = checkEvent(eventId);
-        Page<Comment> page = (rated != null) ?
+        List<Comment> comments = (rated != null) ?
                 commentsRepository.findAllByEventAndRateIsNotNullOrderByCreatedAsc(event,
                         PageRequest.of(from, size)) :
                 commentsRepository.findAllByEventOrderByCreatedAsc(event,
                         PageRequest.of(from, size));
-        List<CommentWithUserDetailedDto> dtos = page.getContent().stream()
+        List<CommentWithUserDetailedDto> dtos = comments.stream()
                 .map(c -> CommentsMapper.toCommentOfUserDto(
-                        c, UserMapper.toUserShortDto(c.getCommenter())))
+                        c, UserMapper.toUserShortDto(c.getCommenter(), userCache)))
                 .toList();
         log.info("Get comments by event id={} returns {} records", eventId, dtos.size());
         return dtos;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CommentWithEventDetailedDto> getCommentsByUser(long userId, Boolean rated, int from, int size) {
 
         User user = checkUser(userId);
-        Page<Comment> page = (rated != null) ?
+        List<Comment> comments = (rated != null) ?
                 commentsRepository.findAllByCommenterAndRateIsNotNullOrderByCreatedAsc(user,
                         PageRequest.of(from, size)) :
                 commentsRepository.findAllByCommenterOrderByCreatedAsc(user,
                         PageRequest.of(from, size));
-        List<CommentWithEventDetailedDto> dtos = page.getContent().stream()
+        List<CommentWithEventDetailedDto> dtos = comments.stream()
                 .map(c -> CommentsMapper.toCommentOfEventDto(
-                        c, EventMapper.toShortDto(c.getEvent())))
+                        c, EventMapper.toShortDto(c.getEvent(), categoryCache, userCache)))
                 .toList();
         log.info("Get comments by user id={} returns {} records", userId, dtos.size());
         return dtos;
@@ -221,13 +227,14 @@ public class CommentsServiceImpl implements CommentsService {
     }
 
     @Override
+    @Transactional
     public void deleteComment(long commentId) {
 
         Comment comment = commentsRepository.findById(commentId).orElse(null);
         if (comment != null) {
             commentsRepository.delete(comment);
-            if (comment.getRate() != null && comment.getStatus() == CommentStatus.APPROVED) {
-                updateEventRate(comment.getEvent());
+            if (comment.getStatus() == CommentStatus.APPROVED) {
+                removeRate(comment.getEvent(), comment.getRate());
             }
             log.info("Comment with id={} has been deleted", commentId);
         }
@@ -261,11 +268,19 @@ public class CommentsServiceImpl implements CommentsService {
         }
     }
 
-    private void updateEventRate(Event event) {
+    private void addRate(Event event, Integer rate) {
 
-        var avgRate = commentsRepository.getAverageRate(event);
-        event.setRating(avgRate == null ? 0 : avgRate);
-        eventRepository.save(event);
-        log.info("Event with id={} updated rate={}", event.getId(), avgRate);
+        if (rate != null) {
+            eventRepository.addRating(event.getId(), rate, 1);
+            log.info("Rate {} has been added to event with id={}", rate, event.getId());
+        }
+    }
+
+    private void removeRate(Event event, Integer rate) {
+
+        if (rate != null) {
+            eventRepository.addRating(event.getId(), -rate, -1);
+            log.info("Rate {} has been removed from event with id={}", rate, event.getId());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package ru.practicum.ewmService.compilation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewmService.compilation.dto.CompilationDto;
+import ru.practicum.ewmService.event.model.EventUpdated;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Кэш публичного чтения подборок: страницы по ключу {@code (pinned, from, size)} и отдельные подборки по id.
+ * Оба кэша ограничены по размеру ({@code compilations.cache.maximum-size}) и времени жизни записи
+ * ({@code compilations.cache.expire-after-write}); время жизни ограничивает и устаревание счетчиков
+ * событий (просмотров, подтвержденных заявок, рейтинга), которые не сбрасывают кэш.
+ * Запись подборки сбрасывает ее саму и все страницы, изменение события — только подборки и страницы,
+ * в которые оно входит. Метрики публикуются под именем {@code cache.*} с тегами
+ * {@code cache=compilations} и {@code cache=compilationPages}.
+ */
+@Slf4j
+@Component
+public class CompilationCache implements MeterBinder {
+
+    private final Cache<PageKey, List<CompilationDto>> pages;
+    private final Cache<Long, CompilationDto> compilations;
+
+    public CompilationCache(@Value("${compilations.cache.maximum-size:1000}") long maximumSize,
+                            @Value("${compilations.cache.expire-after-write:5m}") Duration expireAfterWrite) {
+
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.compilations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public List<CompilationDto> getPage(Boolean pinned, int from, int size, Supplier<List<CompilationDto>> loader) {
+        return pages.get(new PageKey(pinned, from, size), key -> List.copyOf(loader.get()));
+    }
+
+    public CompilationDto getCompilation(long compId, Function<Long, CompilationDto> loader) {
+        return compilations.get(compId, loader);
+    }
+
+    /**
+     * Новая подборка сдвигает страницы, но не затрагивает закэшированные подборки.
+     */
+    public void compilationAdded() {
+        pages.invalidateAll();
+    }
+
+    public void compilationChanged(long compId) {
+
+        compilations.invalidate(compId);
+        pages.invalidateAll();
+    }
+
+    @EventListener
+    public void eventUpdated(EventUpdated update) {
+
+        long eventId = update.eventId();
+        compilations.asMap().values().removeIf(compilation -> contains(compilation, eventId));
+        pages.asMap().values().removeIf(page -> page.stream().anyMatch(compilation -> contains(compilation, eventId)));
+        log.debug("Compilations with event id={} have been evicted from cache", eventId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        CaffeineCacheMetrics.monitor(registry, compilations, "compilations");
+        CaffeineCacheMetrics.monitor(registry, pages, "compilationPages");
+    }
+
+    private static boolean contains(CompilationDto compilation, long eventId) {
+        return compilation.getEvents() != null
+                && compilation.getEvents().stream().anyMatch(event -> Long.valueOf(eventId).equals(event.getId()));
+    }
+
+    private record PageKey(Boolean pinned, int from, int size) {
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.ewmService.compilation.service;
+
+import ru.practicum.ewmService.compiledEvents.model.CompiledEvent;
+import ru.practicum.ewmService.event.dto.EventShortDto;
+import ru.practicum.ewmService.event.model.Event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * События страницы подборок, сгруппированные за один проход по записям {@code compiled_events}:
+ * идентификатор подборки → события в порядке записей.
+ * Идентификаторы подборок хранятся в массиве {@code long} с открытой адресацией, события подборки —
+ * в связном списке на массивах индексов, поэтому сборка линейна по числу подборок и записей.
+ * Каждое событие преобразуется в {@link EventShortDto} один раз на страницу, даже если входит
+ * в несколько подборок; просмотры берутся из синхронизируемой колонки {@code events.views}.
+ */
+final class CompilationEvents {
+
+    private static final int NONE = -1;
+
+    private final long[] keys;
+    private final int[] heads;
+    private final int[] tails;
+    private final int[] next;
+    private final Event[] events;
+    private final Map<Long, EventShortDto> dtos = new HashMap<>();
+    private final Function<Event, EventShortDto> mapper;
+
+    private CompilationEvents(int expectedKeys, int size, Function<Event, EventShortDto> mapper) {
+
+        int capacity = Integer.highestOneBit(Math.max(2, expectedKeys) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.heads = new int[capacity];
+        this.tails = new int[capacity];
+        this.next = new int[size];
+        this.events = new Event[size];
+        Arrays.fill(heads, NONE);
+        this.mapper = mapper;
+    }
+
+    /**
+     * Группирует записи по идентификатору подборки.
+     *
+     * @param compilationCount количество подборок на странице, определяет размер таблицы
+     * @param mapper           преобразование события в {@link EventShortDto}, вызывается один раз на событие
+     */
+    static CompilationEvents group(int compilationCount, Collection<CompiledEvent> compiledEvents,
+                                   Function<Event, EventShortDto> mapper) {
+
+        CompilationEvents result = new CompilationEvents(
+                Math.max(compilationCount, compiledEvents.size()), compiledEvents.size(), mapper);
+        int index = 0;
+        for (CompiledEvent compiledEvent : compiledEvents) {
+            result.put(compiledEvent.getCompilation().getId(), index++, compiledEvent.getEvent());
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает события подборки без повторов; пустой список, если событий нет.
+     */
+    List<EventShortDto> get(long compilationId) {
+
+        int slot = slot(compilationId);
+        if (heads[slot] == NONE) {
+            return Collections.emptyList();
+        }
+        List<EventShortDto> result = new ArrayList<>();
+        Set<EventShortDto> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = heads[slot]; i != NONE; i = next[i]) {
+            Event event = events[i];
+            EventShortDto dto = dtos.computeIfAbsent(event.getId(), id -> mapper.apply(event));
+            if (seen.add(dto)) {
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    private void put(long compilationId, int index, Event event) {
+
+        events[index] = event;
+        next[index] = NONE;
+        int slot = slot(compilationId);
+        if (heads[slot] == NONE) {
+            keys[slot] = compilationId;
+            heads[slot] = index;
+        } else {
+            next[tails[slot]] = index;
+        }
+        tails[slot] = index;
+    }
+
+    /**
+     * Слот ключа: занятый этим ключом или первый свободный по линейному пробированию.
+     */
+    private int slot(long key) {
+
+        int mask = keys.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (heads[slot] != NONE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
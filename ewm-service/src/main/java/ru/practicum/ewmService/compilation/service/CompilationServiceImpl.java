@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.practicum.ewmService.category.service.CategoryCache;
 import ru.practicum.ewmService.compilation.dto.CompilationDto;
 import ru.practicum.ewmService.compilation.dto.NewCompilationDto;
 import ru.practicum.ewmService.compilation.dto.UpdateCompilationRequest;
@@ -14,18 +15,17 @@ import ru.practicum.ewmService.compilation.model.Compilation;
 import ru.practicum.ewmService.compilation.repository.CompilationRepository;
 import ru.practicum.ewmService.compiledEvents.model.CompiledEvent;
 import ru.practicum.ewmService.compiledEvents.repository.CompiledEventsRepository;
-import ru.practicum.ewmService.event.dto.EventShortDto;
 import ru.practicum.ewmService.event.mapper.EventMapper;
 import ru.practicum.ewmService.event.model.Event;
 import ru.practicum.ewmService.event.repository.EventRepository;
 import ru.practicum.ewmService.exceptions.IntegrityException;
 import ru.practicum.ewmService.exceptions.NotFoundException;
+import ru.practicum.ewmService.user.service.UserShortDtoCache;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.stream.StreamSupport;
 
 /**
@@ -41,21 +41,20 @@ public class CompilationServiceImpl implements CompilationService {
     private final CompilationRepository compilationRepository;
     private final CompiledEventsRepository compiledEventsRepository;
     private final EventRepository eventRepository;
+    private final CompilationCache compilationCache;
+    private final CategoryCache categoryCache;
+    private final UserShortDtoCache userCache;
 
     private List<CompilationDto> makeCompilationDto(Collection<Compilation> compList) {
 
-        List<CompiledEvent> compiledEvents = compiledEventsRepository.fetchAllByCompilationIn(compList);
+        CompilationEvents events = CompilationEvents.group(compList.size(),
+                compiledEventsRepository.fetchAllByCompilationIn(compList),
+                event -> EventMapper.toShortDto(event, categoryCache, userCache));
 
-        List<CompilationDto> result = new ArrayList<>();
+        List<CompilationDto> result = new ArrayList<>(compList.size());
         for (Compilation compilation : compList) {
             CompilationDto compilationDto = CompilationMapper.toDto(compilation);
-            List<EventShortDto> events = compiledEvents.stream()
-                    .filter(ce -> Objects.equals(ce.getCompilation(), compilation))
-                    .map(CompiledEvent::getEvent)
-                    .distinct()
-                    .map(EventMapper::toShortDto)
-                    .toList();
-            compilationDto.setEvents(events);
+            compilationDto.setEvents(events.get(compilation.getId()));
             result.add(compilationDto);
         }
 
@@ -85,13 +84,13 @@ public class CompilationServiceImpl implements CompilationService {
     @Override
     public List<CompilationDto> getCompilations(Boolean pinned, int from, int size) {
 
-        Pageable pageable = PageRequest.of(from, size);
-        Iterable<Compilation> compilations = (pinned != null) ?
-                compilationRepository.findAllByPinned(pinned, pageable) :
-                compilationRepository.findAll(pageable);
-        List<Compilation> compilationList = StreamSupport.stream(compilations.spliterator(), false).toList();
-
-        List<CompilationDto> result = makeCompilationDto(compilationList);
+        List<CompilationDto> result = compilationCache.getPage(pinned, from, size, () -> {
+            Pageable pageable = PageRequest.of(from, size);
+            Iterable<Compilation> compilations = (pinned != null) ?
+                    compilationRepository.findAllByPinned(pinned, pageable) :
+                    compilationRepository.findAll(pageable);
+            return makeCompilationDto(StreamSupport.stream(compilations.spliterator(), false).toList());
+        });
         log.info("Get compilations service method returns list size: {}", result.size());
         return result;
     }
@@ -99,9 +98,8 @@ public class CompilationServiceImpl implements CompilationService {
     @Override
     public CompilationDto getCompilation(long compId) {
 
-        Compilation compilation = checkCompilation(compId);
-
-        CompilationDto compilationDto = makeCompilationDto(List.of(compilation)).getFirst();
+        CompilationDto compilationDto = compilationCache.getCompilation(compId,
+                id -> makeCompilationDto(List.of(checkCompilation(id))).getFirst());
         log.info("Get compilation service method returns {}", compilationDto);
         return compilationDto;
     }
@@ -116,9 +114,10 @@ public class CompilationServiceImpl implements CompilationService {
         Compilation compilation = CompilationMapper.toCompilation(dto);
         compilation = compilationRepository.save(compilation);
         List<Event> events = registerEvents(compilation, dto.getEvents());
+        compilationCache.compilationAdded();
 
         CompilationDto compilationDto = CompilationMapper.toDto(compilation);
-        compilationDto.setEvents(events.stream().map(EventMapper::toShortDto).toList());
+        compilationDto.setEvents(events.stream().map(e -> EventMapper.toShortDto(e, categoryCache, userCache)).toList());
         log.info("Add compilation service method returns {}", compilationDto);
         return compilationDto;
     }
@@ -140,9 +139,10 @@ public class CompilationServiceImpl implements CompilationService {
         } else {
             events = compiledEventsRepository.getEventsOfCompilation(compilation);
         }
+        compilationCache.compilationChanged(compId);
 
         CompilationDto compilationDto = CompilationMapper.toDto(compilation);
-        compilationDto.setEvents(events.stream().map(EventMapper::toShortDto).toList());
+        compilationDto.setEvents(events.stream().map(e -> EventMapper.toShortDto(e, categoryCache, userCache)).toList());
         log.info("Update compilation service method returns {}", compilationDto);
         return compilationDto;
     }
@@ -154,5 +154,6 @@ public class CompilationServiceImpl implements CompilationService {
 
         compiledEventsRepository.deleteAllByCompilation(compilation);
         compilationRepository.deleteById(compId);
+        compilationCache.compilationChanged(compId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package ru.practicum.ewmService.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.ewmService.handler.ErrorResponse;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Разрешает писать с типом {@code application/x-ndjson} только ответы обработчика ошибок.
+ * Потоковые выгрузки пишут тело сами, а конвертер нужен для ошибок: если выгрузка запрошена
+ * с {@code Accept: application/x-ndjson} и завершилась исключением, {@link ErrorResponse}
+ * записывается одной строкой JSON, а не заменяется ошибкой согласования типа.
+ * Остальные ответы в этом типе не пишутся, общий JSON-конвертер не меняется.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class NdjsonConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ErrorResponseNdjsonConverter(objectMapper));
+    }
+
+    private static class ErrorResponseNdjsonConverter extends MappingJackson2HttpMessageConverter {
+
+        ErrorResponseNdjsonConverter(ObjectMapper objectMapper) {
+
+            super(objectMapper);
+            setSupportedMediaTypes(List.of(MediaType.APPLICATION_NDJSON));
+        }
+
+        @Override
+        public boolean canRead(Class<?> clazz, MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+            return ErrorResponse.class.isAssignableFrom(clazz) && super.canWrite(clazz, mediaType);
+        }
+    }
+}
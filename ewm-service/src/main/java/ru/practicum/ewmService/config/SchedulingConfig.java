@@ -0,0 +1,12 @@
+package ru.practicum.ewmService.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включает выполнение периодических задач ({@code @Scheduled}).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,13 +1,27 @@
 package ru.practicum.ewmService.config;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import ru.practicum.statsClient.HitQueueSettings;
+import ru.practicum.statsClient.HitQueueStats;
+import ru.practicum.statsClient.OverflowPolicy;
 import ru.practicum.statsClient.StatsClient;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
 /**
  * Создает и настраивает бин {@link StatsClient} для взаимодействия со службой статистики.
  * Клиент инициализируется URL-адресом по умолчанию, указывающим на локальную службу статистики.
+ * При {@code stats.client.async.enabled=true} хиты отправляются асинхронно пакетами,
+ * а состояние очереди публикуется в метриках {@code stats.client.*}.
+ * Количество одновременных соединений с сервером статистики ограничено {@code stats.client.max-connections}.
  *
  * @return настроенный экземпляр {@link StatsClient}
  */
@@ -17,8 +31,60 @@ public class StatsClientConfig {
     @Value("${stats.server.url}")
     private String statsServerUrl;
 
+    @Value("${stats.client.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${stats.client.async.enabled:false}")
+    private boolean asyncEnabled;
+
+    @Value("${stats.client.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${stats.client.async.batch-size:500}")
+    private int batchSize;
+
+    @Value("${stats.client.async.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${stats.client.async.overflow-policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${stats.client.async.spill-dir:${java.io.tmpdir}/ewm-stats-spill}")
+    private String spillDir;
+
     @Bean
     public StatsClient statsClient() {
-        return new StatsClient(statsServerUrl);
+
+        if (!asyncEnabled) {
+            return new StatsClient(statsServerUrl, null, maxConnections);
+        }
+        HitQueueSettings settings = new HitQueueSettings(queueCapacity, batchSize,
+                Duration.ofMillis(flushIntervalMs), overflowPolicy, Path.of(spillDir));
+        return new StatsClient(statsServerUrl, settings, maxConnections);
+    }
+
+    @Bean
+    public MeterBinder statsClientMetrics(StatsClient statsClient) {
+        return registry -> {
+            gauge(registry, "stats.client.queue.depth", statsClient, HitQueueStats::queueDepth);
+            gauge(registry, "stats.client.batch.size", statsClient, HitQueueStats::lastBatchSize);
+            counter(registry, "stats.client.batches", statsClient, HitQueueStats::batches);
+            counter(registry, "stats.client.hits.sent", statsClient, HitQueueStats::sent);
+            counter(registry, "stats.client.hits.dropped", statsClient, HitQueueStats::dropped);
+            counter(registry, "stats.client.hits.spilled", statsClient, HitQueueStats::spilled);
+            counter(registry, "stats.client.hits.failed", statsClient, HitQueueStats::failed);
+        };
+    }
+
+    private static void gauge(MeterRegistry registry, String name,
+                              StatsClient client, ToDoubleFunction<HitQueueStats> value) {
+        Gauge.builder(name, client, c -> value.applyAsDouble(c.getHitQueueStats()))
+                .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, String name,
+                                StatsClient client, ToDoubleFunction<HitQueueStats> value) {
+        FunctionCounter.builder(name, client, c -> value.applyAsDouble(c.getHitQueueStats()))
+                .register(registry);
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package ru.practicum.ewmService.event.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,26 +21,31 @@ import ru.practicum.ewmService.dateTimeFormatter.Formatter;
 import ru.practicum.ewmService.event.dto.EventFullDto;
 import ru.practicum.ewmService.event.dto.EventListRequestAdmin;
 import ru.practicum.ewmService.event.dto.EventListRequestPublic;
+import ru.practicum.ewmService.event.dto.EventPage;
 import ru.practicum.ewmService.event.dto.EventShortDto;
 import ru.practicum.ewmService.event.dto.NewEventDto;
 import ru.practicum.ewmService.event.dto.UpdateEventRequest;
 import ru.practicum.ewmService.event.enums.EventState;
 import ru.practicum.ewmService.event.enums.SortingMode;
 import ru.practicum.ewmService.event.interfaces.EventService;
-import ru.practicum.statsClient.StatsClient;
-import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.ewmService.stats.interfaces.ViewsService;
 
 import java.time.LocalDateTime;
-import java.time.Month;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
  * Контроллер для управления событиями.
  * Предоставляет конечные точки для создания, обновления и получения событий,
  * как для администраторов, так и для обычных пользователей.
+ * Списки событий отдаются страницами: если страница заполнена, в заголовке {@value #NEXT_CURSOR_HEADER}
+ * возвращается курсор, который можно передать в параметре {@code cursor} вместо {@code from}.
+ * Публичные запросы отправляют хит в фоне; просмотры события запрашиваются параллельно с чтением
+ * события из базы и ожидаются ограниченное время, после которого используется значение из кэша
+ * или синхронизированное значение события.
  */
 @Validated
 @Slf4j
@@ -48,8 +54,11 @@ import java.util.stream.Collectors;
 @RequestMapping
 public class EventController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String EVENT_URI = "/events/";
+
     private final EventService eventService;
-    private final StatsClient statsClient;
+    private final ViewsService viewsService;
 
     @GetMapping("/admin/events")
     @ResponseStatus(HttpStatus.OK)
@@ -59,11 +68,15 @@ public class EventController {
                                         @RequestParam(required = false) @DateTimeFormat(pattern = Formatter.PATTERN) LocalDateTime rangeStart,
                                         @RequestParam(required = false) @DateTimeFormat(pattern = Formatter.PATTERN) LocalDateTime rangeEnd,
                                         @RequestParam(required = false, defaultValue = "0") int from,
-                                        @RequestParam(required = false, defaultValue = "10") int size) {
+                                        @RequestParam(required = false, defaultValue = "10") int size,
+                                        @RequestParam(required = false) String cursor,
+                                        HttpServletResponse response) {
 
-        var request = new EventListRequestAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+        var request = new EventListRequestAdmin(users, states, categories, rangeStart, rangeEnd, from, size, cursor);
         log.info("Get events admin GET request: {}", request);
-        return eventService.getEventsAdmin(request);
+        EventPage<EventFullDto> page = eventService.getEventsAdmin(request);
+        setNextCursor(response, page);
+        return page.events();
     }
 
     @PatchMapping("/admin/events/{eventId}")
@@ -74,48 +87,34 @@ public class EventController {
         return eventService.updateEventAdmin(eventId, updateRequest);
     }
 
+    private void setNextCursor(HttpServletResponse response, EventPage<?> page) {
+
+        if (page.nextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+    }
+
     private void postStatistics(HttpServletRequest request) {
 
         String ip = request.getRemoteAddr();
         String uri = request.getRequestURI();
         log.info("Update statistics for ip={} and uri={}", ip, uri);
-        statsClient.addHit("ewm-main-server", uri, ip, LocalDateTime.now());
-    }
-
-    private void getStatistics(EventFullDto dto) {
-
-        String uri = "/events/" + dto.getId();
-        log.info("Get statistics for uri={}", uri);
-        List<StatsItemDto> listDto = statsClient.getStats(
-                LocalDateTime.of(2000, Month.JANUARY, 1, 0, 0),
-                LocalDateTime.of(2035, Month.DECEMBER, 31, 23, 59),
-                List.of(uri),
-                true);
-        if (listDto != null && !listDto.isEmpty()) {
-            dto.setViews(listDto.getFirst().getHits());
-        }
+        viewsService.addHitAsync(uri, ip);
     }
 
     private void getStatistics(Collection<EventShortDto> dtos) {
 
         Map<String, EventShortDto> dtoMap = dtos.stream().collect(Collectors.toMap(
-                e -> "/events/" + e.getId(),
+                e -> EVENT_URI + e.getId(),
                 e -> e));
         log.info("Get statistics for {} uris", dtoMap.size());
         log.debug("Get statistics for uris: {}", dtoMap.keySet());
-        List<StatsItemDto> listDto = statsClient.getStats(
-                LocalDateTime.of(2000, Month.JANUARY, 1, 0, 0),
-                LocalDateTime.of(2035, Month.DECEMBER, 31, 23, 59),
-                List.copyOf(dtoMap.keySet()),
-                true);
-        if (listDto != null && !listDto.isEmpty()) {
-            listDto.forEach(statsItem -> {
-                var dto = dtoMap.get(statsItem.getUri());
-                if (dto != null) {
-                    dto.setViews(statsItem.getHits());
-                }
-            });
-        }
+        viewsService.awaitViews(viewsService.getViewsAsync(dtoMap.keySet()), dtoMap.keySet()).forEach((uri, views) -> {
+            var dto = dtoMap.get(uri);
+            if (dto != null) {
+                dto.setViews(views);
+            }
+        });
     }
 
     @GetMapping("/events")
@@ -129,28 +128,39 @@ public class EventController {
                                          @RequestParam(required = false) SortingMode sort,
                                          @RequestParam(required = false, defaultValue = "0") int from,
                                          @RequestParam(required = false, defaultValue = "10") int size,
-                                         HttpServletRequest request) {
+                                         @RequestParam(required = false) String cursor,
+                                         HttpServletRequest request,
+                                         HttpServletResponse response) {
 
         postStatistics(request);
 
-        var dto = new EventListRequestPublic(text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size);
+        var dto = new EventListRequestPublic(text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size,
+                cursor);
         log.info("Get events public GET request: {}", dto);
-        List<EventShortDto> dtos = eventService.getEventsPublic(dto);
+        EventPage<EventShortDto> page = eventService.getEventsPublic(dto);
+        setNextCursor(response, page);
 
-        getStatistics(dtos);
-        return dtos;
+        getStatistics(page.events());
+        return page.events();
     }
 
     @GetMapping("/events/{id}")
     @ResponseStatus(HttpStatus.OK)
     public EventFullDto getEvent(@PathVariable long id, HttpServletRequest request) {
 
-        postStatistics(request);
+        String ip = request.getRemoteAddr();
+        List<String> uris = List.of(EVENT_URI + id);
+        log.info("Update and get statistics for ip={} and uri={}", ip, request.getRequestURI());
+        CompletableFuture<Map<String, Long>> views = viewsService.addHitAndGetViewsAsync(request.getRequestURI(),
+                ip, uris);
 
         log.info("Get event with id={} public GET request", id);
         EventFullDto dto = eventService.getEventPublic(id);
 
-        getStatistics(dto);
+        Long eventViews = viewsService.awaitViews(views, uris).get(uris.getFirst());
+        if (eventViews != null) {
+            dto.setViews(eventViews);
+        }
         return dto;
     }
 
@@ -0,0 +1,52 @@
+package ru.practicum.ewmService.event.dto;
+
+import ru.practicum.ewmService.event.enums.SortingMode;
+import ru.practicum.ewmService.exceptions.IsBadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Курсор для постраничного получения событий по ключу (keyset pagination).
+ * Хранит режим сортировки, значение ключа сортировки и id последнего события страницы.
+ * Передается клиенту непрозрачной строкой в base64url.
+ *
+ * @param sortingMode режим сортировки, для которого выдан курсор; {@code null} для сортировки по id
+ * @param sortKey     значение ключа сортировки последнего события; {@code null} для сортировки по id
+ * @param id          id последнего события страницы
+ */
+public record EventCursor(SortingMode sortingMode, String sortKey, long id) {
+
+    private static final String BY_ID = "ID";
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+
+        String mode = (sortingMode != null) ? sortingMode.name() : BY_ID;
+        String raw = mode + SEPARATOR + Objects.toString(sortKey, "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор и проверяет, что он выдан для того же режима сортировки, что и текущий запрос.
+     */
+    public static EventCursor decode(String token, SortingMode expectedMode) {
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IsBadRequestException("Invalid cursor");
+            }
+            SortingMode mode = BY_ID.equals(parts[0]) ? null : SortingMode.valueOf(parts[0]);
+            if (mode != expectedMode) {
+                throw new IsBadRequestException("Cursor was issued for another sorting mode");
+            }
+            String sortKey = parts[1].isEmpty() ? null : parts[1];
+            return new EventCursor(mode, sortKey, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IsBadRequestException("Invalid cursor");
+        }
+    }
+}
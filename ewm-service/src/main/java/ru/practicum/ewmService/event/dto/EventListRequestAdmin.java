@@ -19,6 +19,7 @@ import java.util.List;
  * @param rangeEnd   конечная дата и время диапазона для фильтрации событий по дате
  * @param from       смещение для пагинации (начальный индекс)
  * @param size       количество событий для получения (размер страницы)
+ * @param cursor     курсор из заголовка {@code X-Next-Cursor} предыдущей страницы; если задан, {@code from} не используется
  */
 public record EventListRequestAdmin(
         List<Long> users,
@@ -32,5 +33,6 @@ public record EventListRequestAdmin(
         LocalDateTime rangeEnd,
 
         int from,
-        int size) {
+        int size,
+        String cursor) {
 }
\ No newline at end of file
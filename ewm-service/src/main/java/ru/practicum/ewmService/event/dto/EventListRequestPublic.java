@@ -20,6 +20,7 @@ import java.util.List;
  * @param sortingMode   режим сортировки для применения к списку событий
  * @param from          начальный индекс для пагинации
  * @param size          количество событий для возврата при пагинации
+ * @param cursor        курсор из заголовка {@code X-Next-Cursor} предыдущей страницы; если задан, {@code from} не используется
  */
 public record EventListRequestPublic(
 
@@ -35,6 +36,7 @@ public record EventListRequestPublic(
         Boolean onlyAvailable,
         SortingMode sortingMode,
         int from,
-        int size) {
+        int size,
+        String cursor) {
 
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ru.practicum.ewmService.event.dto;
+
+import java.util.List;
+
+/**
+ * Страница списка событий.
+ *
+ * @param events     события страницы
+ * @param nextCursor курсор следующей страницы или {@code null}, если страница последняя
+ *                   или для выбранной сортировки курсор не поддерживается
+ */
+public record EventPage<T>(List<T> events, String nextCursor) {
+}
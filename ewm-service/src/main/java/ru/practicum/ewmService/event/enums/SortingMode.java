@@ -1,5 +1,5 @@
 package ru.practicum.ewmService.event.enums;
 
 public enum SortingMode {
-    EVENT_DATE, VIEWS, RATINGS
-}
\ No newline at end of file
+    EVENT_DATE, VIEWS, RATINGS, RELEVANCE
+}
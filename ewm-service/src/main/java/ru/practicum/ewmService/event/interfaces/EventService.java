@@ -3,6 +3,7 @@ package ru.practicum.ewmService.event.interfaces;
 import ru.practicum.ewmService.event.dto.EventFullDto;
 import ru.practicum.ewmService.event.dto.EventListRequestAdmin;
 import ru.practicum.ewmService.event.dto.EventListRequestPublic;
+import ru.practicum.ewmService.event.dto.EventPage;
 import ru.practicum.ewmService.event.dto.EventShortDto;
 import ru.practicum.ewmService.event.dto.NewEventDto;
 import ru.practicum.ewmService.event.dto.UpdateEventRequest;
@@ -19,11 +20,11 @@ public interface EventService {
 
     EventFullDto getEventPrivate(long userId, long eventId);
 
-    List<EventFullDto> getEventsAdmin(EventListRequestAdmin request);
+    EventPage<EventFullDto> getEventsAdmin(EventListRequestAdmin request);
 
     EventFullDto updateEventAdmin(long eventId, UpdateEventRequest updateRequest);
 
-    List<EventShortDto> getEventsPublic(EventListRequestPublic request);
+    EventPage<EventShortDto> getEventsPublic(EventListRequestPublic request);
 
     EventFullDto getEventPublic(long id);
 }
\ No newline at end of file
@@ -1,13 +1,17 @@
 package ru.practicum.ewmService.event.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.ewmService.category.dto.CategoryDto;
 import ru.practicum.ewmService.category.mapper.CategoryMapper;
+import ru.practicum.ewmService.category.service.CategoryCache;
 import ru.practicum.ewmService.dateTimeFormatter.Formatter;
 import ru.practicum.ewmService.event.dto.EventFullDto;
 import ru.practicum.ewmService.event.dto.EventShortDto;
 import ru.practicum.ewmService.event.dto.NewEventDto;
 import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.user.dto.UserShortDto;
 import ru.practicum.ewmService.user.mapper.UserMapper;
+import ru.practicum.ewmService.user.service.UserShortDtoCache;
 
 @UtilityClass
 public class EventMapper {
@@ -28,28 +32,55 @@ public class EventMapper {
     }
 
     public EventShortDto toShortDto(Event event) {
+        return toShortDto(event, CategoryMapper.toCategoryDto(event.getCategory()),
+                UserMapper.toUserShortDto(event.getInitiator()));
+    }
+
+    /**
+     * Отображает событие, беря категорию и инициатора из кэшей, чтобы не загружать ленивые связи.
+     */
+    public EventShortDto toShortDto(Event event, CategoryCache categories, UserShortDtoCache users) {
+        return toShortDto(event, CategoryMapper.toCategoryDto(event.getCategory(), categories),
+                UserMapper.toUserShortDto(event.getInitiator(), users));
+    }
+
+    public EventShortDto toShortDto(Event event, CategoryDto category, UserShortDto initiator) {
         EventShortDto dto = new EventShortDto();
         dto.setId(event.getId());
         dto.setAnnotation(event.getAnnotation());
-        dto.setCategory(CategoryMapper.toCategoryDto(event.getCategory()));
+        dto.setCategory(category);
         dto.setEventDate(event.getEventDate().format(Formatter.FORMATTER));
         dto.setConfirmedRequests(event.getConfirmedRequests());
         dto.setPaid(event.isPaid());
-        dto.setInitiator(UserMapper.toUserShortDto(event.getInitiator()));
+        dto.setInitiator(initiator);
         dto.setTitle(event.getTitle());
         dto.setRating(event.getRating());
+        dto.setViews(event.getViews());
         return dto;
     }
 
     public EventFullDto toFullDto(Event event) {
+        return toFullDto(event, CategoryMapper.toCategoryDto(event.getCategory()),
+                UserMapper.toUserShortDto(event.getInitiator()));
+    }
+
+    /**
+     * Отображает событие, беря категорию и инициатора из кэшей, чтобы не загружать ленивые связи.
+     */
+    public EventFullDto toFullDto(Event event, CategoryCache categories, UserShortDtoCache users) {
+        return toFullDto(event, CategoryMapper.toCategoryDto(event.getCategory(), categories),
+                UserMapper.toUserShortDto(event.getInitiator(), users));
+    }
+
+    public EventFullDto toFullDto(Event event, CategoryDto category, UserShortDto initiator) {
         EventFullDto dto = new EventFullDto();
         dto.setId(event.getId());
         dto.setAnnotation(event.getAnnotation());
-        dto.setCategory(CategoryMapper.toCategoryDto(event.getCategory()));
+        dto.setCategory(category);
         dto.setCreatedOn(event.getCreatedOn().format(Formatter.FORMATTER));
         dto.setDescription(event.getDescription());
         dto.setEventDate(event.getEventDate().format(Formatter.FORMATTER));
-        dto.setInitiator(UserMapper.toUserShortDto(event.getInitiator()));
+        dto.setInitiator(initiator);
         dto.setLocation(event.getLocation());
         dto.setPaid(event.isPaid());
         dto.setParticipantLimit(event.getParticipantLimit());
@@ -61,6 +92,7 @@ public class EventMapper {
         dto.setState(event.getState().name());
         dto.setTitle(event.getTitle());
         dto.setRating(event.getRating());
+        dto.setViews(event.getViews());
         return dto;
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -50,11 +51,13 @@ public class Event {
     @ToString.Exclude
     private String annotation;
 
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "initiator_id")
     private User initiator;
 
@@ -102,8 +105,32 @@ public class Event {
 
     private String title;
 
+    /**
+     * Средняя оценка одобренных комментариев, равная {@link #ratingSum} / {@link #ratingCount}.
+     * Все три столбца меняются только атомарным запросом {@link ru.practicum.ewmService.event.repository.EventRepository#addRating}
+     * и сверяются {@link ru.practicum.ewmService.event.service.EventRatingReconciler}, поэтому сохранение события
+     * через JPA их не затирает.
+     */
+    @Column(insertable = false, updatable = false)
     private double rating;
 
+    @ToString.Exclude
+    @Column(name = "rating_sum", insertable = false, updatable = false)
+    private long ratingSum;
+
+    @ToString.Exclude
+    @Column(name = "rating_count", insertable = false, updatable = false)
+    private int ratingCount;
+
+    /**
+     * Количество уникальных просмотров, синхронизируемое с сервером статистики
+     * {@link ru.practicum.ewmService.event.service.EventViewsSynchronizer}. Пишется только им,
+     * поэтому сохранение события через JPA не затирает значение.
+     */
+    @ToString.Exclude
+    @Column(insertable = false, updatable = false)
+    private long views;
+
 
     @Override
     public boolean equals(Object o) {
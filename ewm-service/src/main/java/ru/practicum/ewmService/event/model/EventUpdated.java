@@ -0,0 +1,10 @@
+package ru.practicum.ewmService.event.model;
+
+/**
+ * Событие приложения: данные события {@code eventId} изменены инициатором или администратором.
+ * Публикуется после сохранения, чтобы зависимые кэши (например, подборок) сбросили свои записи.
+ *
+ * @param eventId идентификатор измененного события
+ */
+public record EventUpdated(long eventId) {
+}
@@ -0,0 +1,57 @@
+package ru.practicum.ewmService.event.repository;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Общие части фоновых заданий, которые обходят всю таблицу событий: выборка id пакетами по ключу
+ * и подсчет строк, измененных пакетным обновлением.
+ */
+@UtilityClass
+public class EventIdBatches {
+
+    /**
+     * Источник id событий: не больше {@code limit} id, больших {@code afterId}, по возрастанию.
+     */
+    @FunctionalInterface
+    public interface IdSource {
+
+        List<Long> findIds(long afterId, int limit);
+    }
+
+    /**
+     * Передает {@code handler} id событий пакетами по {@code batchSize} по возрастанию и возвращает сумму его
+     * результатов. Следующий пакет выбирается после последнего id предыдущего, а не через offset, поэтому
+     * каждый пакет стоит столько же, сколько первый. Обход заканчивается на первом неполном пакете.
+     */
+    public int forEachBatch(IdSource source, int batchSize, ToIntFunction<List<Long>> handler) {
+
+        int total = 0;
+        List<Long> ids = source.findIds(0, batchSize);
+        while (!ids.isEmpty()) {
+            total += handler.applyAsInt(ids);
+            if (ids.size() < batchSize) {
+                break;
+            }
+            ids = source.findIds(ids.getLast(), batchSize);
+        }
+        return total;
+    }
+
+    /**
+     * Суммирует результат {@code JdbcTemplate.batchUpdate}. Отрицательные значения (драйвер не сообщил
+     * количество строк) не учитываются.
+     */
+    public int countUpdated(int[][] updated) {
+
+        int total = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.ewmService.event.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewmService.comment.enums.CommentStatus;
+
+import java.util.List;
+
+/**
+ * Сверка столбцов {@code rating_sum}, {@code rating_count} и {@code rating} таблицы событий
+ * с оценками одобренных комментариев через JDBC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventRatingRepository {
+
+    private static final String SELECT_IDS = "select id from events where id > ? order by id limit ?";
+    private static final String SELECT_DRIFTED = """
+            select e.id, e.rating_sum, e.rating_count, coalesce(sum(c.rate), 0), count(c.rate)
+            from events e
+            left join comments c on c.event_id = e.id and c.status = ?
+            where e.id between ? and ?
+            group by e.id, e.rating_sum, e.rating_count
+            having e.rating_sum <> coalesce(sum(c.rate), 0) or e.rating_count <> count(c.rate)
+            """;
+    private static final String UPDATE_RATING = """
+            update events set rating_sum = ?, rating_count = ?, rating = ?
+            where id = ? and rating_sum = ? and rating_count = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Рейтинг события, записанный в таблице событий, и рейтинг, посчитанный по комментариям.
+     */
+    public record Drift(long eventId, long storedSum, int storedCount, long sum, int count) {
+
+        public double rating() {
+            return (count == 0) ? 0 : (double) sum / count;
+        }
+    }
+
+    /**
+     * Возвращает не больше {@code limit} id событий, больших {@code afterId}, по возрастанию.
+     */
+    public List<Long> findIds(long afterId, int limit) {
+        return jdbcTemplate.queryForList(SELECT_IDS, Long.class, afterId, limit);
+    }
+
+    /**
+     * Возвращает события с id от {@code fromId} до {@code toId}, у которых записанные сумма и количество оценок
+     * не совпадают с оценками одобренных комментариев.
+     */
+    public List<Drift> findDrifted(long fromId, long toId) {
+        return jdbcTemplate.query(SELECT_DRIFTED, (rs, rowNum) -> new Drift(rs.getLong(1), rs.getLong(2),
+                rs.getInt(3), rs.getLong(4), rs.getInt(5)), CommentStatus.APPROVED.name(), fromId, toId);
+    }
+
+    /**
+     * Записывает пересчитанный рейтинг и возвращает количество исправленных событий.
+     * Строка меняется, только если с момента сверки ее не обновил инкрементальный запрос;
+     * иначе она будет проверена при следующей сверке.
+     */
+    public int repair(List<Drift> drifts) {
+
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_RATING, drifts, drifts.size(), (ps, drift) -> {
+            ps.setLong(1, drift.sum());
+            ps.setInt(2, drift.count());
+            ps.setDouble(3, drift.rating());
+            ps.setLong(4, drift.eventId());
+            ps.setLong(5, drift.storedSum());
+            ps.setInt(6, drift.storedCount());
+        });
+        return EventIdBatches.countUpdated(updated);
+    }
+}
@@ -1,8 +1,15 @@
 package ru.practicum.ewmService.event.repository;
 
+import com.querydsl.core.types.Predicate;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.FluentQuery;
 import org.springframework.stereotype.Repository;
 import ru.practicum.ewmService.event.enums.EventState;
 import ru.practicum.ewmService.event.model.Event;
@@ -10,16 +17,87 @@ import ru.practicum.ewmService.event.model.Event;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPredicateExecutor<Event> {
+
+    /**
+     * Списки событий по условию. Категория и инициатор, которые нужны для DTO события,
+     * загружаются тем же запросом, что и страница, — как для выборки со смещением, так и по курсору.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    <S extends Event, R> R findBy(Predicate predicate, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction);
+
     boolean existsByCategoryId(long catId);
 
     boolean existsByInitiatorId(long userId);
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
     List<Event> findByInitiatorId(Long initiatorId, PageRequest pageRequest);
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
     Optional<Event> findByIdAndState(long id, EventState state);
 
     List<Event> findAllByIdIn(Collection<Long> ids);
-}
\ No newline at end of file
+
+    /**
+     * Атомарно занимает место участника, если лимит события еще не исчерпан.
+     * Проверка и увеличение выполняются одним {@code update}, поэтому одновременные заявки
+     * не превышают лимит и не теряют увеличения.
+     *
+     * @return 1, если место занято, 0 — если лимит исчерпан
+     */
+    @Modifying
+    @Query("""
+            update events e
+            set e.confirmedRequests = e.confirmedRequests + 1
+            where e.id = :eventId and (e.participantLimit = 0 or e.confirmedRequests < e.participantLimit)
+            """)
+    int tryIncreaseConfirmedRequests(long eventId);
+
+    /**
+     * Атомарно освобождает место участника.
+     */
+    @Modifying
+    @Query("""
+            update events e
+            set e.confirmedRequests = e.confirmedRequests - 1
+            where e.id = :eventId and e.confirmedRequests > 0
+            """)
+    int decreaseConfirmedRequests(long eventId);
+
+    /**
+     * Атомарно занимает {@code count} мест участников.
+     * Вызывается после {@link #findByIdForUpdate}, когда количество свободных мест уже посчитано под блокировкой.
+     */
+    @Modifying
+    @Query("update events e set e.confirmedRequests = e.confirmedRequests + :count where e.id = :eventId")
+    int increaseConfirmedRequests(long eventId, int count);
+
+    /**
+     * Читает событие с блокировкой строки до конца транзакции.
+     * Используется при массовой модерации заявок, чтобы одновременные модерации и заявки
+     * не превысили лимит участников.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from events e where e.id = :eventId")
+    Optional<Event> findByIdForUpdate(long eventId);
+
+    /**
+     * Атомарно добавляет к рейтингу события оценку ({@code rateDelta > 0}, {@code countDelta = 1})
+     * или убирает ее ({@code rateDelta < 0}, {@code countDelta = -1}) и пересчитывает среднее.
+     * Стоимость не зависит от количества комментариев события.
+     */
+    @Modifying
+    @Query("""
+            update events e
+            set e.ratingSum = e.ratingSum + :rateDelta,
+                e.ratingCount = e.ratingCount + :countDelta,
+                e.rating = case when e.ratingCount + :countDelta = 0 then 0.0
+                    else cast(e.ratingSum + :rateDelta as double) / (e.ratingCount + :countDelta) end
+            where e.id = :eventId
+            """)
+    int addRating(long eventId, long rateDelta, int countDelta);
+}
@@ -0,0 +1,46 @@
+package ru.practicum.ewmService.event.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewmService.event.enums.EventState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Чтение и пакетное обновление столбца {@code views} таблицы событий через JDBC.
+ * Обновляются только строки, у которых количество просмотров изменилось.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventViewsRepository {
+
+    private static final String SELECT_PUBLISHED_IDS =
+            "select id from events where state = ? and id > ? order by id limit ?";
+    private static final String UPDATE_VIEWS = "update events set views = ? where id = ? and views <> ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Возвращает не больше {@code limit} id опубликованных событий, больших {@code afterId}, по возрастанию.
+     */
+    public List<Long> findPublishedIds(long afterId, int limit) {
+        return jdbcTemplate.queryForList(SELECT_PUBLISHED_IDS, Long.class, EventState.PUBLISHED.name(), afterId, limit);
+    }
+
+    /**
+     * Записывает количество просмотров по id событий и возвращает количество измененных строк.
+     */
+    public int updateViews(Map<Long, Long> viewsById) {
+
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(viewsById.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_VIEWS, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setLong(3, entry.getValue());
+        });
+        return EventIdBatches.countUpdated(updated);
+    }
+}
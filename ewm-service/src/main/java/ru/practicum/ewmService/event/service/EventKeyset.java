@@ -0,0 +1,104 @@
+package ru.practicum.ewmService.event.service;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.querydsl.QSort;
+import ru.practicum.ewmService.event.dto.EventCursor;
+import ru.practicum.ewmService.event.enums.SortingMode;
+import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.event.model.QEvent;
+import ru.practicum.ewmService.exceptions.IsBadRequestException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Порядок событий и условия продолжения для постраничного получения по ключу.
+ * Каждый порядок дополнен id, чтобы он был строгим: тогда условие
+ * "после последнего события страницы" не теряет и не повторяет события
+ * и страница N стоит столько же, сколько первая.
+ */
+@UtilityClass
+public class EventKeyset {
+
+    private static final QEvent EVENT = QEvent.event;
+
+    /**
+     * Порядок событий для режима сортировки. Для {@link SortingMode#RELEVANCE} нужен текст запроса:
+     * события упорядочиваются по убыванию релевантности ему.
+     */
+    public Sort sort(SortingMode mode, String text) {
+
+        if (mode == null) {
+            return Sort.by(Sort.Direction.ASC, "id");
+        }
+        return switch (mode) {
+            case EVENT_DATE -> Sort.by(Sort.Order.asc("eventDate"), Sort.Order.asc("id"));
+            case VIEWS -> Sort.by(Sort.Order.desc("views"), Sort.Order.asc("id"));
+            case RATINGS -> Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("id"));
+            case RELEVANCE -> {
+                if (text == null) {
+                    throw new IsBadRequestException("RELEVANCE sorting requires text");
+                }
+                yield new QSort(EventTextSearch.rank(text).desc(), EVENT.id.asc());
+            }
+        };
+    }
+
+    public boolean supportsCursor(SortingMode mode) {
+        return mode != SortingMode.RELEVANCE;
+    }
+
+    /**
+     * Условие "событие идет после курсора" в порядке {@link #sort(SortingMode)}.
+     */
+    public BooleanExpression after(EventCursor cursor) {
+
+        long id = cursor.id();
+        if (cursor.sortingMode() == null) {
+            return EVENT.id.gt(id);
+        }
+        if (cursor.sortKey() == null) {
+            throw new IsBadRequestException("Invalid cursor");
+        }
+        try {
+            return switch (cursor.sortingMode()) {
+                case EVENT_DATE -> {
+                    LocalDateTime eventDate = LocalDateTime.parse(cursor.sortKey());
+                    yield EVENT.eventDate.gt(eventDate)
+                            .or(EVENT.eventDate.eq(eventDate).and(EVENT.id.gt(id)));
+                }
+                case RATINGS -> {
+                    double rating = Double.parseDouble(cursor.sortKey());
+                    yield EVENT.rating.lt(rating)
+                            .or(EVENT.rating.eq(rating).and(EVENT.id.gt(id)));
+                }
+                case VIEWS -> {
+                    long views = Long.parseLong(cursor.sortKey());
+                    yield EVENT.views.lt(views)
+                            .or(EVENT.views.eq(views).and(EVENT.id.gt(id)));
+                }
+                case RELEVANCE -> throw new IsBadRequestException(
+                        "Cursor pagination is not supported for %s sorting".formatted(cursor.sortingMode()));
+            };
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IsBadRequestException("Invalid cursor");
+        }
+    }
+
+    public EventCursor cursorOf(SortingMode mode, Event last) {
+
+        if (mode == null) {
+            return new EventCursor(null, null, last.getId());
+        }
+        String sortKey = switch (mode) {
+            case EVENT_DATE -> last.getEventDate().toString();
+            case RATINGS -> Double.toString(last.getRating());
+            case VIEWS -> Long.toString(last.getViews());
+            case RELEVANCE -> throw new IllegalStateException(
+                    "Cursor pagination is not supported for %s sorting".formatted(mode));
+        };
+        return new EventCursor(mode, sortKey, last.getId());
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.ewmService.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewmService.event.repository.EventIdBatches;
+import ru.practicum.ewmService.event.repository.EventRatingRepository;
+
+import java.util.List;
+
+/**
+ * Периодически пересчитывает рейтинг событий по оценкам одобренных комментариев и исправляет расхождения
+ * с инкрементально поддерживаемыми столбцами {@code events.rating_sum} и {@code events.rating_count}
+ * (например, после ручных правок базы или сбоев между изменением комментария и события).
+ * На каждый пакет событий ({@link EventIdBatches}) приходится один агрегирующий запрос.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "events.rating.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class EventRatingReconciler {
+
+    private final EventRatingRepository eventRatingRepository;
+    private final int batchSize;
+
+    public EventRatingReconciler(EventRatingRepository eventRatingRepository,
+                                 @Value("${events.rating.reconcile.batch-size:1000}") int batchSize) {
+
+        this.eventRatingRepository = eventRatingRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${events.rating.reconcile.interval-ms:3600000}",
+            fixedDelayString = "${events.rating.reconcile.interval-ms:3600000}")
+    public void reconcile() {
+
+        try {
+            int repaired = reconcileAll();
+            if (repaired > 0) {
+                log.warn("Rating of {} events has drifted and was recomputed", repaired);
+            } else {
+                log.info("Event ratings are consistent with approved comments");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Unable to reconcile event ratings", e);
+        }
+    }
+
+    /**
+     * Сверяет рейтинг всех событий и возвращает количество исправленных строк.
+     */
+    public int reconcileAll() {
+
+        return EventIdBatches.forEachBatch(eventRatingRepository::findIds, batchSize, ids -> {
+            List<EventRatingRepository.Drift> drifts = eventRatingRepository.findDrifted(ids.getFirst(), ids.getLast());
+            return drifts.isEmpty() ? 0 : eventRatingRepository.repair(drifts);
+        });
+    }
+}
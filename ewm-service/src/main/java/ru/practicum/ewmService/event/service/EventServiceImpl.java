@@ -1,24 +1,32 @@
 package ru.practicum.ewmService.event.service;
 
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.ewmService.category.model.Category;
 import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.category.service.CategoryCache;
+import ru.practicum.ewmService.event.dto.EventCursor;
 import ru.practicum.ewmService.event.dto.EventFullDto;
 import ru.practicum.ewmService.event.dto.EventListRequestAdmin;
 import ru.practicum.ewmService.event.dto.EventListRequestPublic;
+import ru.practicum.ewmService.event.dto.EventPage;
 import ru.practicum.ewmService.event.dto.EventShortDto;
 import ru.practicum.ewmService.event.dto.NewEventDto;
 import ru.practicum.ewmService.event.dto.UpdateEventRequest;
 import ru.practicum.ewmService.event.enums.EventState;
+import ru.practicum.ewmService.event.enums.SortingMode;
 import ru.practicum.ewmService.event.interfaces.EventService;
 import ru.practicum.ewmService.event.mapper.EventMapper;
 import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.event.model.EventUpdated;
 import ru.practicum.ewmService.event.model.QEvent;
 import ru.practicum.ewmService.event.repository.EventRepository;
 import ru.practicum.ewmService.exceptions.IntegrityException;
@@ -26,13 +34,13 @@ import ru.practicum.ewmService.exceptions.IsBadRequestException;
 import ru.practicum.ewmService.exceptions.NotFoundException;
 import ru.practicum.ewmService.user.model.User;
 import ru.practicum.ewmService.user.repository.UserRepository;
+import ru.practicum.ewmService.user.service.UserShortDtoCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  * Реализация сервиса для управления событиями.
@@ -47,6 +55,9 @@ public class EventServiceImpl implements EventService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
+    private final UserShortDtoCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     private Event checkEvent(long eventId) {
         return eventRepository.findById(eventId).orElseThrow(
@@ -62,9 +73,8 @@ public class EventServiceImpl implements EventService {
         if (updateRequest.getCategory() != null &&
                 !Objects.equals(updateRequest.getCategory(), event.getCategory().getId())) {
 
-            Category newCategory = categoryRepository.findById(updateRequest.getCategory()).orElseThrow(
-                    () -> new NotFoundException("Category with id=%d not found".formatted(updateRequest.getCategory())));
-            event.setCategory(newCategory);
+            categoryCache.get(updateRequest.getCategory());
+            event.setCategory(categoryRepository.getReferenceById(updateRequest.getCategory()));
         }
         if (updateRequest.getDescription() != null) {
             event.setDescription(updateRequest.getDescription());
@@ -108,8 +118,7 @@ public class EventServiceImpl implements EventService {
         User user = userRepository.findById(userId).orElseThrow(
                 () -> new NotFoundException("User with id=%d not found".formatted(userId)));
 
-        Category category = categoryRepository.findById(dto.getCategory()).orElseThrow(
-                () -> new NotFoundException("Category with id=%d not found".formatted(dto.getCategory())));
+        categoryCache.get(dto.getCategory());
 
         LocalDateTime minTime = LocalDateTime.now().plusHours(2);
         if (dto.getEventDate().isBefore(minTime)) {
@@ -117,12 +126,12 @@ public class EventServiceImpl implements EventService {
         }
         Event event = EventMapper.toEvent(dto);
         event.setInitiator(user);
-        event.setCategory(category);
+        event.setCategory(categoryRepository.getReferenceById(dto.getCategory()));
         event.setCreatedOn(LocalDateTime.now());
         event.setState(EventState.PENDING);
         event = eventRepository.save(event);
         log.info("Added event: id={}, title={}", event.getId(), event.getTitle());
-        return EventMapper.toFullDto(event);
+        return EventMapper.toFullDto(event, categoryCache, userCache);
     }
 
     @Override
@@ -138,7 +147,7 @@ public class EventServiceImpl implements EventService {
         }
 
 
-        if (!Objects.equals(event.getInitiator(), user)) {
+        if (!Objects.equals(event.getInitiator().getId(), user.getId())) {
             throw new IntegrityException("Initiators don't match");
         }
 
@@ -157,7 +166,8 @@ public class EventServiceImpl implements EventService {
 
         event = eventRepository.save(event);
         log.info("Updated event: id={}, title={}", event.getId(), event.getTitle());
-        return EventMapper.toFullDto(event);
+        eventPublisher.publishEvent(new EventUpdated(event.getId()));
+        return EventMapper.toFullDto(event, categoryCache, userCache);
     }
 
     @Override
@@ -165,7 +175,9 @@ public class EventServiceImpl implements EventService {
 
         List<Event> events = eventRepository.findByInitiatorId(userId, PageRequest.of(from, size));
         log.info("Getting events of user id={} returns list of size {}", userId, size);
-        return events.stream().map(EventMapper::toShortDto).collect(Collectors.toList());
+        return events.stream()
+                .map(e -> EventMapper.toShortDto(e, categoryCache, userCache))
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -178,14 +190,14 @@ public class EventServiceImpl implements EventService {
         if (event.getInitiator().getId() != userId) {
             throw new NotFoundException("Event id=%d owns user id=%d not found".formatted(eventId, userId));
         }
-        EventFullDto eventFullDto = EventMapper.toFullDto(event);
+        EventFullDto eventFullDto = EventMapper.toFullDto(event, categoryCache, userCache);
         log.info("Private get event request returns event: {}", eventFullDto);
         return eventFullDto;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<EventFullDto> getEventsAdmin(EventListRequestAdmin request) {
+    public EventPage<EventFullDto> getEventsAdmin(EventListRequestAdmin request) {
 
 
         checkRangesDateTime(request.rangeStart(), request.rangeEnd());
@@ -216,19 +228,13 @@ public class EventServiceImpl implements EventService {
                 .reduce(BooleanExpression::and)
                 .orElse(null);
 
+        List<Event> events = findPage(finalCondition, null, null, request.from(), request.size(), request.cursor());
 
-        PageRequest pageRequest = PageRequest.of(request.from(), request.size());
-
-        Iterable<Event> events = (finalCondition != null) ?
-                eventRepository.findAll(finalCondition, pageRequest) :
-                eventRepository.findAll(pageRequest);
-
-        List<EventFullDto> eventFullDtos = StreamSupport
-                .stream(events.spliterator(), false)
-                .map(EventMapper::toFullDto)
+        List<EventFullDto> eventFullDtos = events.stream()
+                .map(e -> EventMapper.toFullDto(e, categoryCache, userCache))
                 .toList();
         log.info("Admin getting events returns list of size {}", eventFullDtos.size());
-        return eventFullDtos;
+        return new EventPage<>(eventFullDtos, nextCursor(events, null, request.size()));
     }
 
     @Override
@@ -261,12 +267,13 @@ public class EventServiceImpl implements EventService {
 
         event = eventRepository.save(event);
         log.info("Event was updated by admin: {}", event);
-        return EventMapper.toFullDto(event);
+        eventPublisher.publishEvent(new EventUpdated(event.getId()));
+        return EventMapper.toFullDto(event, categoryCache, userCache);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<EventShortDto> getEventsPublic(EventListRequestPublic request) {
+    public EventPage<EventShortDto> getEventsPublic(EventListRequestPublic request) {
 
 
         checkRangesDateTime(request.rangeStart(), request.rangeEnd());
@@ -277,8 +284,7 @@ public class EventServiceImpl implements EventService {
 
 
         if (request.text() != null) {
-            conditions.add(event.annotation.containsIgnoreCase(request.text()).or(
-                    event.description.containsIgnoreCase(request.text())));
+            conditions.add(EventTextSearch.matches(request.text()));
         }
 
         if (request.categories() != null) {
@@ -312,28 +318,50 @@ public class EventServiceImpl implements EventService {
                 .orElse(null);
 
 
-        Sort sort = null;
-        if (request.sortingMode() != null) {
-            switch (request.sortingMode()) {
-                case EVENT_DATE -> sort = Sort.by(Sort.Direction.ASC, "eventDate");
-                case VIEWS -> sort = Sort.by(Sort.Direction.DESC, "views");
-                case RATINGS -> sort = Sort.by(Sort.Direction.DESC, "rating");
-            }
-        }
+        List<Event> events = findPage(finalCondition, request.sortingMode(), request.text(), request.from(),
+                request.size(), request.cursor());
 
+        List<EventShortDto> dtos = events.stream()
+                .map(e -> EventMapper.toShortDto(e, categoryCache, userCache))
+                .toList();
+        log.info("Public getting events returns list of size {}", dtos.size());
+        return new EventPage<>(dtos, nextCursor(events, request.sortingMode(), request.size()));
+    }
 
-        PageRequest pageRequest = (sort != null) ?
-                PageRequest.of(request.from(), request.size(), sort) :
-                PageRequest.of(request.from(), request.size());
+    /**
+     * Возвращает страницу событий. Без курсора страница выбирается смещением {@code from * size},
+     * с курсором — условием "после последнего события предыдущей страницы" в том же строгом порядке,
+     * поэтому глубокие страницы не требуют от базы пропускать строки.
+     * Категория и инициатор загружаются тем же запросом, а количество строк не считается,
+     * поэтому страница любого размера стоит одного SQL-запроса.
+     */
+    private List<Event> findPage(Predicate condition, SortingMode sortingMode, String text,
+                                 int from, int size, String cursor) {
+
+        Sort sort = EventKeyset.sort(sortingMode, text);
+        if (cursor == null) {
+            long offset = (long) from * size;
+            ScrollPosition position = (offset == 0) ? ScrollPosition.offset() : ScrollPosition.offset(offset - 1);
+            return eventRepository.findBy(new BooleanBuilder(condition), query -> query.sortBy(sort)
+                    .limit(size)
+                    .scroll(position)
+                    .getContent());
+        }
+        if (!EventKeyset.supportsCursor(sortingMode)) {
+            throw new IsBadRequestException("Cursor pagination is not supported for %s sorting".formatted(sortingMode));
+        }
+        Predicate afterCursor = EventKeyset.after(EventCursor.decode(cursor, sortingMode)).and(condition);
+        return eventRepository.findBy(afterCursor, query -> query.sortBy(sort)
+                .limit(size)
+                .all());
+    }
 
-        Iterable<Event> events = eventRepository.findAll(finalCondition, pageRequest);
+    private String nextCursor(List<Event> events, SortingMode sortingMode, int size) {
 
-        List<EventShortDto> dtos = StreamSupport
-                .stream(events.spliterator(), false)
-                .map(EventMapper::toShortDto)
-                .toList();
-        log.info("Public getting events returns list of size {}", dtos.size());
-        return dtos;
+        if (events.isEmpty() || events.size() < size || !EventKeyset.supportsCursor(sortingMode)) {
+            return null;
+        }
+        return EventKeyset.cursorOf(sortingMode, events.getLast()).encode();
     }
 
     @Override
@@ -343,6 +371,6 @@ public class EventServiceImpl implements EventService {
                 .orElseThrow(() ->
                         new NotFoundException("Published event with id=%d not found".formatted(id)));
 
-        return EventMapper.toFullDto(event);
+        return EventMapper.toFullDto(event, categoryCache, userCache);
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package ru.practicum.ewmService.event.service;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.NumberExpression;
+import lombok.experimental.UtilityClass;
+import ru.practicum.ewmService.event.model.QEvent;
+
+/**
+ * Поиск событий по подстроке в аннотации и описании без учета регистра.
+ * Условие раскрывается в {@code lower(annotation) like '%text%'}, по которому в PostgreSQL работают
+ * триграммные GIN-индексы {@code events_annotation_trgm_idx} и {@code events_description_trgm_idx}
+ * (миграция {@code db/migration/postgresql/V4}).
+ */
+@UtilityClass
+public class EventTextSearch {
+
+    private static final QEvent EVENT = QEvent.event;
+
+    public BooleanExpression matches(String text) {
+        return EVENT.annotation.containsIgnoreCase(text).or(EVENT.description.containsIgnoreCase(text));
+    }
+
+    /**
+     * Релевантность события запросу: совпадение в аннотации весит больше, чем в описании.
+     */
+    public NumberExpression<Integer> rank(String text) {
+        return new CaseBuilder().when(EVENT.annotation.containsIgnoreCase(text)).then(2).otherwise(0)
+                .add(new CaseBuilder().when(EVENT.description.containsIgnoreCase(text)).then(1).otherwise(0));
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.ewmService.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewmService.event.repository.EventIdBatches;
+import ru.practicum.ewmService.event.repository.EventViewsRepository;
+import ru.practicum.ewmService.stats.interfaces.ViewsService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Периодически переносит количество просмотров опубликованных событий с сервера статистики
+ * в столбец {@code events.views}, по которому работает сортировка {@code VIEWS}.
+ * На каждый пакет событий ({@link EventIdBatches}) приходится один запрос к серверу статистики
+ * и одно пакетное обновление базы.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "stats.views.sync.enabled", havingValue = "true", matchIfMissing = true)
+public class EventViewsSynchronizer {
+
+    private static final String EVENT_URI = "/events/";
+
+    private final EventViewsRepository eventViewsRepository;
+    private final ViewsService viewsService;
+    private final int batchSize;
+
+    public EventViewsSynchronizer(EventViewsRepository eventViewsRepository,
+                                  ViewsService viewsService,
+                                  @Value("${stats.views.sync.batch-size:500}") int batchSize) {
+
+        this.eventViewsRepository = eventViewsRepository;
+        this.viewsService = viewsService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${stats.views.sync.interval-ms:30000}",
+            fixedDelayString = "${stats.views.sync.interval-ms:30000}")
+    public void synchronize() {
+
+        try {
+            int updated = synchronizeAll();
+            log.info("Views of {} events were synchronized with stats server", updated);
+        } catch (RuntimeException e) {
+            log.warn("Unable to synchronize event views with stats server", e);
+        }
+    }
+
+    /**
+     * Синхронизирует просмотры всех опубликованных событий и возвращает количество измененных строк.
+     */
+    public int synchronizeAll() {
+
+        return EventIdBatches.forEachBatch(eventViewsRepository::findPublishedIds, batchSize, ids -> {
+            Map<String, Long> idsByUri = new HashMap<>();
+            ids.forEach(id -> idsByUri.put(EVENT_URI + id, id));
+
+            Map<Long, Long> viewsById = new HashMap<>();
+            viewsService.refreshViews(idsByUri.keySet()).forEach((uri, views) -> {
+                Long id = idsByUri.get(uri);
+                if (id != null) {
+                    viewsById.put(id, views);
+                }
+            });
+            return eventViewsRepository.updateViews(viewsById);
+        });
+    }
+}
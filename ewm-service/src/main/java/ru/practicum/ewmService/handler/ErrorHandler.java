@@ -1,6 +1,7 @@
 package ru.practicum.ewmService.handler;
 
 import jakarta.servlet.ServletException;
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindException;
@@ -35,7 +36,8 @@ public class ErrorHandler {
         return new ErrorResponse(HttpStatus.CONFLICT, e);
     }
 
-    @ExceptionHandler({ServletException.class, BindException.class, IsBadRequestException.class})
+    @ExceptionHandler({ServletException.class, BindException.class, ConstraintViolationException.class,
+            IsBadRequestException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleServletException(final Exception e) {
         log.warn("Error", e);
@@ -1,9 +1,14 @@
 package ru.practicum.ewmService.participation.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -17,14 +22,22 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.ewmService.participation.dto.ParticipationRequestDto;
 import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateRequest;
 import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateResult;
+import ru.practicum.ewmService.participation.enums.ParticipationStatus;
 import ru.practicum.ewmService.participation.interfaces.ParticipationService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Контроллер для управления запросами на участие в событиях.
  * Предоставляет конечные точки для пользователей, чтобы подавать, отменять и просматривать запросы на участие,
  * а также для организаторов событий, чтобы просматривать и обновлять статус запросов на их события.
+ * Списки заявок можно получать страницами по ключу (параметры {@code afterId} и {@code size})
+ * или целиком потоком NDJSON, передав заголовок {@code Accept: application/x-ndjson}.
  */
 @Validated
 @Slf4j
@@ -34,13 +47,25 @@ import java.util.List;
 public class ParticipationController {
 
     private final ParticipationService participationService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/users/{userId}/requests")
     @ResponseStatus(HttpStatus.OK)
-    public List<ParticipationRequestDto> getUserParticipationRequests(@PathVariable long userId) {
+    public List<ParticipationRequestDto> getUserParticipationRequests(
+            @PathVariable long userId,
+            @RequestParam(required = false) @PositiveOrZero Long afterId,
+            @RequestParam(required = false) @Positive Integer size) {
+
+        log.info("Get participation private GET request: userId={}, afterId={}, size={}", userId, afterId, size);
+        return participationService.getUserRequests(userId, afterId, size);
+    }
 
-        log.info("Get participation private GET request: userId={}", userId);
-        return participationService.getUserRequests(userId);
+    @GetMapping(value = "/users/{userId}/requests", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUserParticipationRequests(@PathVariable long userId,
+                                                HttpServletResponse response) throws IOException {
+
+        log.info("Export participation private GET request: userId={}", userId);
+        participationService.streamUserRequests(userId, ndjson(response));
     }
 
     @PostMapping("/users/{userId}/requests")
@@ -63,11 +88,28 @@ public class ParticipationController {
 
     @GetMapping("/users/{userId}/events/{eventId}/requests")
     @ResponseStatus(HttpStatus.OK)
-    public List<ParticipationRequestDto> getEventParticipationRequests(@PathVariable long userId,
-                                                                       @PathVariable long eventId) {
+    public List<ParticipationRequestDto> getEventParticipationRequests(
+            @PathVariable long userId,
+            @PathVariable long eventId,
+            @RequestParam(required = false) ParticipationStatus status,
+            @RequestParam(required = false, defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(required = false) @PositiveOrZero Long afterId,
+            @RequestParam(required = false) @Positive Integer size) {
 
-        log.info("Get participant requests private GET request: userId={}, eventId={}", userId, eventId);
-        return participationService.getEventRequests(userId, eventId);
+        log.info("Get participant requests private GET request: userId={}, eventId={}, status={}, from={}, "
+                + "afterId={}, size={}", userId, eventId, status, from, afterId, size);
+        return participationService.getEventRequests(userId, eventId, status, from, afterId, size);
+    }
+
+    @GetMapping(value = "/users/{userId}/events/{eventId}/requests", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportEventParticipationRequests(@PathVariable long userId,
+                                                 @PathVariable long eventId,
+                                                 @RequestParam(required = false) ParticipationStatus status,
+                                                 HttpServletResponse response) throws IOException {
+
+        log.info("Export participant requests private GET request: userId={}, eventId={}, status={}",
+                userId, eventId, status);
+        participationService.streamEventRequests(userId, eventId, status, ndjson(response));
     }
 
     @PatchMapping("/users/{userId}/events/{eventId}/requests")
@@ -75,10 +117,30 @@ public class ParticipationController {
     public ParticipationStatusUpdateResult updateParticipationStatus(
             @PathVariable long userId,
             @PathVariable long eventId,
-            @Valid @RequestBody ParticipationStatusUpdateRequest updateRequest) {
+            @Valid @RequestBody ParticipationStatusUpdateRequest updateRequest,
+            @RequestParam(required = false, defaultValue = "1000") int size) {
+
+        log.info("Update participation status private GET request: userId={}, eventId={}, request={}, size={}",
+                userId, eventId, updateRequest, size);
+        return participationService.updateStatus(userId, eventId, updateRequest, size);
+    }
+
+    /**
+     * Пишет каждую заявку отдельной строкой JSON прямо в тело ответа.
+     * Тело не буферизуется целиком: контейнер отправляет его клиенту по мере заполнения своего буфера.
+     */
+    private Consumer<ParticipationRequestDto> ndjson(HttpServletResponse response) throws IOException {
 
-        log.info("Update participation status private GET request: userId={}, eventId={}, request={}",
-                userId, eventId, updateRequest);
-        return participationService.updateStatus(userId, eventId, updateRequest);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        return request -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(request));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -8,7 +8,9 @@ import java.util.List;
 
 /**
  * Объект передачи данных, представляющий результат обновления статусов заявок на участие.
- * Содержит списки подтвержденных и отклоненных заявок на участие.
+ * Содержит количество подтвержденных и отклоненных заявок и первые из них по возрастанию идентификатора:
+ * списки ограничены параметром {@code size} запроса, остальные заявки можно получить постранично
+ * через {@code GET /users/{userId}/events/{eventId}/requests?status=...}.
  */
 @Data
 @NoArgsConstructor
@@ -16,4 +18,6 @@ import java.util.List;
 public class ParticipationStatusUpdateResult {
     private List<ParticipationRequestDto> confirmedRequests;
     private List<ParticipationRequestDto> rejectedRequests;
+    private long confirmedCount;
+    private long rejectedCount;
 }
\ No newline at end of file
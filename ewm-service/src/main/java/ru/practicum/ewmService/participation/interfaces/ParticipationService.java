@@ -3,19 +3,53 @@ package ru.practicum.ewmService.participation.interfaces;
 import ru.practicum.ewmService.participation.dto.ParticipationRequestDto;
 import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateRequest;
 import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateResult;
+import ru.practicum.ewmService.participation.enums.ParticipationStatus;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ParticipationService {
 
-    List<ParticipationRequestDto> getUserRequests(long userId);
+    /**
+     * Возвращает заявки пользователя по возрастанию идентификатора.
+     *
+     * @param afterId если задан, возвращаются заявки с идентификатором больше {@code afterId}
+     * @param size    размер страницы; если не задан вместе с {@code afterId}, возвращаются все заявки,
+     *                если задан только {@code afterId} — страница из 10 заявок
+     */
+    List<ParticipationRequestDto> getUserRequests(long userId, Long afterId, Integer size);
+
+    /**
+     * Передает все заявки пользователя в {@code action} по мере чтения из базы, не собирая их в список.
+     */
+    void streamUserRequests(long userId, Consumer<ParticipationRequestDto> action);
 
     ParticipationRequestDto addRequest(long userId, long eventId);
 
     ParticipationRequestDto cancelRequest(long userId, long requestId);
 
-    List<ParticipationRequestDto> getEventRequests(long userId, long eventId);
-
+    /**
+     * Возвращает заявки на участие в событии по возрастанию идентификатора.
+     *
+     * @param status  если задан, возвращаются только заявки в этом статусе
+     * @param afterId если задан, возвращаются заявки с идентификатором больше {@code afterId}, а {@code from} не учитывается
+     * @param size    размер страницы; если не задан вместе с {@code afterId} и {@code from}, возвращаются все заявки,
+     *                если задан только {@code afterId} или {@code from} — страница из 10 заявок
+     */
+    List<ParticipationRequestDto> getEventRequests(long userId, long eventId, ParticipationStatus status,
+                                                   int from, Long afterId, Integer size);
+
+    /**
+     * Передает все заявки на событие в {@code action} по мере чтения из базы, не собирая их в список.
+     */
+    void streamEventRequests(long userId, long eventId, ParticipationStatus status,
+                             Consumer<ParticipationRequestDto> action);
+
+    /**
+     * Подтверждает или отклоняет ожидающие заявки события.
+     *
+     * @param size максимальное количество заявок в каждом из списков результата
+     */
     ParticipationStatusUpdateResult updateStatus(long userId, long eventId,
-                                                 ParticipationStatusUpdateRequest updateRequest);
+                                                 ParticipationStatusUpdateRequest updateRequest, int size);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import lombok.experimental.UtilityClass;
 import ru.practicum.ewmService.dateTimeFormatter.Formatter;
 import ru.practicum.ewmService.participation.dto.ParticipationRequestDto;
 import ru.practicum.ewmService.participation.model.Participation;
+import ru.practicum.ewmService.participation.model.ParticipationRow;
 
 import java.util.Collection;
 import java.util.List;
@@ -23,4 +24,17 @@ public class ParticipationMapper {
     public List<ParticipationRequestDto> toDtos(Collection<Participation> participationCollection) {
         return participationCollection.stream().map(ParticipationMapper::toDto).toList();
     }
-}
\ No newline at end of file
+
+    public ParticipationRequestDto toDto(ParticipationRow row) {
+        return new ParticipationRequestDto(
+                row.id(),
+                row.eventId(),
+                row.requesterId(),
+                row.status().name(),
+                row.created().format(Formatter.FORMATTER));
+    }
+
+    public List<ParticipationRequestDto> rowsToDtos(Collection<ParticipationRow> rows) {
+        return rows.stream().map(ParticipationMapper::toDto).toList();
+    }
+}
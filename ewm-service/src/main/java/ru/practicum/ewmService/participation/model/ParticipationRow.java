@@ -0,0 +1,18 @@
+package ru.practicum.ewmService.participation.model;
+
+import ru.practicum.ewmService.participation.enums.ParticipationStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция заявки на участие без загрузки события и заявителя.
+ * Используется для постраничной выборки по ключу и потоковой выгрузки заявок:
+ * строки не попадают в контекст персистентности, поэтому память не растет с размером выборки.
+ */
+public record ParticipationRow(
+        long id,
+        long eventId,
+        long requesterId,
+        ParticipationStatus status,
+        LocalDateTime created) {
+}
@@ -1,19 +1,31 @@
 package ru.practicum.ewmService.participation.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.practicum.ewmService.event.model.Event;
 import ru.practicum.ewmService.participation.enums.ParticipationStatus;
 import ru.practicum.ewmService.participation.model.Participation;
+import ru.practicum.ewmService.participation.model.ParticipationRow;
 import ru.practicum.ewmService.user.model.User;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ParticipationRepository extends JpaRepository<Participation, Long> {
 
+    String ROW = "select new ru.practicum.ewmService.participation.model.ParticipationRow("
+            + "p.id, p.event.id, p.requester.id, p.status, p.created) from participation p ";
+
+    String STREAM_FETCH_SIZE = "500";
 
     List<Participation> findAllByRequester(User requester);
 
@@ -23,9 +35,92 @@ public interface ParticipationRepository extends JpaRepository<Participation, Lo
 
     List<Participation> findAllByIdIn(Collection<Long> ids);
 
+    List<Participation> findAllByIdInOrderByIdAsc(Collection<Long> ids);
+
     boolean existsByRequesterId(Long requesterId);
 
     Optional<Participation> findByEventAndRequester(Event event, User requester);
 
     boolean existsByEventAndRequesterAndStatus(Event event, User user, ParticipationStatus participationStatus);
-}
\ No newline at end of file
+
+    List<Participation> findAllByEvent(Event event, Pageable pageable);
+
+    List<Participation> findAllByEventAndStatus(Event event, ParticipationStatus status, Pageable pageable);
+
+    /**
+     * Возвращает идентификаторы заявок события в указанном статусе по возрастанию.
+     */
+    @Query("select p.id from participation p where p.event.id = :eventId and p.status = :status order by p.id")
+    List<Long> findIdsByEventAndStatus(long eventId, ParticipationStatus status);
+
+    /**
+     * Возвращает идентификаторы заявок из {@code ids} в указанном статусе по возрастанию.
+     */
+    @Query("select p.id from participation p where p.id in :ids and p.status = :status order by p.id")
+    List<Long> findIdsByIdInAndStatus(Collection<Long> ids, ParticipationStatus status);
+
+    /**
+     * Проверяет, есть ли среди заявок {@code ids} относящиеся к другому событию или не находящиеся в статусе {@code status}.
+     */
+    @Query("""
+            select count(p) > 0 from participation p
+            where p.id in :ids and (p.event.id <> :eventId or p.status <> :status)
+            """)
+    boolean existsByIdInAndNotEventOrStatus(Collection<Long> ids, long eventId, ParticipationStatus status);
+
+    /**
+     * Одним {@code update} переводит заявки события из статуса {@code status} в {@code newStatus}
+     * для всех идентификаторов не больше {@code maxId}.
+     *
+     * @return количество измененных заявок
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update participation p set p.status = :newStatus
+            where p.event.id = :eventId and p.status = :status and p.id <= :maxId
+            """)
+    int updateStatusUpTo(long eventId, ParticipationStatus status, ParticipationStatus newStatus, long maxId);
+
+    /**
+     * То же, что {@link #updateStatusUpTo}, но только для заявок из {@code ids}.
+     *
+     * @return количество измененных заявок
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update participation p set p.status = :newStatus
+            where p.id in :ids and p.status = :status and p.id <= :maxId
+            """)
+    int updateStatusUpToByIdIn(Collection<Long> ids, ParticipationStatus status, ParticipationStatus newStatus,
+                               long maxId);
+
+    /**
+     * Страница заявок пользователя с идентификатором больше {@code afterId} (keyset pagination).
+     */
+    @Query(ROW + "where p.requester.id = :requesterId and p.id > :afterId order by p.id")
+    List<ParticipationRow> findRowsByRequesterAfter(long requesterId, long afterId, Pageable pageable);
+
+    /**
+     * Страница заявок на событие с идентификатором больше {@code afterId} (keyset pagination).
+     * Если {@code status} не задан, возвращаются заявки в любом статусе.
+     */
+    @Query(ROW + "where p.event.id = :eventId and (:status is null or p.status = :status) and p.id > :afterId order by p.id")
+    List<ParticipationRow> findRowsByEventAfter(long eventId, ParticipationStatus status, long afterId,
+                                                Pageable pageable);
+
+    /**
+     * Все заявки пользователя, читаемые курсором базы данных порциями по {@value #STREAM_FETCH_SIZE} строк.
+     * Поток нужно закрыть и прочитать внутри транзакции.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(ROW + "where p.requester.id = :requesterId order by p.id")
+    Stream<ParticipationRow> streamRowsByRequester(long requesterId);
+
+    /**
+     * Все заявки на событие, читаемые курсором базы данных порциями по {@value #STREAM_FETCH_SIZE} строк.
+     * Поток нужно закрыть и прочитать внутри транзакции.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(ROW + "where p.event.id = :eventId and (:status is null or p.status = :status) order by p.id")
+    Stream<ParticipationRow> streamRowsByEvent(long eventId, ParticipationStatus status);
+}
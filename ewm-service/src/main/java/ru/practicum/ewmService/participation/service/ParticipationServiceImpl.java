@@ -2,11 +2,16 @@ package ru.practicum.ewmService.participation.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewmService.event.enums.EventState;
 import ru.practicum.ewmService.event.model.Event;
 import ru.practicum.ewmService.event.repository.EventRepository;
 import ru.practicum.ewmService.exceptions.IntegrityException;
+import ru.practicum.ewmService.exceptions.IsBadRequestException;
 import ru.practicum.ewmService.exceptions.NotFoundException;
 import ru.practicum.ewmService.participation.dto.ParticipationRequestDto;
 import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateRequest;
@@ -15,6 +20,7 @@ import ru.practicum.ewmService.participation.enums.ParticipationStatus;
 import ru.practicum.ewmService.participation.interfaces.ParticipationService;
 import ru.practicum.ewmService.participation.mapper.ParticipationMapper;
 import ru.practicum.ewmService.participation.model.Participation;
+import ru.practicum.ewmService.participation.model.ParticipationRow;
 import ru.practicum.ewmService.participation.repository.ParticipationRepository;
 import ru.practicum.ewmService.user.model.User;
 import ru.practicum.ewmService.user.repository.UserRepository;
@@ -22,18 +28,29 @@ import ru.practicum.ewmService.user.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Реализация интерфейса {@link ParticipationService}.
  * Предоставляет методы для управления запросами на участие в событиях.
  * Включает создание, отмену и обновление статуса запросов на участие,
  * а также получение запросов для пользователей или инициаторов событий.
+ * Счетчик подтвержденных заявок события меняется только атомарными запросами
+ * {@link EventRepository#tryIncreaseConfirmedRequests} и {@link EventRepository#decreaseConfirmedRequests},
+ * а не сохранением прочитанной сущности, поэтому одновременные заявки не превышают лимит участников.
+ * Постраничные выборки по ключу и выгрузки читают проекции {@link ParticipationRow}, а не сущности.
  */
 @Slf4j
 @Service
 @AllArgsConstructor
 public class ParticipationServiceImpl implements ParticipationService {
 
+    /**
+     * Размер страницы, если постраничный запрос ({@code afterId} или {@code from}) пришел без {@code size}.
+     */
+    static final int DEFAULT_PAGE_SIZE = 10;
+
     private final UserRepository userRepository;
     private final ParticipationRepository participationRepository;
     private final EventRepository eventRepository;
@@ -58,15 +75,34 @@ public class ParticipationServiceImpl implements ParticipationService {
     }
 
     @Override
-    public List<ParticipationRequestDto> getUserRequests(long userId) {
+    public List<ParticipationRequestDto> getUserRequests(long userId, Long afterId, Integer size) {
 
         User user = checkUser(userId);
-        List<Participation> requests = participationRepository.findAllByRequester(user);
-        log.info("Get participation request returns {} records", requests.size());
-        return ParticipationMapper.toDtos(requests);
+        if (afterId == null && size == null) {
+            List<Participation> requests = participationRepository.findAllByRequester(user);
+            log.info("Get participation request returns {} records", requests.size());
+            return ParticipationMapper.toDtos(requests);
+        }
+        List<ParticipationRow> rows = participationRepository.findRowsByRequesterAfter(userId,
+                Objects.requireNonNullElse(afterId, 0L), PageRequest.of(0, pageSize(size)));
+        log.info("Get participation request after id={} returns {} records", afterId, rows.size());
+        return ParticipationMapper.rowsToDtos(rows);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUserRequests(long userId, Consumer<ParticipationRequestDto> action) {
+
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User with id=%d not found".formatted(userId));
+        }
+        try (Stream<ParticipationRow> rows = participationRepository.streamRowsByRequester(userId)) {
+            rows.map(ParticipationMapper::toDto).forEach(action);
+        }
     }
 
     @Override
+    @Transactional
     public ParticipationRequestDto addRequest(long userId, long eventId) {
 
         User user = checkUser(userId);
@@ -99,15 +135,17 @@ public class ParticipationServiceImpl implements ParticipationService {
         if (event.isRequestModeration() && event.getParticipantLimit() > 0) {
             participation.setStatus(ParticipationStatus.PENDING);
         } else {
+            if (eventRepository.tryIncreaseConfirmedRequests(eventId) == 0) {
+                throw new IntegrityException("Event with id=%d has no available to participate".formatted(eventId));
+            }
             participation.setStatus(ParticipationStatus.CONFIRMED);
-            event.increaseConfirmedRequests();
-            eventRepository.save(event);
         }
         participation = participationRepository.save(participation);
         return ParticipationMapper.toDto(participation);
     }
 
     @Override
+    @Transactional
     public ParticipationRequestDto cancelRequest(long userId, long requestId) {
 
 
@@ -131,9 +169,7 @@ public class ParticipationServiceImpl implements ParticipationService {
 
 
             if (participation.getStatus() == ParticipationStatus.CONFIRMED) {
-                Event event = participation.getEvent();
-                event.decreaseConfirmedRequests();
-                eventRepository.save(event);
+                eventRepository.decreaseConfirmedRequests(participation.getEvent().getId());
             }
             participation.setStatus(ParticipationStatus.CANCELED);
             participation = participationRepository.save(participation);
@@ -144,73 +180,132 @@ public class ParticipationServiceImpl implements ParticipationService {
     }
 
     @Override
-    public List<ParticipationRequestDto> getEventRequests(long userId, long eventId) {
+    public List<ParticipationRequestDto> getEventRequests(long userId, long eventId, ParticipationStatus status,
+                                                          int from, Long afterId, Integer size) {
 
 
         User user = checkUser(userId);
         Event event = checkEvent(eventId);
         checkUserOwnsEvent(user, event);
 
-        List<Participation> requests = participationRepository.findAllByEvent(event);
+        if (afterId != null) {
+            List<ParticipationRow> rows = participationRepository.findRowsByEventAfter(eventId, status, afterId,
+                    PageRequest.of(0, pageSize(size)));
+            log.info("Get event participation requests after id={} returns {} records", afterId, rows.size());
+            return ParticipationMapper.rowsToDtos(rows);
+        }
+        Sort sort = Sort.by("id");
+        Pageable pageable = (size != null || from > 0) ?
+                PageRequest.of(from, pageSize(size), sort) : Pageable.unpaged(sort);
+        List<Participation> requests = (status != null) ?
+                participationRepository.findAllByEventAndStatus(event, status, pageable) :
+                participationRepository.findAllByEvent(event, pageable);
         log.info("Get event participation requests returns {} records", requests.size());
         return ParticipationMapper.toDtos(requests);
     }
 
     @Override
-    public ParticipationStatusUpdateResult updateStatus(long userId, long eventId, ParticipationStatusUpdateRequest updateRequest) {
-
+    @Transactional(readOnly = true)
+    public void streamEventRequests(long userId, long eventId, ParticipationStatus status,
+                                    Consumer<ParticipationRequestDto> action) {
 
         User user = checkUser(userId);
         Event event = checkEvent(eventId);
         checkUserOwnsEvent(user, event);
+        try (Stream<ParticipationRow> rows = participationRepository.streamRowsByEvent(eventId, status)) {
+            rows.map(ParticipationMapper::toDto).forEach(action);
+        }
+    }
 
+    /**
+     * Заявки переводятся в новый статус несколькими {@code update} по диапазону идентификаторов,
+     * без загрузки и сохранения сущностей. Событие читается с блокировкой строки, поэтому свободные места
+     * считаются один раз и не могут быть заняты одновременной модерацией.
+     * Если {@code ids} не заданы, обрабатываются все ожидающие заявки события.
+     */
+    @Override
+    @Transactional
+    public ParticipationStatusUpdateResult updateStatus(long userId, long eventId,
+                                                        ParticipationStatusUpdateRequest updateRequest, int size) {
 
-        if (updateRequest.getStatus() == ParticipationStatus.CONFIRMED && event.isLimitExpired()) {
-            throw new IntegrityException("Event with id=%d has no available to participate".formatted(eventId));
-        }
 
+        User user = checkUser(userId);
+        Event event = eventRepository.findByIdForUpdate(eventId)
+                .orElseThrow(() ->
+                        new NotFoundException("Event with id=%d not found".formatted(eventId)));
+        checkUserOwnsEvent(user, event);
 
-        List<Participation> requests = (updateRequest.getIds() != null) ?
-                participationRepository.findAllByIdIn(updateRequest.getIds()) :
-                participationRepository.findAllByEvent(event);
 
+        ParticipationStatus newStatus = updateRequest.getStatus();
+        if (newStatus != ParticipationStatus.CONFIRMED && newStatus != ParticipationStatus.REJECTED) {
+            throw new IsBadRequestException("Requests can only be confirmed or rejected");
+        }
 
-        if (requests.stream().anyMatch(p -> p.getStatus() != ParticipationStatus.PENDING)) {
-            throw new IntegrityException("Not all requests have been pending status");
+        if (newStatus == ParticipationStatus.CONFIRMED && event.isLimitExpired()) {
+            throw new IntegrityException("Event with id=%d has no available to participate".formatted(eventId));
         }
 
 
-        int oldConfirmedRequests = event.getConfirmedRequests();
-        ParticipationStatus newStatus = updateRequest.getStatus();
-        for (Participation request : requests) {
-            request.setStatus(newStatus);
-            if (newStatus == ParticipationStatus.CONFIRMED) {
-                event.increaseConfirmedRequests();
-                if (event.isLimitExpired())
-                    newStatus = ParticipationStatus.REJECTED;
-            }
+        List<Long> ids = updateRequest.getIds();
+        if (ids != null && ids.isEmpty()) {
+            return new ParticipationStatusUpdateResult(List.of(), List.of(), 0, 0);
+        }
+        if (ids != null && participationRepository.existsByIdInAndNotEventOrStatus(ids, eventId,
+                ParticipationStatus.PENDING)) {
+            throw new IntegrityException("Not all requests have been pending status");
         }
 
 
-        if (oldConfirmedRequests != event.getConfirmedRequests()) {
-            eventRepository.save(event);
+        List<Long> pendingIds = (ids != null) ?
+                participationRepository.findIdsByIdInAndStatus(ids, ParticipationStatus.PENDING) :
+                participationRepository.findIdsByEventAndStatus(eventId, ParticipationStatus.PENDING);
+        if (pendingIds.isEmpty()) {
+            return new ParticipationStatusUpdateResult(List.of(), List.of(), 0, 0);
         }
 
 
-        requests = participationRepository.saveAll(requests);
+        int toConfirm = 0;
+        if (newStatus == ParticipationStatus.CONFIRMED) {
+            toConfirm = (event.getParticipantLimit() == 0) ? pendingIds.size() :
+                    Math.min(pendingIds.size(), event.getParticipantLimit() - event.getConfirmedRequests());
+        }
+        long maxId = pendingIds.getLast();
+
+        int confirmed = 0;
+        if (toConfirm > 0) {
+            long confirmUpTo = pendingIds.get(toConfirm - 1);
+            confirmed = (ids != null) ?
+                    participationRepository.updateStatusUpToByIdIn(ids, ParticipationStatus.PENDING,
+                            ParticipationStatus.CONFIRMED, confirmUpTo) :
+                    participationRepository.updateStatusUpTo(eventId, ParticipationStatus.PENDING,
+                            ParticipationStatus.CONFIRMED, confirmUpTo);
+            eventRepository.increaseConfirmedRequests(eventId, confirmed);
+        }
+        int rejected = (ids != null) ?
+                participationRepository.updateStatusUpToByIdIn(ids, ParticipationStatus.PENDING,
+                        ParticipationStatus.REJECTED, maxId) :
+                participationRepository.updateStatusUpTo(eventId, ParticipationStatus.PENDING,
+                        ParticipationStatus.REJECTED, maxId);
+
+
+        List<Long> confirmedIds = pendingIds.subList(0, toConfirm);
+        List<Long> rejectedIds = pendingIds.subList(toConfirm, pendingIds.size());
+        ParticipationStatusUpdateResult result = new ParticipationStatusUpdateResult(
+                loadFirst(confirmedIds, size), loadFirst(rejectedIds, size), confirmed, rejected);
+        log.info("Update participation status request confirmed {} and rejected {} records", confirmed, rejected);
+        return result;
+    }
 
+    private static int pageSize(Integer size) {
+        return Objects.requireNonNullElse(size, DEFAULT_PAGE_SIZE);
+    }
 
-        ParticipationStatusUpdateResult result = new ParticipationStatusUpdateResult();
-        result.setConfirmedRequests(requests.stream()
-                .filter(p -> p.getStatus() == ParticipationStatus.CONFIRMED)
-                .map(ParticipationMapper::toDto)
-                .toList());
-        result.setRejectedRequests(requests.stream()
-                .filter(p -> p.getStatus() == ParticipationStatus.REJECTED)
-                .map(ParticipationMapper::toDto)
-                .toList());
-        log.info("Update participation status request returns {} confirmed and {} rejected records",
-                result.getConfirmedRequests().size(), result.getRejectedRequests().size());
-        return result;
+    private List<ParticipationRequestDto> loadFirst(List<Long> ids, int size) {
+
+        if (ids.isEmpty() || size <= 0) {
+            return List.of();
+        }
+        return ParticipationMapper.toDtos(participationRepository.findAllByIdInOrderByIdAsc(
+                ids.subList(0, Math.min(size, ids.size()))));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package ru.practicum.ewmService.stats.interfaces;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface ViewsService {
+
+    void addHit(String uri, String ip);
+
+    long getViews(String uri);
+
+    Map<String, Long> getViews(Collection<String> uris);
+
+    /**
+     * Запрашивает количество просмотров у сервера статистики в обход кэша и обновляет им кэш.
+     */
+    Map<String, Long> refreshViews(Collection<String> uris);
+
+    /**
+     * Отправляет хит в фоне: вызывающий не ждет сервер статистики, ошибки отправки только логируются.
+     * Если в фоне уже отправляется слишком много хитов, хит отправляется в потоке вызывающего.
+     */
+    void addHitAsync(String uri, String ip);
+
+    /**
+     * Отправляет хит в фоне и начинает получать просмотры {@code uris}, не дожидаясь результата.
+     * Если хит сбрасывает кэш просмотров, просмотры запрашиваются после отправки хита,
+     * чтобы ответ учитывал собственный просмотр.
+     */
+    CompletableFuture<Map<String, Long>> addHitAndGetViewsAsync(String hitUri, String ip, Collection<String> uris);
+
+    /**
+     * Начинает получать просмотры {@code uris}, не дожидаясь результата.
+     */
+    CompletableFuture<Map<String, Long>> getViewsAsync(Collection<String> uris);
+
+    /**
+     * Ждет просмотры не дольше {@code stats.views.timeout}. Если сервер статистики не ответил вовремя
+     * или вернул ошибку, возвращает только просмотры, уже известные кэшу; для остальных URI
+     * вызывающий оставляет прежнее значение.
+     */
+    Map<String, Long> awaitViews(CompletableFuture<Map<String, Long>> views, Collection<String> uris);
+}
@@ -0,0 +1,240 @@
+package ru.practicum.ewmService.stats.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.ewmService.stats.interfaces.ViewsService;
+import ru.practicum.statsClient.StatsClient;
+import ru.practicum.statsDto.StatsItemDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Реализация сервиса просмотров событий с локальным кэшем количества просмотров по URI события.
+ * Кэш ограничен по размеру (вытеснение W-TinyLFU), записи устаревают через {@code expire-after-write},
+ * а часто читаемые записи после {@code refresh-after-write} обновляются в фоне, пока читатели получают
+ * прежнее значение. Одновременные промахи по одному URI объединяются в один запрос к серверу статистики,
+ * промахи по нескольким URI запрашиваются одним пакетом.
+ * Метрики кэша публикуются через actuator под именем {@code cache.*} с тегом {@code cache=eventViews}.
+ * <p>
+ * Фоновые отправки хитов и загрузки просмотров выполняются на виртуальных потоках, поэтому
+ * ожидание ответа сервера статистики не занимает потоки обработки запросов. Публичные запросы
+ * ждут просмотры не дольше {@code stats.views.timeout}, после чего отвечают со значениями из кэша.
+ * <p>
+ * Одновременно в фоне отправляется не больше {@code stats.views.max-pending-hits} хитов; если сервер
+ * статистики не успевает, следующий хит отправляется в потоке вызывающего, и очередь задач не растет.
+ * Если клиент статистики отправляет хиты пакетами ({@link StatsClient#isAsync()}), хит только ставится
+ * в его ограниченную очередь без отдельного потока, а {@code invalidate-on-hit} не применяется:
+ * хит доходит до сервера позже, и сброшенная запись загрузилась бы снова без него.
+ */
+@Slf4j
+@Service
+public class ViewsServiceImpl implements ViewsService, MeterBinder, AutoCloseable {
+
+    private static final String APP = "ewm-main-server";
+    private static final LocalDateTime STATS_START = LocalDateTime.of(2000, Month.JANUARY, 1, 0, 0);
+    private static final LocalDateTime STATS_END = LocalDateTime.of(2035, Month.DECEMBER, 31, 23, 59);
+
+    private final StatsClient statsClient;
+    private final boolean approximate;
+    private final boolean invalidateOnHit;
+    private final Duration timeout;
+    private final Semaphore pendingHits;
+    private final ExecutorService executor;
+    private final AsyncLoadingCache<String, Long> views;
+
+    public ViewsServiceImpl(StatsClient statsClient,
+                            @Value("${stats.views.approximate:false}") boolean approximate,
+                            @Value("${stats.views.cache.maximum-size:10000}") long maximumSize,
+                            @Value("${stats.views.cache.expire-after-write:1m}") Duration expireAfterWrite,
+                            @Value("${stats.views.cache.refresh-after-write:10s}") Duration refreshAfterWrite,
+                            @Value("${stats.views.cache.invalidate-on-hit:true}") boolean invalidateOnHit,
+                            @Value("${stats.views.timeout:200ms}") Duration timeout,
+                            @Value("${stats.views.max-pending-hits:1000}") int maxPendingHits) {
+
+        this.statsClient = statsClient;
+        this.approximate = approximate;
+        this.invalidateOnHit = invalidateOnHit && !statsClient.isAsync();
+        this.timeout = timeout;
+        this.pendingHits = new Semaphore(maxPendingHits);
+        if (invalidateOnHit && statsClient.isAsync()) {
+            log.info("Hits are sent in batches, stats.views.cache.invalidate-on-hit is ignored");
+        }
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("stats-views-", 0).factory());
+        this.views = Caffeine.newBuilder()
+                .executor(executor)
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .buildAsync(new ViewsLoader());
+    }
+
+    /**
+     * Отправляет хит на сервер статистики. Если включен {@code invalidate-on-hit}, запись кэша
+     * для этого URI сбрасывается, чтобы следующий запрос увидел собственный просмотр.
+     */
+    @Override
+    public void addHit(String uri, String ip) {
+
+        statsClient.addHit(APP, uri, ip, LocalDateTime.now());
+        if (invalidateOnHit) {
+            views.synchronous().invalidate(uri);
+        }
+    }
+
+    @Override
+    public long getViews(String uri) {
+        return getViews(List.of(uri)).getOrDefault(uri, 0L);
+    }
+
+    @Override
+    public Map<String, Long> getViews(Collection<String> uris) {
+
+        try {
+            return views.getAll(uris).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<String, Long> refreshViews(Collection<String> uris) {
+
+        Map<String, Long> fresh = loadViews(Set.copyOf(uris));
+        views.synchronous().putAll(fresh);
+        return fresh;
+    }
+
+    @Override
+    public void addHitAsync(String uri, String ip) {
+        sendHit(uri, ip);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Long>> addHitAndGetViewsAsync(String hitUri, String ip,
+                                                                      Collection<String> uris) {
+
+        CompletableFuture<Void> hit = sendHit(hitUri, ip);
+        return invalidateOnHit ? hit.thenCompose(ignored -> getViewsAsync(uris)) : getViewsAsync(uris);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Long>> getViewsAsync(Collection<String> uris) {
+        return views.getAll(uris);
+    }
+
+    @Override
+    public Map<String, Long> awaitViews(CompletableFuture<Map<String, Long>> pending, Collection<String> uris) {
+
+        try {
+            return pending.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Views for {} uris were not received in {}, cached views are used", uris.size(), timeout);
+        } catch (ExecutionException e) {
+            log.warn("Unable to get views for {} uris, cached views are used: {}", uris.size(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return cachedViews(uris);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, views, "eventViews");
+    }
+
+    private class ViewsLoader implements CacheLoader<String, Long> {
+
+        @Override
+        public Long load(String uri) {
+            return loadAll(Set.of(uri)).get(uri);
+        }
+
+        @Override
+        public Map<String, Long> loadAll(Set<? extends String> uris) {
+            return loadViews(uris);
+        }
+    }
+
+    private CompletableFuture<Void> sendHit(String uri, String ip) {
+
+        if (statsClient.isAsync() || !pendingHits.tryAcquire()) {
+            try {
+                addHit(uri, ip);
+            } catch (RuntimeException e) {
+                log.warn("Unable to send hit for uri={}: {}", uri, e.getMessage());
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> addHit(uri, ip), executor)
+                    .whenComplete((ignored, e) -> pendingHits.release())
+                    .exceptionally(e -> {
+                        log.warn("Unable to send hit for uri={}: {}", uri, e.getMessage());
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            pendingHits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Просмотры, уже загруженные в кэш; незавершенные загрузки не ожидаются.
+     */
+    private Map<String, Long> cachedViews(Collection<String> uris) {
+
+        Map<String, Long> result = new HashMap<>();
+        for (String uri : uris) {
+            CompletableFuture<Long> cached = views.getIfPresent(uri);
+            if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+                result.put(uri, cached.join());
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Long> loadViews(Set<? extends String> uris) {
+
+        log.info("Load views for {} uris from stats server", uris.size());
+        List<StatsItemDto> listDto = statsClient.getStats(STATS_START, STATS_END, List.copyOf(uris), true,
+                approximate);
+        Map<String, Long> result = new HashMap<>();
+        uris.forEach(uri -> result.put(uri, 0L));
+        if (listDto != null) {
+            listDto.forEach(statsItem -> result.computeIfPresent(statsItem.getUri(), (uri, v) -> statsItem.getHits()));
+        }
+        return result;
+    }
+}
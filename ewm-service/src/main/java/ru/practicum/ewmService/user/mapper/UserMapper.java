@@ -1,10 +1,12 @@
 package ru.practicum.ewmService.user.mapper;
 
 import lombok.experimental.UtilityClass;
+import org.hibernate.Hibernate;
 import ru.practicum.ewmService.user.dto.NewUserRequest;
 import ru.practicum.ewmService.user.dto.UserDto;
 import ru.practicum.ewmService.user.dto.UserShortDto;
 import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.service.UserShortDtoCache;
 
 @UtilityClass
 public class UserMapper {
@@ -20,4 +22,12 @@ public class UserMapper {
     public UserShortDto toUserShortDto(User user) {
         return new UserShortDto(user.getId(), user.getName());
     }
-}
\ No newline at end of file
+
+    /**
+     * Краткое представление связанного пользователя: загруженная сущность отображается напрямую,
+     * для ленивой ссылки DTO берется из кэша без обращения к базе.
+     */
+    public UserShortDto toUserShortDto(User user, UserShortDtoCache users) {
+        return Hibernate.isInitialized(user) ? toUserShortDto(user) : users.get(user.getId());
+    }
+}
@@ -20,7 +20,7 @@ import java.util.Objects;
  * на комбинацию полей "name" и "email".
  * Он предоставляет основную информацию о пользователе, такую как ID, имя и email.
  * Класс также переопределяет методы {@link #equals(Object)} и {@link #hashCode()}
- * для сравнения пользователей по их ID.
+ * для сравнения пользователей по их ID, в том числе ленивых прокси Hibernate.
  */
 
 @Getter
@@ -42,13 +42,13 @@ public class User {
 
     @Override
     public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        User user = (User) o;
-        return Objects.equals(id, user.id);
+        if (this == o) return true;
+        if (!(o instanceof User user)) return false;
+        return Objects.equals(getId(), user.getId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(id);
+        return Objects.hashCode(getId());
     }
 }
\ No newline at end of file
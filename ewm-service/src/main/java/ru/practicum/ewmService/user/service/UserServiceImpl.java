@@ -34,6 +34,7 @@ public class UserServiceImpl implements UserService {
     private final EventRepository eventRepository;
     private final ParticipationRepository participationRepository;
     private final CommentsRepository commentsRepository;
+    private final UserShortDtoCache userCache;
 
     @Override
     public UserDto addUser(NewUserRequest dto) {
@@ -43,6 +44,7 @@ public class UserServiceImpl implements UserService {
         }
         User user = UserMapper.toUser(dto);
         user = userRepository.save(user);
+        userCache.put(user);
         UserDto result = UserMapper.toUserDto(user);
         log.info("Add user returns: {}", result);
         return result;
@@ -81,6 +83,7 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.deleteById(userId);
+        userCache.evict(userId);
         log.info("Delete user with id={} operation has done", userId);
     }
 }
\ No newline at end of file
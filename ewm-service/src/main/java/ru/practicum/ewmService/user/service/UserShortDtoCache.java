@@ -0,0 +1,64 @@
+package ru.practicum.ewmService.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewmService.exceptions.NotFoundException;
+import ru.practicum.ewmService.user.dto.UserShortDto;
+import ru.practicum.ewmService.user.mapper.UserMapper;
+import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.repository.UserRepository;
+
+import java.time.Duration;
+
+/**
+ * Локальный кэш кратких представлений пользователей ({@link UserShortDto}) по id — инициаторов событий
+ * и авторов комментариев. Запись сбрасывается сервисом пользователей при удалении пользователя,
+ * {@code expire-after-write} ограничивает устаревание при изменениях на других экземплярах сервиса.
+ * Метрики кэша публикуются под именем {@code cache.*} с тегом {@code cache=userShortDtos}.
+ */
+@Component
+public class UserShortDtoCache implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserShortDto> users;
+
+    public UserShortDtoCache(UserRepository userRepository,
+                             @Value("${users.cache.maximum-size:10000}") long maximumSize,
+                             @Value("${users.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public UserShortDto get(long userId) {
+
+        UserShortDto user = users.get(userId,
+                id -> userRepository.findById(id).map(UserMapper::toUserShortDto).orElse(null));
+        if (user == null) {
+            throw new NotFoundException("User with id=%d not found".formatted(userId));
+        }
+        return user;
+    }
+
+    public void put(User user) {
+        users.put(user.getId(), UserMapper.toUserShortDto(user));
+    }
+
+    public void evict(long userId) {
+        users.invalidate(userId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "userShortDtos");
+    }
+}
@@ -1,23 +1,15 @@
-drop table if exists comments;
-drop table if exists participation;
-drop table if exists compiled_events;
-drop table if exists compilations;
-drop table if exists events;
-drop table if exists categories;
-drop table if exists users;
-
-create table if not exists users (
+create table users (
     id bigint generated by default as identity primary key not null,
     name varchar(250) not null unique,
     email varchar(254) not null unique
 );
 
-create table if not exists categories (
+create table categories (
     id bigint generated by default as identity primary key not null,
     name varchar(50) not null unique
 );
 
-create table if not exists events (
+create table events (
     id bigint generated by default as identity primary key not null,
     annotation varchar(2000) not null,
     category_id bigint references categories not null,
@@ -37,19 +29,19 @@ create table if not exists events (
     rating float not null default 0
 );
 
-create table if not exists compilations (
+create table compilations (
     id bigint generated by default as identity primary key not null,
     title varchar(50) not null,
     pinned boolean not null
 );
 
-create table if not exists compiled_events (
+create table compiled_events (
     id bigint generated by default as identity primary key not null,
     compilation_id bigint references compilations not null,
     event_id bigint references events not null
 );
 
-create table if not exists participation (
+create table participation (
     id bigint generated by default as identity primary key not null,
     event_id bigint references events not null,
     requester_id bigint references users not null,
@@ -57,7 +49,7 @@ create table if not exists participation (
     created timestamp without time zone not null
 );
 
-create table if not exists comments (
+create table comments (
     id bigint generated by default as identity primary key not null,
     event_id bigint references events not null,
     commenter_id bigint references users not null,
@@ -65,4 +57,4 @@ create table if not exists comments (
     status varchar(16) not null,
     created timestamp without time zone not null,
     rate int
-);
\ No newline at end of file
+);
@@ -0,0 +1,2 @@
+-- Просмотры события из сервиса статистики, которые переносит EventViewsSynchronizer; по ним работает сортировка VIEWS.
+alter table events add column views bigint not null default 0;
@@ -0,0 +1,21 @@
+-- Индексы под запросы репозиториев. PostgreSQL не создает индексы для внешних ключей сам.
+
+-- Публичный поиск: state = 'PUBLISHED' и порядок EVENT_DATE / VIEWS / RATINGS с id для курсора.
+create index events_state_event_date_id_idx on events (state, event_date, id);
+create index events_state_views_id_idx on events (state, views desc, id);
+create index events_state_rating_id_idx on events (state, rating desc, id);
+-- Админский поиск без сортировки, события пользователя, проверки перед удалением категории и пользователя.
+create index events_initiator_id_idx on events (initiator_id, id);
+create index events_category_id_idx on events (category_id);
+
+-- Заявки пользователя на событие и заявки на событие с фильтром по статусу.
+create index participation_event_requester_idx on participation (event_id, requester_id, status);
+create index participation_requester_idx on participation (requester_id);
+
+-- Комментарии события и пользователя в порядке создания, средняя оценка события.
+create index comments_event_created_idx on comments (event_id, created);
+create index comments_commenter_created_idx on comments (commenter_id, created);
+
+-- События подборки и удаление события из подборок.
+create index compiled_events_compilation_idx on compiled_events (compilation_id, event_id);
+create index compiled_events_event_idx on compiled_events (event_id);
@@ -0,0 +1,12 @@
+-- Рейтинг события поддерживается инкрементально: сумма и количество оценок одобренных комментариев.
+alter table events add column rating_sum bigint not null default 0;
+alter table events add column rating_count integer not null default 0;
+
+update events e
+set rating_sum = coalesce((select sum(c.rate) from comments c
+                           where c.event_id = e.id and c.status = 'APPROVED'), 0),
+    rating_count = (select count(c.rate) from comments c
+                    where c.event_id = e.id and c.status = 'APPROVED');
+
+update events
+set rating = case when rating_count = 0 then 0 else cast(rating_sum as float) / rating_count end;
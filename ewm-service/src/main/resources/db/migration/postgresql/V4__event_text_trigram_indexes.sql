@@ -0,0 +1,6 @@
+-- Фильтр text ищет подстроку без учета регистра: lower(annotation) like '%text%' or lower(description) like ...
+-- Триграммные индексы строятся по тем же выражениям lower(...), в которые раскрывается условие (EventTextSearch).
+create extension if not exists pg_trgm;
+
+create index events_annotation_trgm_idx on events using gin (lower(annotation) gin_trgm_ops);
+create index events_description_trgm_idx on events using gin (lower(description) gin_trgm_ops);
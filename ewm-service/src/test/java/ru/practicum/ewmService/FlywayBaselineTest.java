@@ -0,0 +1,81 @@
+package ru.practicum.ewmService;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет, что база, созданная schema.sql до перехода на Flyway (та же схема, что в V1), принимается за версию 1
+ * с настройками baseline из application.properties и доводится миграциями до текущей схемы без потери данных.
+ */
+class FlywayBaselineTest {
+
+    private static final List<String> LEGACY_SCHEMA = List.of(
+            "create table users (id bigint generated by default as identity primary key not null,"
+                    + " name varchar(250) not null unique, email varchar(254) not null unique)",
+            "create table categories (id bigint generated by default as identity primary key not null,"
+                    + " name varchar(50) not null unique)",
+            "create table events (id bigint generated by default as identity primary key not null,"
+                    + " annotation varchar(2000) not null, category_id bigint references categories not null,"
+                    + " initiator_id bigint references users not null, description varchar(7000) not null,"
+                    + " event_date timestamp without time zone not null, location_lat float not null,"
+                    + " location_lon float not null, paid boolean not null default false,"
+                    + " participant_limit integer not null default 0, confirmed_requests integer not null default 0,"
+                    + " request_moderation boolean not null default true,"
+                    + " created_on timestamp without time zone not null, published_on timestamp without time zone,"
+                    + " state varchar(10) not null, title varchar(120) not null, rating float not null default 0)",
+            "create table compilations (id bigint generated by default as identity primary key not null,"
+                    + " title varchar(50) not null, pinned boolean not null)",
+            "create table compiled_events (id bigint generated by default as identity primary key not null,"
+                    + " compilation_id bigint references compilations not null,"
+                    + " event_id bigint references events not null)",
+            "create table participation (id bigint generated by default as identity primary key not null,"
+                    + " event_id bigint references events not null, requester_id bigint references users not null,"
+                    + " status varchar(16) not null, created timestamp without time zone not null)",
+            "create table comments (id bigint generated by default as identity primary key not null,"
+                    + " event_id bigint references events not null, commenter_id bigint references users not null,"
+                    + " text varchar(1000) not null, status varchar(16) not null,"
+                    + " created timestamp without time zone not null, rate int)",
+            "insert into users (name, email) values ('user', 'user@mail.ru')",
+            "insert into categories (name) values ('category')",
+            "insert into events (annotation, category_id, initiator_id, description, event_date, location_lat,"
+                    + " location_lon, created_on, state, title) values ('annotation', 1, 1, 'description',"
+                    + " localtimestamp, 0, 0, localtimestamp, 'PUBLISHED', 'title')",
+            "insert into comments (event_id, commenter_id, text, status, created, rate)"
+                    + " values (1, 1, 'text', 'APPROVED', localtimestamp, 4)");
+
+    @Test
+    void migrate_onLegacySchema_shouldBaselineAndKeepData() throws IOException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:ewm-legacy;DB_CLOSE_DELAY=-1", "user", "password");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        LEGACY_SCHEMA.forEach(jdbcTemplate::execute);
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .baselineOnMigrate(Boolean.parseBoolean(properties.getProperty("spring.flyway.baseline-on-migrate")))
+                .baselineVersion(properties.getProperty("spring.flyway.baseline-version"))
+                .load()
+                .migrate();
+
+        assertEquals(List.of("BASELINE 1", "SQL 2", "SQL 3", "SQL 5"), jdbcTemplate.queryForList(
+                "select \"type\" || ' ' || \"version\" from \"flyway_schema_history\""
+                        + " where \"version\" is not null order by \"installed_rank\"", String.class));
+        assertEquals(List.of(0L, 4L, 1L), List.of(
+                jdbcTemplate.queryForObject("select views from events where id = 1", Long.class),
+                jdbcTemplate.queryForObject("select rating_sum from events where id = 1", Long.class),
+                jdbcTemplate.queryForObject("select cast(rating_count as bigint) from events where id = 1",
+                        Long.class)));
+    }
+}
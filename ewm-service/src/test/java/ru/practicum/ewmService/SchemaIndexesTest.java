@@ -0,0 +1,113 @@
+package ru.practicum.ewmService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет по плану запроса (EXPLAIN) в PostgreSQL, что запросы репозиториев используют индексы из миграций.
+ * Таблицы заполняются данными с правдоподобным распределением, для них собирается статистика,
+ * а последовательное чтение запрещается, чтобы проверка не зависела от размера тестовых таблиц.
+ * Без Docker тест пропускается.
+ */
+@JdbcTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaIndexesTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final List<String> DATA = List.of(
+            "insert into users (name, email) select 'user' || x, 'user' || x || '@mail.ru' from generate_series(1, 500) x",
+            "insert into categories (name) select 'category' || x from generate_series(1, 20) x",
+            "insert into events (annotation, category_id, initiator_id, description, event_date, location_lat,"
+                    + " location_lon, created_on, state, title, rating, views)"
+                    + " select 'annotation ' || x, x % 20 + 1, x % 500 + 1, 'description ' || x,"
+                    + " localtimestamp + x * interval '1 hour', 0, 0, localtimestamp,"
+                    + " case x % 3 when 0 then 'PENDING' when 1 then 'PUBLISHED' else 'CANCELED' end,"
+                    + " 'title', x % 50, x % 1000 from generate_series(1, 20000) x",
+            "insert into participation (event_id, requester_id, status, created)"
+                    + " select x % 20000 + 1, x % 500 + 1, case x % 2 when 0 then 'PENDING' else 'CONFIRMED' end,"
+                    + " localtimestamp from generate_series(1, 20000) x",
+            "insert into comments (event_id, commenter_id, text, status, created, rate)"
+                    + " select x % 20000 + 1, x % 500 + 1, 'text', 'APPROVED', localtimestamp + x * interval '1 minute',"
+                    + " x % 5 from generate_series(1, 20000) x",
+            "insert into compilations (title, pinned) select 'compilation' || x, x % 10 = 0 from generate_series(1, 200) x",
+            "insert into compiled_events (compilation_id, event_id)"
+                    + " select x % 200 + 1, x % 20000 + 1 from generate_series(1, 2000) x",
+            "analyze");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Integer users = jdbcTemplate.queryForObject("select count(*) from users", Integer.class);
+        if (users == null || users == 0) {
+            DATA.forEach(jdbcTemplate::execute);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select id from events where state = 'PUBLISHED' and event_date > localtimestamp"
+                    + " order by event_date, id limit 10 | events_state_event_date_id_idx",
+            "select id from events where state = 'PUBLISHED' order by views desc, id limit 10"
+                    + " | events_state_views_id_idx",
+            "select id from events where state = 'PUBLISHED' order by rating desc, id limit 10"
+                    + " | events_state_rating_id_idx",
+            "select id from events where initiator_id = 1 order by id limit 10 | events_initiator_id_idx",
+            "select 1 from events where category_id = 1 limit 1 | events_category_id_idx",
+            "select id from events where lower(annotation) like '%annotation 42%' | events_annotation_trgm_idx",
+            "select id from events where lower(description) like '%description 42%' | events_description_trgm_idx",
+            "select id from participation where event_id = 1 and requester_id = 2 and status = 'CONFIRMED'"
+                    + " | participation_event_requester_idx",
+            "select id from participation where requester_id = 1 | participation_requester_idx",
+            "select id from comments where event_id = 1 order by created limit 10 | comments_event_created_idx",
+            "select id from comments where commenter_id = 1 order by created limit 10"
+                    + " | comments_commenter_created_idx",
+            "select event_id from compiled_events where compilation_id = 1 | compiled_events_compilation_idx",
+            "select id from compiled_events where event_id = 1 | compiled_events_event_idx"
+    })
+    void queryPlan_ShouldUseIndex(String query, String index) {
+        String plan = explain(query);
+
+        assertTrue(plan.contains(index), "Expected " + index + " in plan:\n" + plan);
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set enable_seqscan = off");
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = statement.executeQuery("explain " + query)) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                statement.execute("reset enable_seqscan");
+                return plan.toString();
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.ewmService.category.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.ewmService.category.dto.CategoryDto;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.exceptions.NotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryCacheTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CategoryCache categoryCache;
+
+    @BeforeEach
+    void setUp() {
+        categoryCache = new CategoryCache(categoryRepository, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void preload_ShouldServeCategoriesWithoutRepositoryLookups() {
+        when(categoryRepository.findAll(PageRequest.of(0, 100)))
+                .thenReturn(new PageImpl<>(List.of(new Category(1L, "Concerts"), new Category(2L, "Movies"))));
+
+        categoryCache.preload();
+
+        assertEquals(new CategoryDto(1L, "Concerts"), categoryCache.get(1L));
+        assertEquals(new CategoryDto(2L, "Movies"), categoryCache.get(2L));
+        verify(categoryRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void get_ShouldLoadMissingCategoryOnce() {
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(new Category(1L, "Concerts")));
+
+        categoryCache.get(1L);
+        CategoryDto result = categoryCache.get(1L);
+
+        assertEquals(new CategoryDto(1L, "Concerts"), result);
+        verify(categoryRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void get_ShouldThrowNotFoundAndNotCacheAbsentCategory() {
+        when(categoryRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> categoryCache.get(1L));
+        assertTrue(categoryCache.find(1L).isEmpty());
+        verify(categoryRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void putAndEvict_ShouldReplaceCachedCategory() {
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(new Category(1L, "Theatre")));
+
+        categoryCache.put(new Category(1L, "Concerts"));
+        assertEquals("Concerts", categoryCache.get(1L).getName());
+
+        categoryCache.put(new Category(1L, "Movies"));
+        assertEquals("Movies", categoryCache.get(1L).getName());
+
+        categoryCache.evict(1L);
+        assertEquals("Theatre", categoryCache.get(1L).getName());
+    }
+}
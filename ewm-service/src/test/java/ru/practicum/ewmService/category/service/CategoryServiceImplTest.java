@@ -42,6 +42,9 @@ class CategoryServiceImplTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private CategoryCache categoryCache;
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -59,6 +62,7 @@ class CategoryServiceImplTest {
         assertEquals(categoryDto, result);
         verify(categoryRepository, times(1)).existsByName(newCategoryDto.getName());
         verify(categoryRepository, times(1)).save(any(Category.class));
+        verify(categoryCache).put(any(Category.class));
     }
 
     @Test
@@ -166,6 +170,7 @@ class CategoryServiceImplTest {
         verify(categoryRepository, times(1)).findById(catId);
         verify(eventRepository, times(1)).existsByCategoryId(catId);
         verify(categoryRepository, times(1)).delete(category);
+        verify(categoryCache).evict(catId);
     }
 
     @Test
@@ -6,8 +6,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewmService.category.service.CategoryCache;
 import ru.practicum.ewmService.comment.dto.CommentDto;
 import ru.practicum.ewmService.comment.dto.NewCommentDto;
+import ru.practicum.ewmService.comment.dto.UpdateCommentDto;
 import ru.practicum.ewmService.comment.enums.CommentStatus;
 import ru.practicum.ewmService.comment.mapper.CommentsMapper;
 import ru.practicum.ewmService.comment.model.Comment;
@@ -21,14 +23,19 @@ import ru.practicum.ewmService.participation.enums.ParticipationStatus;
 import ru.practicum.ewmService.participation.repository.ParticipationRepository;
 import ru.practicum.ewmService.user.model.User;
 import ru.practicum.ewmService.user.repository.UserRepository;
+import ru.practicum.ewmService.user.service.UserShortDtoCache;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,6 +54,12 @@ class CommentsServiceImplTest {
     @Mock
     private ParticipationRepository participationRepository;
 
+    @Mock
+    private CategoryCache categoryCache;
+
+    @Mock
+    private UserShortDtoCache userCache;
+
     @InjectMocks
     private CommentsServiceImpl commentsService;
 
@@ -199,7 +212,6 @@ class CommentsServiceImplTest {
 
         when(commentsRepository.findById(commentId)).thenReturn(Optional.of(comment));
         when(commentsRepository.save(comment)).thenReturn(comment);
-        when(commentsRepository.getAverageRate(event)).thenReturn(5.0);
 
         try (MockedStatic<CommentsMapper> mockedMapper = mockStatic(CommentsMapper.class)) {
             mockedMapper.when(() -> CommentsMapper.toDto(comment)).thenReturn(commentDto);
@@ -209,7 +221,65 @@ class CommentsServiceImplTest {
             assertNotNull(result);
             assertEquals(CommentStatus.APPROVED, comment.getStatus());
             verify(commentsRepository).save(comment);
-            verify(eventRepository).save(event);
+            verify(eventRepository).addRating(1L, 5, 1);
+            verify(eventRepository, never()).save(event);
         }
     }
+
+    @Test
+    void updateCommentStatus_RejectRatedComment_DoesNotChangeEventRating() {
+        Comment comment = ratedComment(CommentStatus.PENDING);
+
+        when(commentsRepository.findById(1L)).thenReturn(Optional.of(comment));
+        when(commentsRepository.save(comment)).thenReturn(comment);
+
+        commentsService.updateCommentStatus(1L, CommentStatus.REJECTED);
+
+        verify(eventRepository, never()).addRating(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void updateComment_ApprovedRatedComment_RemovesOldRateUntilModeration() {
+        Comment comment = ratedComment(CommentStatus.APPROVED);
+        User user = comment.getCommenter();
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(commentsRepository.findById(1L)).thenReturn(Optional.of(comment));
+        when(participationRepository.existsByEventAndRequesterAndStatus(comment.getEvent(), user,
+                ParticipationStatus.CONFIRMED)).thenReturn(true);
+        when(commentsRepository.save(comment)).thenReturn(comment);
+
+        commentsService.updateComment(1L, 1L, new UpdateCommentDto(null, 2));
+
+        assertEquals(CommentStatus.PENDING, comment.getStatus());
+        verify(eventRepository).addRating(1L, -4, -1);
+    }
+
+    @Test
+    void deleteComment_ApprovedRatedComment_RemovesRate() {
+        Comment comment = ratedComment(CommentStatus.APPROVED);
+
+        when(commentsRepository.findById(1L)).thenReturn(Optional.of(comment));
+
+        commentsService.deleteComment(1L);
+
+        verify(commentsRepository).delete(comment);
+        verify(eventRepository).addRating(1L, -4, -1);
+    }
+
+    private Comment ratedComment(CommentStatus status) {
+        Event event = new Event();
+        event.setId(1L);
+        User commenter = new User();
+        commenter.setId(1L);
+        Comment comment = new Comment();
+        comment.setCommenter(commenter);
+        comment.setId(1L);
+        comment.setText("Comment");
+        comment.setStatus(status);
+        comment.setRate(4);
+        comment.setEvent(event);
+        comment.setCreated(LocalDateTime.now());
+        return comment;
+    }
 }
\ No newline at end of file
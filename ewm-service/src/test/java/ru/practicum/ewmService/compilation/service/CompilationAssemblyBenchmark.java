@@ -0,0 +1,120 @@
+package ru.practicum.ewmService.compilation.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.compilation.model.Compilation;
+import ru.practicum.ewmService.compiledEvents.model.CompiledEvent;
+import ru.practicum.ewmService.event.dto.EventShortDto;
+import ru.practicum.ewmService.event.mapper.EventMapper;
+import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает сборку страницы подборок группировкой за один проход ({@link CompilationEvents})
+ * с прежней фильтрацией всех записей {@code compiled_events} для каждой подборки.
+ * Время {@code grouped} растет линейно по {@code compilations × eventsPerCompilation},
+ * время {@code filtered} — квадратично по числу подборок.
+ * <p>
+ * Запуск: {@code mvn -pl ewm-service -am test-compile}, затем {@link #main} с тестовым classpath;
+ * результаты сохраняются в {@code target/jmh-compilation-assembly.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilationAssemblyBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int compilations;
+
+    @Param({"10", "100"})
+    private int eventsPerCompilation;
+
+    private List<Compilation> page;
+    private List<CompiledEvent> compiledEvents;
+
+    @Setup
+    public void setUp() {
+
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Category");
+        User user = new User();
+        user.setId(1L);
+        user.setName("User");
+
+        page = new ArrayList<>(compilations);
+        compiledEvents = new ArrayList<>(compilations * eventsPerCompilation);
+        long eventId = 0;
+        for (long compilationId = 1; compilationId <= compilations; compilationId++) {
+            Compilation compilation = new Compilation(compilationId, "Compilation " + compilationId, false);
+            page.add(compilation);
+            for (int i = 0; i < eventsPerCompilation; i++) {
+                Event event = new Event();
+                event.setId(++eventId);
+                event.setTitle("Event " + eventId);
+                event.setCategory(category);
+                event.setInitiator(user);
+                event.setEventDate(LocalDateTime.now().plusDays(1));
+                compiledEvents.add(new CompiledEvent(eventId, compilation, event));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<List<EventShortDto>> grouped() {
+
+        CompilationEvents events = CompilationEvents.group(page.size(), compiledEvents, EventMapper::toShortDto);
+        List<List<EventShortDto>> result = new ArrayList<>(page.size());
+        for (Compilation compilation : page) {
+            result.add(events.get(compilation.getId()));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<List<EventShortDto>> filtered() {
+
+        List<List<EventShortDto>> result = new ArrayList<>(page.size());
+        for (Compilation compilation : page) {
+            result.add(compiledEvents.stream()
+                    .filter(ce -> Objects.equals(ce.getCompilation(), compilation))
+                    .map(CompiledEvent::getEvent)
+                    .distinct()
+                    .map(EventMapper::toShortDto)
+                    .toList());
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CompilationAssemblyBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-compilation-assembly.json")
+                .build())
+                .run();
+    }
+}
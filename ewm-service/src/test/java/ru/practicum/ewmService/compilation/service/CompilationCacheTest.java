@@ -0,0 +1,79 @@
+package ru.practicum.ewmService.compilation.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewmService.compilation.dto.CompilationDto;
+import ru.practicum.ewmService.event.dto.EventShortDto;
+import ru.practicum.ewmService.event.model.EventUpdated;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompilationCacheTest {
+
+    private final CompilationCache cache = new CompilationCache(100, Duration.ofMinutes(5));
+
+    @Test
+    void eventUpdated_ShouldEvictOnlyCompilationsContainingEvent() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getCompilation(1L, id -> countLoad(loads, compilation(id, 10L)));
+        cache.getCompilation(2L, id -> countLoad(loads, compilation(id, 20L)));
+        cache.getPage(null, 0, 10, () -> countLoad(loads, List.of(compilation(1L, 10L))));
+        cache.getPage(true, 0, 10, () -> countLoad(loads, List.of(compilation(2L, 20L))));
+
+        cache.eventUpdated(new EventUpdated(10L));
+
+        cache.getCompilation(1L, id -> countLoad(loads, compilation(id, 10L)));
+        cache.getCompilation(2L, id -> countLoad(loads, compilation(id, 20L)));
+        cache.getPage(null, 0, 10, () -> countLoad(loads, List.of(compilation(1L, 10L))));
+        cache.getPage(true, 0, 10, () -> countLoad(loads, List.of(compilation(2L, 20L))));
+
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void compilationAdded_ShouldEvictPagesButKeepCompilations() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getCompilation(1L, id -> countLoad(loads, compilation(id, 10L)));
+        cache.getPage(false, 0, 10, () -> countLoad(loads, List.of(compilation(1L, 10L))));
+
+        cache.compilationAdded();
+
+        cache.getCompilation(1L, id -> countLoad(loads, compilation(id, 10L)));
+        cache.getPage(false, 0, 10, () -> countLoad(loads, List.of(compilation(1L, 10L))));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void compilationChanged_ShouldEvictCompilationAndPages() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getCompilation(1L, id -> countLoad(loads, compilation(id, 10L)));
+        cache.getCompilation(2L, id -> countLoad(loads, compilation(id, 20L)));
+        cache.getPage(false, 0, 10, () -> countLoad(loads, List.of(compilation(2L, 20L))));
+
+        cache.compilationChanged(1L);
+
+        cache.getCompilation(1L, id -> countLoad(loads, compilation(id, 10L)));
+        cache.getCompilation(2L, id -> countLoad(loads, compilation(id, 20L)));
+        cache.getPage(false, 0, 10, () -> countLoad(loads, List.of(compilation(2L, 20L))));
+
+        assertEquals(5, loads.get());
+    }
+
+    private static <T> T countLoad(AtomicInteger loads, T value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    private static CompilationDto compilation(long id, long eventId) {
+        EventShortDto event = new EventShortDto();
+        event.setId(eventId);
+        return new CompilationDto(id, "Compilation " + id, false, List.of(event));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.ewmService.compilation.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.compilation.model.Compilation;
+import ru.practicum.ewmService.compiledEvents.model.CompiledEvent;
+import ru.practicum.ewmService.event.dto.EventShortDto;
+import ru.practicum.ewmService.event.mapper.EventMapper;
+import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompilationEventsTest {
+
+    @Test
+    void get_ShouldReturnEventsOfCompilationInRecordOrderWithoutDuplicates() {
+        Compilation first = compilation(1L);
+        Compilation second = compilation(2L);
+        Event a = event(10L);
+        Event b = event(11L);
+
+        CompilationEvents events = CompilationEvents.group(2, List.of(
+                new CompiledEvent(1L, first, b),
+                new CompiledEvent(2L, second, a),
+                new CompiledEvent(3L, first, a),
+                new CompiledEvent(4L, first, b)), EventMapper::toShortDto);
+
+        assertEquals(List.of(11L, 10L), ids(events.get(1L)));
+        assertEquals(List.of(10L), ids(events.get(2L)));
+        assertTrue(events.get(3L).isEmpty());
+    }
+
+    @Test
+    void get_ShouldMapEventSharedByCompilationsOnce() {
+        Event shared = event(10L);
+
+        CompilationEvents events = CompilationEvents.group(2, List.of(
+                new CompiledEvent(1L, compilation(1L), shared),
+                new CompiledEvent(2L, compilation(2L), shared)), EventMapper::toShortDto);
+
+        assertSame(events.get(1L).getFirst(), events.get(2L).getFirst());
+    }
+
+    @Test
+    void group_ShouldKeepCollidingCompilationsApart() {
+        List<CompiledEvent> compiledEvents = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            compiledEvents.add(new CompiledEvent(id, compilation(id * 1024), event(id)));
+        }
+
+        CompilationEvents events = CompilationEvents.group(1000, compiledEvents, EventMapper::toShortDto);
+
+        for (long id = 1; id <= 1000; id++) {
+            assertEquals(List.of(id), ids(events.get(id * 1024)));
+        }
+    }
+
+    private static List<Long> ids(List<EventShortDto> dtos) {
+        return dtos.stream().map(EventShortDto::getId).toList();
+    }
+
+    private static Compilation compilation(long id) {
+        return new Compilation(id, "Compilation " + id, false);
+    }
+
+    private static Event event(long id) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Category");
+
+        User user = new User();
+        user.setId(1L);
+        user.setName("User");
+
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle("Event " + id);
+        event.setAnnotation("Annotation " + id);
+        event.setCategory(category);
+        event.setInitiator(user);
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        return event;
+    }
+}
@@ -4,11 +4,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.service.CategoryCache;
 import ru.practicum.ewmService.compilation.dto.CompilationDto;
 import ru.practicum.ewmService.compilation.dto.NewCompilationDto;
 import ru.practicum.ewmService.compilation.dto.UpdateCompilationRequest;
@@ -21,7 +23,9 @@ import ru.practicum.ewmService.event.repository.EventRepository;
 import ru.practicum.ewmService.exceptions.IntegrityException;
 import ru.practicum.ewmService.exceptions.NotFoundException;
 import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.service.UserShortDtoCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -52,6 +56,15 @@ class CompilationServiceImplTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private CategoryCache categoryCache;
+
+    @Mock
+    private UserShortDtoCache userCache;
+
+    @Spy
+    private CompilationCache compilationCache = new CompilationCache(100, Duration.ofMinutes(5));
+
     @InjectMocks
     private CompilationServiceImpl compilationService;
 
@@ -157,6 +170,46 @@ class CompilationServiceImplTest {
         verify(compilationRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void getCompilation_whenCalledTwice_thenLoadFromRepositoryOnce() {
+        Compilation compilation = new Compilation();
+        compilation.setId(1L);
+        compilation.setTitle("Test Compilation");
+        compilation.setPinned(true);
+
+        when(compilationRepository.findById(1L)).thenReturn(Optional.of(compilation));
+        when(compiledEventsRepository.fetchAllByCompilationIn(List.of(compilation))).thenReturn(List.of());
+
+        CompilationDto first = compilationService.getCompilation(1L);
+        CompilationDto second = compilationService.getCompilation(1L);
+
+        assertEquals(first, second);
+        verify(compilationRepository, times(1)).findById(1L);
+        verify(compiledEventsRepository, times(1)).fetchAllByCompilationIn(List.of(compilation));
+    }
+
+    @Test
+    void getCompilations_whenCompilationUpdated_thenReloadPage() {
+        Compilation compilation = new Compilation();
+        compilation.setId(1L);
+        compilation.setTitle("Old Title");
+        compilation.setPinned(false);
+
+        when(compilationRepository.findAll(PageRequest.of(0, 10))).thenReturn(new PageImpl<>(List.of(compilation)));
+        when(compilationRepository.findById(1L)).thenReturn(Optional.of(compilation));
+
+        compilationService.getCompilations(null, 0, 10);
+        compilationService.getCompilations(null, 0, 10);
+        UpdateCompilationRequest updateRequest = new UpdateCompilationRequest();
+        updateRequest.setTitle("New Title");
+        compilationService.updateCompilation(1L, updateRequest);
+        List<CompilationDto> result = compilationService.getCompilations(null, 0, 10);
+
+        assertEquals("New Title", result.getFirst().getTitle());
+        verify(compilationRepository, times(2)).findAll(PageRequest.of(0, 10));
+        verify(compilationCache).compilationChanged(1L);
+    }
+
     @Test
     void getCompilation_whenCompilationNotExists_thenThrowNotFoundException() {
         when(compilationRepository.findById(1L)).thenReturn(Optional.empty());
@@ -197,6 +250,7 @@ class CompilationServiceImplTest {
         verify(compilationRepository, times(1)).save(any(Compilation.class));
         verify(eventRepository, times(1)).findAllByIdIn(List.of(1L, 2L));
         verify(compiledEventsRepository, times(1)).saveAll(anyList());
+        verify(compilationCache).compilationAdded();
     }
 
     @Test
@@ -283,6 +337,7 @@ class CompilationServiceImplTest {
         verify(compilationRepository, times(1)).findById(1L);
         verify(compiledEventsRepository, times(1)).deleteAllByCompilation(compilation);
         verify(compilationRepository, times(1)).deleteById(1L);
+        verify(compilationCache).compilationChanged(1L);
     }
 
     @Test
@@ -0,0 +1,63 @@
+package ru.practicum.ewmService.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.dbConcurrency.ConcurrencyLimitedDataSource;
+import ru.practicum.statsClient.StatsClient;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Проверяет, что в режиме виртуальных потоков тысяча одновременных запросов к базе проходит
+ * через семафор размером меньше пула соединений.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ewm-virtual-threads;DB_CLOSE_DELAY=-1",
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "db.concurrency.limit=2"
+})
+class VirtualThreadsConfigTest {
+
+    private static final int QUERIES = 1000;
+
+    @MockBean
+    private StatsClient statsClient;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void dataSource_shouldBoundConcurrentQueriesOfVirtualThreads() throws Exception {
+        ConcurrencyLimitedDataSource limited = assertInstanceOf(ConcurrencyLimitedDataSource.class, dataSource);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < QUERIES; i++) {
+                results.add(executor.submit(() -> jdbcTemplate.queryForObject("select 1", Integer.class)));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(30, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(2, limited.availablePermits());
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.ewmService.category.dto.CategoryDto;
 import ru.practicum.ewmService.dateTimeFormatter.Formatter;
 import ru.practicum.ewmService.event.dto.EventFullDto;
+import ru.practicum.ewmService.event.dto.EventPage;
 import ru.practicum.ewmService.event.dto.EventShortDto;
 import ru.practicum.ewmService.event.dto.NewEventDto;
 import ru.practicum.ewmService.event.dto.UpdateEventRequest;
@@ -17,21 +18,29 @@ import ru.practicum.ewmService.event.enums.EventState;
 import ru.practicum.ewmService.event.enums.EventStateAction;
 import ru.practicum.ewmService.event.interfaces.EventService;
 import ru.practicum.ewmService.event.location.Location;
+import ru.practicum.ewmService.stats.interfaces.ViewsService;
 import ru.practicum.ewmService.user.dto.UserShortDto;
-import ru.practicum.statsClient.StatsClient;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(EventController.class)
@@ -47,7 +56,7 @@ class EventControllerTest {
     private EventService eventService;
 
     @MockBean
-    private StatsClient statsClient;
+    private ViewsService viewsService;
 
     @Test
     void getEventsPublic() throws Exception {
@@ -76,7 +85,8 @@ class EventControllerTest {
 
         List<EventShortDto> events = List.of(eventDto);
 
-        when(eventService.getEventsPublic(any())).thenReturn(events);
+        when(eventService.getEventsPublic(any())).thenReturn(new EventPage<>(events, null));
+        when(viewsService.awaitViews(any(), anyCollection())).thenReturn(Map.of("/events/1", 10L));
 
         mockMvc.perform(get("/events")
                         .param("text", "test")
@@ -86,6 +96,7 @@ class EventControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(events)));
 
         verify(eventService).getEventsPublic(any());
+        verify(viewsService).addHitAsync(eq("/events"), anyString());
     }
 
     @Test
@@ -120,15 +131,36 @@ class EventControllerTest {
         eventDto.setState(EventState.PUBLISHED.name());
         eventDto.setViews(0L);
 
+        CompletableFuture<Map<String, Long>> views = CompletableFuture.completedFuture(Map.of("/events/1", 3L));
         when(eventService.getEventPublic(anyLong())).thenReturn(eventDto);
+        when(viewsService.addHitAndGetViewsAsync(eq("/events/1"), anyString(), eq(List.of("/events/1"))))
+                .thenReturn(views);
+        when(viewsService.awaitViews(views, List.of("/events/1"))).thenReturn(Map.of("/events/1", 3L));
 
         mockMvc.perform(get("/events/{id}", 1L))
                 .andExpect(status().isOk())
-                .andExpect(content().json(objectMapper.writeValueAsString(eventDto)));
+                .andExpect(jsonPath("$.views").value(3));
 
         verify(eventService).getEventPublic(1L);
     }
 
+    @Test
+    void getEventPublic_whenViewsAreLate_shouldKeepEventViews() throws Exception {
+        EventFullDto eventDto = new EventFullDto();
+        eventDto.setId(1L);
+        eventDto.setTitle("Test Event");
+        eventDto.setViews(5L);
+
+        when(eventService.getEventPublic(anyLong())).thenReturn(eventDto);
+        when(viewsService.addHitAndGetViewsAsync(anyString(), anyString(), anyCollection()))
+                .thenReturn(new CompletableFuture<>());
+        when(viewsService.awaitViews(any(), anyCollection())).thenReturn(Map.of());
+
+        mockMvc.perform(get("/events/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.views").value(5));
+    }
+
     @Test
     void addEvent() throws Exception {
         CategoryDto categoryDto = new CategoryDto();
@@ -344,17 +376,37 @@ class EventControllerTest {
 
         List<EventFullDto> events = List.of(eventDto);
 
-        when(eventService.getEventsAdmin(any())).thenReturn(events);
+        when(eventService.getEventsAdmin(any())).thenReturn(new EventPage<>(events, null));
 
         mockMvc.perform(get("/admin/events")
                         .param("from", "0")
                         .param("size", "10"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(EventController.NEXT_CURSOR_HEADER))
                 .andExpect(content().json(objectMapper.writeValueAsString(events)));
 
         verify(eventService).getEventsAdmin(any());
     }
 
+    @Test
+    void getEventsAdminWithCursor() throws Exception {
+        EventFullDto eventDto = new EventFullDto();
+        eventDto.setId(2L);
+        eventDto.setTitle("Admin Event");
+        List<EventFullDto> events = List.of(eventDto);
+
+        when(eventService.getEventsAdmin(any())).thenReturn(new EventPage<>(events, "next"));
+
+        mockMvc.perform(get("/admin/events")
+                        .param("size", "1")
+                        .param("cursor", "current"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(EventController.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(content().json(objectMapper.writeValueAsString(events)));
+
+        verify(eventService).getEventsAdmin(argThat(request -> "current".equals(request.cursor())));
+    }
+
     @Test
     void updateEventAdmin() throws Exception {
         CategoryDto categoryDto = new CategoryDto();
@@ -0,0 +1,144 @@
+package ru.practicum.ewmService.event.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.comment.enums.CommentStatus;
+import ru.practicum.ewmService.comment.model.Comment;
+import ru.practicum.ewmService.comment.repository.CommentsRepository;
+import ru.practicum.ewmService.event.enums.EventState;
+import ru.practicum.ewmService.event.location.Location;
+import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(EventRatingRepository.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EventRatingRepositoryTest {
+
+    @Autowired
+    private EventRatingRepository eventRatingRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CommentsRepository commentsRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Concerts");
+
+        Location location = new Location();
+        location.setLat(55.7558f);
+        location.setLon(37.6173f);
+
+        Event newEvent = new Event();
+        newEvent.setAnnotation("Annotation");
+        newEvent.setDescription("Description");
+        newEvent.setTitle("Title");
+        newEvent.setCategory(categoryRepository.save(category));
+        newEvent.setInitiator(userRepository.save(user("initiator")));
+        newEvent.setLocation(location);
+        newEvent.setEventDate(LocalDateTime.now().plusDays(1));
+        newEvent.setCreatedOn(LocalDateTime.now());
+        newEvent.setState(EventState.PUBLISHED);
+        event = eventRepository.save(newEvent);
+    }
+
+    @Test
+    void addRating_ShouldKeepAverageOfAddedRates() {
+        eventRepository.addRating(event.getId(), 5, 1);
+        eventRepository.addRating(event.getId(), 2, 1);
+        eventRepository.addRating(event.getId(), 4, 1);
+        eventRepository.addRating(event.getId(), -5, -1);
+
+        Event saved = reload();
+        assertEquals(6, saved.getRatingSum());
+        assertEquals(2, saved.getRatingCount());
+        assertEquals(3.0, saved.getRating());
+
+        eventRepository.addRating(event.getId(), -2, -1);
+        eventRepository.addRating(event.getId(), -4, -1);
+        assertEquals(0.0, reload().getRating());
+    }
+
+    @Test
+    void findDriftedAndRepair_ShouldRecomputeRatingFromApprovedComments() {
+        comment("first", CommentStatus.APPROVED, 5);
+        comment("second", CommentStatus.APPROVED, 2);
+        comment("third", CommentStatus.REJECTED, 1);
+        comment("fourth", CommentStatus.APPROVED, null);
+        commentsRepository.flush();
+
+        List<EventRatingRepository.Drift> drifts = eventRatingRepository.findDrifted(event.getId(), event.getId());
+
+        assertEquals(List.of(new EventRatingRepository.Drift(event.getId(), 0, 0, 7, 2)), drifts);
+        assertEquals(1, eventRatingRepository.repair(drifts));
+        assertEquals(3.5, reload().getRating());
+        assertTrue(eventRatingRepository.findDrifted(event.getId(), event.getId()).isEmpty());
+    }
+
+    @Test
+    void repair_ShouldSkipRowChangedAfterCheck() {
+        comment("first", CommentStatus.APPROVED, 5);
+        commentsRepository.flush();
+        List<EventRatingRepository.Drift> drifts = eventRatingRepository.findDrifted(event.getId(), event.getId());
+
+        jdbcTemplate.update("update events set rating_sum = 5, rating_count = 1 where id = ?", event.getId());
+
+        assertEquals(0, eventRatingRepository.repair(drifts));
+    }
+
+    private Event reload() {
+        entityManager.clear();
+        return eventRepository.findById(event.getId()).orElseThrow();
+    }
+
+    private void comment(String commenter, CommentStatus status, Integer rate) {
+        Comment comment = new Comment();
+        comment.setEvent(event);
+        comment.setCommenter(userRepository.save(user(commenter)));
+        comment.setText("Comment");
+        comment.setStatus(status);
+        comment.setRate(rate);
+        comment.setCreated(LocalDateTime.now());
+        commentsRepository.save(comment);
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@mail.ru");
+        return user;
+    }
+}
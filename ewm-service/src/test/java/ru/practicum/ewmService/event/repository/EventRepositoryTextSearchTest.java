@@ -0,0 +1,108 @@
+package ru.practicum.ewmService.event.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.event.enums.EventState;
+import ru.practicum.ewmService.event.enums.SortingMode;
+import ru.practicum.ewmService.event.location.Location;
+import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.event.service.EventKeyset;
+import ru.practicum.ewmService.event.service.EventTextSearch;
+import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EventRepositoryTextSearchTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Category category;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("Concerts");
+        category = categoryRepository.save(category);
+
+        user = new User();
+        user.setName("Initiator");
+        user.setEmail("initiator@mail.ru");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void findAll_TextSearch_MatchesAnnotationOrDescription() {
+        Event inAnnotation = eventRepository.save(event("Jazz night in the park", "Open air concert"));
+        Event inDescription = eventRepository.save(event("Open air concert", "Live jazz until midnight"));
+        eventRepository.save(event("Rock festival", "Guitars and drums"));
+
+        List<Event> events = eventRepository.findAll(EventTextSearch.matches("JAZZ"),
+                PageRequest.of(0, 10, EventKeyset.sort(null, null))).getContent();
+
+        assertEquals(List.of(inAnnotation.getId(), inDescription.getId()),
+                events.stream().map(Event::getId).toList());
+    }
+
+    @Test
+    void findAll_TextSearch_MatchesPartOfWordAndEscapesWildcards() {
+        Event discount = eventRepository.save(event("Jazz night", "Tickets 50% off"));
+        eventRepository.save(event("Jazz night", "Tickets 500 rub"));
+
+        List<Event> events = eventRepository.findAll(EventTextSearch.matches("50%"),
+                PageRequest.of(0, 10, EventKeyset.sort(null, null))).getContent();
+
+        assertEquals(List.of(discount.getId()), events.stream().map(Event::getId).toList());
+        assertEquals(2, eventRepository.findAll(EventTextSearch.matches("AZZ NIG"),
+                PageRequest.of(0, 10, EventKeyset.sort(null, null))).getNumberOfElements());
+    }
+
+    @Test
+    void findAll_RelevanceSorting_PutsAnnotationMatchesFirst() {
+        Event inDescription = eventRepository.save(event("Open air concert", "Live jazz until midnight"));
+        Event inAnnotation = eventRepository.save(event("Jazz night in the park", "Open air concert"));
+
+        List<Event> events = eventRepository.findAll(EventTextSearch.matches("jazz"),
+                PageRequest.of(0, 10, EventKeyset.sort(SortingMode.RELEVANCE, "jazz"))).getContent();
+
+        assertEquals(List.of(inAnnotation.getId(), inDescription.getId()),
+                events.stream().map(Event::getId).toList());
+    }
+
+    private Event event(String annotation, String description) {
+        Location location = new Location();
+        location.setLat(55.7558f);
+        location.setLon(37.6173f);
+
+        Event event = new Event();
+        event.setAnnotation(annotation);
+        event.setDescription(description);
+        event.setTitle(annotation);
+        event.setCategory(category);
+        event.setInitiator(user);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setCreatedOn(LocalDateTime.now());
+        event.setState(EventState.PUBLISHED);
+        return event;
+    }
+}
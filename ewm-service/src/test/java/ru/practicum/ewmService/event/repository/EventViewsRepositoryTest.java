@@ -0,0 +1,105 @@
+package ru.practicum.ewmService.event.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.event.enums.EventState;
+import ru.practicum.ewmService.event.enums.SortingMode;
+import ru.practicum.ewmService.event.location.Location;
+import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.event.model.QEvent;
+import ru.practicum.ewmService.event.service.EventKeyset;
+import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import(EventViewsRepository.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EventViewsRepositoryTest {
+
+    @Autowired
+    private EventViewsRepository eventViewsRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Category category;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("Concerts");
+        category = categoryRepository.save(category);
+
+        user = new User();
+        user.setName("Initiator");
+        user.setEmail("initiator@mail.ru");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void findPublishedIds_ShouldSkipUnpublishedEvents() {
+        Event first = eventRepository.save(event(EventState.PUBLISHED));
+        eventRepository.save(event(EventState.PENDING));
+        Event third = eventRepository.save(event(EventState.PUBLISHED));
+
+        assertEquals(List.of(first.getId(), third.getId()), eventViewsRepository.findPublishedIds(0, 10));
+        assertEquals(List.of(third.getId()), eventViewsRepository.findPublishedIds(first.getId(), 10));
+    }
+
+    @Test
+    void updateViews_ShouldChangeOnlyDifferentValuesAndDriveViewsSorting() {
+        Event popular = eventRepository.save(event(EventState.PUBLISHED));
+        Event unseen = eventRepository.save(event(EventState.PUBLISHED));
+        Event seen = eventRepository.save(event(EventState.PUBLISHED));
+        eventRepository.flush();
+
+        int updated = eventViewsRepository.updateViews(Map.of(popular.getId(), 10L, unseen.getId(), 0L,
+                seen.getId(), 3L));
+
+        List<Long> ids = eventRepository.findAll(QEvent.event.state.eq(EventState.PUBLISHED),
+                        PageRequest.of(0, 10, EventKeyset.sort(SortingMode.VIEWS, null))).stream()
+                .map(Event::getId)
+                .toList();
+
+        assertEquals(2, updated);
+        assertEquals(List.of(popular.getId(), seen.getId(), unseen.getId()), ids);
+    }
+
+    private Event event(EventState state) {
+        Location location = new Location();
+        location.setLat(55.7558f);
+        location.setLon(37.6173f);
+
+        Event event = new Event();
+        event.setAnnotation("Annotation");
+        event.setDescription("Description");
+        event.setTitle("Title");
+        event.setCategory(category);
+        event.setInitiator(user);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setCreatedOn(LocalDateTime.now());
+        event.setState(state);
+        return event;
+    }
+}
@@ -0,0 +1,241 @@
+package ru.practicum.ewmService.event.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.comment.dto.CommentWithEventDetailedDto;
+import ru.practicum.ewmService.comment.dto.CommentWithUserDetailedDto;
+import ru.practicum.ewmService.comment.enums.CommentStatus;
+import ru.practicum.ewmService.comment.interfaces.CommentsService;
+import ru.practicum.ewmService.comment.model.Comment;
+import ru.practicum.ewmService.comment.repository.CommentsRepository;
+import ru.practicum.ewmService.event.dto.EventFullDto;
+import ru.practicum.ewmService.event.dto.EventListRequestAdmin;
+import ru.practicum.ewmService.event.dto.EventListRequestPublic;
+import ru.practicum.ewmService.event.dto.EventPage;
+import ru.practicum.ewmService.event.dto.EventShortDto;
+import ru.practicum.ewmService.event.enums.EventState;
+import ru.practicum.ewmService.event.enums.SortingMode;
+import ru.practicum.ewmService.event.interfaces.EventService;
+import ru.practicum.ewmService.event.location.Location;
+import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.event.repository.EventRepository;
+import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.repository.UserRepository;
+import ru.practicum.statsClient.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Проверяет по статистике Hibernate, что списки событий и комментариев загружают связи тем же запросом,
+ * что и строки страницы, и не выполняют дополнительных запросов на каждую строку.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ewm-statements;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class EventListingStatementsTest {
+
+    private static final int EVENTS = 1000;
+    private static final int INITIATORS = 50;
+    private static final int CATEGORIES = 10;
+    private static final int COMMENTS = 200;
+
+    @MockBean
+    private StatsClient statsClient;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private CommentsService commentsService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CommentsRepository commentsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User initiator;
+    private User commenter;
+    private Event commentedEvent;
+
+    @BeforeAll
+    void setUpData() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            Category category = new Category();
+            category.setName("Statements category " + i);
+            categories.add(category);
+        }
+        categories = categoryRepository.saveAll(categories);
+
+        List<User> initiators = new ArrayList<>();
+        for (int i = 0; i < INITIATORS; i++) {
+            initiators.add(new User(null, "Initiator " + i, "statements-initiator" + i + "@mail.ru"));
+        }
+        initiators = userRepository.saveAll(initiators);
+        initiator = initiators.getFirst();
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(event(categories.get(i % CATEGORIES), initiators.get(i % INITIATORS)));
+        }
+        events = eventRepository.saveAll(events);
+        commentedEvent = events.getFirst();
+
+        List<User> commenters = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            commenters.add(new User(null, "Commenter " + i, "statements-commenter" + i + "@mail.ru"));
+        }
+        commenters = userRepository.saveAll(commenters);
+        commenter = commenters.getFirst();
+
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            comments.add(comment(commentedEvent, commenters.get(i)));
+            comments.add(comment(events.get(i + 1), commenter));
+        }
+        commentsRepository.saveAll(comments);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void getEventsPublic_ShouldLoadPageOfThousandEventsWithOneStatement() {
+        EventListRequestPublic request = new EventListRequestPublic(null, null, null, null, null, null,
+                SortingMode.EVENT_DATE, 0, EVENTS, null);
+
+        EventPage<EventShortDto> page = eventService.getEventsPublic(request);
+
+        assertEquals(EVENTS, page.events().size());
+        assertNotNull(page.events().getLast().getInitiator().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getEventsPublic_ShouldLoadOffsetAndCursorPagesWithOneStatement() {
+        EventListRequestPublic offsetRequest = new EventListRequestPublic(null, null, null, null, null, null,
+                SortingMode.EVENT_DATE, 1, 100, null);
+
+        EventPage<EventShortDto> offsetPage = eventService.getEventsPublic(offsetRequest);
+        long offsetStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        EventListRequestPublic cursorRequest = new EventListRequestPublic(null, null, null, null, null, null,
+                SortingMode.EVENT_DATE, 0, 100, offsetPage.nextCursor());
+        EventPage<EventShortDto> cursorPage = eventService.getEventsPublic(cursorRequest);
+
+        assertEquals(100, offsetPage.events().size());
+        assertEquals(100, cursorPage.events().size());
+        assertEquals(1, offsetStatements);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        List<Long> all = ids(eventService.getEventsPublic(new EventListRequestPublic(null, null, null, null, null,
+                null, SortingMode.EVENT_DATE, 0, EVENTS, null)).events());
+        assertEquals(all.subList(100, 200), ids(offsetPage.events()));
+        assertEquals(all.subList(200, 300), ids(cursorPage.events()));
+    }
+
+    @Test
+    void getEventsAdmin_ShouldLoadPageOfThousandEventsWithOneStatement() {
+        EventListRequestAdmin request = new EventListRequestAdmin(null, List.of(EventState.PUBLISHED), null,
+                null, null, 0, EVENTS, null);
+
+        EventPage<EventFullDto> page = eventService.getEventsAdmin(request);
+
+        assertEquals(EVENTS, page.events().size());
+        assertNotNull(page.events().getLast().getCategory().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getEventsPrivate_ShouldLoadInitiatorEventsWithOneStatement() {
+        List<EventShortDto> events = eventService.getEventsPrivate(initiator.getId(), 0, EVENTS);
+
+        assertEquals(EVENTS / INITIATORS, events.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getCommentsByEvent_ShouldLoadCommentersWithPage() {
+        List<CommentWithUserDetailedDto> comments = commentsService.getCommentsByEvent(commentedEvent.getId(), null,
+                0, COMMENTS);
+
+        assertEquals(COMMENTS, comments.size());
+        assertNotNull(comments.getLast().getCommenter().getName());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getCommentsByUser_ShouldLoadEventsWithPage() {
+        List<CommentWithEventDetailedDto> comments = commentsService.getCommentsByUser(commenter.getId(), null,
+                0, COMMENTS + 1);
+
+        assertEquals(COMMENTS + 1, comments.size());
+        assertNotNull(comments.getLast().getEvent().getInitiator().getName());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private static List<Long> ids(List<EventShortDto> events) {
+        return events.stream().map(EventShortDto::getId).toList();
+    }
+
+    private Event event(Category category, User user) {
+        Location location = new Location();
+        location.setLat(55.7558f);
+        location.setLon(37.6173f);
+
+        Event event = new Event();
+        event.setAnnotation("Annotation");
+        event.setDescription("Description");
+        event.setTitle("Title");
+        event.setCategory(category);
+        event.setInitiator(user);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setCreatedOn(LocalDateTime.now());
+        event.setState(EventState.PUBLISHED);
+        return event;
+    }
+
+    private Comment comment(Event event, User user) {
+        Comment comment = new Comment();
+        comment.setEvent(event);
+        comment.setCommenter(user);
+        comment.setText("Comment");
+        comment.setStatus(CommentStatus.PENDING);
+        comment.setCreated(LocalDateTime.now());
+        return comment;
+    }
+}
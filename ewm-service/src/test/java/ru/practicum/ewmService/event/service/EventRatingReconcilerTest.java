@@ -0,0 +1,55 @@
+package ru.practicum.ewmService.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewmService.event.repository.EventRatingRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventRatingReconcilerTest {
+
+    @Mock
+    private EventRatingRepository eventRatingRepository;
+
+    private EventRatingReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new EventRatingReconciler(eventRatingRepository, 2);
+    }
+
+    @Test
+    void reconcileAll_ShouldRepairOnlyDriftedBatches() {
+        EventRatingRepository.Drift drift = new EventRatingRepository.Drift(3L, 0, 0, 5, 1);
+        when(eventRatingRepository.findIds(0L, 2)).thenReturn(List.of(1L, 2L));
+        when(eventRatingRepository.findIds(2L, 2)).thenReturn(List.of(3L));
+        when(eventRatingRepository.findDrifted(1L, 2L)).thenReturn(List.of());
+        when(eventRatingRepository.findDrifted(3L, 3L)).thenReturn(List.of(drift));
+        when(eventRatingRepository.repair(List.of(drift))).thenReturn(1);
+
+        int repaired = reconciler.reconcileAll();
+
+        assertEquals(1, repaired);
+        verify(eventRatingRepository, never()).findIds(3L, 2);
+    }
+
+    @Test
+    void reconcile_WhenDatabaseFails_ShouldNotThrow() {
+        when(eventRatingRepository.findIds(0L, 2)).thenReturn(List.of(1L));
+        when(eventRatingRepository.findDrifted(anyLong(), anyLong())).thenThrow(new IllegalStateException("Failed"));
+
+        reconciler.reconcile();
+
+        verify(eventRatingRepository, never()).repair(List.of());
+    }
+}
@@ -1,29 +1,45 @@
 package ru.practicum.ewmService.event.service;
 
+import com.querydsl.core.types.Predicate;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.ewmService.category.model.Category;
 import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.category.service.CategoryCache;
+import ru.practicum.ewmService.event.dto.EventCursor;
 import ru.practicum.ewmService.event.dto.EventFullDto;
+import ru.practicum.ewmService.event.dto.EventListRequestAdmin;
+import ru.practicum.ewmService.event.dto.EventListRequestPublic;
+import ru.practicum.ewmService.event.dto.EventPage;
+import ru.practicum.ewmService.event.dto.EventShortDto;
 import ru.practicum.ewmService.event.dto.NewEventDto;
+import ru.practicum.ewmService.event.dto.UpdateEventRequest;
 import ru.practicum.ewmService.event.enums.EventState;
+import ru.practicum.ewmService.event.enums.SortingMode;
 import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.event.model.EventUpdated;
 import ru.practicum.ewmService.event.repository.EventRepository;
 import ru.practicum.ewmService.exceptions.IntegrityException;
+import ru.practicum.ewmService.exceptions.IsBadRequestException;
 import ru.practicum.ewmService.exceptions.NotFoundException;
 import ru.practicum.ewmService.user.model.User;
 import ru.practicum.ewmService.user.repository.UserRepository;
+import ru.practicum.ewmService.user.service.UserShortDtoCache;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,6 +55,15 @@ class EventServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryCache categoryCache;
+
+    @Mock
+    private UserShortDtoCache userCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private EventServiceImpl eventService;
 
@@ -70,7 +95,7 @@ class EventServiceImplTest {
         event.setEventDate(dto.getEventDate());
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(categoryRepository.getReferenceById(categoryId)).thenReturn(category);
         when(eventRepository.save(any(Event.class))).thenReturn(event);
 
         EventFullDto result = eventService.addEvent(userId, dto);
@@ -78,7 +103,7 @@ class EventServiceImplTest {
         assertNotNull(result);
         assertEquals(event.getId(), result.getId());
         verify(userRepository).findById(userId);
-        verify(categoryRepository).findById(categoryId);
+        verify(categoryCache).get(categoryId);
         verify(eventRepository).save(any(Event.class));
     }
 
@@ -111,7 +136,7 @@ class EventServiceImplTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.empty());
+        when(categoryCache.get(categoryId)).thenThrow(new NotFoundException("Category with id=1 not found"));
 
         assertThrows(NotFoundException.class, () -> eventService.addEvent(userId, dto));
     }
@@ -124,17 +149,120 @@ class EventServiceImplTest {
         User user = new User();
         user.setId(userId);
 
-        Category category = new Category();
-        category.setId(categoryId);
-
         NewEventDto dto = NewEventDto.builder()
                 .category(categoryId)
                 .eventDate(LocalDateTime.now().plusHours(1))
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
 
         assertThrows(IntegrityException.class, () -> eventService.addEvent(userId, dto));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getEventsPublic_WithCursor_ReturnsNextCursor() {
+        LocalDateTime eventDate = LocalDateTime.now().plusDays(1).withNano(0);
+
+        Event event = new Event();
+        event.setId(2L);
+        Category category = new Category();
+        category.setId(1L);
+        User user = new User();
+        user.setId(1L);
+
+        event.setCategory(category);
+        event.setInitiator(user);
+        event.setState(EventState.PUBLISHED);
+        event.setEventDate(eventDate);
+
+        String cursor = new EventCursor(SortingMode.EVENT_DATE, eventDate.toString(), 1L).encode();
+        EventListRequestPublic request = new EventListRequestPublic(null, null, null, null, null, null,
+                SortingMode.EVENT_DATE, 0, 1, cursor);
+
+        when(eventRepository.findBy(any(Predicate.class), any())).thenReturn(List.of(event));
+
+        EventPage<EventShortDto> page = eventService.getEventsPublic(request);
+
+        assertEquals(1, page.events().size());
+        assertEquals(new EventCursor(SortingMode.EVENT_DATE, eventDate.toString(), 2L).encode(), page.nextCursor());
+        verify(eventRepository, never()).findAll(any(Predicate.class), any(Pageable.class));
+    }
+
+    @Test
+    void getEventsAdmin_InvalidCursor_ThrowsIsBadRequestException() {
+        EventListRequestAdmin request = new EventListRequestAdmin(null, null, null, null, null, 0, 10, "not a cursor");
+
+        assertThrows(IsBadRequestException.class, () -> eventService.getEventsAdmin(request));
+    }
+
+    @Test
+    void getEventsPublic_CursorOfAnotherSortingMode_ThrowsIsBadRequestException() {
+        String cursor = new EventCursor(null, null, 1L).encode();
+        EventListRequestPublic request = new EventListRequestPublic(null, null, null, null, null, null,
+                SortingMode.EVENT_DATE, 0, 10, cursor);
+
+        assertThrows(IsBadRequestException.class, () -> eventService.getEventsPublic(request));
+    }
+
+    @Test
+    void getEventsPublic_ViewsSortingWithCursor_ReturnsNextCursor() {
+        Category category = new Category();
+        category.setId(1L);
+        User user = new User();
+        user.setId(1L);
+
+        Event event = new Event();
+        event.setId(5L);
+        event.setCategory(category);
+        event.setInitiator(user);
+        event.setState(EventState.PUBLISHED);
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setViews(7L);
+
+        String cursor = new EventCursor(SortingMode.VIEWS, "10", 1L).encode();
+        EventListRequestPublic request = new EventListRequestPublic(null, null, null, null, null, null,
+                SortingMode.VIEWS, 0, 1, cursor);
+
+        when(eventRepository.findBy(any(Predicate.class), any())).thenReturn(List.of(event));
+
+        EventPage<EventShortDto> page = eventService.getEventsPublic(request);
+
+        assertEquals(7L, page.events().getFirst().getViews());
+        assertEquals(new EventCursor(SortingMode.VIEWS, "7", 5L).encode(), page.nextCursor());
+    }
+
+    @Test
+    void getEventsPublic_RelevanceSortingWithoutText_ThrowsIsBadRequestException() {
+        EventListRequestPublic request = new EventListRequestPublic(null, null, null, null, null, null,
+                SortingMode.RELEVANCE, 0, 10, null);
+
+        assertThrows(IsBadRequestException.class, () -> eventService.getEventsPublic(request));
+    }
+
+    @Test
+    void updateEventAdmin_ShouldPublishEventUpdated() {
+        Category category = new Category();
+        category.setId(1L);
+        User user = new User();
+        user.setId(1L);
+
+        Event event = new Event();
+        event.setId(1L);
+        event.setInitiator(user);
+        event.setCategory(category);
+        event.setState(EventState.PUBLISHED);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+
+        UpdateEventRequest request = new UpdateEventRequest();
+        request.setTitle("New title");
+
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(eventRepository.save(event)).thenReturn(event);
+
+        EventFullDto result = eventService.updateEventAdmin(1L, request);
+
+        assertEquals("New title", result.getTitle());
+        verify(eventPublisher).publishEvent(new EventUpdated(1L));
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.ewmService.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewmService.event.repository.EventViewsRepository;
+import ru.practicum.ewmService.stats.interfaces.ViewsService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventViewsSynchronizerTest {
+
+    @Mock
+    private EventViewsRepository eventViewsRepository;
+
+    @Mock
+    private ViewsService viewsService;
+
+    private EventViewsSynchronizer synchronizer;
+
+    @BeforeEach
+    void setUp() {
+        synchronizer = new EventViewsSynchronizer(eventViewsRepository, viewsService, 2);
+    }
+
+    @Test
+    void synchronizeAll_ShouldWalkPublishedEventsInBatches() {
+        when(eventViewsRepository.findPublishedIds(0L, 2)).thenReturn(List.of(1L, 2L));
+        when(eventViewsRepository.findPublishedIds(2L, 2)).thenReturn(List.of(3L));
+        when(viewsService.refreshViews(Set.of("/events/1", "/events/2")))
+                .thenReturn(Map.of("/events/1", 10L, "/events/2", 0L));
+        when(viewsService.refreshViews(Set.of("/events/3"))).thenReturn(Map.of("/events/3", 4L));
+        when(eventViewsRepository.updateViews(Map.of(1L, 10L, 2L, 0L))).thenReturn(1);
+        when(eventViewsRepository.updateViews(Map.of(3L, 4L))).thenReturn(1);
+
+        int updated = synchronizer.synchronizeAll();
+
+        assertEquals(2, updated);
+        verify(eventViewsRepository, never()).findPublishedIds(3L, 2);
+    }
+
+    @Test
+    void synchronize_WhenStatsServerFails_ShouldNotThrow() {
+        when(eventViewsRepository.findPublishedIds(0L, 2)).thenReturn(List.of(1L));
+        when(viewsService.refreshViews(any())).thenThrow(new IllegalStateException("Unable to get stats"));
+
+        synchronizer.synchronize();
+
+        verify(eventViewsRepository, never()).updateViews(any());
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.ewmService.exceptions.NotFoundException;
 import ru.practicum.ewmService.participation.dto.ParticipationRequestDto;
 import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateRequest;
 import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateResult;
@@ -14,15 +15,23 @@ import ru.practicum.ewmService.participation.enums.ParticipationStatus;
 import ru.practicum.ewmService.participation.interfaces.ParticipationService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ParticipationController.class)
@@ -48,13 +57,86 @@ class ParticipationControllerTest {
 
         List<ParticipationRequestDto> requests = List.of(requestDto);
 
-        when(participationService.getUserRequests(anyLong())).thenReturn(requests);
+        when(participationService.getUserRequests(anyLong(), any(), any())).thenReturn(requests);
 
         mockMvc.perform(get("/users/{userId}/requests", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(requests)));
 
-        verify(participationService).getUserRequests(userId);
+        verify(participationService).getUserRequests(userId, null, null);
+    }
+
+    @Test
+    void getUserParticipationRequestsAfterId() throws Exception {
+        long userId = 1L;
+
+        when(participationService.getUserRequests(anyLong(), any(), any())).thenReturn(List.of());
+
+        mockMvc.perform(get("/users/{userId}/requests", userId)
+                        .param("afterId", "100")
+                        .param("size", "20"))
+                .andExpect(status().isOk());
+
+        verify(participationService).getUserRequests(userId, 100L, 20);
+    }
+
+    @Test
+    void getUserParticipationRequestsWithInvalidPaging() throws Exception {
+        mockMvc.perform(get("/users/{userId}/requests", 1L)
+                        .param("afterId", "100")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/{userId}/events/{eventId}/requests", 1L, 1L)
+                        .param("from", "-1")
+                        .param("size", "10"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(participationService);
+    }
+
+    @Test
+    void exportEventParticipationRequestsAsNdjson() throws Exception {
+        long userId = 1L;
+        long eventId = 1L;
+        ParticipationRequestDto first = new ParticipationRequestDto(1L, eventId, 2L, "PENDING", "2024-01-01 10:00:00");
+        ParticipationRequestDto second = new ParticipationRequestDto(2L, eventId, 3L, "CONFIRMED", "2024-01-01 11:00:00");
+
+        doAnswer(invocation -> {
+            Consumer<ParticipationRequestDto> action = invocation.getArgument(3);
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(participationService).streamEventRequests(anyLong(), anyLong(), any(), any());
+
+        mockMvc.perform(get("/users/{userId}/events/{eventId}/requests", userId, eventId)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(first) + "\n"
+                        + objectMapper.writeValueAsString(second) + "\n"));
+
+        verify(participationService).streamEventRequests(eq(userId), eq(eventId), isNull(), any());
+    }
+
+    @Test
+    void exportUserParticipationRequestsOfUnknownUser() throws Exception {
+        doThrow(new NotFoundException("User with id=1 not found"))
+                .when(participationService).streamUserRequests(anyLong(), any());
+
+        mockMvc.perform(get("/users/{userId}/requests", 1L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value("NOT_FOUND"));
+    }
+
+    @Test
+    void cancelParticipationAsNdjsonIsNotAcceptable() throws Exception {
+        when(participationService.cancelRequest(anyLong(), anyLong()))
+                .thenReturn(new ParticipationRequestDto(1L, 1L, 1L, "CANCELED", "2024-01-01 10:00:00"));
+
+        mockMvc.perform(patch("/users/{userId}/requests/{requestId}/cancel", 1L, 1L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -111,13 +193,29 @@ class ParticipationControllerTest {
 
         List<ParticipationRequestDto> requests = List.of(requestDto);
 
-        when(participationService.getEventRequests(anyLong(), anyLong())).thenReturn(requests);
+        when(participationService.getEventRequests(anyLong(), anyLong(), any(), anyInt(), any(), any())).thenReturn(requests);
 
         mockMvc.perform(get("/users/{userId}/events/{eventId}/requests", userId, eventId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(requests)));
 
-        verify(participationService).getEventRequests(userId, eventId);
+        verify(participationService).getEventRequests(userId, eventId, null, 0, null, null);
+    }
+
+    @Test
+    void getEventParticipationRequestsByStatusPaged() throws Exception {
+        long userId = 1L;
+        long eventId = 1L;
+
+        when(participationService.getEventRequests(anyLong(), anyLong(), any(), anyInt(), any(), any())).thenReturn(List.of());
+
+        mockMvc.perform(get("/users/{userId}/events/{eventId}/requests", userId, eventId)
+                        .param("status", "REJECTED")
+                        .param("from", "2")
+                        .param("size", "50"))
+                .andExpect(status().isOk());
+
+        verify(participationService).getEventRequests(userId, eventId, ParticipationStatus.REJECTED, 2, null, 50);
     }
 
     @Test
@@ -138,8 +236,10 @@ class ParticipationControllerTest {
         ParticipationStatusUpdateResult updateResult = new ParticipationStatusUpdateResult();
         updateResult.setConfirmedRequests(List.of(confirmedRequest));
         updateResult.setRejectedRequests(List.of());
+        updateResult.setConfirmedCount(1);
 
-        when(participationService.updateStatus(anyLong(), anyLong(), any(ParticipationStatusUpdateRequest.class)))
+        when(participationService.updateStatus(anyLong(), anyLong(), any(ParticipationStatusUpdateRequest.class),
+                anyInt()))
                 .thenReturn(updateResult);
 
         mockMvc.perform(patch("/users/{userId}/events/{eventId}/requests", userId, eventId)
@@ -148,6 +248,6 @@ class ParticipationControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(updateResult)));
 
-        verify(participationService).updateStatus(userId, eventId, updateRequest);
+        verify(participationService).updateStatus(userId, eventId, updateRequest, 1000);
     }
 }
\ No newline at end of file
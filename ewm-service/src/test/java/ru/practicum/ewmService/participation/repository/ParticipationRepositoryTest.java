@@ -0,0 +1,126 @@
+package ru.practicum.ewmService.participation.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.event.enums.EventState;
+import ru.practicum.ewmService.event.location.Location;
+import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.event.repository.EventRepository;
+import ru.practicum.ewmService.participation.enums.ParticipationStatus;
+import ru.practicum.ewmService.participation.model.Participation;
+import ru.practicum.ewmService.participation.model.ParticipationRow;
+import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ParticipationRepositoryTest {
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Event event;
+    private User requester;
+    private List<Participation> requests;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Concerts");
+
+        User initiator = userRepository.save(user("initiator"));
+        requester = userRepository.save(user("requester"));
+
+        Location location = new Location();
+        location.setLat(55.7558f);
+        location.setLon(37.6173f);
+
+        Event newEvent = new Event();
+        newEvent.setAnnotation("Annotation");
+        newEvent.setDescription("Description");
+        newEvent.setTitle("Title");
+        newEvent.setCategory(categoryRepository.save(category));
+        newEvent.setInitiator(initiator);
+        newEvent.setLocation(location);
+        newEvent.setEventDate(LocalDateTime.now().plusDays(1));
+        newEvent.setCreatedOn(LocalDateTime.now());
+        newEvent.setState(EventState.PUBLISHED);
+        event = eventRepository.save(newEvent);
+
+        requests = participationRepository.saveAll(List.of(
+                request(user("first"), ParticipationStatus.PENDING),
+                request(requester, ParticipationStatus.CONFIRMED),
+                request(user("third"), ParticipationStatus.PENDING),
+                request(user("fourth"), ParticipationStatus.REJECTED)));
+    }
+
+    @Test
+    void findRowsByEventAfter_ShouldReturnNextPageByIdAndStatus() {
+        List<ParticipationRow> firstPage = participationRepository.findRowsByEventAfter(event.getId(), null, 0,
+                PageRequest.of(0, 2));
+        List<ParticipationRow> secondPage = participationRepository.findRowsByEventAfter(event.getId(), null,
+                firstPage.getLast().id(), PageRequest.of(0, 2));
+        List<ParticipationRow> pending = participationRepository.findRowsByEventAfter(event.getId(),
+                ParticipationStatus.PENDING, 0, PageRequest.of(0, 10));
+
+        assertEquals(ids(requests.subList(0, 2)), firstPage.stream().map(ParticipationRow::id).toList());
+        assertEquals(ids(requests.subList(2, 4)), secondPage.stream().map(ParticipationRow::id).toList());
+        assertEquals(List.of(requests.get(0).getId(), requests.get(2).getId()),
+                pending.stream().map(ParticipationRow::id).toList());
+    }
+
+    @Test
+    void streamRowsByEvent_ShouldReadAllRequestsInIdOrder() {
+        try (Stream<ParticipationRow> rows = participationRepository.streamRowsByEvent(event.getId(), null)) {
+            assertEquals(ids(requests), rows.map(ParticipationRow::id).toList());
+        }
+    }
+
+    @Test
+    void streamRowsByRequester_ShouldReadOnlyRequesterRows() {
+        try (Stream<ParticipationRow> rows = participationRepository.streamRowsByRequester(requester.getId())) {
+            List<ParticipationRow> result = rows.toList();
+
+            assertEquals(1, result.size());
+            assertEquals(event.getId(), result.getFirst().eventId());
+            assertEquals(ParticipationStatus.CONFIRMED, result.getFirst().status());
+        }
+    }
+
+    private Participation request(User user, ParticipationStatus status) {
+        User saved = (user.getId() != null) ? user : userRepository.save(user);
+        return new Participation(null, event, saved, status, LocalDateTime.now());
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@mail.ru");
+        return user;
+    }
+
+    private static List<Long> ids(List<Participation> participations) {
+        return participations.stream().map(Participation::getId).toList();
+    }
+}
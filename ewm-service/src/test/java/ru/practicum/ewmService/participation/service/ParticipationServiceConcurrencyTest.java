@@ -0,0 +1,166 @@
+package ru.practicum.ewmService.participation.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.ewmService.category.model.Category;
+import ru.practicum.ewmService.category.repository.CategoryRepository;
+import ru.practicum.ewmService.event.enums.EventState;
+import ru.practicum.ewmService.event.location.Location;
+import ru.practicum.ewmService.event.model.Event;
+import ru.practicum.ewmService.event.repository.EventRepository;
+import ru.practicum.ewmService.exceptions.IntegrityException;
+import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateRequest;
+import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateResult;
+import ru.practicum.ewmService.participation.enums.ParticipationStatus;
+import ru.practicum.ewmService.participation.interfaces.ParticipationService;
+import ru.practicum.ewmService.participation.model.Participation;
+import ru.practicum.ewmService.participation.repository.ParticipationRepository;
+import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.repository.UserRepository;
+import ru.practicum.statsClient.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет на реальной базе, что одновременные заявки без модерации и массовая модерация
+ * не превышают лимит участников.
+ */
+@SpringBootTest
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:ewm-participation;DB_CLOSE_DELAY=-1")
+class ParticipationServiceConcurrencyTest {
+
+    private static final int PARTICIPANT_LIMIT = 100;
+    private static final int REQUESTS = 2000;
+    private static final int THREADS = 32;
+
+    @MockBean
+    private StatsClient statsClient;
+
+    @Autowired
+    private ParticipationService participationService;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void addRequest_withConcurrentRequests_shouldNotOversubscribeEvent() throws Exception {
+        Event event = eventRepository.save(event(false));
+        List<User> requesters = userRepository.saveAll(IntStream.range(0, REQUESTS)
+                .mapToObj(this::user)
+                .toList());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (User requester : requesters) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        participationService.addRequest(requester.getId(), event.getId());
+                        return true;
+                    } catch (IntegrityException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int admitted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(1, TimeUnit.MINUTES)) {
+                    admitted++;
+                }
+            }
+
+            Event saved = eventRepository.findById(event.getId()).orElseThrow();
+            long confirmed = participationRepository.findAllByEvent(saved).stream()
+                    .filter(p -> p.getStatus() == ParticipationStatus.CONFIRMED)
+                    .count();
+            assertEquals(PARTICIPANT_LIMIT, admitted);
+            assertEquals(PARTICIPANT_LIMIT, saved.getConfirmedRequests());
+            assertEquals(PARTICIPANT_LIMIT, confirmed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void updateStatus_withoutIds_shouldConfirmUpToLimitAndRejectRestOfPending() {
+        Event saved = eventRepository.save(event(true));
+        List<User> requesters = userRepository.saveAll(IntStream.range(REQUESTS, REQUESTS + 250)
+                .mapToObj(this::user)
+                .toList());
+        participationRepository.saveAll(requesters.stream()
+                .map(requester -> new Participation(null, saved, requester, ParticipationStatus.PENDING,
+                        LocalDateTime.now()))
+                .toList());
+
+        ParticipationStatusUpdateResult result = participationService.updateStatus(saved.getInitiator().getId(),
+                saved.getId(), new ParticipationStatusUpdateRequest(null, ParticipationStatus.CONFIRMED), 10);
+
+        assertEquals(PARTICIPANT_LIMIT, result.getConfirmedCount());
+        assertEquals(250 - PARTICIPANT_LIMIT, result.getRejectedCount());
+        assertEquals(10, result.getConfirmedRequests().size());
+        assertEquals(10, result.getRejectedRequests().size());
+        assertEquals(PARTICIPANT_LIMIT, eventRepository.findById(saved.getId()).orElseThrow().getConfirmedRequests());
+        assertEquals(PARTICIPANT_LIMIT, participationRepository.findIdsByEventAndStatus(saved.getId(),
+                ParticipationStatus.CONFIRMED).size());
+        assertEquals(0, participationRepository.findIdsByEventAndStatus(saved.getId(),
+                ParticipationStatus.PENDING).size());
+    }
+
+    private Event event(boolean requestModeration) {
+        Category category = new Category();
+        category.setName(requestModeration ? "Moderated ticket drop" : "Ticket drop");
+
+        User initiator = user(requestModeration ? -2 : -1);
+
+        Location location = new Location();
+        location.setLat(55.7558f);
+        location.setLon(37.6173f);
+
+        Event event = new Event();
+        event.setAnnotation("Annotation");
+        event.setDescription("Description");
+        event.setTitle("Title");
+        event.setCategory(categoryRepository.save(category));
+        event.setInitiator(userRepository.save(initiator));
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setCreatedOn(LocalDateTime.now());
+        event.setState(EventState.PUBLISHED);
+        event.setParticipantLimit(PARTICIPANT_LIMIT);
+        event.setRequestModeration(requestModeration);
+        return event;
+    }
+
+    private User user(int number) {
+        User user = new User();
+        user.setName("user" + number);
+        user.setEmail("user" + number + "@mail.ru");
+        return user;
+    }
+}
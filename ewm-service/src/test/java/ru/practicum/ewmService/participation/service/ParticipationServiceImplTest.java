@@ -6,26 +6,34 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.ewmService.event.enums.EventState;
 import ru.practicum.ewmService.event.model.Event;
 import ru.practicum.ewmService.event.repository.EventRepository;
 import ru.practicum.ewmService.exceptions.IntegrityException;
+import ru.practicum.ewmService.exceptions.IsBadRequestException;
 import ru.practicum.ewmService.exceptions.NotFoundException;
 import ru.practicum.ewmService.participation.dto.ParticipationRequestDto;
+import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateRequest;
+import ru.practicum.ewmService.participation.dto.ParticipationStatusUpdateResult;
 import ru.practicum.ewmService.participation.enums.ParticipationStatus;
 import ru.practicum.ewmService.participation.model.Participation;
+import ru.practicum.ewmService.participation.model.ParticipationRow;
 import ru.practicum.ewmService.participation.repository.ParticipationRepository;
 import ru.practicum.ewmService.user.model.User;
 import ru.practicum.ewmService.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -77,7 +85,7 @@ class ParticipationServiceImplTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(participationRepository.findAllByRequester(any(User.class))).thenReturn(List.of(participation));
 
-        List<ParticipationRequestDto> result = participationService.getUserRequests(1L);
+        List<ParticipationRequestDto> result = participationService.getUserRequests(1L, null, null);
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -89,7 +97,7 @@ class ParticipationServiceImplTest {
     void getUserRequests_shouldThrowNotFoundException_whenUserNotFound() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(NotFoundException.class, () -> participationService.getUserRequests(1L));
+        assertThrows(NotFoundException.class, () -> participationService.getUserRequests(1L, null, null));
         verify(userRepository).findById(1L);
     }
 
@@ -139,6 +147,7 @@ class ParticipationServiceImplTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
         when(eventRepository.findById(anyLong())).thenReturn(Optional.of(eventWithoutLimit));
         when(participationRepository.existsByRequesterAndEvent(any(User.class), any(Event.class))).thenReturn(false);
+        when(eventRepository.tryIncreaseConfirmedRequests(1L)).thenReturn(1);
         when(participationRepository.save(any(Participation.class))).thenReturn(confirmedParticipation);
 
         ParticipationRequestDto result = participationService.addRequest(2L, 1L);
@@ -146,7 +155,29 @@ class ParticipationServiceImplTest {
         assertNotNull(result);
         assertEquals(ParticipationStatus.CONFIRMED.name(), result.getStatus());
         verify(participationRepository).save(any(Participation.class));
-        verify(eventRepository).save(eventWithoutLimit);
+        verify(eventRepository).tryIncreaseConfirmedRequests(1L);
+        verify(eventRepository, never()).save(any(Event.class));
+    }
+
+    @Test
+    void addRequest_shouldThrowIntegrityException_whenLimitTakenConcurrently() {
+        User requester = new User();
+        requester.setId(2L);
+        Event eventWithLimit = new Event();
+        eventWithLimit.setId(1L);
+        eventWithLimit.setInitiator(user);
+        eventWithLimit.setState(EventState.PUBLISHED);
+        eventWithLimit.setParticipantLimit(10);
+        eventWithLimit.setRequestModeration(false);
+        eventWithLimit.setConfirmedRequests(9);
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
+        when(eventRepository.findById(anyLong())).thenReturn(Optional.of(eventWithLimit));
+        when(participationRepository.existsByRequesterAndEvent(any(User.class), any(Event.class))).thenReturn(false);
+        when(eventRepository.tryIncreaseConfirmedRequests(1L)).thenReturn(0);
+
+        assertThrows(IntegrityException.class, () -> participationService.addRequest(2L, 1L));
+        verify(participationRepository, never()).save(any(Participation.class));
     }
 
     @Test
@@ -226,9 +257,8 @@ class ParticipationServiceImplTest {
 
         assertNotNull(result);
         assertEquals(ParticipationStatus.CANCELED.name(), result.getStatus());
-        assertEquals(-1, event.getConfirmedRequests());
         verify(participationRepository).save(participation);
-        verify(eventRepository).save(event);
+        verify(eventRepository).decreaseConfirmedRequests(event.getId());
     }
 
     @Test
@@ -270,4 +300,119 @@ class ParticipationServiceImplTest {
         assertEquals(ParticipationStatus.REJECTED.name(), result.getStatus());
         verify(participationRepository, never()).save(any(Participation.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateStatus_shouldConfirmUpToLimitAndRejectRest() {
+        event.setParticipantLimit(3);
+        event.setConfirmedRequests(1);
+        participation.setStatus(ParticipationStatus.CONFIRMED);
+        Participation second = new Participation(2L, event, user, ParticipationStatus.CONFIRMED, LocalDateTime.now());
+        Participation third = new Participation(3L, event, user, ParticipationStatus.REJECTED, LocalDateTime.now());
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(eventRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(event));
+        when(participationRepository.findIdsByEventAndStatus(1L, ParticipationStatus.PENDING))
+                .thenReturn(List.of(1L, 2L, 3L));
+        when(participationRepository.updateStatusUpTo(1L, ParticipationStatus.PENDING,
+                ParticipationStatus.CONFIRMED, 2L)).thenReturn(2);
+        when(participationRepository.updateStatusUpTo(1L, ParticipationStatus.PENDING,
+                ParticipationStatus.REJECTED, 3L)).thenReturn(1);
+        when(participationRepository.findAllByIdInOrderByIdAsc(List.of(1L, 2L))).thenReturn(List.of(participation, second));
+        when(participationRepository.findAllByIdInOrderByIdAsc(List.of(3L))).thenReturn(List.of(third));
+
+        ParticipationStatusUpdateResult result = participationService.updateStatus(1L, 1L,
+                new ParticipationStatusUpdateRequest(null, ParticipationStatus.CONFIRMED), 10);
+
+        assertEquals(2, result.getConfirmedCount());
+        assertEquals(1, result.getRejectedCount());
+        assertEquals(List.of(1L, 2L), result.getConfirmedRequests().stream().map(ParticipationRequestDto::getId).toList());
+        assertEquals(List.of(3L), result.getRejectedRequests().stream().map(ParticipationRequestDto::getId).toList());
+        verify(eventRepository).increaseConfirmedRequests(1L, 2);
+        verify(participationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void updateStatus_shouldLimitReturnedRequestsBySize() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(eventRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(event));
+        when(participationRepository.findIdsByEventAndStatus(1L, ParticipationStatus.PENDING))
+                .thenReturn(List.of(1L, 2L, 3L));
+        when(participationRepository.updateStatusUpTo(1L, ParticipationStatus.PENDING,
+                ParticipationStatus.REJECTED, 3L)).thenReturn(3);
+        participation.setStatus(ParticipationStatus.REJECTED);
+        when(participationRepository.findAllByIdInOrderByIdAsc(List.of(1L))).thenReturn(List.of(participation));
+
+        ParticipationStatusUpdateResult result = participationService.updateStatus(1L, 1L,
+                new ParticipationStatusUpdateRequest(null, ParticipationStatus.REJECTED), 1);
+
+        assertEquals(0, result.getConfirmedCount());
+        assertEquals(3, result.getRejectedCount());
+        assertEquals(1, result.getRejectedRequests().size());
+        verify(eventRepository, never()).increaseConfirmedRequests(anyLong(), anyInt());
+    }
+
+    @Test
+    void updateStatus_shouldThrowIntegrityException_whenRequestIsNotPending() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(eventRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(event));
+        when(participationRepository.existsByIdInAndNotEventOrStatus(List.of(1L), 1L, ParticipationStatus.PENDING))
+                .thenReturn(true);
+
+        assertThrows(IntegrityException.class, () -> participationService.updateStatus(1L, 1L,
+                new ParticipationStatusUpdateRequest(List.of(1L), ParticipationStatus.CONFIRMED), 10));
+    }
+
+    @Test
+    void updateStatus_shouldThrowIsBadRequestException_whenStatusIsNotConfirmedOrRejected() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(eventRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(event));
+
+        assertThrows(IsBadRequestException.class, () -> participationService.updateStatus(1L, 1L,
+                new ParticipationStatusUpdateRequest(null, ParticipationStatus.CANCELED), 10));
+    }
+
+    @Test
+    void getUserRequests_withAfterId_shouldReadRowsAfterId() {
+        ParticipationRow row = new ParticipationRow(6L, 1L, 1L, ParticipationStatus.PENDING, LocalDateTime.now());
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(participationRepository.findRowsByRequesterAfter(1L, 5L, PageRequest.of(0, 2))).thenReturn(List.of(row));
+
+        List<ParticipationRequestDto> result = participationService.getUserRequests(1L, 5L, 2);
+
+        assertEquals(1, result.size());
+        assertEquals(6L, result.getFirst().getId());
+        verify(participationRepository, never()).findAllByRequester(any(User.class));
+    }
+
+    @Test
+    void getUserRequests_withAfterIdWithoutSize_shouldReadDefaultPage() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+
+        participationService.getUserRequests(1L, 5L, null);
+
+        verify(participationRepository).findRowsByRequesterAfter(1L, 5L,
+                PageRequest.of(0, ParticipationServiceImpl.DEFAULT_PAGE_SIZE));
+    }
+
+    @Test
+    void streamEventRequests_shouldPassEveryRowToAction() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(eventRepository.findById(anyLong())).thenReturn(Optional.of(event));
+        when(participationRepository.streamRowsByEvent(1L, null)).thenReturn(Stream.of(
+                new ParticipationRow(1L, 1L, 2L, ParticipationStatus.PENDING, LocalDateTime.now()),
+                new ParticipationRow(2L, 1L, 3L, ParticipationStatus.CONFIRMED, LocalDateTime.now())));
+        List<ParticipationRequestDto> streamed = new ArrayList<>();
+
+        participationService.streamEventRequests(1L, 1L, null, streamed::add);
+
+        assertEquals(List.of(1L, 2L), streamed.stream().map(ParticipationRequestDto::getId).toList());
+    }
+
+    @Test
+    void streamUserRequests_shouldThrowNotFoundException_whenUserNotFound() {
+        when(userRepository.existsById(anyLong())).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> participationService.streamUserRequests(1L, dto -> {
+        }));
+        verify(participationRepository, never()).streamRowsByRequester(anyLong());
+    }
+}
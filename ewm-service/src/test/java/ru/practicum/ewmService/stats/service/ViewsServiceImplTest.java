@@ -0,0 +1,234 @@
+package ru.practicum.ewmService.stats.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.statsClient.StatsClient;
+import ru.practicum.statsDto.StatsItemDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ViewsServiceImplTest {
+
+    @Mock
+    private StatsClient statsClient;
+
+    private ViewsServiceImpl viewsService;
+
+    @AfterEach
+    void tearDown() {
+        viewsService.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        viewsService = viewsService(1000);
+    }
+
+    private ViewsServiceImpl viewsService(int maxPendingHits) {
+        return new ViewsServiceImpl(statsClient, false, 100, Duration.ofMinutes(1), Duration.ofSeconds(10), true,
+                Duration.ofMillis(200), maxPendingHits);
+    }
+
+    @Test
+    void getViews_shouldLoadMissesInOneBatchAndCacheThem() {
+        when(statsClient.getStats(any(), any(), anyList(), eq(true), eq(false)))
+                .thenReturn(List.of(new StatsItemDto("ewm-main-server", "/events/1", 5L)));
+
+        Map<String, Long> first = viewsService.getViews(List.of("/events/1", "/events/2"));
+        Map<String, Long> second = viewsService.getViews(List.of("/events/1", "/events/2"));
+
+        assertEquals(Map.of("/events/1", 5L, "/events/2", 0L), first);
+        assertEquals(first, second);
+        verify(statsClient, times(1)).getStats(any(), any(), anyList(), eq(true), eq(false));
+    }
+
+    @Test
+    void getViews_withConcurrentMisses_shouldCallStatsServerOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        when(statsClient.getStats(any(), any(), anyList(), anyBoolean(), anyBoolean())).thenAnswer(invocation -> {
+            loading.await();
+            return List.of(new StatsItemDto("ewm-main-server", "/events/1", 7L));
+        });
+
+        CountDownLatch started = new CountDownLatch(8);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    return viewsService.getViews("/events/1");
+                }));
+            }
+            started.await();
+            loading.countDown();
+            for (Future<Long> result : results) {
+                assertEquals(7L, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(statsClient, times(1)).getStats(any(), any(), anyList(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void addHit_shouldInvalidateCachedViews() {
+        when(statsClient.getStats(any(), any(), anyList(), eq(true), eq(false)))
+                .thenReturn(List.of(new StatsItemDto("ewm-main-server", "/events/1", 1L)))
+                .thenReturn(List.of(new StatsItemDto("ewm-main-server", "/events/1", 2L)));
+
+        assertEquals(1L, viewsService.getViews("/events/1"));
+        viewsService.addHit("/events/1", "127.0.0.1");
+
+        assertEquals(2L, viewsService.getViews("/events/1"));
+        verify(statsClient).addHit(eq("ewm-main-server"), eq("/events/1"), eq("127.0.0.1"), any());
+    }
+
+    @Test
+    void getViews_whenStatsServerFails_shouldRethrowCause() {
+        when(statsClient.getStats(any(), any(), anyList(), anyBoolean(), anyBoolean()))
+                .thenThrow(new IllegalStateException("Unable to get stats from stats server"));
+
+        assertThrows(IllegalStateException.class, () -> viewsService.getViews("/events/1"));
+    }
+
+    @Test
+    void refreshViews_shouldBypassCacheAndUpdateIt() {
+        when(statsClient.getStats(any(), any(), anyList(), eq(true), eq(false)))
+                .thenReturn(List.of(new StatsItemDto("ewm-main-server", "/events/1", 5L)))
+                .thenReturn(List.of(new StatsItemDto("ewm-main-server", "/events/1", 6L)));
+
+        viewsService.getViews("/events/1");
+        Map<String, Long> refreshed = viewsService.refreshViews(List.of("/events/1"));
+
+        assertEquals(Map.of("/events/1", 6L), refreshed);
+        assertEquals(6L, viewsService.getViews("/events/1"));
+        verify(statsClient, times(2)).getStats(any(), any(), anyList(), eq(true), eq(false));
+    }
+
+    @Test
+    void addHitAndGetViewsAsync_shouldRequestViewsAfterHit() {
+        when(statsClient.getStats(any(), any(), anyList(), eq(true), eq(false)))
+                .thenReturn(List.of(new StatsItemDto("ewm-main-server", "/events/1", 1L)));
+
+        Map<String, Long> views = viewsService.addHitAndGetViewsAsync("/events/1", "127.0.0.1", List.of("/events/1"))
+                .join();
+
+        assertEquals(Map.of("/events/1", 1L), views);
+        InOrder inOrder = inOrder(statsClient);
+        inOrder.verify(statsClient).addHit(eq("ewm-main-server"), eq("/events/1"), eq("127.0.0.1"), any());
+        inOrder.verify(statsClient).getStats(any(), any(), anyList(), eq(true), eq(false));
+    }
+
+    @Test
+    void addHitAsync_whenStatsServerFails_shouldNotThrow() {
+        doThrow(new IllegalStateException("Unable to send hit")).when(statsClient)
+                .addHit(anyString(), anyString(), anyString(), any());
+
+        viewsService.addHitAsync("/events/1", "127.0.0.1");
+
+        verify(statsClient, timeout(1000)).addHit(eq("ewm-main-server"), eq("/events/1"), eq("127.0.0.1"), any());
+    }
+
+    @Test
+    void addHitAsync_whenTooManyHitsPending_shouldSendOnCallerThread() throws Exception {
+        viewsService.close();
+        viewsService = viewsService(1);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> senders = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            senders.add(Thread.currentThread());
+            if (senders.size() == 1) {
+                sending.countDown();
+                release.await();
+            }
+            return null;
+        }).when(statsClient).addHit(anyString(), anyString(), anyString(), any());
+
+        viewsService.addHitAsync("/events/1", "127.0.0.1");
+        assertTrue(sending.await(1, TimeUnit.SECONDS));
+        viewsService.addHitAsync("/events/2", "127.0.0.1");
+        release.countDown();
+
+        assertEquals(Thread.currentThread(), senders.get(1));
+        assertTrue(senders.get(0).isVirtual());
+    }
+
+    @Test
+    void addHitAndGetViewsAsync_withBatchingClient_shouldKeepCachedViews() {
+        when(statsClient.isAsync()).thenReturn(true);
+        viewsService.close();
+        viewsService = viewsService(1000);
+        when(statsClient.getStats(any(), any(), anyList(), eq(true), eq(false)))
+                .thenReturn(List.of(new StatsItemDto("ewm-main-server", "/events/1", 5L)));
+        viewsService.getViews("/events/1");
+
+        Map<String, Long> views = viewsService.addHitAndGetViewsAsync("/events/1", "127.0.0.1", List.of("/events/1"))
+                .join();
+
+        assertEquals(Map.of("/events/1", 5L), views);
+        verify(statsClient).addHit(eq("ewm-main-server"), eq("/events/1"), eq("127.0.0.1"), any());
+        verify(statsClient, times(1)).getStats(any(), any(), anyList(), eq(true), eq(false));
+    }
+
+    @Test
+    void awaitViews_whenStatsServerIsLate_shouldReturnCachedViews() {
+        CountDownLatch loading = new CountDownLatch(1);
+        when(statsClient.getStats(any(), any(), anyList(), eq(true), eq(false)))
+                .thenReturn(List.of(new StatsItemDto("ewm-main-server", "/events/1", 4L)))
+                .thenAnswer(invocation -> {
+                    loading.await();
+                    return List.of(new StatsItemDto("ewm-main-server", "/events/2", 9L));
+                });
+        viewsService.getViews("/events/1");
+
+        List<String> uris = List.of("/events/1", "/events/2");
+        Map<String, Long> views = viewsService.awaitViews(viewsService.getViewsAsync(uris), uris);
+        loading.countDown();
+
+        assertEquals(Map.of("/events/1", 4L), views);
+    }
+
+    @Test
+    void awaitViews_whenStatsServerFails_shouldReturnCachedViews() {
+        when(statsClient.getStats(any(), any(), anyList(), anyBoolean(), anyBoolean()))
+                .thenThrow(new IllegalStateException("Unable to get stats from stats server"));
+
+        List<String> uris = List.of("/events/1");
+        Map<String, Long> views = viewsService.awaitViews(viewsService.getViewsAsync(uris), uris);
+
+        assertTrue(views.isEmpty());
+    }
+}
@@ -48,6 +48,9 @@ public class UserServiceImplTest {
     @Mock
     private CommentsRepository commentsRepository;
 
+    @Mock
+    private UserShortDtoCache userCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
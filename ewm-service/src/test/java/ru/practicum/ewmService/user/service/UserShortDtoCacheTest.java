@@ -0,0 +1,64 @@
+package ru.practicum.ewmService.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewmService.exceptions.NotFoundException;
+import ru.practicum.ewmService.user.dto.UserShortDto;
+import ru.practicum.ewmService.user.model.User;
+import ru.practicum.ewmService.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserShortDtoCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserShortDtoCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserShortDtoCache(userRepository, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void get_ShouldLoadUserOnce() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L, "User", "user@mail.ru")));
+
+        userCache.get(1L);
+        UserShortDto result = userCache.get(1L);
+
+        assertEquals(new UserShortDto(1L, "User"), result);
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void get_WhenUserPut_ShouldNotQueryRepository() {
+        userCache.put(new User(1L, "User", "user@mail.ru"));
+
+        assertEquals(new UserShortDto(1L, "User"), userCache.get(1L));
+        verify(userRepository, never()).findById(1L);
+    }
+
+    @Test
+    void get_WhenUserEvicted_ShouldThrowNotFound() {
+        userCache.put(new User(1L, "User", "user@mail.ru"));
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        userCache.evict(1L);
+
+        assertThrows(NotFoundException.class, () -> userCache.get(1L));
+    }
+}
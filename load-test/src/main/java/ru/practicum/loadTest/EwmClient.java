@@ -0,0 +1,105 @@
+package ru.practicum.loadTest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * HTTP-клиент основного сервиса, который записывает задержку каждого запроса в {@link LatencyRecorder}.
+ * Методы не бросают исключений на ответы с ошибкой: сценарий смотрит на {@link Response#ok()}
+ * и пропускает шаги, которым нужен результат неудачного запроса.
+ */
+final class EwmClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final URI baseUri;
+    private final ObjectMapper mapper;
+    private final LatencyRecorder recorder;
+
+    EwmClient(HttpClient http, URI baseUri, ObjectMapper mapper, LatencyRecorder recorder) {
+
+        this.http = http;
+        this.baseUri = baseUri;
+        this.mapper = mapper;
+        this.recorder = recorder;
+    }
+
+    record Response(int status, JsonNode body) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        long id() {
+            return body.path("id").asLong();
+        }
+    }
+
+    Response get(String endpoint, String path) {
+        return send(endpoint, HttpRequest.newBuilder(baseUri.resolve(path)).GET());
+    }
+
+    Response post(String endpoint, String path, Object body) {
+        return send(endpoint, HttpRequest.newBuilder(baseUri.resolve(path)).POST(json(body)));
+    }
+
+    Response patch(String endpoint, String path, Object body) {
+        return send(endpoint, HttpRequest.newBuilder(baseUri.resolve(path)).method("PATCH", json(body)));
+    }
+
+    private Response send(String endpoint, HttpRequest.Builder builder) {
+
+        HttpRequest request = builder
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            recorder.record(endpoint, System.nanoTime() - start, response.statusCode());
+            return new Response(response.statusCode(), parse(response.body()));
+        } catch (IOException e) {
+            recorder.error(endpoint);
+            return new Response(0, MissingNode.getInstance());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recorder.error(endpoint);
+            return new Response(0, MissingNode.getInstance());
+        }
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+
+    private JsonNode parse(byte[] body) {
+
+        if (body.length == 0) {
+            return MissingNode.getInstance();
+        }
+        try {
+            return mapper.readTree(body);
+        } catch (IOException e) {
+            return MissingNode.getInstance();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.loadTest;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Начальные данные прогона, созданные через API администратора и пользователей, как в коллекциях Postman.
+ * Каждое десятое событие — событие с ограниченным числом мест и модерацией заявок, на него идет
+ * сценарий {@link Scenario#RUSH}; остальные события принимают заявки без ограничений.
+ */
+record Fixture(List<Long> categories, List<Long> users, List<Long> initiators, List<PublishedEvent> events,
+               List<PublishedEvent> rushEvents) {
+
+    static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final int CATEGORIES = 10;
+    private static final int COMPILATIONS = 5;
+    private static final int COMPILATION_SIZE = 10;
+    private static final int COMMENTS_PER_EVENT = 2;
+    private static final int RUSH_EVERY = 10;
+    private static final int RUSH_LIMIT = 50;
+
+    record PublishedEvent(long id, long initiator) {
+    }
+
+    static Fixture seed(EwmClient client, int users, int events, RandomGenerator random) {
+
+        List<Long> categoryIds = new ArrayList<>(CATEGORIES);
+        for (int i = 0; i < CATEGORIES; i++) {
+            categoryIds.add(created(client.post("POST /admin/categories", "/admin/categories",
+                    Map.of("name", "Категория " + i))));
+        }
+
+        List<Long> userIds = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            userIds.add(created(client.post("POST /admin/users", "/admin/users",
+                    Map.of("email", "user" + i + "@load.test", "name", "Пользователь " + i))));
+        }
+        List<Long> initiatorIds = userIds.subList(0, Math.max(1, users / 10));
+
+        List<PublishedEvent> published = new ArrayList<>(events);
+        List<PublishedEvent> rush = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            long initiator = initiatorIds.get(i % initiatorIds.size());
+            boolean limited = i % RUSH_EVERY == 0;
+            long id = created(client.post("POST /users/{userId}/events", "/users/" + initiator + "/events",
+                    newEvent(categoryIds.get(i % CATEGORIES), i, limited ? RUSH_LIMIT : 0, limited, random)));
+            created(client.patch("PATCH /admin/events/{eventId}", "/admin/events/" + id,
+                    Map.of("stateAction", "PUBLISH_EVENT")));
+            PublishedEvent event = new PublishedEvent(id, initiator);
+            published.add(event);
+            if (limited) {
+                rush.add(event);
+            }
+        }
+
+        for (int i = 0; i < COMPILATIONS; i++) {
+            List<Long> compiled = published.stream()
+                    .skip((long) i * COMPILATION_SIZE)
+                    .limit(COMPILATION_SIZE)
+                    .map(PublishedEvent::id)
+                    .toList();
+            created(client.post("POST /admin/compilations", "/admin/compilations",
+                    Map.of("title", "Подборка " + i, "pinned", i == 0, "events", compiled)));
+        }
+
+        Fixture fixture = new Fixture(categoryIds, userIds, initiatorIds, published, rush);
+        List<Long> visitors = fixture.visitors();
+        for (PublishedEvent event : published) {
+            for (int i = 0; i < COMMENTS_PER_EVENT; i++) {
+                long visitor = visitors.get((int) ((event.id() * COMMENTS_PER_EVENT + i) % visitors.size()));
+                comment(client, visitor, event, !rush.contains(event), random);
+            }
+        }
+        return fixture;
+    }
+
+    /**
+     * Пользователи, которые не организуют события и могут подавать заявки на любое из них.
+     */
+    List<Long> visitors() {
+        return users.subList(initiators.size(), users.size());
+    }
+
+    /**
+     * Оставляет одобренный комментарий. Оценку может поставить только подтвержденный участник,
+     * поэтому перед оценкой посетитель подает заявку на событие без модерации.
+     */
+    private static void comment(EwmClient client, long visitor, PublishedEvent event, boolean rate,
+                                RandomGenerator random) {
+
+        Map<String, Object> comment = new LinkedHashMap<>();
+        comment.put("text", "Комментарий к событию " + event.id());
+        if (rate && client.post("POST /users/{userId}/requests",
+                "/users/" + visitor + "/requests?eventId=" + event.id(), null).ok()) {
+            comment.put("rate", 1 + random.nextInt(5));
+        }
+        EwmClient.Response created = client.post("POST /users/{userId}/events/{eventId}/comments",
+                "/users/" + visitor + "/events/" + event.id() + "/comments", comment);
+        if (created.ok()) {
+            client.patch("PATCH /admin/comments/{commentId}",
+                    "/admin/comments/" + created.id() + "?status=APPROVED", null);
+        }
+    }
+
+    static Map<String, Object> newEvent(long category, long number, int participantLimit, boolean moderation,
+                                        RandomGenerator random) {
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("annotation", "Аннотация события номер " + number + " для нагрузочного теста");
+        event.put("category", category);
+        event.put("description", "Описание события номер " + number + " для нагрузочного теста");
+        event.put("eventDate", LocalDateTime.now().plusDays(1 + random.nextInt(60)).format(DATE_FORMAT));
+        event.put("location", Map.of("lat", 55.75f + random.nextFloat(), "lon", 37.61f + random.nextFloat()));
+        event.put("paid", number % 2 == 0);
+        event.put("participantLimit", participantLimit);
+        event.put("requestModeration", moderation);
+        event.put("title", "Событие " + number);
+        return event;
+    }
+
+    private static long created(EwmClient.Response response) {
+
+        if (!response.ok()) {
+            throw new IllegalStateException("Cannot seed load test data: HTTP %d %s"
+                    .formatted(response.status(), response.body()));
+        }
+        return response.id();
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.loadTest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Собирает задержки ответов отдельно для каждого endpoint'а.
+ * Endpoint обозначается методом и шаблоном пути, например {@code GET /events/{id}}, чтобы запросы
+ * к разным событиям попадали в одну гистограмму.
+ * <p>
+ * Ответы 4xx считаются отказами: в сценариях они ожидаемы, например при заявке на заполненное событие.
+ * Ответы 5xx и ошибки соединения считаются ошибками.
+ */
+final class LatencyRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, int status) {
+
+        Endpoint stats = endpoint(endpoint);
+        stats.histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+        if (status >= 500) {
+            stats.errors.increment();
+        } else if (status >= 400) {
+            stats.rejected.increment();
+        }
+    }
+
+    void error(String endpoint) {
+        endpoint(endpoint).errors.increment();
+    }
+
+    void reset() {
+        endpoints.clear();
+    }
+
+    List<LoadReport.EndpointReport> report(Duration elapsed) {
+
+        double seconds = elapsed.toNanos() / 1e9;
+        return endpoints.entrySet().stream()
+                .map(e -> e.getValue().report(e.getKey(), seconds))
+                .sorted(Comparator.comparing(LoadReport.EndpointReport::endpoint))
+                .toList();
+    }
+
+    private Endpoint endpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, e -> new Endpoint());
+    }
+
+    private static final class Endpoint {
+
+        private final Histogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private LoadReport.EndpointReport report(String endpoint, double seconds) {
+
+            Histogram snapshot = histogram.copy();
+            long requests = snapshot.getTotalCount();
+            return new LoadReport.EndpointReport(endpoint, requests, rejected.sum(), errors.sum(),
+                    requests / seconds,
+                    millis(snapshot.getValueAtPercentile(50)),
+                    millis(snapshot.getValueAtPercentile(99)),
+                    millis(snapshot.getValueAtPercentile(99.9)),
+                    millis(snapshot.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.loadTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат прогона: пропускная способность и перцентили задержки по каждому endpoint'у
+ * за время измерения, без прогрева.
+ */
+record LoadReport(int concurrency, Map<Scenario, Integer> mix, double seconds, List<EndpointReport> endpoints) {
+
+    /**
+     * Статистика одного endpoint'а. {@code requests} — число полученных ответов, включая отказы и ошибки 5xx;
+     * задержки указаны в миллисекундах.
+     */
+    record EndpointReport(String endpoint, long requests, long rejected, long errors, double throughput,
+                          double p50, double p99, double p999, double max) {
+    }
+
+    long errors() {
+        return endpoints.stream().mapToLong(EndpointReport::errors).sum();
+    }
+
+    void print(PrintStream out) {
+
+        out.printf("%d virtual users, %.1f s, mix %s%n", concurrency, seconds, mix);
+        out.printf("%-45s %9s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "rejected", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (EndpointReport e : endpoints) {
+            out.printf("%-45s %9d %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    e.endpoint(), e.requests(), e.rejected(), e.errors(), e.throughput(),
+                    e.p50(), e.p99(), e.p999(), e.max());
+        }
+    }
+
+    void write(Path path, ObjectMapper mapper) throws IOException {
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        mapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), this);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.loadTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Нагрузочный тест основного сервиса вместе с сервером статистики.
+ * <p>
+ * Поднимает оба сервиса в одной JVM с базами H2 в памяти, создает начальные данные через API и запускает
+ * {@link LoadTestSettings#concurrency()} виртуальных пользователей. Каждый пользователь по кругу выбирает
+ * сценарий из {@link Scenario} с учетом весов и выполняет его без пауз, то есть нагрузка замкнутая:
+ * при росте задержек падает пропускная способность. Сначала идет прогрев, затем измерение;
+ * отчет по каждому endpoint'у печатается в консоль и пишется в JSON.
+ * <p>
+ * Запуск из корня проекта:
+ * <pre>
+ * mvn -pl load-test -am -DskipTests package
+ * cd load-test
+ * java -cp "target/classes:$(cat target/classpath.txt)" ru.practicum.loadTest.LoadTest \
+ *     --concurrency=200 --duration=2m --mix=browse:60,detail:25,rush:10,moderation:5
+ * </pre>
+ * Абсолютные значения на H2 в памяти не совпадают с PostgreSQL, поэтому сравнивать стоит прогоны
+ * с одинаковыми параметрами до и после изменения.
+ */
+@Slf4j
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        LoadReport report = run(settings);
+        report.print(System.out);
+        report.write(settings.report(), new ObjectMapper());
+        if (report.errors() > 0) {
+            System.exit(1);
+        }
+    }
+
+    static LoadReport run(LoadTestSettings settings) throws InterruptedException, ExecutionException {
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        try (Services services = Services.start(settings.virtualThreads());
+             HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            EwmClient client = new EwmClient(http, services.ewmUri(), new ObjectMapper(), recorder);
+
+            log.info("Seeding {} users and {} events", settings.users(), settings.events());
+            Fixture fixture = Fixture.seed(client, settings.users(), settings.events(), ThreadLocalRandom.current());
+            ScenarioMix mix = ScenarioMix.of(settings.mix());
+
+            log.info("Warming up for {}", settings.warmup());
+            drive(client, fixture, mix, settings.concurrency(), settings.warmup());
+            recorder.reset();
+
+            log.info("Measuring {} virtual users for {}", settings.concurrency(), settings.duration());
+            long start = System.nanoTime();
+            drive(client, fixture, mix, settings.concurrency(), settings.duration());
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            return new LoadReport(settings.concurrency(), settings.mix(), elapsed.toNanos() / 1e9,
+                    recorder.report(elapsed));
+        }
+    }
+
+    private static void drive(EwmClient client, Fixture fixture, ScenarioMix mix, int concurrency, Duration period)
+            throws InterruptedException, ExecutionException {
+
+        long deadline = System.nanoTime() + period.toNanos();
+        List<Future<?>> users = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                users.add(executor.submit(() -> {
+                    RandomGenerator random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        mix.next(random).run(client, fixture, random);
+                    }
+                }));
+            }
+        }
+        for (Future<?> user : users) {
+            user.get();
+        }
+    }
+
+    /**
+     * Выбирает сценарий случайно пропорционально весам.
+     */
+    private record ScenarioMix(Scenario[] scenarios, int[] cumulativeWeights) {
+
+        static ScenarioMix of(Map<Scenario, Integer> weights) {
+
+            List<Map.Entry<Scenario, Integer>> entries = weights.entrySet().stream()
+                    .filter(e -> e.getValue() > 0)
+                    .toList();
+            Scenario[] scenarios = new Scenario[entries.size()];
+            int[] cumulative = new int[entries.size()];
+            int total = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                scenarios[i] = entries.get(i).getKey();
+                total += entries.get(i).getValue();
+                cumulative[i] = total;
+            }
+            return new ScenarioMix(scenarios, cumulative);
+        }
+
+        Scenario next(RandomGenerator random) {
+
+            int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int index = Arrays.binarySearch(cumulativeWeights, point + 1);
+            return scenarios[index >= 0 ? index : -index - 1];
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.loadTest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Параметры прогона. Задаются аргументами вида {@code --concurrency=200 --duration=2m
+ * --mix=browse:60,detail:25,rush:10,moderation:5}; незаданные параметры берутся по умолчанию.
+ *
+ * @param concurrency    число виртуальных пользователей, каждый выполняет сценарии друг за другом без пауз
+ * @param warmup         время прогрева, результаты которого не попадают в отчет
+ * @param duration       время измерения
+ * @param mix            относительный вес каждого сценария
+ * @param users          число пользователей в начальных данных, из них каждый десятый — организатор событий
+ * @param events         число опубликованных событий в начальных данных
+ * @param virtualThreads включает режим виртуальных потоков в обоих сервисах
+ * @param report         файл, куда записывается отчет в JSON
+ */
+record LoadTestSettings(int concurrency, Duration warmup, Duration duration, Map<Scenario, Integer> mix,
+                        int users, int events, boolean virtualThreads, Path report) {
+
+    static final Map<Scenario, Integer> DEFAULT_MIX = Map.of(
+            Scenario.BROWSE, 60,
+            Scenario.DETAIL, 25,
+            Scenario.RUSH, 10,
+            Scenario.MODERATION, 5);
+
+    private static final int MIN_USERS = 20;
+
+    LoadTestSettings {
+
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        if (users < MIN_USERS) {
+            throw new IllegalArgumentException("users must be at least %d: %d".formatted(MIN_USERS, users));
+        }
+        if (events < 1) {
+            throw new IllegalArgumentException("events must be positive: " + events);
+        }
+        if (mix.isEmpty() || mix.values().stream().anyMatch(weight -> weight < 0)
+                || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("mix must have positive total weight: " + mix);
+        }
+        mix = Collections.unmodifiableMap(new EnumMap<>(mix));
+    }
+
+    static LoadTestSettings parse(String... args) {
+
+        int concurrency = 64;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        Map<Scenario, Integer> mix = DEFAULT_MIX;
+        int users = 200;
+        int events = 500;
+        boolean virtualThreads = false;
+        Path report = Path.of("target", "load-test.json");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value argument: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> duration = DurationStyle.detectAndParse(value);
+                case "mix" -> mix = parseMix(value);
+                case "users" -> users = Integer.parseInt(value);
+                case "events" -> events = Integer.parseInt(value);
+                case "virtual-threads" -> virtualThreads = Boolean.parseBoolean(value);
+                case "report" -> report = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        return new LoadTestSettings(concurrency, warmup, duration, mix, users, events, virtualThreads, report);
+    }
+
+    /**
+     * Разбирает веса сценариев вида {@code browse:60,rush:40}; сценарии, которых нет в списке, не выполняются.
+     */
+    static Map<Scenario, Integer> parseMix(String value) {
+
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:weight in mix: " + entry);
+            }
+            mix.put(Scenario.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
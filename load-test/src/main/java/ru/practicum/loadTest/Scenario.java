@@ -0,0 +1,108 @@
+package ru.practicum.loadTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Сценарии виртуального пользователя по мотивам коллекций Postman. Каждый вызов {@link #run} — одна
+ * итерация сценария из нескольких запросов; доля сценариев в нагрузке задается в {@link LoadTestSettings#mix()}.
+ */
+enum Scenario {
+
+    /**
+     * Посетитель листает ленту событий, категории и подборки.
+     */
+    BROWSE {
+        @Override
+        void run(EwmClient client, Fixture fixture, RandomGenerator random) {
+
+            String filter = switch (random.nextInt(4)) {
+                case 0 -> "&categories=" + pick(fixture.categories(), random);
+                case 1 -> "&paid=" + random.nextBoolean();
+                case 2 -> "&onlyAvailable=true";
+                default -> "";
+            };
+            String sort = random.nextBoolean() ? "EVENT_DATE" : "VIEWS";
+            client.get("GET /events", "/events?sort=" + sort + "&from=" + 10 * random.nextInt(5) + "&size=10"
+                    + filter);
+            client.get("GET /categories", "/categories?from=0&size=10");
+            client.get("GET /compilations", "/compilations?pinned=" + random.nextBoolean() + "&from=0&size=10");
+        }
+    },
+
+    /**
+     * Посетитель открывает карточку события и читает комментарии к нему.
+     */
+    DETAIL {
+        @Override
+        void run(EwmClient client, Fixture fixture, RandomGenerator random) {
+
+            long eventId = pick(fixture.events(), random).id();
+            client.get("GET /events/{id}", "/events/" + eventId);
+            client.get("GET /events/{eventId}/comments", "/events/" + eventId + "/comments?from=0&size=10");
+        }
+    },
+
+    /**
+     * Посетители наперегонки подают заявки на популярные события с ограниченным числом мест.
+     * После того как места заняты, сервис отвечает 409, и такие ответы учитываются как отказы.
+     */
+    RUSH {
+        @Override
+        void run(EwmClient client, Fixture fixture, RandomGenerator random) {
+
+            long userId = pick(fixture.visitors(), random);
+            long eventId = pick(fixture.rushEvents(), random).id();
+            client.post("POST /users/{userId}/requests", "/users/" + userId + "/requests?eventId=" + eventId, null);
+            client.get("GET /users/{userId}/requests", "/users/" + userId + "/requests?size=10");
+        }
+    },
+
+    /**
+     * Администратор публикует новые события и одобряет комментарии, инициатор подтверждает заявки.
+     */
+    MODERATION {
+        @Override
+        void run(EwmClient client, Fixture fixture, RandomGenerator random) {
+
+            long initiator = pick(fixture.initiators(), random);
+            EwmClient.Response event = client.post("POST /users/{userId}/events", "/users/" + initiator + "/events",
+                    Fixture.newEvent(pick(fixture.categories(), random), random.nextInt(1_000_000), 0, false,
+                            random));
+            client.get("GET /admin/events", "/admin/events?states=PENDING&from=0&size=10");
+            if (event.ok()) {
+                client.patch("PATCH /admin/events/{eventId}", "/admin/events/" + event.id(),
+                        Map.of("stateAction", "PUBLISH_EVENT"));
+            }
+
+            Fixture.PublishedEvent rush = pick(fixture.rushEvents(), random);
+            String requests = "/users/" + rush.initiator() + "/events/" + rush.id() + "/requests";
+            EwmClient.Response pending = client.get("GET /users/{userId}/events/{eventId}/requests",
+                    requests + "?status=PENDING&size=10");
+            List<Long> ids = pending.body().findValues("id").stream().map(JsonNode::asLong).toList();
+            if (!ids.isEmpty()) {
+                client.patch("PATCH /users/{userId}/events/{eventId}/requests", requests,
+                        Map.of("ids", ids, "status", "CONFIRMED"));
+            }
+
+            long visitor = pick(fixture.visitors(), random);
+            long eventId = pick(fixture.events(), random).id();
+            EwmClient.Response comment = client.post("POST /users/{userId}/events/{eventId}/comments",
+                    "/users/" + visitor + "/events/" + eventId + "/comments",
+                    Map.of("text", "Комментарий к событию " + eventId));
+            if (comment.ok()) {
+                client.patch("PATCH /admin/comments/{commentId}",
+                        "/admin/comments/" + comment.id() + "?status=APPROVED", null);
+            }
+        }
+    };
+
+    abstract void run(EwmClient client, Fixture fixture, RandomGenerator random);
+
+    private static <T> T pick(List<T> values, RandomGenerator random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
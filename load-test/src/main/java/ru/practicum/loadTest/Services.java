@@ -0,0 +1,64 @@
+package ru.practicum.loadTest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.ewmService.EwmService;
+import ru.practicum.statsServer.StatsServer;
+
+import java.net.URI;
+
+/**
+ * Основной сервис и сервер статистики, запущенные в одной JVM со своими базами H2 в памяти.
+ * <p>
+ * Оба модуля кладут в classpath свой {@code application.properties}, поэтому сервисы читают настройки
+ * из {@code ewm-load.properties} и {@code stats-load.properties} этого модуля. Основной сервис ходит
+ * в сервер статистики по HTTP, как в docker-compose.
+ */
+final class Services implements AutoCloseable {
+
+    private final ConfigurableApplicationContext stats;
+    private final ConfigurableApplicationContext ewm;
+    private final URI ewmUri;
+
+    private Services(ConfigurableApplicationContext stats, ConfigurableApplicationContext ewm) {
+
+        this.stats = stats;
+        this.ewm = ewm;
+        this.ewmUri = URI.create("http://localhost:" + port(ewm));
+    }
+
+    static Services start(boolean virtualThreads) {
+
+        ConfigurableApplicationContext stats = new SpringApplicationBuilder(StatsServer.class)
+                .logStartupInfo(false)
+                .run("--spring.config.name=stats-load",
+                        "--spring.threads.virtual.enabled=" + virtualThreads);
+        try {
+            ConfigurableApplicationContext ewm = new SpringApplicationBuilder(EwmService.class)
+                    .logStartupInfo(false)
+                    .run("--spring.config.name=ewm-load",
+                            "--spring.threads.virtual.enabled=" + virtualThreads,
+                            "--stats.server.url=http://localhost:" + port(stats));
+            return new Services(stats, ewm);
+        } catch (RuntimeException e) {
+            stats.close();
+            throw e;
+        }
+    }
+
+    URI ewmUri() {
+        return ewmUri;
+    }
+
+    @Override
+    public void close() {
+
+        ewm.close();
+        stats.close();
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.loadTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoadTestSettingsTest {
+
+    @Test
+    void parse_ShouldUseDefaultsForMissingArguments() {
+        LoadTestSettings settings = LoadTestSettings.parse("--concurrency=200", "--duration=2m");
+
+        assertEquals(200, settings.concurrency());
+        assertEquals(Duration.ofMinutes(2), settings.duration());
+        assertEquals(Duration.ofSeconds(10), settings.warmup());
+        assertEquals(LoadTestSettings.DEFAULT_MIX, settings.mix());
+        assertEquals(Path.of("target", "load-test.json"), settings.report());
+    }
+
+    @Test
+    void parse_ShouldReadScenarioMix() {
+        LoadTestSettings settings = LoadTestSettings.parse("--mix=browse:3, rush:1");
+
+        assertEquals(Map.of(Scenario.BROWSE, 3, Scenario.RUSH, 1), settings.mix());
+    }
+
+    @Test
+    void parse_ShouldRejectUnknownArgumentsAndEmptyMix() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestSettings.parse("--threads=10"));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestSettings.parse("--mix=browse:0"));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestSettings.parse("--users=5"));
+    }
+}
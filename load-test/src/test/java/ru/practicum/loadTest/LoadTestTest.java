@@ -0,0 +1,42 @@
+package ru.practicum.loadTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Короткий прогон всех сценариев против поднятых сервисов: проверяет, что сценарии совпадают с API
+ * контроллеров и не получают ответов 5xx.
+ */
+class LoadTestTest {
+
+    @Test
+    void run_ShouldReportEveryScenarioEndpointWithoutErrors() throws Exception {
+        LoadTestSettings settings = new LoadTestSettings(8, Duration.ofSeconds(1), Duration.ofSeconds(3),
+                Map.of(Scenario.BROWSE, 1, Scenario.DETAIL, 1, Scenario.RUSH, 1, Scenario.MODERATION, 1),
+                40, 30, false, Path.of("target", "load-test.json"));
+
+        LoadReport report = LoadTest.run(settings);
+
+        Map<String, LoadReport.EndpointReport> endpoints = report.endpoints().stream()
+                .collect(Collectors.toMap(LoadReport.EndpointReport::endpoint, e -> e));
+        assertTrue(endpoints.keySet().containsAll(Set.of(
+                "GET /events", "GET /categories", "GET /compilations",
+                "GET /events/{id}", "GET /events/{eventId}/comments",
+                "POST /users/{userId}/requests", "GET /users/{userId}/requests",
+                "POST /users/{userId}/events", "GET /admin/events", "PATCH /admin/events/{eventId}",
+                "GET /users/{userId}/events/{eventId}/requests", "POST /users/{userId}/events/{eventId}/comments")),
+                endpoints.keySet()::toString);
+        assertEquals(0, report.errors(), () -> report.endpoints().toString());
+        List<LoadReport.EndpointReport> measured = report.endpoints();
+        assertTrue(measured.stream().allMatch(e -> e.requests() > 0 && e.p50() <= e.p99() && e.p99() <= e.p999()));
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.statsBench;
+
+/**
+ * Хранилища хитов, доступные бенчмаркам через параметр {@code engine}.
+ */
+public enum Engine {
+
+    /**
+     * {@link ru.practicum.statsServer.service.HitServiceImpl} сервера статистики со встроенной H2 в памяти.
+     */
+    H2 {
+        @Override
+        public StatsEngine open() {
+            return HitServiceEngine.start("jdbc");
+        }
+    },
+
+    /**
+     * {@link ru.practicum.statsServer.service.ColumnarHitService} сервера статистики: колоночное хранилище
+     * хитов в памяти без обращений к базе данных.
+     */
+    MEMORY {
+        @Override
+        public StatsEngine open() {
+            return HitServiceEngine.start("memory");
+        }
+    },
+
+    /**
+     * {@link ru.practicum.statsServer.service.LoggedHitService} перед H2: одиночные хиты только дописываются
+     * в журнал предзаписи во временном каталоге, который удаляется при закрытии. Журнал за время измерения в базу не переносится,
+     * поэтому хранилище подходит только для бенчмарков записи.
+     */
+    H2_WAL {
+        @Override
+        public StatsEngine open() {
+            return HitServiceEngine.startLogged();
+        }
+    };
+
+    public abstract StatsEngine open();
+}
@@ -0,0 +1,102 @@
+package ru.practicum.statsBench;
+
+import ru.practicum.statsDto.NewHitDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Детерминированный синтетический набор хитов одного приложения.
+ * Хиты упорядочены по времени и равномерно распределены по {@code span}, URI выбираются с перекосом
+ * в сторону первых событий ({@code /events/0} — самое популярное), IPv4-адреса — равномерно.
+ * Набор генерируется по мере чтения, поэтому 100M хитов не требуют памяти под все DTO сразу.
+ *
+ * @param hits количество хитов
+ * @param uris количество различных URI
+ * @param ips  количество различных IP-адресов
+ */
+public record HitDataset(long hits, int uris, int ips, LocalDateTime start, Duration span, long seed) {
+
+    public static final String APP = "ewm-main-server";
+    public static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final int DEFAULT_URIS = 10_000;
+    private static final int MAX_IPS = 1_000_000;
+
+    /**
+     * Набор из {@code hits} хитов за сутки: 10 000 URI, IP-адресов в 10 раз меньше, чем хитов, но не больше миллиона.
+     */
+    public static HitDataset of(long hits) {
+        return new HitDataset(hits, DEFAULT_URIS, Math.clamp(hits / 10, 1, MAX_IPS), START, Duration.ofDays(1), 42);
+    }
+
+    public LocalDateTime end() {
+        return start.plus(span);
+    }
+
+    public static String uri(int index) {
+        return "/events/" + index;
+    }
+
+    /**
+     * URI {@code count} самых популярных событий.
+     */
+    public static List<String> topUris(int count) {
+
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(uri(i));
+        }
+        return result;
+    }
+
+    public Iterator<NewHitDto> iterator() {
+
+        return new Iterator<>() {
+
+            private final SplittableRandom random = new SplittableRandom(seed);
+            private final long spanSeconds = span.toSeconds();
+            private long index;
+
+            @Override
+            public boolean hasNext() {
+                return index < hits;
+            }
+
+            @Override
+            public NewHitDto next() {
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                double skew = random.nextDouble();
+                int uri = (int) (skew * skew * uris);
+                int ip = random.nextInt(ips);
+                LocalDateTime timestamp = start.plusSeconds(spanSeconds * index / hits);
+                index++;
+                return new NewHitDto(APP, uri(uri), ipv4(ip), timestamp);
+            }
+        };
+    }
+
+    /**
+     * Следующие {@code size} хитов набора или меньше, если набор закончился.
+     */
+    public static List<NewHitDto> next(Iterator<NewHitDto> hits, int size) {
+
+        List<NewHitDto> batch = new ArrayList<>(size);
+        while (batch.size() < size && hits.hasNext()) {
+            batch.add(hits.next());
+        }
+        return batch;
+    }
+
+    private static String ipv4(int ip) {
+        return "10." + ((ip >>> 16) & 0xFF) + "." + ((ip >>> 8) & 0xFF) + "." + (ip & 0xFF);
+    }
+}
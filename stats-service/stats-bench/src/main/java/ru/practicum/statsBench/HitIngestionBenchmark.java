@@ -0,0 +1,92 @@
+package ru.practicum.statsBench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.statsDto.NewHitDto;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность записи хитов в хитах в секунду: по одному ({@code addHit}, как {@code POST /hit})
+ * и пакетами по {@value #BATCH_SIZE} ({@code addHits}, как {@code POST /hits/batch}).
+ * Каждая итерация пишет в новое пустое хранилище, чтобы размер хранилища не рос от итерации к итерации.
+ * Хиты набора повторяются по кругу и относятся к одной секунде, как при пиковой нагрузке,
+ * поэтому повторение не нарушает порядок времени.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HitIngestionBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int HITS = 100_000;
+
+    @Param({"H2", "H2_WAL", "MEMORY"})
+    private Engine engine;
+
+    private List<NewHitDto> hits;
+    private StatsEngine store;
+    private int next;
+
+    @Setup
+    public void setUpHits() {
+
+        HitDataset dataset = HitDataset.of(HITS);
+        Iterator<NewHitDto> iterator = new HitDataset(HITS, dataset.uris(), dataset.ips(), dataset.start(),
+                Duration.ZERO, dataset.seed()).iterator();
+        hits = HitDataset.next(iterator, HITS);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpStore() {
+
+        store = engine.open();
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownStore() {
+        store.close();
+    }
+
+    @Benchmark
+    public void addHit() {
+        store.addHit(hits.get(nextIndex(1)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void addHits() {
+
+        int from = nextIndex(BATCH_SIZE);
+        store.addHits(hits.subList(from, from + BATCH_SIZE));
+    }
+
+    private int nextIndex(int count) {
+
+        if (next + count > hits.size()) {
+            next = 0;
+        }
+        int index = next;
+        next += count;
+        return index;
+    }
+}
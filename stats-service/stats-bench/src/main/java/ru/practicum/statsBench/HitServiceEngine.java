@@ -0,0 +1,140 @@
+package ru.practicum.statsBench;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsServer.StatsServer;
+import ru.practicum.statsServer.interfaces.HitService;
+import ru.practicum.statsServer.model.BucketUnit;
+import ru.practicum.statsServer.repository.JdbcHitRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервер статистики без веб-слоя с отдельной базой H2 в памяти и заданным хранилищем хитов
+ * ({@code stats.storage.engine}). Хиты и запросы статистики проходят через {@link HitService},
+ * как при обработке HTTP-запросов. Снимок хранилища в памяти не ведется.
+ * <p>
+ * В хранилище {@code jdbc} набор для измерения запросов загружается в обход сервиса: хиты пишутся пакетами, а счетчики
+ * {@code hit_rollups} считаются одним запросом на интервал. Счетчики HyperLogLog не заполняются,
+ * поэтому приблизительная статистика уникальных просмотров на загруженном наборе не измеряется.
+ */
+final class HitServiceEngine implements StatsEngine {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static final String INSERT_ROLLUPS = """
+            insert into hit_rollups(app, uri, bucket_unit, bucket_start, hits)
+            select app, uri, '%1$s', date_trunc('%1$s', timestamp), count(*)
+            from hits
+            group by app, uri, date_trunc('%1$s', timestamp)
+            """;
+
+    private final ConfigurableApplicationContext context;
+    private final HitService hitService;
+    private final JdbcHitRepository hitRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean jdbc;
+    private Path temporaryDirectory;
+
+    private HitServiceEngine(ConfigurableApplicationContext context, String storage) {
+
+        this.context = context;
+        this.jdbc = "jdbc".equals(storage);
+        this.hitService = context.getBean(HitService.class);
+        this.hitRepository = context.getBean(JdbcHitRepository.class);
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    static HitServiceEngine start(String storage, String... properties) {
+
+        // Аргументы командной строки, в отличие от свойств по умолчанию, переопределяют профиль test.
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:stats-bench-" + DATABASES.incrementAndGet(),
+                "--spring.jpa.show-sql=false",
+                "--stats.storage.engine=" + storage,
+                "--stats.storage.memory.snapshot-path=",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new HitServiceEngine(new SpringApplicationBuilder(StatsServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new)), storage);
+    }
+
+    /**
+     * Сервер с H2, принимающий одиночные хиты через журнал предзаписи во временном каталоге.
+     * Журнал в базу не переносится.
+     */
+    static HitServiceEngine startLogged() {
+
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("stats-bench-wal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        HitServiceEngine engine = start("jdbc", "stats.ingest.mode=wal", "stats.ingest.wal.directory=" + directory,
+                "stats.ingest.wal.apply-interval=PT1H");
+        engine.temporaryDirectory = directory;
+        return engine;
+    }
+
+    @Override
+    public void addHit(NewHitDto hit) {
+        hitService.addHit(hit);
+    }
+
+    @Override
+    public void addHits(List<NewHitDto> hits) {
+        hitService.addHits(hits.iterator());
+    }
+
+    @Override
+    public void load(Iterator<NewHitDto> hits) {
+
+        if (!jdbc) {
+            StatsEngine.super.load(hits);
+            return;
+        }
+        while (hits.hasNext()) {
+            hitRepository.saveAll(HitDataset.next(hits, LOAD_BATCH_SIZE));
+        }
+        for (BucketUnit unit : BucketUnit.values()) {
+            jdbcTemplate.update(INSERT_ROLLUPS.formatted(unit.name()));
+        }
+    }
+
+    @Override
+    public List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        return hitService.getStats(start, end, uris, unique);
+    }
+
+    @Override
+    public void close() {
+
+        context.close();
+        if (temporaryDirectory != null) {
+            try {
+                FileSystemUtils.deleteRecursively(temporaryDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
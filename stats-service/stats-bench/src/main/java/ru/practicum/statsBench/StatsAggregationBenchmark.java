@@ -0,0 +1,72 @@
+package ru.practicum.statsBench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.statsDto.StatsItemDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время ответа статистики за сутки по набору {@link HitDataset} из {@code hits} хитов:
+ * уникальные и неуникальные просмотры, по всем URI ({@code uris = 0}) или по {@code uris} самым популярным.
+ * Набор загружается один раз на запуск через {@link StatsEngine#load}.
+ * Наборы 10M–100M рассчитаны на {@code engine=MEMORY}: {@code -p hits=100000000 -p engine=MEMORY -jvmArgs -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsAggregationBenchmark {
+
+    @Param({"1000000"})
+    private long hits;
+
+    @Param({"H2", "MEMORY"})
+    private Engine engine;
+
+    @Param({"false", "true"})
+    private boolean unique;
+
+    @Param({"0", "10"})
+    private int uris;
+
+    private StatsEngine store;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private List<String> uriFilter;
+
+    @Setup
+    public void setUp() {
+
+        HitDataset dataset = HitDataset.of(hits);
+        store = engine.open();
+        store.load(dataset.iterator());
+        start = dataset.start();
+        end = dataset.end();
+        uriFilter = (uris == 0) ? null : HitDataset.topUris(uris);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public List<StatsItemDto> getStats() {
+        return store.getStats(start, end, uriFilter, unique);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.statsBench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запускает бенчмарки модуля и сохраняет результаты в JSON, чтобы сравнивать их между сборками.
+ * Принимает обычные параметры командной строки JMH; без них запускаются все бенчмарки модуля,
+ * а результаты пишутся в {@value #DEFAULT_RESULT} относительно каталога модуля.
+ * <p>
+ * Запуск из корня проекта:
+ * <pre>
+ * mvn -pl stats-service/stats-bench -am -DskipTests package
+ * cd stats-service/stats-bench
+ * java -cp "target/classes:$(cat target/classpath.txt)" \
+ *     ru.practicum.statsBench.StatsBenchmarks StatsJsonBenchmark -rff target/before.json
+ * </pre>
+ */
+public final class StatsBenchmarks {
+
+    static final String DEFAULT_RESULT = "target/jmh-stats.json";
+
+    private StatsBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(StatsBenchmarks.class.getPackageName() + ".*Benchmark");
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT);
+        }
+        new Runner(options.build()).run();
+    }
+}
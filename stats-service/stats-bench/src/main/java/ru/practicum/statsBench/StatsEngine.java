@@ -0,0 +1,36 @@
+package ru.practicum.statsBench;
+
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Хранилище хитов, которое сравнивают бенчмарки.
+ */
+public interface StatsEngine extends AutoCloseable {
+
+    int LOAD_BATCH_SIZE = 10_000;
+
+    void addHit(NewHitDto hit);
+
+    void addHits(List<NewHitDto> hits);
+
+    /**
+     * Заполняет пустое хранилище набором хитов перед измерением запросов.
+     * Хранилище может загрузить набор быстрее, чем через {@link #addHits}, если результат запросов тот же.
+     */
+    default void load(Iterator<NewHitDto> hits) {
+
+        while (hits.hasNext()) {
+            addHits(HitDataset.next(hits, LOAD_BATCH_SIZE));
+        }
+    }
+
+    List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,97 @@
+package ru.practicum.statsBench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование и разбор JSON тем же {@link ObjectMapper}, что использует {@code RestTemplate} клиента статистики:
+ * хит и пакет хитов ({@link NewHitDto}) и ответ статистики ({@code StatsItemDto[]}) из {@code items} элементов.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsJsonBenchmark {
+
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    @State(Scope.Benchmark)
+    public static class Hit {
+
+        private NewHitDto hit;
+        private byte[] json;
+
+        @Setup
+        public void setUp() throws JsonProcessingException {
+
+            hit = HitDataset.of(1).iterator().next();
+            json = MAPPER.writeValueAsBytes(hit);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+
+        @Param({"10", "1000", "100000"})
+        private int items;
+
+        private List<NewHitDto> hits;
+        private StatsItemDto[] stats;
+        private byte[] statsJson;
+
+        @Setup
+        public void setUp() throws JsonProcessingException {
+
+            hits = HitDataset.next(HitDataset.of(items).iterator(), items);
+            stats = new StatsItemDto[items];
+            for (int i = 0; i < items; i++) {
+                stats[i] = new StatsItemDto(HitDataset.APP, HitDataset.uri(i), items - i);
+            }
+            statsJson = MAPPER.writeValueAsBytes(stats);
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeHit(Hit state) throws JsonProcessingException {
+        return MAPPER.writeValueAsBytes(state.hit);
+    }
+
+    @Benchmark
+    public NewHitDto decodeHit(Hit state) throws IOException {
+        return MAPPER.readValue(state.json, NewHitDto.class);
+    }
+
+    @Benchmark
+    public byte[] encodeHitBatch(Payload state) throws JsonProcessingException {
+        return MAPPER.writeValueAsBytes(state.hits);
+    }
+
+    @Benchmark
+    public byte[] encodeStats(Payload state) throws JsonProcessingException {
+        return MAPPER.writeValueAsBytes(state.stats);
+    }
+
+    @Benchmark
+    public StatsItemDto[] decodeStats(Payload state) throws IOException {
+        return MAPPER.readValue(state.statsJson, StatsItemDto[].class);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.statsBench;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверяет, что колоночное хранилище в памяти и сервер статистики с H2, заполненный загрузкой набора в обход сервиса,
+ * считают ту же статистику, что и сервер статистики, получивший хиты через {@code addHits},
+ * иначе сравнение в бенчмарках не имеет смысла.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatsEngineParityTest {
+
+    private static final HitDataset DATASET = HitDataset.of(5_000);
+
+    private StatsEngine h2;
+    private StatsEngine h2Loaded;
+    private StatsEngine memory;
+
+    @BeforeAll
+    void setUp() {
+        h2 = Engine.H2.open();
+        h2Loaded = Engine.H2.open();
+        memory = Engine.MEMORY.open();
+        Iterator<NewHitDto> hits = DATASET.iterator();
+        while (hits.hasNext()) {
+            h2.addHits(HitDataset.next(hits, 1000));
+        }
+        h2Loaded.load(DATASET.iterator());
+        memory.load(DATASET.iterator());
+    }
+
+    @AfterAll
+    void tearDown() {
+        h2.close();
+        h2Loaded.close();
+        memory.close();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"false, 0, 0", "true, 0, 0", "false, 10, 0", "true, 10, 0", "false, 0, 7", "true, 10, 7"})
+    void getStats_shouldMatchStatsServer(boolean unique, int uris, int hours) {
+        LocalDateTime start = DATASET.start().plusHours(hours).plusSeconds(17);
+        LocalDateTime end = DATASET.end().minusHours(hours).minusSeconds(29);
+        List<String> filter = (uris == 0) ? null : HitDataset.topUris(uris);
+
+        List<StatsItemDto> expected = h2.getStats(start, end, filter, unique);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(byUri(expected), byUri(h2Loaded.getStats(start, end, filter, unique)));
+        assertEquals(byUri(expected), byUri(memory.getStats(start, end, filter, unique)));
+    }
+
+    private static Map<String, Long> byUri(List<StatsItemDto> items) {
+        return items.stream().collect(Collectors.toMap(StatsItemDto::getUri, StatsItemDto::getHits));
+    }
+}
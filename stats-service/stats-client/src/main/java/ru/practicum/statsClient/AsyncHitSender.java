@@ -0,0 +1,303 @@
+package ru.practicum.statsClient;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.statsDto.NewHitDto;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Асинхронная отправка хитов пакетами.
+ * Хиты складываются в ограниченную очередь, фоновый поток забирает их пакетами
+ * не больше {@link HitQueueSettings#batchSize()} хитов и не реже одного раза за
+ * {@link HitQueueSettings#flushInterval()} и передает пакет в {@code batchSink}.
+ * При переполнении очереди применяется {@link HitQueueSettings#overflowPolicy()}.
+ */
+@Slf4j
+public class AsyncHitSender implements AutoCloseable {
+
+    private static final String SPILL_FILE = "stats-hits-spill.ndjson";
+    private static final String REPLAY_FILE = "stats-hits-replay.ndjson";
+    private static final String REPLAY_PROGRESS_FILE = "stats-hits-replay.progress";
+    private static final String REJECTED_FILE = "stats-hits-rejected.ndjson";
+    private static final long CLOSE_TIMEOUT_MS = 10_000;
+
+    private final HitQueueSettings settings;
+    private final Consumer<List<NewHitDto>> batchSink;
+    private final BlockingQueue<NewHitDto> queue;
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+    private final Object spillLock = new Object();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public AsyncHitSender(HitQueueSettings settings, Consumer<List<NewHitDto>> batchSink) {
+
+        this.settings = settings;
+        this.batchSink = batchSink;
+        this.queue = new ArrayBlockingQueue<>(settings.capacity());
+        this.flusher = new Thread(this::runFlusher, "stats-hit-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Ставит хит в очередь на отправку. Не ждет ответа сервера статистики;
+     * блокируется только при политике {@link OverflowPolicy#BLOCK} и заполненной очереди.
+     */
+    public void offer(NewHitDto hit) {
+
+        if (!running) {
+            dropped.incrementAndGet();
+            log.warn("Hit sender is closed, hit {} dropped", hit);
+            return;
+        }
+        switch (settings.overflowPolicy()) {
+            case DROP_OLDEST -> {
+                while (!queue.offer(hit)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+            case BLOCK -> {
+                try {
+                    queue.put(hit);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                }
+            }
+            case SPILL_TO_DISK -> {
+                if (!queue.offer(hit)) {
+                    spill(List.of(hit));
+                }
+            }
+        }
+    }
+
+    public HitQueueStats getStats() {
+        return new HitQueueStats(queue.size(), lastBatchSize.get(), batches.get(),
+                sent.get(), dropped.get(), spilled.get(), failed.get());
+    }
+
+    @Override
+    public void close() {
+
+        running = false;
+        try {
+            flusher.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Hit sender closed with {} unsent hits", queue.size());
+        }
+    }
+
+    private void runFlusher() {
+
+        List<NewHitDto> batch = new ArrayList<>(settings.batchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+                batch.clear();
+            }
+            if (settings.overflowPolicy() == OverflowPolicy.SPILL_TO_DISK && queue.isEmpty()) {
+                replaySpilled();
+            }
+        }
+    }
+
+    /**
+     * Собирает пакет, пока он не заполнится или не истечет интервал отправки.
+     */
+    private void collectBatch(List<NewHitDto> batch) throws InterruptedException {
+
+        long deadline = System.nanoTime() + settings.flushInterval().toNanos();
+        while (batch.size() < settings.batchSize()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || (!running && queue.isEmpty())) {
+                return;
+            }
+            NewHitDto hit = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (hit == null) {
+                return;
+            }
+            batch.add(hit);
+            queue.drainTo(batch, settings.batchSize() - batch.size());
+        }
+    }
+
+    private void send(List<NewHitDto> batch) {
+
+        if (!deliver(batch)) {
+            if (settings.overflowPolicy() == OverflowPolicy.SPILL_TO_DISK) {
+                spill(batch);
+            } else {
+                failed.addAndGet(batch.size());
+            }
+        }
+    }
+
+    private boolean deliver(List<NewHitDto> batch) {
+
+        try {
+            batchSink.accept(List.copyOf(batch));
+            lastBatchSize.set(batch.size());
+            batches.incrementAndGet();
+            sent.addAndGet(batch.size());
+            return true;
+        } catch (Exception e) {
+            log.warn("Unable to send batch of {} hits to stats server", batch.size(), e);
+            return false;
+        }
+    }
+
+    private void spill(Collection<NewHitDto> hits) {
+
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(settings.spillDirectory());
+                try (BufferedWriter writer = Files.newBufferedWriter(settings.spillDirectory().resolve(SPILL_FILE),
+                        StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (NewHitDto hit : hits) {
+                        writer.write(objectMapper.writeValueAsString(hit));
+                        writer.newLine();
+                    }
+                }
+                spilled.addAndGet(hits.size());
+            } catch (IOException e) {
+                log.warn("Unable to spill {} hits to disk", hits.size(), e);
+                dropped.addAndGet(hits.size());
+            }
+        }
+    }
+
+    /**
+     * Переотправляет хиты, ранее сброшенные на диск. Файл сброса переименовывается перед чтением,
+     * чтобы новые сбросы не смешивались с переотправляемыми. После каждого отправленного пакета
+     * количество обработанных строк сохраняется в файл прогресса; если отправка не удалась или чтение
+     * прервалось, файл переотправки остается на месте, и следующая попытка продолжает его с этой строки.
+     * Строки, которые не удается разобрать, переносятся в отдельный файл и больше не читаются.
+     */
+    private void replaySpilled() {
+
+        Path spillFile = settings.spillDirectory().resolve(SPILL_FILE);
+        Path replayFile = settings.spillDirectory().resolve(REPLAY_FILE);
+        Path progressFile = settings.spillDirectory().resolve(REPLAY_PROGRESS_FILE);
+        synchronized (spillLock) {
+            if (!Files.exists(replayFile)) {
+                if (!Files.exists(spillFile)) {
+                    return;
+                }
+                try {
+                    Files.deleteIfExists(progressFile);
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    log.warn("Unable to move spill file {} for replay", spillFile, e);
+                    return;
+                }
+            }
+        }
+
+        try {
+            long replayed = readProgress(progressFile);
+            long lines = 0;
+            List<NewHitDto> batch = new ArrayList<>(settings.batchSize());
+            try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    if (lines <= replayed || line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        batch.add(objectMapper.readValue(line, NewHitDto.class));
+                    } catch (JsonProcessingException e) {
+                        reject(line, e);
+                    }
+                    if (batch.size() == settings.batchSize()) {
+                        if (!deliver(batch)) {
+                            return;
+                        }
+                        batch.clear();
+                        writeProgress(progressFile, lines);
+                    }
+                }
+            }
+            if (!batch.isEmpty() && !deliver(batch)) {
+                return;
+            }
+            Files.delete(replayFile);
+            Files.deleteIfExists(progressFile);
+            log.info("Spilled hits from {} have been replayed", spillFile);
+        } catch (IOException e) {
+            log.warn("Unable to replay spilled hits from {}, will retry", replayFile, e);
+        }
+    }
+
+    private void reject(String line, JsonProcessingException cause) {
+
+        log.warn("Malformed spilled hit moved to {}: {}", REJECTED_FILE, line, cause);
+        failed.incrementAndGet();
+        try (BufferedWriter writer = Files.newBufferedWriter(settings.spillDirectory().resolve(REJECTED_FILE),
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            log.warn("Unable to save malformed spilled hit", e);
+        }
+    }
+
+    private static long readProgress(Path progressFile) throws IOException {
+
+        if (!Files.exists(progressFile)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(progressFile).trim());
+        } catch (NumberFormatException e) {
+            log.warn("Malformed replay progress in {}, replaying from the start", progressFile);
+            return 0;
+        }
+    }
+
+    private static void writeProgress(Path progressFile, long lines) throws IOException {
+
+        Path temp = progressFile.resolveSibling(progressFile.getFileName() + ".tmp");
+        Files.writeString(temp, Long.toString(lines));
+        Files.move(temp, progressFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.statsClient;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Настройки асинхронной отправки хитов.
+ *
+ * @param capacity       максимальное количество хитов в очереди
+ * @param batchSize      максимальное количество хитов в одной отправке
+ * @param flushInterval  максимальное время ожидания заполнения пакета
+ * @param overflowPolicy поведение при переполнении очереди
+ * @param spillDirectory каталог для сброса хитов на диск (используется только с {@link OverflowPolicy#SPILL_TO_DISK})
+ */
+public record HitQueueSettings(
+        int capacity,
+        int batchSize,
+        Duration flushInterval,
+        OverflowPolicy overflowPolicy,
+        Path spillDirectory) {
+
+    public HitQueueSettings {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Hit queue capacity must be positive");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Hit batch size must be positive");
+        }
+        if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Hit flush interval must be positive");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Hit queue overflow policy must be set");
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL_TO_DISK && spillDirectory == null) {
+            throw new IllegalArgumentException("Spill directory is required for SPILL_TO_DISK overflow policy");
+        }
+    }
+}
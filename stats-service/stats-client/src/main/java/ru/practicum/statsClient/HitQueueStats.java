@@ -0,0 +1,24 @@
+package ru.practicum.statsClient;
+
+/**
+ * Снимок счетчиков асинхронной очереди хитов.
+ *
+ * @param queueDepth    текущее количество хитов в очереди
+ * @param lastBatchSize размер последнего отправленного пакета
+ * @param batches       количество отправленных пакетов
+ * @param sent          количество успешно отправленных хитов
+ * @param dropped       количество хитов, отброшенных из-за переполнения или прерывания
+ * @param spilled       количество хитов, сброшенных на диск
+ * @param failed        количество хитов, которые не удалось отправить
+ */
+public record HitQueueStats(
+        int queueDepth,
+        int lastBatchSize,
+        long batches,
+        long sent,
+        long dropped,
+        long spilled,
+        long failed) {
+
+    public static final HitQueueStats EMPTY = new HitQueueStats(0, 0, 0, 0, 0, 0, 0);
+}
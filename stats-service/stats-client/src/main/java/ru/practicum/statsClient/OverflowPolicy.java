@@ -0,0 +1,23 @@
+package ru.practicum.statsClient;
+
+/**
+ * Поведение очереди хитов {@link AsyncHitSender} при её переполнении.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Самый старый хит в очереди отбрасывается, новый ставится в очередь.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Вызывающий поток ждет освобождения места в очереди.
+     */
+    BLOCK,
+
+    /**
+     * Хит, не поместившийся в очередь, дописывается в файл на диске
+     * и отправляется позже, когда очередь разгрузится.
+     */
+    SPILL_TO_DISK
+}
@@ -1,7 +1,13 @@
 package ru.practicum.statsClient;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -17,28 +23,60 @@ import ru.practicum.statsDto.StatsItemDto;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Клиентский класс для взаимодействия со службой статистики.
  * Предоставляет методы для отправки данных о хитах и получения статистики.
+ * Если клиент создан с {@link HitQueueSettings}, хиты отправляются асинхронно пакетами
+ * через {@link AsyncHitSender}, иначе каждый хит отправляется синхронно.
  */
 @Slf4j
-public class StatsClient {
+public class StatsClient implements AutoCloseable {
 
+    private static final int DEFAULT_MAX_CONNECTIONS = 5;
     private static final DateTimeFormatter formatter =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ObjectReader STATS_READER = new ObjectMapper().readerFor(StatsItemDto.class);
     private final String serverUrl;
     private final RestTemplate rest;
+    private final AsyncHitSender hitSender;
 
     public StatsClient(String serverUrl) {
+        this(serverUrl, null);
+    }
+
+    public StatsClient(String serverUrl, @Nullable HitQueueSettings hitQueueSettings) {
+        this(serverUrl, hitQueueSettings, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * @param maxConnections максимальное количество одновременных HTTP-соединений с сервером статистики;
+     *                       запросы сверх него ждут свободное соединение
+     */
+    public StatsClient(String serverUrl, @Nullable HitQueueSettings hitQueueSettings, int maxConnections) {
 
         this.serverUrl = serverUrl;
         this.rest = new RestTemplateBuilder()
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient(maxConnections)))
+                .build();
+        this.hitSender = (hitQueueSettings != null) ?
+                new AsyncHitSender(hitQueueSettings, this::sendHits) :
+                null;
+    }
+
+    private static HttpClient httpClient(int maxConnections) {
+
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnections)
+                        .build())
                 .build();
     }
 
@@ -89,6 +127,11 @@ public class StatsClient {
                        @NonNull LocalDateTime time) {
 
         NewHitDto newHitDto = new NewHitDto(app, uri, ip, time);
+        if (hitSender != null) {
+            log.debug("Queue hit {} for server {}", newHitDto, serverUrl);
+            hitSender.offer(newHitDto);
+            return;
+        }
         String path = "/hit";
         log.info("Post hit {} to server endpoint {}{}", newHitDto, serverUrl, path);
         try {
@@ -98,29 +141,100 @@ public class StatsClient {
         }
     }
 
+    private void sendHits(List<NewHitDto> hits) {
+
+        String path = "/hits/batch";
+        log.info("Post batch of {} hits to server endpoint {}{}", hits.size(), serverUrl, path);
+        post(path, hits);
+    }
+
+    /**
+     * Возвращает {@code true}, если {@link #addHit} только ставит хит в очередь {@link AsyncHitSender}
+     * и хит доходит до сервера статистики позже, в пакете.
+     */
+    public boolean isAsync() {
+        return hitSender != null;
+    }
+
+    /**
+     * Возвращает счетчики асинхронной очереди хитов.
+     * Для синхронного клиента все счетчики равны нулю.
+     */
+    public HitQueueStats getHitQueueStats() {
+        return (hitSender != null) ? hitSender.getStats() : HitQueueStats.EMPTY;
+    }
+
+    @Override
+    public void close() {
+        if (hitSender != null) {
+            hitSender.close();
+        }
+    }
+
     public List<StatsItemDto> getStats(
             @NonNull LocalDateTime start,
             @NonNull LocalDateTime end,
             @NonNull List<String> uris,
             boolean unique) {
+        return getStats(start, end, uris, unique, false);
+    }
+
+    /**
+     * Запрашивает статистику; при {@code unique && approximate} сервер оценивает уникальные
+     * просмотры по счетчикам HyperLogLog (стандартная ошибка около 0,81%) вместо точного подсчета.
+     */
+    public List<StatsItemDto> getStats(
+            @NonNull LocalDateTime start,
+            @NonNull LocalDateTime end,
+            @NonNull List<String> uris,
+            boolean unique,
+            boolean approximate) {
+
+        List<StatsItemDto> result = new ArrayList<>();
+        forEachStats(start, end, uris, unique, approximate, null, result::add);
+        return result;
+    }
+
+    /**
+     * Запрашивает статистику потоком NDJSON и передает элементы {@code consumer} по мере чтения ответа,
+     * не собирая ответ в памяти. {@code limit} ограничивает ответ первыми элементами по убыванию просмотров;
+     * {@code null} — без ограничения.
+     */
+    public void forEachStats(
+            @NonNull LocalDateTime start,
+            @NonNull LocalDateTime end,
+            @NonNull List<String> uris,
+            boolean unique,
+            boolean approximate,
+            @Nullable Integer limit,
+            @NonNull Consumer<? super StatsItemDto> consumer) {
 
         log.info("Get stats for uris {} from {}/stats", uris, serverUrl);
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "start", formatter.format(start),
+                "end", formatter.format(end),
+                "uris", String.join(",", uris),
+                "unique", unique,
+                "approximate", approximate));
+        String path = "/stats?start={start}&end={end}&uris={uris}&unique={unique}&approximate={approximate}";
+        if (limit != null) {
+            path += "&limit={limit}";
+            parameters.put("limit", limit);
+        }
         try {
-            ResponseEntity<StatsItemDto[]> responseEntity = get(
-                    "/stats?start={start}&end={end}&uris={uris}&unique={unique}",
-                    Map.of(
-                            "start", formatter.format(start),
-                            "end", formatter.format(end),
-                            "uris", String.join(",", uris),
-                            "unique", unique),
-                    StatsItemDto[].class);
-            StatsItemDto[] result = responseEntity.getBody();
-            if (result == null) {
-                throw new RuntimeException("getStats returned nullable body");
-            }
-            return Arrays.asList(result);
+            rest.execute(path, HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON)),
+                    response -> {
+                        try (MappingIterator<StatsItemDto> items = STATS_READER.readValues(response.getBody())) {
+                            while (items.hasNext()) {
+                                consumer.accept(items.next());
+                            }
+                        }
+                        return null;
+                    },
+                    parameters);
         } catch (Exception e) {
             throw new IllegalStateException("Unable to get stats from stats server", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,217 @@
+package ru.practicum.statsClient;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.statsDto.NewHitDto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncHitSenderTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+    private static final Duration LONG_INTERVAL = Duration.ofSeconds(30);
+    private static final Comparator<NewHitDto> ORDER = Comparator.comparing(NewHitDto::getTimestamp);
+
+    @TempDir
+    private Path spillDirectory;
+
+    private final List<List<NewHitDto>> batches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch firstBatch = new CountDownLatch(1);
+    private AsyncHitSender sender;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (sender != null) {
+            sender.close();
+        }
+    }
+
+    @Test
+    void offer_shouldSendBatchAsSoonAsItIsFull() {
+        sender = new AsyncHitSender(settings(10, 3, LONG_INTERVAL, OverflowPolicy.BLOCK), batches::add);
+
+        hits(3).forEach(sender::offer);
+
+        await(() -> batches.size() == 1);
+        assertEquals(List.of(hits(3)), batches);
+        assertEquals(3, sender.getStats().lastBatchSize());
+    }
+
+    @Test
+    void offer_shouldSendIncompleteBatchAfterFlushInterval() {
+        sender = new AsyncHitSender(settings(10, 100, Duration.ofMillis(100), OverflowPolicy.BLOCK), batches::add);
+
+        hits(2).forEach(sender::offer);
+
+        await(() -> batches.size() == 1);
+        assertEquals(List.of(hits(2)), batches);
+    }
+
+    @Test
+    void offer_withDropOldest_shouldDropOldestQueuedHits() {
+        sender = new AsyncHitSender(settings(2, 1, LONG_INTERVAL, OverflowPolicy.DROP_OLDEST), blockingSink());
+        List<NewHitDto> hits = hits(4);
+
+        sender.offer(hits.get(0));
+        awaitFirstBatch();
+        hits.subList(1, 4).forEach(sender::offer);
+        release.countDown();
+
+        await(() -> batches.size() == 3);
+        assertEquals(List.of(List.of(hits.get(0)), List.of(hits.get(2)), List.of(hits.get(3))), batches);
+        assertEquals(1, sender.getStats().dropped());
+    }
+
+    @Test
+    void offer_withBlock_shouldWaitForFreeSpace() throws Exception {
+        sender = new AsyncHitSender(settings(1, 1, LONG_INTERVAL, OverflowPolicy.BLOCK), blockingSink());
+        List<NewHitDto> hits = hits(3);
+
+        sender.offer(hits.get(0));
+        awaitFirstBatch();
+        sender.offer(hits.get(1));
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> sender.offer(hits.get(2)));
+
+        assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+
+        await(() -> batches.size() == 3);
+        assertEquals(hits, batches.stream().flatMap(List::stream).toList());
+        assertEquals(0, sender.getStats().dropped());
+    }
+
+    @Test
+    void offer_withSpillToDisk_shouldReplaySpilledHitsWhenServerIsBack() {
+        List<NewHitDto> hits = hits(5);
+        sender = new AsyncHitSender(settings(1, 1, Duration.ofMillis(50), OverflowPolicy.SPILL_TO_DISK), batch -> {
+            if (release.getCount() > 0) {
+                throw new IllegalStateException("Stats server is unavailable");
+            }
+            batches.add(batch);
+        });
+
+        hits.forEach(sender::offer);
+        await(() -> sender.getStats().spilled() == hits.size());
+        release.countDown();
+
+        await(() -> batches.size() == hits.size());
+        assertEquals(hits, batches.stream().flatMap(List::stream).sorted(ORDER).toList());
+        await(() -> !Files.exists(spillDirectory.resolve("stats-hits-replay.ndjson")));
+    }
+
+    @Test
+    void replay_shouldResumeLeftoverReplayFileAndQuarantineMalformedLines() throws IOException {
+        Files.write(spillDirectory.resolve("stats-hits-replay.ndjson"), List.of(line(0), "{not a hit", line(1)));
+        Files.write(spillDirectory.resolve("stats-hits-spill.ndjson"), List.of(line(1)));
+
+        sender = new AsyncHitSender(settings(10, 10, Duration.ofMillis(50), OverflowPolicy.SPILL_TO_DISK),
+                batches::add);
+
+        await(() -> batches.size() == 2);
+        assertEquals(List.of(List.of(hit(0), hit(1)), List.of(hit(1))), batches);
+        assertEquals(List.of("{not a hit"), Files.readAllLines(spillDirectory.resolve("stats-hits-rejected.ndjson")));
+        assertEquals(1, sender.getStats().failed());
+        await(() -> !Files.exists(spillDirectory.resolve("stats-hits-replay.ndjson")));
+        assertFalse(Files.exists(spillDirectory.resolve("stats-hits-spill.ndjson")));
+    }
+
+    @Test
+    void replay_afterFailedBatch_shouldContinueFromLastSentLine() throws IOException {
+        List<NewHitDto> hits = hits(4);
+        Files.write(spillDirectory.resolve("stats-hits-spill.ndjson"), List.of(line(0), line(1), line(2), line(3)));
+        List<Integer> attempts = new CopyOnWriteArrayList<>();
+
+        sender = new AsyncHitSender(settings(10, 2, Duration.ofMillis(50), OverflowPolicy.SPILL_TO_DISK), batch -> {
+            attempts.add(batch.size());
+            if (attempts.size() == 2) {
+                throw new IllegalStateException("Stats server is unavailable");
+            }
+            batches.add(batch);
+        });
+
+        await(() -> batches.size() == 2);
+        assertEquals(List.of(hits.subList(0, 2), hits.subList(2, 4)), batches);
+        assertEquals(List.of(2, 2, 2), attempts);
+        assertEquals(0, sender.getStats().spilled());
+    }
+
+    private Consumer<List<NewHitDto>> blockingSink() {
+        return batch -> {
+            firstBatch.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(batch);
+        };
+    }
+
+    private void awaitFirstBatch() {
+        try {
+            assertTrue(firstBatch.await(5, TimeUnit.SECONDS), "Flusher has not taken the first batch");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HitQueueSettings settings(int capacity, int batchSize, Duration flushInterval, OverflowPolicy policy) {
+        return new HitQueueSettings(capacity, batchSize, flushInterval, policy, spillDirectory);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition was not met in 5 seconds");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static List<NewHitDto> hits(int count) {
+        List<NewHitDto> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hits.add(hit(i));
+        }
+        return hits;
+    }
+
+    private static String line(int i) {
+        NewHitDto hit = hit(i);
+        return "{\"app\":\"%s\",\"uri\":\"%s\",\"ip\":\"%s\",\"timestamp\":\"%s\"}".formatted(hit.getApp(),
+                hit.getUri(), hit.getIp(), hit.getTimestamp().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+    }
+
+    private static NewHitDto hit(int i) {
+        return new NewHitDto("ewm-main-service", "/events/" + i, "10.0.0." + i, START.plusSeconds(i));
+    }
+}
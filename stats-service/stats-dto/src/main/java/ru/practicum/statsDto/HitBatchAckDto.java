@@ -0,0 +1,23 @@
+package ru.practicum.statsDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Подтверждение приема пакета хитов.
+ * Пакет сохраняется целиком в одной транзакции: если хотя бы один хит не прошел
+ * валидацию, не сохраняется ни один.
+ *
+ * <p>Поля:
+ * <ul>
+ *   <li>saved: количество сохраненных хитов</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HitBatchAckDto {
+
+    private int saved;
+}
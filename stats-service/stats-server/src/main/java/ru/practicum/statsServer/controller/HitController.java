@@ -1,29 +1,46 @@
 package ru.practicum.statsServer.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.statsDto.HitBatchAckDto;
 import ru.practicum.statsDto.NewHitDto;
-import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsDto.StatsItem;
 import ru.practicum.statsServer.exceptions.IsBadRequestException;
 import ru.practicum.statsServer.interfaces.HitService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Контроллер для обработки запросов статистики посещений.
  * Предоставляет эндпоинты для добавления хитов и получения статистики.
+ * Пакет хитов принимается, а статистика отдается как JSON-массив или как поток NDJSON (по одному элементу в строке).
  */
 
 @Validated
@@ -34,6 +51,8 @@ import java.util.List;
 public class HitController {
 
     private final HitService hitService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
     private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
 
     @PostMapping("/hit")
@@ -44,18 +63,126 @@ public class HitController {
         hitService.addHit(dto);
     }
 
+    @PostMapping(value = "/hits/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBatchAckDto addHits(@RequestBody List<NewHitDto> hits) {
+
+        log.info("Add hits batch POST request: size={}", hits.size());
+        return hitService.addHits(validated(hits.iterator()));
+    }
+
+    @PostMapping(value = "/hits/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBatchAckDto addHitsStream(HttpServletRequest request) throws IOException {
+
+        log.info("Add hits NDJSON stream POST request");
+        try (MappingIterator<NewHitDto> hits = objectMapper.readerFor(NewHitDto.class)
+                .readValues(request.getInputStream())) {
+            return hitService.addHits(validated(hits));
+        }
+    }
+
+    /**
+     * Пишет статистику в ответ по мере чтения из хранилища, не собирая ее в памяти: JSON-массивом
+     * или, если клиент принимает {@code application/x-ndjson}, по одному элементу в строке.
+     * {@code limit} оставляет только первые элементы по убыванию просмотров.
+     */
     @GetMapping("/stats")
-    public List<StatsItemDto> getStats(
+    public void getStats(
             @RequestParam @DateTimeFormat(pattern = DATE_TIME_PATTERN) LocalDateTime start,
             @RequestParam @DateTimeFormat(pattern = DATE_TIME_PATTERN) LocalDateTime end,
             @RequestParam(required = false) List<String> uris,
-            @RequestParam(required = false, defaultValue = "false") boolean unique) {
+            @RequestParam(required = false, defaultValue = "false") boolean unique,
+            @RequestParam(required = false, defaultValue = "false") boolean approximate,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response) throws IOException {
 
         if (start.isAfter(end)) {
             throw new IsBadRequestException("Start date must be before end date");
         }
+        if (limit != null && limit <= 0) {
+            throw new IsBadRequestException("Limit must be positive");
+        }
+
+        log.info("Get Stats request: start={}, end={}, uris={}, unique={}, approximate={}, limit={}",
+                start, end, uris, unique, approximate, limit);
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+
+        // При ошибке генератор не закрывается: начало ответа остается в его буфере
+        // и не смешивается с ответом об ошибке.
+        JsonGenerator json = objectMapper.createGenerator(response.getOutputStream());
+        json.setRootValueSeparator(null);
+        if (!ndjson) {
+            json.writeStartArray();
+        }
+        int[] written = new int[1];
+        hitService.streamStats(start, end, uris, unique, approximate, limit, item -> {
+            writeStatsItem(json, item, ndjson);
+            written[0]++;
+        });
+        if (!ndjson) {
+            json.writeEndArray();
+        }
+        json.close();
+        log.info("Written view stats items size={}", written[0]);
+    }
+
+    private static void writeStatsItem(JsonGenerator json, StatsItem item, boolean ndjson) {
+
+        try {
+            json.writeStartObject();
+            json.writeStringField("app", item.getApp());
+            json.writeStringField("uri", item.getUri());
+            json.writeNumberField("hits", item.getHits());
+            json.writeEndObject();
+            if (ndjson) {
+                json.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Оборачивает итератор хитов проверкой каждого хита по мере чтения.
+     * Ошибки разбора и валидации превращаются в {@link IsBadRequestException} с номером хита в пакете.
+     */
+    private Iterator<NewHitDto> validated(Iterator<NewHitDto> hits) {
+
+        return new Iterator<>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return hits.hasNext();
+                } catch (RuntimeException e) {
+                    throw new IsBadRequestException("Hit #" + index + " is malformed: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public NewHitDto next() {
 
-        log.info("Get Stats request: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
-        return hitService.getStats(start, end, uris, unique);
+                NewHitDto hit;
+                try {
+                    hit = hits.next();
+                } catch (RuntimeException e) {
+                    throw new IsBadRequestException("Hit #" + index + " is malformed: " + e.getMessage());
+                }
+                Set<ConstraintViolation<NewHitDto>> violations = validator.validate(hit);
+                if (!violations.isEmpty()) {
+                    throw new IsBadRequestException("Hit #" + index + " is invalid: " + violations.stream()
+                            .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                            .collect(Collectors.joining(", ")));
+                }
+                index++;
+                return hit;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,55 @@
 package ru.practicum.statsServer.interfaces;
 
+import org.springframework.lang.Nullable;
+import ru.practicum.statsDto.HitBatchAckDto;
 import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItem;
 import ru.practicum.statsDto.StatsItemDto;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface HitService {
 
+    /**
+     * Квалификатор хранилища хитов ({@code stats.storage.engine}), которому журнал предзаписи
+     * передает хиты в режиме {@code stats.ingest.mode=wal}.
+     */
+    String STORAGE = "hitStorage";
+
     void addHit(NewHitDto dto);
 
-    List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique);
-}
\ No newline at end of file
+    /**
+     * Сохраняет пакет хитов целиком или не сохраняет ничего, если итератор бросил исключение.
+     * Хранилища в базе читают хиты по мере записи в одной транзакции, поэтому пакет не обязан
+     * целиком помещаться в памяти.
+     */
+    HitBatchAckDto addHits(Iterator<NewHitDto> hits);
+
+    default List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        return getStats(start, end, uris, unique, false);
+    }
+
+    /**
+     * Возвращает статистику просмотров. При {@code unique && approximate} уникальные просмотры
+     * оцениваются по счетчикам HyperLogLog со стандартной ошибкой около 0,81% вместо точного подсчета;
+     * для неуникальных просмотров {@code approximate} не влияет на результат.
+     */
+    List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                boolean approximate);
+
+    /**
+     * Передает статистику {@code consumer} по одному элементу в порядке убывания просмотров.
+     * Хранилища, которые умеют читать результат курсором, не собирают его целиком в памяти.
+     * {@code limit} оставляет только первые элементы; {@code null} — без ограничения.
+     */
+    default void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                             boolean approximate, @Nullable Integer limit, Consumer<? super StatsItem> consumer) {
+
+        getStats(start, end, uris, unique, approximate).stream()
+                .limit(limit != null ? limit : Long.MAX_VALUE)
+                .forEach(consumer);
+    }
+}
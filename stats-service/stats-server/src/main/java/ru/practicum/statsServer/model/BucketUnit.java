@@ -0,0 +1,37 @@
+package ru.practicum.statsServer.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Размер интервала, по которому хиты агрегируются в таблице {@code hit_rollups}.
+ * Значения перечислены от большего интервала к меньшему.
+ */
+public enum BucketUnit {
+
+    DAY(ChronoUnit.DAYS),
+    HOUR(ChronoUnit.HOURS),
+    MINUTE(ChronoUnit.MINUTES);
+
+    private final ChronoUnit unit;
+
+    BucketUnit(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public Duration getDuration() {
+        return unit.getDuration();
+    }
+
+    /**
+     * Возвращает начало интервала, в который попадает момент времени.
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public boolean isAligned(LocalDateTime time) {
+        return truncate(time).equals(time);
+    }
+}
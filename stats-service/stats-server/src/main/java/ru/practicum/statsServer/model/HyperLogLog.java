@@ -0,0 +1,223 @@
+package ru.practicum.statsServer.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Вероятностный счетчик количества различных значений (HyperLogLog).
+ * Использует 2^14 регистров, стандартная ошибка оценки {@value #STANDARD_ERROR_PERCENT}%
+ * независимо от количества значений. Счетчики объединяются без потери точности,
+ * поэтому счетчики за отдельные интервалы складываются в счетчик за весь период.
+ * Оценка считается улучшенным оценщиком О. Эртла (2017), которому не нужны
+ * поправочные таблицы и переключение на линейный подсчет при малых значениях.
+ * <p>
+ * Пока заполнено мало регистров, в памяти хранятся только ненулевые (индекс и значение, по возрастанию индекса),
+ * как и при сериализации; все {@value #REGISTERS} регистров выделяются, когда разреженная форма
+ * перестает быть меньше плотной. Поэтому счетчики для редко посещаемых URI занимают десятки байт, а не 16 КБ.
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISION = 14;
+    public static final int REGISTERS = 1 << PRECISION;
+    public static final double STANDARD_ERROR_PERCENT = 0.81;
+
+    private static final int MAX_RANK = Long.SIZE - PRECISION + 1;
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+    private static final int SPARSE_ENTRY_SIZE = Short.BYTES + Byte.BYTES;
+    private static final int SPARSE_LIMIT = (REGISTERS + SPARSE_ENTRY_SIZE - 1) / SPARSE_ENTRY_SIZE;
+    private static final int SPARSE_INITIAL_CAPACITY = 4;
+
+    private byte[] registers;
+    private char[] sparseIndexes = new char[SPARSE_INITIAL_CAPACITY];
+    private byte[] sparseRanks = new byte[SPARSE_INITIAL_CAPACITY];
+    private int sparseSize;
+
+    public void add(String value) {
+
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), MAX_RANK - 1) + 1;
+        update(index, (byte) rank);
+    }
+
+    public void merge(HyperLogLog other) {
+
+        if (other.registers == null) {
+            for (int i = 0; i < other.sparseSize; i++) {
+                update(other.sparseIndexes[i], other.sparseRanks[i]);
+            }
+            return;
+        }
+        toDense();
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+
+        int[] histogram = new int[MAX_RANK + 1];
+        if (registers != null) {
+            for (byte register : registers) {
+                histogram[register]++;
+            }
+        } else {
+            histogram[0] = REGISTERS - sparseSize;
+            for (int i = 0; i < sparseSize; i++) {
+                histogram[sparseRanks[i]]++;
+            }
+        }
+        if (histogram[0] == REGISTERS) {
+            return 0;
+        }
+
+        double z = REGISTERS * tau(1.0 - (double) histogram[MAX_RANK] / REGISTERS);
+        for (int k = MAX_RANK - 1; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += REGISTERS * sigma((double) histogram[0] / REGISTERS);
+        return Math.round(REGISTERS / (2 * Math.log(2)) * REGISTERS / z);
+    }
+
+    /**
+     * Сериализует счетчик. Пока заполнено мало регистров, сохраняются только ненулевые
+     * регистры (индекс и значение), иначе все регистры подряд; первый байт указывает формат.
+     */
+    public byte[] toBytes() {
+
+        if (registers != null) {
+            return ByteBuffer.allocate(1 + REGISTERS).put(DENSE).put(registers).array();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 + sparseSize * SPARSE_ENTRY_SIZE).put(SPARSE);
+        for (int i = 0; i < sparseSize; i++) {
+            buffer.putShort((short) sparseIndexes[i]).put(sparseRanks[i]);
+        }
+        return buffer.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte format = buffer.get();
+        HyperLogLog sketch = new HyperLogLog();
+        if (format == DENSE) {
+            sketch.toDense();
+            buffer.get(sketch.registers);
+        } else if (format == SPARSE) {
+            while (buffer.hasRemaining()) {
+                sketch.update(buffer.getShort(), buffer.get());
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown HyperLogLog format " + format);
+        }
+        return sketch;
+    }
+
+    boolean isDense() {
+        return registers != null;
+    }
+
+    private void update(int index, byte rank) {
+
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = rank;
+            }
+            return;
+        }
+        int position = Arrays.binarySearch(sparseIndexes, 0, sparseSize, (char) index);
+        if (position >= 0) {
+            if (rank > sparseRanks[position]) {
+                sparseRanks[position] = rank;
+            }
+            return;
+        }
+        if (sparseSize + 1 >= SPARSE_LIMIT) {
+            toDense();
+            registers[index] = rank;
+            return;
+        }
+        int insert = -position - 1;
+        if (sparseSize == sparseIndexes.length) {
+            int capacity = Math.min(sparseIndexes.length * 2, SPARSE_LIMIT);
+            sparseIndexes = Arrays.copyOf(sparseIndexes, capacity);
+            sparseRanks = Arrays.copyOf(sparseRanks, capacity);
+        }
+        System.arraycopy(sparseIndexes, insert, sparseIndexes, insert + 1, sparseSize - insert);
+        System.arraycopy(sparseRanks, insert, sparseRanks, insert + 1, sparseSize - insert);
+        sparseIndexes[insert] = (char) index;
+        sparseRanks[insert] = rank;
+        sparseSize++;
+    }
+
+    private void toDense() {
+
+        if (registers != null) {
+            return;
+        }
+        registers = new byte[REGISTERS];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparseIndexes[i]] = sparseRanks[i];
+        }
+        sparseIndexes = null;
+        sparseRanks = null;
+        sparseSize = 0;
+    }
+
+    /**
+     * 64-битный FNV-1a с финальным перемешиванием из MurmurHash3, чтобы старшие биты,
+     * по которым выбирается регистр, зависели от всех байтов значения.
+     */
+    private static long hash(String value) {
+
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static double sigma(double x) {
+
+        if (x == 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1.0;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+
+        if (x == 0.0 || x == 1.0) {
+            return 0.0;
+        }
+        double y = 1.0;
+        double z = 1.0 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= Math.pow(1.0 - x, 2) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.statsServer.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Размер секции таблицы {@code hits}. Секция называется по началу своего интервала:
+ * {@code hits_p20241018} для дня и {@code hits_p202410} для месяца.
+ */
+public enum PartitionInterval {
+
+    DAY(ChronoUnit.DAYS, DateTimeFormatter.ofPattern("yyyyMMdd")),
+    MONTH(ChronoUnit.MONTHS, DateTimeFormatter.ofPattern("yyyyMM"));
+
+    private static final String SUFFIX = "_p";
+
+    private final ChronoUnit unit;
+    private final DateTimeFormatter nameFormat;
+
+    PartitionInterval(ChronoUnit unit, DateTimeFormatter nameFormat) {
+        this.unit = unit;
+        this.nameFormat = nameFormat;
+    }
+
+    /**
+     * Возвращает начало секции, в которую попадает момент времени.
+     */
+    public LocalDateTime start(LocalDateTime time) {
+
+        LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+        return (this == MONTH) ? day.withDayOfMonth(1) : day;
+    }
+
+    public LocalDateTime next(LocalDateTime start) {
+        return start.plus(1, unit);
+    }
+
+    public String partitionName(String table, LocalDateTime start) {
+        return table + SUFFIX + nameFormat.format(start);
+    }
+
+    /**
+     * Возвращает начало секции по ее имени или пустое значение, если имя не соответствует этому интервалу.
+     */
+    public Optional<LocalDateTime> parseStart(String table, String partitionName) {
+
+        String prefix = table + SUFFIX;
+        if (!partitionName.startsWith(prefix)) {
+            return Optional.empty();
+        }
+        String suffix = partitionName.substring(prefix.length());
+        try {
+            return Optional.of(switch (this) {
+                case DAY -> LocalDate.parse(suffix, nameFormat).atStartOfDay();
+                case MONTH -> YearMonth.parse(suffix, nameFormat).atDay(1).atStartOfDay();
+            });
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.statsServer.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * План вычисления статистики за период по предагрегированным данным.
+ * Период разбивается на отрезки из целых интервалов {@link BucketUnit}, которые читаются из
+ * предагрегированных таблиц, и на неполные интервалы по краям, которые считаются по сырым хитам.
+ * Все отрезки полуоткрытые: {@code from} включается, {@code to} нет.
+ *
+ * @param buckets отрезки, покрытые целыми интервалами агрегации
+ * @param raw     краевые отрезки, которые считаются по таблице {@code hits}
+ */
+public record RollupPlan(List<Segment> buckets, List<Segment> raw) {
+
+    /**
+     * Отрезок времени; для краевых отрезков {@code unit} равен {@code null}.
+     */
+    public record Segment(BucketUnit unit, LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Строит план для периода {@code [start, end]}, обе границы включаются, как в {@code /stats}.
+     * Середина периода покрывается сначала минутами до начала часа, затем часами до начала суток,
+     * затем сутками и в обратном порядке к концу периода, поэтому отрезков не больше пяти.
+     */
+    public static RollupPlan of(LocalDateTime start, LocalDateTime end) {
+        return of(start, end, BucketUnit.MINUTE);
+    }
+
+    /**
+     * Строит план, в котором самый мелкий интервал агрегации — {@code finest};
+     * все, что не покрывается целыми интервалами {@code finest}, считается по сырым хитам.
+     */
+    public static RollupPlan of(LocalDateTime start, LocalDateTime end, BucketUnit finest) {
+
+        LocalDateTime endExclusive = end.plusNanos(1);
+        LocalDateTime first = ceil(finest, start);
+        LocalDateTime last = finest.truncate(endExclusive);
+
+        List<Segment> buckets = new ArrayList<>();
+        List<Segment> raw = new ArrayList<>();
+        if (!first.isBefore(last)) {
+            raw.add(new Segment(null, start, endExclusive));
+            return new RollupPlan(buckets, raw);
+        }
+        if (start.isBefore(first)) {
+            raw.add(new Segment(null, start, first));
+        }
+        if (last.isBefore(endExclusive)) {
+            raw.add(new Segment(null, last, endExclusive));
+        }
+
+        BucketUnit[] units = BucketUnit.values();
+        LocalDateTime cursor = first;
+        for (int i = finest.ordinal(); i > 0; i--) {
+            cursor = addAscending(buckets, units[i], units[i - 1], cursor, last);
+        }
+        for (int i = 0; i <= finest.ordinal(); i++) {
+            cursor = addWhole(buckets, units[i], cursor, last);
+        }
+        return new RollupPlan(buckets, raw);
+    }
+
+    /**
+     * Строит план, в котором предагрегированные данные есть только до {@code coveredUntil}
+     * (граница целого интервала {@code finest}, не включается): все, что позже, считается по сырым хитам.
+     * Если {@code coveredUntil} равно {@code null}, весь период считается по сырым хитам.
+     */
+    public static RollupPlan of(LocalDateTime start, LocalDateTime end, BucketUnit finest,
+                                LocalDateTime coveredUntil) {
+
+        LocalDateTime endExclusive = end.plusNanos(1);
+        if (coveredUntil == null || !coveredUntil.isAfter(start)) {
+            return new RollupPlan(List.of(), List.of(new Segment(null, start, endExclusive)));
+        }
+        if (!coveredUntil.isBefore(endExclusive)) {
+            return of(start, end, finest);
+        }
+        RollupPlan covered = of(start, coveredUntil.minusNanos(1), finest);
+        List<Segment> raw = new ArrayList<>(covered.raw());
+        raw.add(new Segment(null, coveredUntil, endExclusive));
+        return new RollupPlan(covered.buckets(), raw);
+    }
+
+    /**
+     * Добавляет интервалы {@code unit} от {@code from}, пока не будет достигнута граница
+     * более крупного интервала {@code next} или конец периода.
+     */
+    private static LocalDateTime addAscending(List<Segment> buckets, BucketUnit unit, BucketUnit next,
+                                              LocalDateTime from, LocalDateTime limit) {
+
+        LocalDateTime boundary = ceil(next, from);
+        if (boundary.isAfter(limit)) {
+            boundary = unit.truncate(limit);
+        }
+        if (from.isBefore(boundary)) {
+            buckets.add(new Segment(unit, from, boundary));
+            return boundary;
+        }
+        return from;
+    }
+
+    /**
+     * Добавляет столько целых интервалов {@code unit}, сколько помещается до {@code limit}.
+     */
+    private static LocalDateTime addWhole(List<Segment> buckets, BucketUnit unit,
+                                          LocalDateTime from, LocalDateTime limit) {
+
+        if (!unit.isAligned(from)) {
+            return from;
+        }
+        LocalDateTime to = unit.truncate(limit);
+        if (from.isBefore(to)) {
+            buckets.add(new Segment(unit, from, to));
+            return to;
+        }
+        return from;
+    }
+
+    private static LocalDateTime ceil(BucketUnit unit, LocalDateTime time) {
+
+        LocalDateTime truncated = unit.truncate(time);
+        return truncated.equals(time) ? time : truncated.plus(unit.getDuration());
+    }
+}
@@ -0,0 +1,254 @@
+package ru.practicum.statsServer.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.statsServer.model.PartitionInterval;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Обслуживает секции таблицы {@code hits} в PostgreSQL (см. {@code schema-hits-postgresql.sql}):
+ * заранее создает секции на {@code stats.hits.partition.ahead} интервалов вперед и удаляет целиком
+ * секции старше {@code stats.hits.retention}, вместо того чтобы удалять хиты построчно. Вместе с секциями
+ * удаляются хиты секции по умолчанию и счетчики {@code hit_rollups} и {@code hit_sketches} до той же границы,
+ * чтобы точная, предагрегированная и приближенная статистика за удаленный период совпадали.
+ * Если в секции по умолчанию уже есть хиты за интервал новой секции, они переносятся в нее.
+ * <p>
+ * При запуске создает секцию по умолчанию. Обычную таблицу {@code hits}, созданную прежними версиями
+ * {@code schema.sql}, предварительно заменяет секционированной: таблица переименовывается, секционированная
+ * создается по {@code schema-hits-postgresql.sql}, хиты копируются в секцию по умолчанию, а старая таблица
+ * удаляется, все в одной транзакции. На других базах (H2 в тестах) ничего не делает.
+ */
+@Slf4j
+@Component
+@DependsOnDatabaseInitialization
+public class HitPartitionManager {
+
+    static final String TABLE = "hits";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+    static final String LEGACY_TABLE = TABLE + "_legacy";
+    static final String SCHEMA = "schema-hits-postgresql.sql";
+
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String IS_PARTITIONED = """
+            select exists(select 1 from pg_partitioned_table pt
+            join pg_class c on c.oid = pt.partrelid
+            where c.relname = ? and c.relnamespace = current_schema()::regnamespace)
+            """;
+    private static final String SELECT_RELKIND = """
+            select c.relkind from pg_class c
+            where c.relname = ? and c.relnamespace = current_schema()::regnamespace
+            """;
+    private static final String SELECT_INDEXES =
+            "select indexname from pg_indexes where tablename = ? and schemaname = current_schema()";
+    private static final String CREATE_DEFAULT_PARTITION =
+            "create table if not exists " + DEFAULT_PARTITION + " partition of " + TABLE + " default";
+    private static final String COPY_LEGACY_HITS = "insert into " + TABLE
+            + " (id, app, uri, ip, timestamp) select id, app, uri, ip, timestamp from " + LEGACY_TABLE;
+    private static final String RESET_ID_SEQUENCE = "select setval(pg_get_serial_sequence('" + TABLE
+            + "', 'id'), coalesce(max(id), 0) + 1, false) from " + TABLE;
+    private static final String SELECT_PARTITIONS = """
+            select c.relname from pg_inherits i
+            join pg_class c on c.oid = i.inhrelid
+            join pg_class p on p.oid = i.inhparent
+            where p.relname = ? and p.relnamespace = current_schema()::regnamespace
+            """;
+    private static final String DEFAULT_HAS_HITS =
+            "select exists(select 1 from " + DEFAULT_PARTITION + " where timestamp >= ? and timestamp < ?)";
+    private static final String DELETE_DEFAULT_HITS = "delete from " + DEFAULT_PARTITION + " where timestamp < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcHitRollupRepository rollupRepository;
+    private final JdbcHitSketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionInterval interval;
+    private final int ahead;
+    private final Duration retention;
+
+    public HitPartitionManager(JdbcTemplate jdbcTemplate,
+                               JdbcHitRollupRepository rollupRepository,
+                               JdbcHitSketchRepository sketchRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${stats.hits.partition.interval:DAY}") PartitionInterval interval,
+                               @Value("${stats.hits.partition.ahead:7}") int ahead,
+                               @Value("${stats.hits.retention:0d}") Duration retention) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.interval = interval;
+        this.ahead = ahead;
+        this.retention = retention;
+    }
+
+    /**
+     * Готовит секционированную таблицу до приема хитов: переносит хиты из несекционированной таблицы,
+     * если она осталась от прежних версий, и создает секцию по умолчанию.
+     */
+    @PostConstruct
+    public void prepareTable() {
+
+        if (SqlDialect.detect(jdbcTemplate) != SqlDialect.POSTGRESQL) {
+            return;
+        }
+        String kind = findRelkind(TABLE);
+        if ("r".equals(kind)) {
+            transactionTemplate.executeWithoutResult(status -> migrateLegacyTable());
+        } else if (!"p".equals(kind)) {
+            log.warn("Table {} is missing, partition maintenance skipped", TABLE);
+            return;
+        }
+        jdbcTemplate.execute(CREATE_DEFAULT_PARTITION);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${stats.hits.partition.cron:0 5 0 * * *}")
+    public void maintain() {
+
+        try {
+            if (!isPartitioned()) {
+                log.debug("Table {} is not partitioned, partition maintenance skipped", TABLE);
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            createPartitions(now);
+            dropExpiredPartitions(now);
+        } catch (DataAccessException e) {
+            log.warn("Partition maintenance of table {} failed", TABLE, e);
+        }
+    }
+
+    /**
+     * Создает секции от текущего интервала и на {@code ahead} интервалов вперед.
+     */
+    public void createPartitions(LocalDateTime now) {
+
+        List<String> existing = findPartitions();
+        LocalDateTime start = interval.start(now);
+        for (int i = 0; i <= ahead; i++) {
+            String name = interval.partitionName(TABLE, start);
+            if (!existing.contains(name)) {
+                createPartition(name, start, interval.next(start));
+            }
+            start = interval.next(start);
+        }
+    }
+
+    /**
+     * Удаляет секции, все хиты которых старше срока хранения, а затем хиты секции по умолчанию и счетчики
+     * до начала первой оставшейся секции. Нулевой срок хранения отключает удаление.
+     */
+    public void dropExpiredPartitions(LocalDateTime now) {
+
+        if (retention.isZero() || retention.isNegative()) {
+            return;
+        }
+        LocalDateTime threshold = now.minus(retention);
+        for (String name : expiredPartitions(findPartitions(), threshold)) {
+            jdbcTemplate.execute("drop table if exists " + name);
+            log.info("Partition {} of table {} dropped by retention", name, TABLE);
+        }
+        LocalDateTime cutoff = interval.start(threshold);
+        int hits = jdbcTemplate.update(DELETE_DEFAULT_HITS, Timestamp.valueOf(cutoff));
+        int rollups = rollupRepository.deleteBefore(cutoff);
+        int sketches = sketchRepository.deleteBefore(cutoff);
+        log.info("Deleted {} hits, {} rollups and {} sketches before {} by retention", hits, rollups, sketches, cutoff);
+    }
+
+    /**
+     * Возвращает секции, конец интервала которых не позже {@code threshold}.
+     * Секции с именами не по соглашению {@link PartitionInterval} не затрагиваются.
+     */
+    static List<String> expiredPartitions(List<String> partitions, LocalDateTime threshold) {
+
+        List<String> expired = new ArrayList<>();
+        for (String name : partitions) {
+            for (PartitionInterval candidate : PartitionInterval.values()) {
+                Optional<LocalDateTime> start = candidate.parseStart(TABLE, name);
+                if (start.isPresent()) {
+                    if (!candidate.next(start.get()).isAfter(threshold)) {
+                        expired.add(name);
+                    }
+                    break;
+                }
+            }
+        }
+        return expired;
+    }
+
+    private void createPartition(String name, LocalDateTime from, LocalDateTime to) {
+
+        String bounds = "for values from ('%s') to ('%s')".formatted(BOUND_FORMAT.format(from), BOUND_FORMAT.format(to));
+        Boolean defaultHasHits = jdbcTemplate.queryForObject(DEFAULT_HAS_HITS, Boolean.class,
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        try {
+            if (!Boolean.TRUE.equals(defaultHasHits)) {
+                jdbcTemplate.execute("create table if not exists %s partition of %s %s".formatted(name, TABLE, bounds));
+            } else {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("create table %s (like %s including defaults)".formatted(name, TABLE));
+                    jdbcTemplate.update("insert into %s select * from %s where timestamp >= ? and timestamp < ?"
+                            .formatted(name, DEFAULT_PARTITION), Timestamp.valueOf(from), Timestamp.valueOf(to));
+                    jdbcTemplate.update("delete from %s where timestamp >= ? and timestamp < ?"
+                            .formatted(DEFAULT_PARTITION), Timestamp.valueOf(from), Timestamp.valueOf(to));
+                    jdbcTemplate.execute("alter table %s attach partition %s %s".formatted(TABLE, name, bounds));
+                });
+            }
+            log.info("Partition {} of table {} created", name, TABLE);
+        } catch (DataAccessException e) {
+            log.warn("Unable to create partition {} of table {}", name, TABLE, e);
+        }
+    }
+
+    private void migrateLegacyTable() {
+
+        log.warn("Table {} is not partitioned, moving its hits to a partitioned table", TABLE);
+        jdbcTemplate.execute("alter table %s rename to %s".formatted(TABLE, LEGACY_TABLE));
+        for (String index : jdbcTemplate.queryForList(SELECT_INDEXES, String.class, LEGACY_TABLE)) {
+            jdbcTemplate.execute("alter index %s rename to %s_legacy".formatted(index, index));
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(SCHEMA));
+            return null;
+        });
+        jdbcTemplate.execute(CREATE_DEFAULT_PARTITION);
+        int moved = jdbcTemplate.update(COPY_LEGACY_HITS);
+        jdbcTemplate.queryForObject(RESET_ID_SEQUENCE, Long.class);
+        jdbcTemplate.execute("drop table " + LEGACY_TABLE);
+        log.info("Moved {} hits to partitioned table {}", moved, TABLE);
+    }
+
+    @Nullable
+    private String findRelkind(String table) {
+        return jdbcTemplate.queryForList(SELECT_RELKIND, String.class, table).stream().findFirst().orElse(null);
+    }
+
+    private boolean isPartitioned() {
+        return SqlDialect.detect(jdbcTemplate) == SqlDialect.POSTGRESQL
+                && Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class, TABLE));
+    }
+
+    private List<String> findPartitions() {
+        return jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class, TABLE);
+    }
+}
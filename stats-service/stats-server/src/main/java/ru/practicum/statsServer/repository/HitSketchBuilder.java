@@ -0,0 +1,91 @@
+package ru.practicum.statsServer.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Строит счетчики {@link JdbcHitSketchRepository} по хитам закрытых часов: раз в
+ * {@code stats.hits.sketches.build-interval} обрабатываются часы, закончившиеся раньше чем
+ * {@code stats.hits.sketches.delay} назад, каждый в своей транзакции. Часы без хитов пропускаются.
+ * <p>
+ * Часы после последнего построенного статистика читает из {@code hits}, поэтому приблизительный ответ
+ * не отстает от хитов. Хиты, пришедшие за уже построенный час (с временем старше задержки),
+ * в приблизительную статистику не попадают; точная статистика их учитывает.
+ */
+@Slf4j
+@Component
+public class HitSketchBuilder {
+
+    /**
+     * Сколько часов с хитами строится за один запуск, чтобы долгое первичное построение
+     * не занимало поток планировщика и не задерживало другие периодические задачи.
+     */
+    static final int MAX_HOURS_PER_RUN = 24;
+
+    private final JdbcHitSketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration delay;
+
+    public HitSketchBuilder(JdbcHitSketchRepository sketchRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${stats.hits.sketches.delay:PT5M}") Duration delay) {
+
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.delay = delay;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.hits.sketches.build-interval:PT1M}")
+    public void buildClosedHours() {
+
+        try {
+            build(JdbcHitSketchRepository.FINEST_UNIT.truncate(LocalDateTime.now().minus(delay)));
+        } catch (DataAccessException e) {
+            log.warn("Building hit sketches failed, will retry", e);
+        }
+    }
+
+    /**
+     * Строит счетчики часов, закончившихся не позже {@code until}, начиная с первого непостроенного,
+     * и возвращает количество построенных часов с хитами.
+     */
+    public int build(LocalDateTime until) {
+
+        LocalDateTime hour = sketchRepository.findBuiltUntil();
+        if (hour == null) {
+            LocalDateTime first = sketchRepository.findFirstHitTime(null);
+            if (first == null) {
+                return 0;
+            }
+            hour = JdbcHitSketchRepository.FINEST_UNIT.truncate(first);
+        }
+
+        int built = 0;
+        while (built < MAX_HOURS_PER_RUN && hour.plus(JdbcHitSketchRepository.FINEST_UNIT.getDuration())
+                .compareTo(until) <= 0) {
+            LocalDateTime current = hour;
+            LocalDateTime next = current.plus(JdbcHitSketchRepository.FINEST_UNIT.getDuration());
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> sketchRepository.buildHour(current)))) {
+                built++;
+            } else {
+                LocalDateTime nextHit = sketchRepository.findFirstHitTime(next);
+                if (nextHit == null) {
+                    break;
+                }
+                next = JdbcHitSketchRepository.FINEST_UNIT.truncate(nextHit);
+            }
+            hour = next;
+        }
+        if (built > 0) {
+            log.info("Built hit sketches for {} hours up to {}", built, hour);
+        }
+        return built;
+    }
+}
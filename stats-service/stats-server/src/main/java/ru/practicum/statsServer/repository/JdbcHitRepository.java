@@ -0,0 +1,73 @@
+package ru.practicum.statsServer.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItem;
+import ru.practicum.statsDto.StatsItemDto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Пакетная запись хитов через JDBC.
+ * В отличие от {@link JpaHitRepository#save}, не читает сгенерированный идентификатор
+ * после каждой вставки, поэтому драйвер отправляет вставки одним пакетом.
+ * Уникальные просмотры читаются курсором и передаются вызывающему коду по одной строке.
+ */
+@Repository
+public class JdbcHitRepository {
+
+    private static final String INSERT_HIT = "insert into hits(app, uri, ip, timestamp) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    public JdbcHitRepository(JdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = SqlDialect.streaming(jdbcTemplate);
+    }
+
+    public void saveAll(List<NewHitDto> hits) {
+
+        jdbcTemplate.batchUpdate(INSERT_HIT, hits, hits.size(), (ps, hit) -> {
+            ps.setString(1, hit.getApp());
+            ps.setString(2, hit.getUri());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+    }
+
+    /**
+     * Считает уникальные IP-адреса по (app, uri) за период {@code [start, end]}, как
+     * {@link JpaHitRepository#findAllUniqueHits}, и передает элементы {@code consumer} по убыванию просмотров.
+     * При заданном {@code limit} база возвращает только первые {@code limit} элементов.
+     */
+    public void streamUniqueHits(LocalDateTime start, LocalDateTime end, @Nullable List<String> uris,
+                                 @Nullable Integer limit, Consumer<? super StatsItem> consumer) {
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end));
+        StringBuilder sql = new StringBuilder("select app, uri, count(distinct ip) as hits from hits"
+                + " where timestamp between :start and :end");
+        if (uris != null && !uris.isEmpty()) {
+            sql.append(" and uri in (:uris)");
+            params.addValue("uris", uris);
+        }
+        sql.append(" group by app, uri order by hits desc");
+        if (limit != null) {
+            sql.append(" limit :limit");
+            params.addValue("limit", limit);
+        }
+        streamingJdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs ->
+                consumer.accept(new StatsItemDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits"))));
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.statsServer.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItem;
+import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsServer.model.BucketUnit;
+import ru.practicum.statsServer.model.RollupPlan;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Предагрегированные счетчики хитов по (app, uri, интервал) в таблице {@code hit_rollups}.
+ * Счетчики увеличиваются при записи хитов в той же транзакции, что и сами хиты,
+ * а статистика без уникальности читается из них вместо полного сканирования {@code hits}.
+ */
+@Slf4j
+@Repository
+public class JdbcHitRollupRepository {
+
+    private static final String POSTGRESQL_UPSERT = """
+            insert into hit_rollups(app, uri, bucket_unit, bucket_start, hits)
+            values (?, ?, ?, ?, ?)
+            on conflict (app, uri, bucket_unit, bucket_start) do update set hits = hit_rollups.hits + excluded.hits
+            """;
+
+    private static final String MERGE_UPSERT = """
+            merge into hit_rollups r
+            using (values (?, ?, ?, cast(? as timestamp), cast(? as bigint)))
+                as s(app, uri, bucket_unit, bucket_start, hits)
+            on r.app = s.app and r.uri = s.uri and r.bucket_unit = s.bucket_unit and r.bucket_start = s.bucket_start
+            when matched then update set hits = r.hits + s.hits
+            when not matched then insert (app, uri, bucket_unit, bucket_start, hits)
+            values (s.app, s.uri, s.bucket_unit, s.bucket_start, s.hits)
+            """;
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::app)
+            .thenComparing(RollupKey::uri)
+            .thenComparing(RollupKey::unit)
+            .thenComparing(RollupKey::bucketStart);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final SqlDialect dialect;
+    private final String upsertSql;
+
+    public JdbcHitRollupRepository(JdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = SqlDialect.streaming(jdbcTemplate);
+        this.dialect = SqlDialect.detect(jdbcTemplate);
+        this.upsertSql = (dialect == SqlDialect.POSTGRESQL) ? POSTGRESQL_UPSERT : MERGE_UPSERT;
+        log.info("Hit rollups use {} dialect", dialect);
+    }
+
+    /**
+     * Увеличивает счетчики всех интервалов, в которые попадают хиты.
+     * Хиты сначала суммируются по ключу, а ключи сортируются, чтобы параллельные пакеты
+     * блокировали строки в одном порядке и не попадали во взаимную блокировку.
+     * <p>
+     * {@code merge} в H2, в отличие от {@code on conflict} в PostgreSQL, не защищен от гонки: если две
+     * транзакции одновременно вставляют строку одного интервала, вторая получает ошибку уникального ключа.
+     * Поэтому в H2 счетчики обновляются по одному, и после такой ошибки {@code merge} повторяется:
+     * строка уже есть, и счетчик увеличивается.
+     */
+    public void addHits(Collection<NewHitDto> hits) {
+
+        Map<RollupKey, Long> increments = new HashMap<>();
+        for (NewHitDto hit : hits) {
+            for (BucketUnit unit : BucketUnit.values()) {
+                RollupKey key = new RollupKey(hit.getApp(), hit.getUri(), unit, unit.truncate(hit.getTimestamp()));
+                increments.merge(key, 1L, Long::sum);
+            }
+        }
+        List<RollupKey> keys = new ArrayList<>(increments.keySet());
+        keys.sort(KEY_ORDER);
+
+        if (dialect == SqlDialect.POSTGRESQL) {
+            jdbcTemplate.batchUpdate(upsertSql, keys, keys.size(), (ps, key) -> {
+                ps.setString(1, key.app());
+                ps.setString(2, key.uri());
+                ps.setString(3, key.unit().name());
+                ps.setTimestamp(4, Timestamp.valueOf(key.bucketStart()));
+                ps.setLong(5, increments.get(key));
+            });
+            return;
+        }
+        for (RollupKey key : keys) {
+            Object[] args = {key.app(), key.uri(), key.unit().name(), Timestamp.valueOf(key.bucketStart()),
+                    increments.get(key)};
+            try {
+                jdbcTemplate.update(upsertSql, args);
+            } catch (DuplicateKeyException e) {
+                log.debug("Hit rollup {} was inserted concurrently, retrying", key);
+                jdbcTemplate.update(upsertSql, args);
+            }
+        }
+    }
+
+    /**
+     * Считает хиты без учета уникальности по плану: целые интервалы берутся из {@code hit_rollups},
+     * краевые отрезки считаются по {@code hits}; все части объединяются одним запросом.
+     */
+    public List<StatsItem> findHits(RollupPlan plan, List<String> uris) {
+
+        List<StatsItem> items = new ArrayList<>();
+        streamHits(plan, uris, null, items::add);
+        return items;
+    }
+
+    /**
+     * То же, что {@link #findHits}, но передает элементы {@code consumer} по мере чтения курсора
+     * и возвращает не больше {@code limit} первых элементов, если ограничение задано.
+     */
+    public void streamHits(RollupPlan plan, List<String> uris, @Nullable Integer limit,
+                           Consumer<? super StatsItem> consumer) {
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        boolean filterUris = uris != null && !uris.isEmpty();
+        if (filterUris) {
+            params.addValue("uris", uris);
+        }
+        String uriFilter = filterUris ? " and uri in (:uris)" : "";
+
+        List<String> parts = new ArrayList<>();
+        int i = 0;
+        for (RollupPlan.Segment segment : plan.buckets()) {
+            parts.add("select app, uri, hits from hit_rollups where bucket_unit = :unit" + i
+                    + " and bucket_start >= :from" + i + " and bucket_start < :to" + i + uriFilter);
+            params.addValue("unit" + i, segment.unit().name());
+            addRange(params, i++, segment);
+        }
+        for (RollupPlan.Segment segment : plan.raw()) {
+            parts.add("select app, uri, count(id) as hits from hits where timestamp >= :from" + i
+                    + " and timestamp < :to" + i + uriFilter + " group by app, uri");
+            addRange(params, i++, segment);
+        }
+
+        String sql = "select app, uri, sum(hits) as hits from (" + String.join(" union all ", parts) + ") t"
+                + " group by app, uri order by hits desc";
+        if (limit != null) {
+            sql += " limit :limit";
+            params.addValue("limit", limit);
+        }
+        streamingJdbcTemplate.query(sql, params, (RowCallbackHandler) rs ->
+                consumer.accept(new StatsItemDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits"))));
+    }
+
+    /**
+     * Удаляет счетчики интервалов, закончившихся не позже {@code cutoff}, вслед за хитами, удаленными по сроку хранения.
+     * Возвращает число удаленных строк.
+     */
+    public int deleteBefore(LocalDateTime cutoff) {
+
+        int deleted = 0;
+        for (BucketUnit unit : BucketUnit.values()) {
+            deleted += jdbcTemplate.update("delete from hit_rollups where bucket_unit = ? and bucket_start <= ?",
+                    unit.name(), Timestamp.valueOf(cutoff.minus(unit.getDuration())));
+        }
+        return deleted;
+    }
+
+    private static void addRange(MapSqlParameterSource params, int index, RollupPlan.Segment segment) {
+
+        params.addValue("from" + index, Timestamp.valueOf(segment.from()));
+        params.addValue("to" + index, Timestamp.valueOf(segment.to()));
+    }
+
+    private record RollupKey(String app, String uri, BucketUnit unit, LocalDateTime bucketStart) {
+    }
+}
@@ -0,0 +1,199 @@
+package ru.practicum.statsServer.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.statsDto.StatsItem;
+import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsServer.model.BucketUnit;
+import ru.practicum.statsServer.model.HyperLogLog;
+import ru.practicum.statsServer.model.RollupPlan;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Счетчики уникальных IP {@link HyperLogLog} по (app, uri, час) и (app, uri, сутки) в таблице
+ * {@code hit_sketches}. Используются для приблизительной статистики уникальных просмотров:
+ * вместо {@code count(distinct ip)} по всем хитам периода объединяются счетчики его интервалов.
+ * Счетчики строятся по закрытым часам фоновой задачей {@link HitSketchBuilder}, а не при записи хитов,
+ * поэтому прием хитов не блокирует строки счетчиков.
+ */
+@Slf4j
+@Repository
+public class JdbcHitSketchRepository {
+
+    /**
+     * Самый мелкий интервал, для которого хранятся счетчики.
+     */
+    public static final BucketUnit FINEST_UNIT = BucketUnit.HOUR;
+
+    private static final String POSTGRESQL_UPSERT = """
+            insert into hit_sketches(app, uri, bucket_unit, bucket_start, sketch)
+            values (?, ?, ?, ?, ?)
+            on conflict (app, uri, bucket_unit, bucket_start) do update set sketch = excluded.sketch
+            """;
+
+    private static final String MERGE_UPSERT = """
+            merge into hit_sketches h
+            using (values (?, ?, ?, cast(? as timestamp), cast(? as varbinary)))
+                as s(app, uri, bucket_unit, bucket_start, sketch)
+            on h.app = s.app and h.uri = s.uri and h.bucket_unit = s.bucket_unit and h.bucket_start = s.bucket_start
+            when matched then update set sketch = s.sketch
+            when not matched then insert (app, uri, bucket_unit, bucket_start, sketch)
+            values (s.app, s.uri, s.bucket_unit, s.bucket_start, s.sketch)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final String upsertSql;
+
+    public JdbcHitSketchRepository(JdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.streamingJdbcTemplate = SqlDialect.streaming(jdbcTemplate);
+        SqlDialect dialect = SqlDialect.detect(jdbcTemplate);
+        this.upsertSql = (dialect == SqlDialect.POSTGRESQL) ? POSTGRESQL_UPSERT : MERGE_UPSERT;
+        log.info("Hit sketches use {} dialect", dialect);
+    }
+
+    /**
+     * Возвращает конец последнего часа, для которого построены счетчики, или {@code null}, если счетчиков нет.
+     * Счетчики строятся по порядку часов, поэтому до этой границы они есть для всех часов с хитами.
+     */
+    @Nullable
+    public LocalDateTime findBuiltUntil() {
+
+        Timestamp last = jdbcTemplate.queryForObject("select max(bucket_start) from hit_sketches where bucket_unit = ?",
+                Timestamp.class, FINEST_UNIT.name());
+        return last == null ? null : last.toLocalDateTime().plus(FINEST_UNIT.getDuration());
+    }
+
+    /**
+     * Возвращает время первого хита не раньше {@code from} или {@code null}, если таких хитов нет.
+     */
+    @Nullable
+    public LocalDateTime findFirstHitTime(@Nullable LocalDateTime from) {
+
+        Timestamp first = from == null
+                ? jdbcTemplate.queryForObject("select min(timestamp) from hits", Timestamp.class)
+                : jdbcTemplate.queryForObject("select min(timestamp) from hits where timestamp >= ?",
+                        Timestamp.class, Timestamp.valueOf(from));
+        return first == null ? null : first.toLocalDateTime();
+    }
+
+    /**
+     * Строит счетчики часа {@code hourStart} по его хитам из {@code hits} и добавляет их в счетчики суток.
+     * Повторное построение того же часа безопасно: счетчик часа перезаписывается, а объединение
+     * {@link HyperLogLog} с тем же счетчиком не меняет счетчик суток. Возвращает {@code false}, если хитов нет.
+     */
+    public boolean buildHour(LocalDateTime hourStart) {
+
+        Map<AppUri, HyperLogLog> hours = new HashMap<>();
+        streamingJdbcTemplate.query("select app, uri, ip from hits where timestamp >= :from and timestamp < :to",
+                new MapSqlParameterSource()
+                        .addValue("from", Timestamp.valueOf(hourStart))
+                        .addValue("to", Timestamp.valueOf(hourStart.plus(FINEST_UNIT.getDuration()))),
+                rs -> {
+                    hours.computeIfAbsent(new AppUri(rs.getString("app"), rs.getString("uri")),
+                            k -> new HyperLogLog()).add(rs.getString("ip"));
+                });
+        if (hours.isEmpty()) {
+            return false;
+        }
+
+        LocalDateTime dayStart = BucketUnit.DAY.truncate(hourStart);
+        Map<AppUri, HyperLogLog> days = new HashMap<>();
+        jdbcTemplate.query("select app, uri, sketch from hit_sketches where bucket_unit = ? and bucket_start = ?",
+                rs -> {
+                    days.put(new AppUri(rs.getString("app"), rs.getString("uri")),
+                            HyperLogLog.fromBytes(rs.getBytes("sketch")));
+                }, BucketUnit.DAY.name(), Timestamp.valueOf(dayStart));
+
+        List<Object[]> rows = new ArrayList<>(hours.size() * 2);
+        hours.forEach((key, sketch) -> {
+            HyperLogLog day = days.computeIfAbsent(key, k -> new HyperLogLog());
+            day.merge(sketch);
+            rows.add(row(key, FINEST_UNIT, hourStart, sketch));
+            rows.add(row(key, BucketUnit.DAY, dayStart, day));
+        });
+        jdbcTemplate.batchUpdate(upsertSql, rows);
+        return true;
+    }
+
+    /**
+     * Оценивает количество уникальных IP по плану: счетчики целых интервалов читаются из
+     * {@code hit_sketches}, IP краевых отрезков — из {@code hits}, все объединяется в один счетчик
+     * на (app, uri). Время ответа зависит от количества интервалов, а не хитов.
+     */
+    public List<StatsItem> findUniqueHits(RollupPlan plan, List<String> uris) {
+
+        boolean filterUris = uris != null && !uris.isEmpty();
+        String uriFilter = filterUris ? " and uri in (:uris)" : "";
+        Map<AppUri, HyperLogLog> merged = new HashMap<>();
+
+        for (RollupPlan.Segment segment : plan.buckets()) {
+            MapSqlParameterSource params = params(segment, uris, filterUris)
+                    .addValue("unit", segment.unit().name());
+            namedJdbcTemplate.query("select app, uri, sketch from hit_sketches where bucket_unit = :unit"
+                    + " and bucket_start >= :from and bucket_start < :to" + uriFilter, params, rs -> {
+                        merged.computeIfAbsent(new AppUri(rs.getString("app"), rs.getString("uri")),
+                                k -> new HyperLogLog()).merge(HyperLogLog.fromBytes(rs.getBytes("sketch")));
+                    });
+        }
+        for (RollupPlan.Segment segment : plan.raw()) {
+            namedJdbcTemplate.query("select distinct app, uri, ip from hits where timestamp >= :from"
+                    + " and timestamp < :to" + uriFilter, params(segment, uris, filterUris), rs -> {
+                        merged.computeIfAbsent(new AppUri(rs.getString("app"), rs.getString("uri")),
+                                k -> new HyperLogLog()).add(rs.getString("ip"));
+                    });
+        }
+
+        return merged.entrySet().stream()
+                .<StatsItem>map(e -> new StatsItemDto(e.getKey().app(), e.getKey().uri(), e.getValue().estimate()))
+                .sorted(Comparator.comparingLong(StatsItem::getHits).reversed())
+                .toList();
+    }
+
+    /**
+     * Удаляет счетчики интервалов, закончившихся не позже {@code cutoff}, вслед за хитами, удаленными по сроку хранения.
+     * Возвращает число удаленных строк.
+     */
+    public int deleteBefore(LocalDateTime cutoff) {
+
+        int deleted = 0;
+        for (BucketUnit unit : BucketUnit.values()) {
+            deleted += jdbcTemplate.update("delete from hit_sketches where bucket_unit = ? and bucket_start <= ?",
+                    unit.name(), Timestamp.valueOf(cutoff.minus(unit.getDuration())));
+        }
+        return deleted;
+    }
+
+    private static MapSqlParameterSource params(RollupPlan.Segment segment, List<String> uris, boolean filterUris) {
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(segment.from()))
+                .addValue("to", Timestamp.valueOf(segment.to()));
+        if (filterUris) {
+            params.addValue("uris", uris);
+        }
+        return params;
+    }
+
+    private static Object[] row(AppUri key, BucketUnit unit, LocalDateTime bucketStart, HyperLogLog sketch) {
+        return new Object[]{key.app(), key.uri(), unit.name(), Timestamp.valueOf(bucketStart), sketch.toBytes()};
+    }
+
+    private record AppUri(String app, String uri) {
+    }
+}
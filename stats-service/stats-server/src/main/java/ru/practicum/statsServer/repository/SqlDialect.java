@@ -0,0 +1,39 @@
+package ru.practicum.statsServer.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Диалект SQL для запросов, которые нельзя написать одинаково для PostgreSQL и H2.
+ * В PostgreSQL используется {@code insert ... on conflict}, в остальных базах — стандартный {@code merge}.
+ */
+public enum SqlDialect {
+
+    POSTGRESQL,
+    STANDARD;
+
+    /**
+     * Размер порции строк, которую драйвер читает из курсора за одно обращение к базе.
+     */
+    public static final int STREAM_FETCH_SIZE = 1000;
+
+    public static SqlDialect detect(JdbcTemplate jdbcTemplate) {
+
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(database) ? POSTGRESQL : STANDARD;
+    }
+
+    /**
+     * Возвращает шаблон над тем же источником данных, который читает результат порциями по
+     * {@value #STREAM_FETCH_SIZE} строк. PostgreSQL читает результат курсором, а не целиком, только если запрос
+     * выполняется в транзакции, поэтому вызывающий код должен открыть ее.
+     */
+    public static NamedParameterJdbcTemplate streaming(JdbcTemplate jdbcTemplate) {
+
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        return new NamedParameterJdbcTemplate(streaming);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.statsServer.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.statsDto.HitBatchAckDto;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsServer.exceptions.IsBadRequestException;
+import ru.practicum.statsServer.interfaces.HitService;
+import ru.practicum.statsServer.storage.ColumnarHitStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Реализация {@link HitService} поверх {@link ColumnarHitStore}, без обращений к базе данных.
+ * Включается свойством {@code stats.storage.engine=memory}.
+ * <p>
+ * Хиты хранятся в памяти и раз в {@code stats.storage.memory.snapshot-interval} сохраняются в снимок
+ * {@code stats.storage.memory.snapshot-path}, из которого читаются при запуске; при пустом пути снимок
+ * не ведется. Хиты, пришедшие после последнего снимка, при аварийной остановке теряются.
+ * Вместе со снимком удаляются хиты старше {@code stats.hits.retention}, если срок задан.
+ * Уникальные просмотры всегда считаются точно, поэтому {@code approximate} не влияет на результат.
+ * Пакет хитов держится в памяти целиком, пока не прочитан до конца.
+ */
+@Slf4j
+@Service
+@Qualifier(HitService.STORAGE)
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "memory")
+public class ColumnarHitService implements HitService {
+
+    private final ColumnarHitStore store;
+    private final Path snapshotPath;
+    private final Duration retention;
+
+    public ColumnarHitService(@Value("${stats.storage.memory.snapshot-path:}") String snapshotPath,
+                              @Value("${stats.hits.retention:0d}") Duration retention) throws IOException {
+
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.retention = retention;
+        if (this.snapshotPath != null && Files.exists(this.snapshotPath)) {
+            this.store = ColumnarHitStore.load(this.snapshotPath);
+            log.info("Loaded {} hits from snapshot {}", store.size(), this.snapshotPath);
+        } else {
+            this.store = new ColumnarHitStore();
+        }
+    }
+
+    @Override
+    public void addHit(NewHitDto dto) {
+
+        store.add(dto);
+        log.info("Added a new hit: {}", dto);
+    }
+
+    /**
+     * Сначала дочитывает весь пакет: хиты проверяются по мере чтения из итератора, и ошибка в конце пакета
+     * не должна оставить в хранилище его начало. Затем пакет добавляется одним вызовом под блокировкой хранилища.
+     */
+    @Override
+    public HitBatchAckDto addHits(Iterator<NewHitDto> hits) {
+
+        List<NewHitDto> batch = new ArrayList<>();
+        hits.forEachRemaining(batch::add);
+        store.addAll(batch);
+
+        log.info("Added a batch of {} hits", batch.size());
+        return new HitBatchAckDto(batch.size());
+    }
+
+    @Override
+    public List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                       boolean approximate) {
+
+        if (start.isAfter(end))
+            throw new IsBadRequestException("Start date is after end date");
+
+        List<StatsItemDto> viewStats = store.getStats(start, end, uris, unique);
+        log.info("Found view stats items size={}", viewStats.size());
+        return viewStats;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.storage.memory.snapshot-interval:PT1M}",
+            initialDelayString = "${stats.storage.memory.snapshot-interval:PT1M}")
+    public void maintain() {
+
+        if (!retention.isZero()) {
+            long removed = store.removeBefore(LocalDateTime.now().minus(retention));
+            if (removed > 0) {
+                log.info("Removed {} hits older than {}", removed, retention);
+            }
+        }
+        try {
+            snapshot();
+        } catch (UncheckedIOException e) {
+            log.warn("Failed to save hit store snapshot to {}", snapshotPath, e);
+        }
+    }
+
+    @PreDestroy
+    public void snapshot() {
+
+        if (snapshotPath == null) {
+            return;
+        }
+        try {
+            store.save(snapshotPath);
+            log.debug("Saved {} hits to snapshot {}", store.size(), snapshotPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
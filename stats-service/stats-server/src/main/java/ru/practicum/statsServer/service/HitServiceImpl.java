@@ -2,7 +2,12 @@ package ru.practicum.statsServer.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.statsDto.HitBatchAckDto;
 import ru.practicum.statsDto.NewHitDto;
 import ru.practicum.statsDto.StatsItem;
 import ru.practicum.statsDto.StatsItemDto;
@@ -10,45 +15,93 @@ import ru.practicum.statsServer.exceptions.IsBadRequestException;
 import ru.practicum.statsServer.interfaces.HitService;
 import ru.practicum.statsServer.mapper.Mapper;
 import ru.practicum.statsServer.model.Hit;
+import ru.practicum.statsServer.model.RollupPlan;
+import ru.practicum.statsServer.repository.JdbcHitRepository;
+import ru.practicum.statsServer.repository.JdbcHitRollupRepository;
+import ru.practicum.statsServer.repository.JdbcHitSketchRepository;
 import ru.practicum.statsServer.repository.JpaHitRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Реализация интерфейса {@link HitService} для управления и получения статистики просмотров.
  * Предоставляет методы для добавления новых просмотров и получения статистики на основе различных фильтров.
+ * Вместе с каждым хитом увеличиваются счетчики в {@link JdbcHitRollupRepository}, поэтому статистика
+ * без учета уникальности читается из них и сырые хиты сканируются только для неполных минут по краям периода.
+ * Уникальные просмотры по умолчанию считаются точно, а в приблизительном режиме оцениваются
+ * по счетчикам HyperLogLog из {@link JdbcHitSketchRepository}; счетчики строятся в фоне по закрытым часам,
+ * а более свежие хиты читаются из {@code hits}.
+ * Используется по умолчанию ({@code stats.storage.engine=jdbc}); хранилище в памяти — {@link ColumnarHitService}.
  */
 @Slf4j
 @Service
+@Qualifier(HitService.STORAGE)
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "jdbc", matchIfMissing = true)
 @AllArgsConstructor
 public class HitServiceImpl implements HitService {
 
+    private static final int HITS_BATCH_SIZE = 1000;
+
     private final JpaHitRepository hitRepository;
+    private final JdbcHitRepository jdbcHitRepository;
+    private final JdbcHitRollupRepository rollupRepository;
+    private final JdbcHitSketchRepository sketchRepository;
 
     @Override
+    @Transactional
     public void addHit(NewHitDto dto) {
 
         Hit hit = Mapper.toEntity(dto);
         hitRepository.save(hit);
+        rollupRepository.addHits(List.of(dto));
         log.info("Added a new hit: {}", hit);
     }
 
     @Override
-    public List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+    @Transactional
+    public HitBatchAckDto addHits(Iterator<NewHitDto> hits) {
+
+        List<NewHitDto> batch = new ArrayList<>(HITS_BATCH_SIZE);
+        int saved = 0;
+        while (hits.hasNext()) {
+            batch.add(hits.next());
+            if (batch.size() == HITS_BATCH_SIZE) {
+                saveBatch(batch);
+                saved += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            saveBatch(batch);
+            saved += batch.size();
+        }
+
+        log.info("Added a batch of {} hits", saved);
+        return new HitBatchAckDto(saved);
+    }
+
+    @Override
+    public List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                       boolean approximate) {
 
         if (start.isAfter(end))
             throw new IsBadRequestException("Start date is after end date");
 
         List<StatsItem> viewStats;
-        if (uris == null || uris.isEmpty()) {
-            viewStats = unique ?
-                    hitRepository.findAllUniqueHits(start, end) :
-                    hitRepository.findAllNonUniqueHits(start, end);
+        if (!unique) {
+            viewStats = rollupRepository.findHits(RollupPlan.of(start, end), uris);
+        } else if (approximate) {
+            RollupPlan plan = RollupPlan.of(start, end, JdbcHitSketchRepository.FINEST_UNIT,
+                    sketchRepository.findBuiltUntil());
+            viewStats = sketchRepository.findUniqueHits(plan, uris);
+        } else if (uris == null || uris.isEmpty()) {
+            viewStats = hitRepository.findAllUniqueHits(start, end);
         } else {
-            viewStats = unique ?
-                    hitRepository.findAllUniqueHitsInUris(start, end, uris) :
-                    hitRepository.findAllNonUniqueHitsInUris(start, end, uris);
+            viewStats = hitRepository.findAllUniqueHitsInUris(start, end, uris);
         }
 
         log.info("Found view stats items size={}", viewStats.size());
@@ -56,4 +109,32 @@ public class HitServiceImpl implements HitService {
                 .map(StatsItemDto::new)
                 .toList();
     }
-}
\ No newline at end of file
+
+    /**
+     * Статистика без учета уникальности и точные уникальные просмотры читаются курсором, а {@code limit}
+     * передается в запрос. Приблизительные уникальные просмотры собираются из счетчиков HyperLogLog в памяти.
+     * Транзакция нужна, чтобы PostgreSQL отдавал результат порциями, и держит соединение до конца чтения.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                            boolean approximate, @Nullable Integer limit, Consumer<? super StatsItem> consumer) {
+
+        if (start.isAfter(end))
+            throw new IsBadRequestException("Start date is after end date");
+
+        if (!unique) {
+            rollupRepository.streamHits(RollupPlan.of(start, end), uris, limit, consumer);
+        } else if (approximate) {
+            HitService.super.streamStats(start, end, uris, true, true, limit, consumer);
+        } else {
+            jdbcHitRepository.streamUniqueHits(start, end, uris, limit, consumer);
+        }
+    }
+
+    private void saveBatch(List<NewHitDto> batch) {
+
+        jdbcHitRepository.saveAll(batch);
+        rollupRepository.addHits(batch);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.statsServer.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.statsDto.HitBatchAckDto;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItem;
+import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsServer.interfaces.HitService;
+import ru.practicum.statsServer.wal.HitLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Прием хитов через журнал предзаписи {@link HitLog}. Включается свойством {@code stats.ingest.mode=wal}.
+ * <p>
+ * Одиночный хит только дописывается в журнал, поэтому ответ на {@code /hit} не ждет хранилище и не зависит
+ * от состояния базы. Раз в {@code stats.ingest.wal.apply-interval} журнал переносится в хранилище
+ * {@link HitService#STORAGE} пакетами по {@code stats.ingest.wal.apply-batch-size} хитов; если хранилище
+ * недоступно, перенос повторяется в следующий раз, а хиты копятся на диске.
+ * Хиты из журнала попадают в статистику после переноса. При остановке журнал только сбрасывается на диск,
+ * а оставшиеся хиты переносятся после следующего запуска.
+ * <p>
+ * Перенос выполняется не меньше одного раза: если процесс остановится между записью пакета в хранилище
+ * и сохранением позиции журнала, после запуска этот пакет будет записан повторно.
+ * Пакеты {@code /hits/batch} передаются хранилищу напрямую и по-прежнему сохраняются целиком или не сохраняются.
+ */
+@Slf4j
+@Service
+@Primary
+@ConditionalOnProperty(name = "stats.ingest.mode", havingValue = "wal")
+public class LoggedHitService implements HitService {
+
+    private final HitService storage;
+    private final HitLog hitLog;
+    private final int batchSize;
+
+    public LoggedHitService(@Qualifier(HitService.STORAGE) HitService storage,
+                            @Value("${stats.ingest.wal.directory:./db/wal}") Path directory,
+                            @Value("${stats.ingest.wal.segment-size:64MB}") DataSize segmentSize,
+                            @Value("${stats.ingest.wal.apply-batch-size:10000}") int batchSize) throws IOException {
+
+        this.storage = storage;
+        this.hitLog = HitLog.open(directory, Math.toIntExact(segmentSize.toBytes()));
+        this.batchSize = batchSize;
+        log.info("Hit log opened in {}, applying from {}", directory, hitLog.checkpoint());
+    }
+
+    @Override
+    public void addHit(NewHitDto dto) {
+
+        try {
+            hitLog.append(dto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Logged a new hit: {}", dto);
+    }
+
+    @Override
+    public HitBatchAckDto addHits(Iterator<NewHitDto> hits) {
+        return storage.addHits(hits);
+    }
+
+    @Override
+    public List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                       boolean approximate) {
+        return storage.getStats(start, end, uris, unique, approximate);
+    }
+
+    @Override
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                            boolean approximate, @Nullable Integer limit, Consumer<? super StatsItem> consumer) {
+        storage.streamStats(start, end, uris, unique, approximate, limit, consumer);
+    }
+
+    /**
+     * Переносит в хранилище все хиты, записанные в журнал к началу переноса, и возвращает их количество.
+     */
+    @Scheduled(fixedDelayString = "${stats.ingest.wal.apply-interval:PT0.2S}")
+    public synchronized long apply() {
+
+        long applied = 0;
+        try {
+            hitLog.force();
+            HitLog.Position last = hitLog.end();
+            while (hitLog.checkpoint().compareTo(last) < 0) {
+                HitLog.Batch batch = hitLog.read(hitLog.checkpoint(), batchSize);
+                if (!batch.hits().isEmpty()) {
+                    storage.addHits(batch.hits().iterator());
+                    applied += batch.hits().size();
+                }
+                hitLog.commit(batch.end());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to apply hit log at {}, will retry", hitLog.checkpoint(), e);
+        }
+        if (applied > 0) {
+            log.info("Applied {} hits from the hit log", applied);
+        }
+        return applied;
+    }
+
+    @PreDestroy
+    public void close() {
+        hitLog.close();
+    }
+}
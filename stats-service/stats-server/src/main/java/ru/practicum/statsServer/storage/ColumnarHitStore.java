@@ -0,0 +1,425 @@
+package ru.practicum.statsServer.storage;
+
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Хранилище хитов в памяти в виде колонок примитивов.
+ * <p>
+ * Приложение и URI кодируются номером пары в словаре, IP-адрес — числом (см. {@link IpCodec}), время —
+ * секундами эпохи UTC. Строки дописываются во фрагменты по {@value #DEFAULT_CHUNK_SIZE}; заполненный
+ * фрагмент упорядочивается по времени и больше не меняется. Запрос статистики пропускает фрагменты вне
+ * периода по их минимальному и максимальному времени, находит границы периода во фрагменте двоичным поиском
+ * и считает хиты циклом по массивам без создания объектов на каждую строку.
+ * <p>
+ * Запись идет под блокировкой записи. Запрос под блокировкой чтения только запоминает фрагменты
+ * и размер словарей, а считает уже без блокировки, поэтому долгие запросы не задерживают запись.
+ * Хиты за одну и ту же секунду могут приходить в любом порядке; фрагмент с нарушенным порядком
+ * до заполнения просматривается целиком.
+ * <p>
+ * Состояние сохраняется в файл снимка ({@link #save(Path)}) и восстанавливается из него ({@link #load(Path)}).
+ */
+public class ColumnarHitStore {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private static final int MAX_KEYS = 1 << 30;
+    private static final int SNAPSHOT_MAGIC = 0x45574D48;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final int chunkSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary apps = new Dictionary();
+    private final Dictionary uris = new Dictionary();
+    private final Dictionary addresses = new Dictionary();
+    private final Map<Long, Integer> keyIds = new HashMap<>();
+    private int[] keyApps = new int[16];
+    private int[] keyUris = new int[16];
+    private int keyCount;
+    private final List<HitChunk> sealed = new ArrayList<>();
+    private HitChunk active;
+    private long size;
+
+    public ColumnarHitStore() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    ColumnarHitStore(int chunkSize) {
+
+        this.chunkSize = chunkSize;
+        this.active = new HitChunk(chunkSize);
+    }
+
+    public void add(NewHitDto hit) {
+        addAll(List.of(hit));
+    }
+
+    public void addAll(Collection<NewHitDto> hits) {
+
+        lock.writeLock().lock();
+        try {
+            for (NewHitDto hit : hits) {
+                append(seconds(hit.getTimestamp()), key(apps.id(hit.getApp()), uris.id(hit.getUri())),
+                        IpCodec.encode(hit.getIp(), addresses));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество хитов, или уникальных IP-адресов при {@code unique}, по каждой паре
+     * приложение/URI за период {@code [start, end]}, по убыванию количества. Пустой или {@code null}
+     * список {@code uris} означает все URI.
+     */
+    public List<StatsItemDto> getStats(LocalDateTime start, LocalDateTime end, Collection<String> uris,
+                                       boolean unique) {
+
+        View view;
+        lock.readLock().lock();
+        try {
+            view = view(uris);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long from = seconds(start) + (start.getNano() > 0 ? 1 : 0);
+        long to = seconds(end);
+        long[] counts = unique ? view.countUnique(from, to) : view.count(from, to);
+
+        List<StatsItemDto> items = new ArrayList<>();
+        for (int key = 0; key < view.keyCount(); key++) {
+            if (counts[key] > 0 && view.isAllowed(key)) {
+                items.add(new StatsItemDto(view.apps()[view.keyApps()[key]], view.uris()[view.keyUris()[key]],
+                        counts[key]));
+            }
+        }
+        items.sort(Comparator.comparingLong(StatsItemDto::getHits).reversed());
+        return items;
+    }
+
+    /**
+     * Удаляет заполненные фрагменты, все хиты которых старше {@code cutoff}, и возвращает число удаленных хитов.
+     * Хиты активного фрагмента и словари не удаляются.
+     */
+    public long removeBefore(LocalDateTime cutoff) {
+
+        long cutoffSecond = seconds(cutoff);
+        lock.writeLock().lock();
+        try {
+            long removed = 0;
+            for (HitChunk chunk : sealed) {
+                if (chunk.maxSecond() < cutoffSecond) {
+                    removed += chunk.size();
+                }
+            }
+            sealed.removeIf(chunk -> chunk.maxSecond() < cutoffSecond);
+            size -= removed;
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Записывает снимок хранилища во временный файл рядом с {@code path} и заменяет им {@code path},
+     * чтобы при сбое во время записи остался предыдущий снимок. Запись в хранилище на это время не блокируется.
+     */
+    public void save(Path path) throws IOException {
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writeSnapshot(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Читает хранилище из снимка, записанного {@link #save(Path)}.
+     */
+    public static ColumnarHitStore load(Path path) throws IOException {
+
+        try (InputStream in = Files.newInputStream(path)) {
+            return readSnapshot(in, DEFAULT_CHUNK_SIZE);
+        }
+    }
+
+    void writeSnapshot(OutputStream out) throws IOException {
+
+        View view;
+        String[] addressValues;
+        int addressCount;
+        lock.readLock().lock();
+        try {
+            view = view(null);
+            addressValues = addresses.values();
+            addressCount = addresses.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(SNAPSHOT_MAGIC);
+        data.writeInt(SNAPSHOT_VERSION);
+        writeStrings(data, view.apps(), view.appCount());
+        writeStrings(data, view.uris(), view.uriCount());
+        writeStrings(data, addressValues, addressCount);
+        data.writeInt(view.keyCount());
+        for (int key = 0; key < view.keyCount(); key++) {
+            data.writeInt(view.keyApps()[key]);
+            data.writeInt(view.keyUris()[key]);
+        }
+        data.writeLong(view.chunks().stream().mapToLong(ChunkView::size).sum());
+        for (ChunkView chunk : view.chunks()) {
+            for (int i = 0; i < chunk.size(); i++) {
+                data.writeLong(chunk.chunk().seconds[i]);
+                data.writeInt(chunk.chunk().keys[i]);
+                data.writeLong(chunk.chunk().ips[i]);
+            }
+        }
+        data.flush();
+    }
+
+    static ColumnarHitStore readSnapshot(InputStream in, int chunkSize) throws IOException {
+
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (data.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a hit store snapshot");
+        }
+        int version = data.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported hit store snapshot version: " + version);
+        }
+        ColumnarHitStore store = new ColumnarHitStore(chunkSize);
+        readStrings(data, store.apps);
+        readStrings(data, store.uris);
+        readStrings(data, store.addresses);
+        int keys = data.readInt();
+        for (int key = 0; key < keys; key++) {
+            store.key(data.readInt(), data.readInt());
+        }
+        long rows = data.readLong();
+        for (long row = 0; row < rows; row++) {
+            store.append(data.readLong(), data.readInt(), data.readLong());
+        }
+        return store;
+    }
+
+    private void append(long second, int key, long ip) {
+
+        active.add(second, key, ip);
+        size++;
+        if (active.isFull()) {
+            sealed.add(active.sorted());
+            active = new HitChunk(chunkSize);
+        }
+    }
+
+    private int key(int app, int uri) {
+
+        long pair = (long) app << 32 | uri;
+        Integer key = keyIds.get(pair);
+        if (key != null) {
+            return key;
+        }
+        if (keyCount == MAX_KEYS) {
+            throw new IllegalStateException("Too many app/uri pairs: " + keyCount);
+        }
+        if (keyCount == keyApps.length) {
+            keyApps = Arrays.copyOf(keyApps, keyCount * 2);
+            keyUris = Arrays.copyOf(keyUris, keyCount * 2);
+        }
+        keyApps[keyCount] = app;
+        keyUris[keyCount] = uri;
+        keyIds.put(pair, keyCount);
+        return keyCount++;
+    }
+
+    /**
+     * Запоминает состояние для запроса. Вызывается под блокировкой чтения.
+     */
+    private View view(Collection<String> uriFilter) {
+
+        List<ChunkView> chunks = new ArrayList<>(sealed.size() + 1);
+        for (HitChunk chunk : sealed) {
+            chunks.add(new ChunkView(chunk, chunk.size(), chunk.minSecond(), chunk.maxSecond(), true));
+        }
+        if (active.size() > 0) {
+            chunks.add(new ChunkView(active, active.size(), active.minSecond(), active.maxSecond(),
+                    active.isOrdered()));
+        }
+
+        boolean[] allowed = null;
+        if (uriFilter != null && !uriFilter.isEmpty()) {
+            boolean[] allowedUris = new boolean[uris.size()];
+            for (String uri : uriFilter) {
+                int id = uris.find(uri);
+                if (id >= 0) {
+                    allowedUris[id] = true;
+                }
+            }
+            allowed = new boolean[keyCount];
+            for (int key = 0; key < keyCount; key++) {
+                allowed[key] = allowedUris[keyUris[key]];
+            }
+        }
+        return new View(chunks, apps.values(), apps.size(), uris.values(), uris.size(), keyApps, keyUris,
+                keyCount, allowed);
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static void writeStrings(DataOutputStream data, String[] values, int count) throws IOException {
+
+        data.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            data.writeUTF(values[i]);
+        }
+    }
+
+    private static void readStrings(DataInputStream data, Dictionary dictionary) throws IOException {
+
+        int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            dictionary.id(data.readUTF());
+        }
+    }
+
+    private record ChunkView(HitChunk chunk, int size, long minSecond, long maxSecond, boolean ordered) {
+
+        /**
+         * Возвращает границы строк периода {@code [from, to]}: начало в старших 32 битах, конец в младших.
+         * Для неупорядоченного фрагмента возвращает весь фрагмент, и время строк проверяется при подсчете.
+         */
+        long range(long from, long to) {
+
+            if (size == 0 || maxSecond < from || minSecond > to) {
+                return 0;
+            }
+            if (!ordered) {
+                return size;
+            }
+            int low = chunk.lowerBound(from, size);
+            int high = chunk.lowerBound(to + 1, size);
+            return (long) low << 32 | high;
+        }
+    }
+
+    private record View(List<ChunkView> chunks, String[] apps, int appCount, String[] uris, int uriCount,
+                        int[] keyApps, int[] keyUris, int keyCount, boolean[] allowed) {
+
+        boolean isAllowed(int key) {
+            return allowed == null || allowed[key];
+        }
+
+        long[] count(long from, long to) {
+
+            long[] counts = new long[keyCount];
+            for (ChunkView view : chunks) {
+                long range = view.range(from, to);
+                int low = (int) (range >>> 32);
+                int high = (int) range;
+                int[] keys = view.chunk().keys;
+                if (view.ordered()) {
+                    for (int i = low; i < high; i++) {
+                        counts[keys[i]]++;
+                    }
+                } else {
+                    long[] seconds = view.chunk().seconds;
+                    for (int i = low; i < high; i++) {
+                        if (seconds[i] >= from && seconds[i] <= to) {
+                            counts[keys[i]]++;
+                        }
+                    }
+                }
+            }
+            return counts;
+        }
+
+        /**
+         * Считает различные адреса по каждому ключу: раскладывает адреса периода по ключам подсчетом,
+         * используя количество хитов из {@link #count}, и сортирует адреса каждого ключа отдельно.
+         * Участок одного ключа помещается в кэш процессора, поэтому это заметно быстрее одной сортировки
+         * всех хитов периода.
+         */
+        long[] countUnique(long from, long to) {
+
+            long[] hits = count(from, to);
+            int[] offsets = new int[keyCount + 1];
+            for (int key = 0; key < keyCount; key++) {
+                offsets[key + 1] = Math.addExact(offsets[key], isAllowed(key) ? (int) hits[key] : 0);
+            }
+            long[] addresses = new long[offsets[keyCount]];
+            int[] next = Arrays.copyOf(offsets, keyCount);
+            for (ChunkView view : chunks) {
+                long range = view.range(from, to);
+                int low = (int) (range >>> 32);
+                int high = (int) range;
+                int[] keys = view.chunk().keys;
+                long[] ips = view.chunk().ips;
+                long[] seconds = view.chunk().seconds;
+                for (int i = low; i < high; i++) {
+                    if (isAllowed(keys[i]) && (view.ordered() || seconds[i] >= from && seconds[i] <= to)) {
+                        addresses[next[keys[i]]++] = ips[i];
+                    }
+                }
+            }
+
+            long[] counts = new long[keyCount];
+            for (int key = 0; key < keyCount; key++) {
+                int low = offsets[key];
+                int high = offsets[key + 1];
+                if (low == high) {
+                    continue;
+                }
+                Arrays.sort(addresses, low, high);
+                long distinct = 1;
+                for (int i = low + 1; i < high; i++) {
+                    if (addresses[i] != addresses[i - 1]) {
+                        distinct++;
+                    }
+                }
+                counts[key] = distinct;
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.statsServer.storage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Словарь строк: каждой строке выдается номер по порядку первого появления.
+ * Значения хранятся в массиве, который при росте копируется, а не изменяется на месте,
+ * поэтому читатель, сохранивший {@link #values()} и {@link #size()} под блокировкой хранилища,
+ * может читать их и после ее освобождения.
+ * Изменяется только под блокировкой записи {@link ColumnarHitStore}.
+ */
+final class Dictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] values = new String[16];
+    private int size;
+
+    /**
+     * Возвращает номер строки, добавляя ее в словарь при первом появлении.
+     */
+    int id(String value) {
+
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        ids.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Возвращает номер строки или {@code -1}, если строки нет в словаре.
+     */
+    int find(String value) {
+        return ids.getOrDefault(value, -1);
+    }
+
+    String[] values() {
+        return values;
+    }
+
+    int size() {
+        return size;
+    }
+}
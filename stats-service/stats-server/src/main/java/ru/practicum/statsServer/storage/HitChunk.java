@@ -0,0 +1,113 @@
+package ru.practicum.statsServer.storage;
+
+import java.util.Arrays;
+
+/**
+ * Фрагмент хранилища хитов фиксированной емкости в виде колонок примитивов:
+ * время в секундах эпохи UTC, номер пары приложение/URI и закодированный IP-адрес.
+ * <p>
+ * В активный фрагмент строки только дописываются, поэтому строки {@code [0, size)}, прочитанные после
+ * получения блокировки хранилища, не меняются. Заполненный фрагмент сортируется по времени в новые массивы
+ * ({@link #sorted()}), после чего в нем можно искать границы периода двоичным поиском.
+ */
+final class HitChunk {
+
+    static final int MAX_CAPACITY = 1 << 20;
+
+    private static final int INDEX_BITS = 20;
+    private static final long INDEX_MASK = MAX_CAPACITY - 1;
+
+    final long[] seconds;
+    final int[] keys;
+    final long[] ips;
+    private int size;
+    private long minSecond = Long.MAX_VALUE;
+    private long maxSecond = Long.MIN_VALUE;
+    private boolean ordered = true;
+
+    HitChunk(int capacity) {
+
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Chunk capacity must be in [1, %d]: %d"
+                    .formatted(MAX_CAPACITY, capacity));
+        }
+        this.seconds = new long[capacity];
+        this.keys = new int[capacity];
+        this.ips = new long[capacity];
+    }
+
+    void add(long second, int key, long ip) {
+
+        if (size > 0 && second < seconds[size - 1]) {
+            ordered = false;
+        }
+        seconds[size] = second;
+        keys[size] = key;
+        ips[size] = ip;
+        size++;
+        minSecond = Math.min(minSecond, second);
+        maxSecond = Math.max(maxSecond, second);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == seconds.length;
+    }
+
+    boolean isOrdered() {
+        return ordered;
+    }
+
+    long minSecond() {
+        return minSecond;
+    }
+
+    long maxSecond() {
+        return maxSecond;
+    }
+
+    /**
+     * Возвращает фрагмент с теми же строками, упорядоченными по времени; исходный фрагмент не меняется.
+     * Строки с одинаковым временем сохраняют порядок добавления: сортируются числа
+     * {@code (время - минимальное время) << 20 | номер строки}.
+     */
+    HitChunk sorted() {
+
+        if (ordered) {
+            return this;
+        }
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (seconds[i] - minSecond) << INDEX_BITS | i;
+        }
+        Arrays.sort(order);
+        HitChunk sorted = new HitChunk(seconds.length);
+        for (long packed : order) {
+            int row = (int) (packed & INDEX_MASK);
+            sorted.add(seconds[row], keys[row], ips[row]);
+        }
+        return sorted;
+    }
+
+    /**
+     * Возвращает номер первой строки со временем не меньше {@code second} среди первых {@code size} строк
+     * упорядоченного фрагмента.
+     */
+    int lowerBound(long second, int size) {
+
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (seconds[middle] < second) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.statsServer.storage;
+
+/**
+ * Кодирует IP-адрес хита в {@code long}.
+ * <p>
+ * Адрес IPv4 в каноническом виде (четыре десятичных числа от 0 до 255 без ведущих нулей) упаковывается
+ * в число {@code [0, 2^32)}. Остальные значения, включая адреса IPv6, кодируются отрицательным номером
+ * в словаре адресов: {@code -1 - номер}. Адреса сравниваются как строки, как в {@code count(distinct ip)}
+ * хранилища в базе, поэтому разные записи одного адреса IPv6 считаются разными посетителями.
+ */
+final class IpCodec {
+
+    private IpCodec() {
+    }
+
+    static long encode(String ip, Dictionary addresses) {
+
+        long ipv4 = parseIpv4(ip);
+        return ipv4 >= 0 ? ipv4 : -1L - addresses.id(ip);
+    }
+
+    /**
+     * Возвращает адрес IPv4 в виде числа или {@code -1}, если строка не является адресом IPv4
+     * в каноническом виде.
+     */
+    static long parseIpv4(String ip) {
+
+        long address = 0;
+        int octets = 0;
+        int value = -1;
+        int digits = 0;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i < ip.length() ? ip.charAt(i) : '.';
+            if (c == '.') {
+                if (digits == 0 || value > 255 || ++octets > 4) {
+                    return -1;
+                }
+                address = address << 8 | value;
+                value = -1;
+                digits = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (digits > 0 && value == 0) {
+                    return -1;
+                }
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (++digits > 3) {
+                    return -1;
+                }
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? address : -1;
+    }
+}
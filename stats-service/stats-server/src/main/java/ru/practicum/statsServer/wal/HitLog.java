@@ -0,0 +1,324 @@
+package ru.practicum.statsServer.wal;
+
+import ru.practicum.statsDto.NewHitDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал предзаписи хитов в файлах-сегментах {@code hits-<номер>.wal}, отображенных в память.
+ * <p>
+ * Запись хита — заголовок (длина и CRC32C содержимого) и содержимое: приложение, URI и IP-адрес в UTF-8
+ * с длиной и время в секундах и наносекундах UTC. Запись копируется в отображенный сегмент без системных
+ * вызовов и после возврата из {@link #append(NewHitDto)} переживает аварийную остановку процесса;
+ * после сбоя операционной системы сохраняются записи до последнего {@link #force()}.
+ * Когда запись не помещается в сегмент, создается следующий сегмент.
+ * <p>
+ * Позиция, до которой записи перенесены в хранилище, сохраняется в файл {@code checkpoint} через
+ * {@link #commit(Position)}; сегменты до нее удаляются. При открытии журнал продолжает чтение с этой позиции,
+ * а писать начинает в новый сегмент, поэтому недописанная при сбое запись только завершает чтение своего
+ * сегмента: ее CRC не совпадет.
+ * <p>
+ * {@link #append(NewHitDto)} можно вызывать из любых потоков, а {@link #read(Position, int)}
+ * и {@link #commit(Position)} — из одного потока, который переносит журнал в хранилище.
+ */
+public class HitLog implements Closeable {
+
+    public static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private static final String SEGMENT_PREFIX = "hits-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32C writeCrc = new CRC32C();
+    private final CRC32C readCrc = new CRC32C();
+    private ByteBuffer record = ByteBuffer.allocate(1024);
+    private MappedByteBuffer segment;
+    private volatile Position end;
+
+    private Position checkpoint;
+    private ByteBuffer readSegment;
+    private long readSegmentId = -1;
+
+    /**
+     * Позиция в журнале: номер сегмента и смещение в нем.
+     */
+    public record Position(long segment, int offset) implements Comparable<Position> {
+
+        @Override
+        public int compareTo(Position other) {
+
+            int bySegment = Long.compare(segment, other.segment);
+            return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+        }
+    }
+
+    /**
+     * Прочитанные хиты и позиция сразу после них.
+     */
+    public record Batch(List<NewHitDto> hits, Position end) {
+    }
+
+    private HitLog(Path directory, int segmentSize, Position checkpoint) {
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Открывает журнал в каталоге {@code directory}, создавая каталог при необходимости.
+     */
+    public static HitLog open(Path directory, int segmentSize) throws IOException {
+
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Hit log segment size must be at least %d bytes: %d"
+                    .formatted(MIN_SEGMENT_SIZE, segmentSize));
+        }
+        Files.createDirectories(directory);
+        List<Long> segments = segments(directory);
+        long first = segments.isEmpty() ? 1 : segments.get(0);
+        long next = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+
+        Position checkpoint = readCheckpoint(directory);
+        if (checkpoint == null || checkpoint.segment() < first) {
+            checkpoint = new Position(first, 0);
+        } else if (checkpoint.segment() > next) {
+            checkpoint = new Position(next, 0);
+        }
+        HitLog log = new HitLog(directory, segmentSize, checkpoint);
+        log.startSegment(next);
+        return log;
+    }
+
+    /**
+     * Дописывает хит в журнал, при необходимости начиная новый сегмент.
+     */
+    public synchronized void append(NewHitDto hit) throws IOException {
+
+        ByteBuffer payload = encode(hit);
+        int length = payload.remaining();
+        if (HEADER_SIZE + length > segmentSize) {
+            throw new IllegalArgumentException("Hit does not fit in a log segment: " + hit);
+        }
+        int offset = end.offset();
+        if (offset + HEADER_SIZE + length > segmentSize) {
+            segment.force();
+            startSegment(end.segment() + 1);
+            offset = 0;
+        }
+        writeCrc.reset();
+        writeCrc.update(payload.duplicate());
+        segment.putInt(offset, length);
+        segment.putInt(offset + Integer.BYTES, (int) writeCrc.getValue());
+        segment.put(offset + HEADER_SIZE, payload, payload.position(), length);
+        end = new Position(end.segment(), offset + HEADER_SIZE + length);
+    }
+
+    /**
+     * Сбрасывает записанное в текущий сегмент на диск.
+     */
+    public synchronized void force() {
+        segment.force();
+    }
+
+    /**
+     * Позиция, до которой записи перенесены в хранилище.
+     */
+    public Position checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Позиция после последней записи.
+     */
+    public Position end() {
+        return end;
+    }
+
+    /**
+     * Читает до {@code maxHits} хитов начиная с позиции {@code from}.
+     */
+    public Batch read(Position from, int maxHits) throws IOException {
+
+        List<NewHitDto> hits = new ArrayList<>(Math.min(maxHits, 1024));
+        Position position = from;
+        while (hits.size() < maxHits) {
+            Position last = end;
+            if (position.compareTo(last) >= 0) {
+                break;
+            }
+            boolean active = position.segment() == last.segment();
+            ByteBuffer buffer = segmentForRead(position.segment());
+            int limit = active ? last.offset() : segmentSize;
+            int length = recordLength(buffer, position.offset(), limit);
+            if (length < 0) {
+                if (active) {
+                    throw new IOException("Corrupted hit log record at " + position);
+                }
+                position = new Position(position.segment() + 1, 0);
+                continue;
+            }
+            hits.add(decode(buffer.slice(position.offset() + HEADER_SIZE, length)));
+            position = new Position(position.segment(), position.offset() + HEADER_SIZE + length);
+        }
+        return new Batch(hits, position);
+    }
+
+    /**
+     * Запоминает, что записи до {@code position} перенесены в хранилище, и удаляет ненужные больше сегменты.
+     */
+    public void commit(Position position) throws IOException {
+
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(temp, position.segment() + ":" + position.offset());
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = position;
+
+        for (long id : segments(directory)) {
+            if (id < position.segment()) {
+                Files.deleteIfExists(segmentPath(directory, id));
+            }
+        }
+        if (readSegmentId < position.segment()) {
+            readSegment = null;
+            readSegmentId = -1;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        segment.force();
+    }
+
+    private void startSegment(long id) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(segmentPath(directory, id), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        end = new Position(id, 0);
+    }
+
+    private ByteBuffer segmentForRead(long id) throws IOException {
+
+        if (readSegmentId != id) {
+            try (FileChannel channel = FileChannel.open(segmentPath(directory, id), StandardOpenOption.READ)) {
+                readSegment = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), segmentSize));
+            }
+            readSegmentId = id;
+        }
+        return readSegment;
+    }
+
+    /**
+     * Возвращает длину содержимого записи по смещению {@code offset} или {@code -1}, если там нет целой записи.
+     */
+    private int recordLength(ByteBuffer buffer, int offset, int limit) {
+
+        limit = Math.min(limit, buffer.capacity());
+        if (offset + HEADER_SIZE > limit) {
+            return -1;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > limit - offset - HEADER_SIZE) {
+            return -1;
+        }
+        readCrc.reset();
+        readCrc.update(buffer.slice(offset + HEADER_SIZE, length));
+        return (int) readCrc.getValue() == buffer.getInt(offset + Integer.BYTES) ? length : -1;
+    }
+
+    private ByteBuffer encode(NewHitDto hit) {
+
+        while (true) {
+            try {
+                record.clear();
+                putString(hit.getApp());
+                putString(hit.getUri());
+                putString(hit.getIp());
+                record.putLong(hit.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+                record.putInt(hit.getTimestamp().getNano());
+                return record.flip();
+            } catch (BufferOverflowException e) {
+                record = ByteBuffer.allocate(record.capacity() * 2);
+            }
+        }
+    }
+
+    private void putString(String value) {
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Hit field is too long: " + bytes.length + " bytes");
+        }
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+    }
+
+    private static NewHitDto decode(ByteBuffer payload) {
+
+        String app = getString(payload);
+        String uri = getString(payload);
+        String ip = getString(payload);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+        return new NewHitDto(app, uri, ip, timestamp);
+    }
+
+    private static String getString(ByteBuffer payload) {
+
+        byte[] bytes = new byte[Short.toUnsignedInt(payload.getShort())];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Position readCheckpoint(Path directory) throws IOException {
+
+        Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        String[] parts = Files.readString(path).trim().split(":");
+        try {
+            return new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed hit log checkpoint: " + path, e);
+        }
+    }
+
+    private static List<Long> segments(Path directory) throws IOException {
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path segmentPath(Path directory, long id) {
+        return directory.resolve(SEGMENT_PREFIX + "%019d".formatted(id) + SEGMENT_SUFFIX);
+    }
+}
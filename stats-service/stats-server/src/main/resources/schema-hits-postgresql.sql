@@ -0,0 +1,16 @@
+-- Хиты секционированы по времени: запросы за период читают только секции этого периода,
+-- а устаревшие данные удаляются целыми секциями. Секции создает и удаляет HitPartitionManager,
+-- секция по умолчанию принимает хиты, для которых еще нет секции.
+-- Секцию по умолчанию создает HitPartitionManager при запуске: если таблица hits осталась от прежних версий
+-- несекционированной, он сначала переносит ее хиты в секционированную таблицу.
+create table if not exists hits(
+id bigint generated by default as identity not null,
+app varchar(64) not null,
+uri varchar(64) not null,
+ip varchar(64) not null,
+timestamp TIMESTAMP without time zone not null,
+primary key (id, timestamp)
+) partition by range (timestamp);
+
+create index if not exists hits_app_uri_idx on hits(app, uri);
+create index if not exists hits_timestamp_idx on hits(timestamp);
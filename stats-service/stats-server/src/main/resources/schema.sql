@@ -1,11 +1,24 @@
-drop table if exists hits;
+-- Схема создается при каждом запуске и не пересоздает существующие таблицы, поэтому хиты сохраняются
+-- между перезапусками. Таблица hits создается в schema-hits.sql или, для PostgreSQL, в schema-hits-postgresql.sql.
 
-create table if not exists hits(
-id bigint generated by default as identity primary key not null,
+create table if not exists hit_rollups(
 app varchar(64) not null,
 uri varchar(64) not null,
-ip varchar(64) not null,
-timestamp TIMESTAMP without time zone not null
+bucket_unit varchar(8) not null,
+bucket_start TIMESTAMP without time zone not null,
+hits bigint not null,
+primary key (app, uri, bucket_unit, bucket_start)
 );
 
-create index if not exists hits_app_uri_idx on hits(app, uri);
\ No newline at end of file
+create index if not exists hit_rollups_unit_start_idx on hit_rollups(bucket_unit, bucket_start);
+
+create table if not exists hit_sketches(
+app varchar(64) not null,
+uri varchar(64) not null,
+bucket_unit varchar(8) not null,
+bucket_start TIMESTAMP without time zone not null,
+sketch bytea not null,
+primary key (app, uri, bucket_unit, bucket_start)
+);
+
+create index if not exists hit_sketches_unit_start_idx on hit_sketches(bucket_unit, bucket_start);
@@ -2,16 +2,19 @@ package ru.practicum.statsServer.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.statsDto.HitBatchAckDto;
 import ru.practicum.statsDto.NewHitDto;
 import ru.practicum.statsDto.StatsItemDto;
 import ru.practicum.statsServer.interfaces.HitService;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -21,6 +24,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -30,7 +34,7 @@ class HitControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
-    @MockBean
+    @MockBean(answer = Answers.CALLS_REAL_METHODS)
     private HitService hitService;
 
     @Autowired
@@ -66,6 +70,55 @@ class HitControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void addHits_withJsonArray_shouldReturnAck() throws Exception {
+        NewHitDto first = new NewHitDto("testApp", "/test", "192.168.1.1", LocalDateTime.of(2023, 1, 1, 12, 0, 0));
+        NewHitDto second = new NewHitDto("testApp", "/test", "192.168.1.2", LocalDateTime.of(2023, 1, 1, 12, 0, 1));
+        when(hitService.addHits(any())).thenAnswer(invocation -> drain(invocation.getArgument(0)));
+
+        mockMvc.perform(post("/hits/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(first, second))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.saved").value(2));
+    }
+
+    @Test
+    void addHits_withNdjsonStream_shouldReturnAck() throws Exception {
+        NewHitDto first = new NewHitDto("testApp", "/test", "192.168.1.1", LocalDateTime.of(2023, 1, 1, 12, 0, 0));
+        NewHitDto second = new NewHitDto("testApp", "/test", "192.168.1.2", LocalDateTime.of(2023, 1, 1, 12, 0, 1));
+        when(hitService.addHits(any())).thenAnswer(invocation -> drain(invocation.getArgument(0)));
+
+        mockMvc.perform(post("/hits/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(first) + "\n"
+                                + objectMapper.writeValueAsString(second) + "\n"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.saved").value(2));
+    }
+
+    @Test
+    void addHits_withInvalidHit_shouldReturnBadRequest() throws Exception {
+        NewHitDto valid = new NewHitDto("testApp", "/test", "192.168.1.1", LocalDateTime.of(2023, 1, 1, 12, 0, 0));
+        NewHitDto invalid = new NewHitDto("testApp", "", "192.168.1.2", LocalDateTime.of(2023, 1, 1, 12, 0, 1));
+        when(hitService.addHits(any())).thenAnswer(invocation -> drain(invocation.getArgument(0)));
+
+        mockMvc.perform(post("/hits/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(valid, invalid))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void addHits_withMalformedNdjson_shouldReturnBadRequest() throws Exception {
+        when(hitService.addHits(any())).thenAnswer(invocation -> drain(invocation.getArgument(0)));
+
+        mockMvc.perform(post("/hits/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"app\": \"testApp\", \"uri\": \n"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getStats_shouldReturnStatsList() throws Exception {
         StatsItemDto statsItem = new StatsItemDto();
@@ -77,6 +130,7 @@ class HitControllerTest {
                 eq(LocalDateTime.of(2023, 1, 1, 0, 0, 0)),
                 eq(LocalDateTime.of(2023, 12, 31, 23, 59, 59)),
                 anyList(),
+                eq(false),
                 eq(false)))
                 .thenReturn(List.of(statsItem));
 
@@ -91,6 +145,21 @@ class HitControllerTest {
                 .andExpect(jsonPath("$[0].hits").value(5));
     }
 
+    @Test
+    void getStats_withApproximate_shouldPassFlagToService() throws Exception {
+        when(hitService.getStats(any(), any(), anyList(), eq(true), eq(true)))
+                .thenReturn(List.of(new StatsItemDto("testApp", "/test", 1000L)));
+
+        mockMvc.perform(get("/stats")
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-12-31 23:59:59")
+                        .param("uris", "/test")
+                        .param("unique", "true")
+                        .param("approximate", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].hits").value(1000));
+    }
+
     @Test
     void getStats_withInvalidDateRange_shouldReturnBadRequest() throws Exception {
         mockMvc.perform(get("/stats")
@@ -98,4 +167,41 @@ class HitControllerTest {
                         .param("end", "2023-01-01 00:00:00"))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void getStats_withNdjsonAndLimit_shouldWriteFirstItemsOnePerLine() throws Exception {
+        when(hitService.getStats(any(), any(), any(), eq(false), eq(false)))
+                .thenReturn(List.of(new StatsItemDto("testApp", "/a", 3L), new StatsItemDto("testApp", "/b", 2L),
+                        new StatsItemDto("testApp", "/c", 1L)));
+
+        mockMvc.perform(get("/stats")
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-12-31 23:59:59")
+                        .param("limit", "2")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"app\":\"testApp\",\"uri\":\"/a\",\"hits\":3}\n"
+                        + "{\"app\":\"testApp\",\"uri\":\"/b\",\"hits\":2}\n"));
+
+        verify(hitService).streamStats(any(), any(), any(), eq(false), eq(false), eq(2), any());
+    }
+
+    @Test
+    void getStats_withNonPositiveLimit_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/stats")
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-12-31 23:59:59")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static HitBatchAckDto drain(Iterator<NewHitDto> hits) {
+        int saved = 0;
+        while (hits.hasNext()) {
+            hits.next();
+            saved++;
+        }
+        return new HitBatchAckDto(saved);
+    }
 }
\ No newline at end of file
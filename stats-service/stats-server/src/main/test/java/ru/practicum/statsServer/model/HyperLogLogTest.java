@@ -0,0 +1,108 @@
+package ru.practicum.statsServer.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_withEmptySketch_shouldReturnZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void estimate_withRepeatedValues_shouldCountDistinctValues() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add("192.168.0." + (i % 100));
+        }
+
+        assertEquals(100, sketch.estimate());
+    }
+
+    @Test
+    void estimate_withManyValues_shouldStayWithinThreeStandardErrors() {
+        for (int n : new int[]{1_000, 20_000, 50_000, 500_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < n; i++) {
+                sketch.add("10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff));
+            }
+
+            double error = Math.abs(sketch.estimate() - n) / (double) n;
+            assertTrue(error < 3 * HyperLogLog.STANDARD_ERROR_PERCENT / 100, "n=" + n + ", error=" + error);
+        }
+    }
+
+    @Test
+    void merge_shouldEstimateUnionOfSketches() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            first.add("ip-" + i);
+            second.add("ip-" + (i + 15_000));
+        }
+
+        first.merge(second);
+
+        double error = Math.abs(first.estimate() - 45_000) / 45_000.0;
+        assertTrue(error < 3 * HyperLogLog.STANDARD_ERROR_PERCENT / 100, "error=" + error);
+    }
+
+    @Test
+    void toBytes_shouldRoundTripSparseAndDenseSketches() {
+        HyperLogLog sparse = new HyperLogLog();
+        HyperLogLog dense = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            if (i < 50) {
+                sparse.add("ip-" + i);
+            }
+            dense.add("ip-" + i);
+        }
+
+        assertTrue(sparse.toBytes().length < 200);
+        assertEquals(HyperLogLog.REGISTERS + 1, dense.toBytes().length);
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(sparse.toBytes()).estimate());
+        assertEquals(dense.estimate(), HyperLogLog.fromBytes(dense.toBytes()).estimate());
+    }
+
+    @Test
+    void add_shouldKeepSketchSparseUntilDenseFormIsSmaller() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add("ip-" + i);
+        }
+        assertFalse(sketch.isDense());
+
+        for (int i = 1_000; i < 100_000; i++) {
+            sketch.add("ip-" + i);
+        }
+        assertTrue(sketch.isDense());
+    }
+
+    @Test
+    void merge_withSparseAndDenseSketches_shouldMatchSingleSketch() {
+        HyperLogLog all = new HyperLogLog();
+        HyperLogLog sparse = new HyperLogLog();
+        HyperLogLog dense = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            all.add("ip-" + i);
+            if (i < 500) {
+                sparse.add("ip-" + i);
+            } else {
+                dense.add("ip-" + i);
+            }
+        }
+
+        HyperLogLog sparseFirst = HyperLogLog.fromBytes(sparse.toBytes());
+        sparseFirst.merge(dense);
+        dense.merge(sparse);
+
+        assertEquals(all.estimate(), sparseFirst.estimate());
+        assertEquals(all.estimate(), dense.estimate());
+        assertArrayEquals(all.toBytes(), sparseFirst.toBytes());
+    }
+}
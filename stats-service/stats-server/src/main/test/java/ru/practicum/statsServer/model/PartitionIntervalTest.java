@@ -0,0 +1,39 @@
+package ru.practicum.statsServer.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PartitionIntervalTest {
+
+    @Test
+    void day_shouldNameAndBoundPartitionByDate() {
+        LocalDateTime start = PartitionInterval.DAY.start(LocalDateTime.of(2024, 10, 18, 15, 30));
+
+        assertEquals(LocalDateTime.of(2024, 10, 18, 0, 0), start);
+        assertEquals(LocalDateTime.of(2024, 10, 19, 0, 0), PartitionInterval.DAY.next(start));
+        assertEquals("hits_p20241018", PartitionInterval.DAY.partitionName("hits", start));
+    }
+
+    @Test
+    void month_shouldNameAndBoundPartitionByMonth() {
+        LocalDateTime start = PartitionInterval.MONTH.start(LocalDateTime.of(2024, 12, 18, 15, 30));
+
+        assertEquals(LocalDateTime.of(2024, 12, 1, 0, 0), start);
+        assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0), PartitionInterval.MONTH.next(start));
+        assertEquals("hits_p202412", PartitionInterval.MONTH.partitionName("hits", start));
+    }
+
+    @Test
+    void parseStart_shouldAcceptOnlyOwnNameFormat() {
+        assertEquals(Optional.of(LocalDateTime.of(2024, 10, 18, 0, 0)),
+                PartitionInterval.DAY.parseStart("hits", "hits_p20241018"));
+        assertEquals(Optional.of(LocalDateTime.of(2024, 10, 1, 0, 0)),
+                PartitionInterval.MONTH.parseStart("hits", "hits_p202410"));
+        assertEquals(Optional.empty(), PartitionInterval.DAY.parseStart("hits", "hits_p202410"));
+        assertEquals(Optional.empty(), PartitionInterval.MONTH.parseStart("hits", "hits_default"));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.statsServer.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollupPlanTest {
+
+    @Test
+    void of_withRangeInsideOneMinute_shouldUseRawHitsOnly() {
+        LocalDateTime start = LocalDateTime.of(2023, 6, 1, 10, 0, 10);
+        LocalDateTime end = LocalDateTime.of(2023, 6, 1, 10, 0, 50);
+
+        RollupPlan plan = RollupPlan.of(start, end);
+
+        assertTrue(plan.buckets().isEmpty());
+        assertEquals(List.of(new RollupPlan.Segment(null, start, end.plusNanos(1))), plan.raw());
+    }
+
+    @Test
+    void of_withAlignedDays_shouldUseDayBuckets() {
+        LocalDateTime start = LocalDateTime.of(2023, 6, 1, 0, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 6, 4, 0, 0, 0);
+
+        RollupPlan plan = RollupPlan.of(start, end);
+
+        assertEquals(List.of(new RollupPlan.Segment(BucketUnit.DAY, start, end)), plan.buckets());
+        assertEquals(List.of(new RollupPlan.Segment(null, end, end.plusNanos(1))), plan.raw());
+    }
+
+    @Test
+    void of_withUnalignedRange_shouldCoverRangeWithoutGapsOrOverlaps() {
+        LocalDateTime start = LocalDateTime.of(2023, 6, 1, 10, 15, 30);
+        LocalDateTime end = LocalDateTime.of(2023, 6, 5, 7, 45, 20);
+
+        RollupPlan plan = RollupPlan.of(start, end);
+
+        assertEquals(List.of(
+                new RollupPlan.Segment(BucketUnit.MINUTE, LocalDateTime.of(2023, 6, 1, 10, 16), LocalDateTime.of(2023, 6, 1, 11, 0)),
+                new RollupPlan.Segment(BucketUnit.HOUR, LocalDateTime.of(2023, 6, 1, 11, 0), LocalDateTime.of(2023, 6, 2, 0, 0)),
+                new RollupPlan.Segment(BucketUnit.DAY, LocalDateTime.of(2023, 6, 2, 0, 0), LocalDateTime.of(2023, 6, 5, 0, 0)),
+                new RollupPlan.Segment(BucketUnit.HOUR, LocalDateTime.of(2023, 6, 5, 0, 0), LocalDateTime.of(2023, 6, 5, 7, 0)),
+                new RollupPlan.Segment(BucketUnit.MINUTE, LocalDateTime.of(2023, 6, 5, 7, 0), LocalDateTime.of(2023, 6, 5, 7, 45))),
+                plan.buckets());
+        assertEquals(List.of(
+                new RollupPlan.Segment(null, start, LocalDateTime.of(2023, 6, 1, 10, 16)),
+                new RollupPlan.Segment(null, LocalDateTime.of(2023, 6, 5, 7, 45), end.plusNanos(1))),
+                plan.raw());
+    }
+
+    @Test
+    void of_withCoveredUntil_shouldReadRestOfRangeFromRawHits() {
+        LocalDateTime start = LocalDateTime.of(2023, 6, 1, 10, 15, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 6, 3, 12, 0, 0);
+        LocalDateTime coveredUntil = LocalDateTime.of(2023, 6, 2, 3, 0);
+
+        RollupPlan plan = RollupPlan.of(start, end, BucketUnit.HOUR, coveredUntil);
+
+        assertEquals(List.of(
+                new RollupPlan.Segment(BucketUnit.HOUR, LocalDateTime.of(2023, 6, 1, 11, 0), LocalDateTime.of(2023, 6, 2, 0, 0)),
+                new RollupPlan.Segment(BucketUnit.HOUR, LocalDateTime.of(2023, 6, 2, 0, 0), coveredUntil)),
+                plan.buckets());
+        assertEquals(List.of(
+                new RollupPlan.Segment(null, start, LocalDateTime.of(2023, 6, 1, 11, 0)),
+                new RollupPlan.Segment(null, coveredUntil, end.plusNanos(1))),
+                plan.raw());
+        assertEquals(RollupPlan.of(start, end, BucketUnit.HOUR), RollupPlan.of(start, end, BucketUnit.HOUR, end.plusDays(1)));
+        assertTrue(RollupPlan.of(start, end, BucketUnit.HOUR, null).buckets().isEmpty());
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.statsServer.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsServer.service.HitServiceImpl;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет DDL {@link HitPartitionManager} в PostgreSQL: перенос несекционированной таблицы прежних версий,
+ * создание секций с переносом хитов из секции по умолчанию и удаление секций по сроку хранения
+ * вместе со счетчиками, после которого точная, предагрегированная и приближенная статистика совпадают.
+ * Без Docker тест пропускается.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = {
+        "spring.sql.init.schema-locations=classpath:schema.sql,classpath:schema-hits-postgresql.sql",
+        "stats.hits.retention=30d"
+})
+class HitPartitionManagerPostgresTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private HitPartitionManager partitionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HitServiceImpl hitService;
+
+    @Autowired
+    private HitSketchBuilder sketchBuilder;
+
+    @Test
+    void prepareTable_withLegacyTable_shouldMoveHitsToPartitionedTable() {
+        LocalDateTime day = LocalDateTime.of(2020, 1, 1, 0, 0);
+        jdbcTemplate.execute("drop table hits");
+        jdbcTemplate.execute("create table hits(id bigint generated by default as identity primary key not null,"
+                + " app varchar(64) not null, uri varchar(64) not null, ip varchar(64) not null,"
+                + " timestamp TIMESTAMP without time zone not null)");
+        jdbcTemplate.execute("create index hits_app_uri_idx on hits(app, uri)");
+        insertHits(day, 3);
+
+        partitionManager.prepareTable();
+        insertHits(day, 1);
+
+        assertEquals("p", jdbcTemplate.queryForObject("select relkind from pg_class where relname = 'hits'",
+                String.class));
+        assertEquals(List.of(1L, 2L, 3L, 4L), jdbcTemplate.queryForList(
+                "select id from hits where timestamp = ? order by id", Long.class, Timestamp.valueOf(day)));
+        assertEquals(4, count(HitPartitionManager.DEFAULT_PARTITION, day, day.plusDays(1)));
+        assertEquals(List.of("hits_app_uri_idx"), jdbcTemplate.queryForList(
+                "select indexname from pg_indexes where tablename = 'hits' and indexname = 'hits_app_uri_idx'",
+                String.class));
+    }
+
+    @Test
+    void createPartitions_shouldMoveHitsOutOfDefaultPartition() {
+        LocalDateTime day = LocalDateTime.of(2020, 2, 1, 0, 0);
+        insertHits(day.plusHours(1), 2);
+        insertHits(day.plusDays(1).plusHours(1), 1);
+
+        partitionManager.createPartitions(day);
+
+        assertEquals(2, count("hits_p20200201", day, day.plusDays(1)));
+        assertEquals(1, count("hits_p20200202", day.plusDays(1), day.plusDays(2)));
+        assertEquals(0, count(HitPartitionManager.DEFAULT_PARTITION, day, day.plusDays(8)));
+    }
+
+    @Test
+    void dropExpiredPartitions_shouldDropPartitionsOlderThanRetention() {
+        LocalDateTime day = LocalDateTime.of(2020, 3, 1, 0, 0);
+        partitionManager.createPartitions(day);
+        insertHits(day.plusHours(1), 2);
+
+        partitionManager.dropExpiredPartitions(day.plusDays(40));
+
+        assertTrue(jdbcTemplate.queryForList("select relname from pg_class where relname = 'hits_p20200301'",
+                String.class).isEmpty());
+        assertEquals(0, count(HitPartitionManager.TABLE, day, day.plusDays(1)));
+    }
+
+    @Test
+    void dropExpiredPartitions_shouldKeepExactRollupAndSketchStatsInAgreement() {
+        LocalDateTime day = LocalDateTime.of(2020, 4, 1, 0, 0);
+        partitionManager.createPartitions(day);
+        hitService.addHits(List.of(
+                new NewHitDto("ewm-main-service", "/events/retention", "10.0.0.1", day.minusHours(1)),
+                new NewHitDto("ewm-main-service", "/events/retention", "10.0.0.2", day.plusHours(1)),
+                new NewHitDto("ewm-main-service", "/events/retention", "10.0.0.3", day.plusHours(2)),
+                new NewHitDto("ewm-main-service", "/events/retention", "10.0.0.4", day.plusDays(8)),
+                new NewHitDto("ewm-main-service", "/events/retention", "10.0.0.4", day.plusDays(8))).iterator());
+        sketchBuilder.build(day.plusDays(10));
+
+        partitionManager.dropExpiredPartitions(day.plusDays(31));
+
+        LocalDateTime start = day.minusMonths(1);
+        LocalDateTime end = day.plusMonths(1);
+        List<String> uris = List.of("/events/retention");
+        assertEquals(List.of(new StatsItemDto("ewm-main-service", "/events/retention", 2L)),
+                hitService.getStats(start, end, uris, false));
+        assertEquals(List.of(new StatsItemDto("ewm-main-service", "/events/retention", 1L)),
+                hitService.getStats(start, end, uris, true, false));
+        assertEquals(List.of(new StatsItemDto("ewm-main-service", "/events/retention", 1L)),
+                hitService.getStats(start, end, uris, true, true));
+    }
+
+    private void insertHits(LocalDateTime timestamp, int count) {
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("insert into hits(app, uri, ip, timestamp) values (?, ?, ?, ?)",
+                    "ewm-main-service", "/events/1", "10.0.0." + i, Timestamp.valueOf(timestamp));
+        }
+    }
+
+    private int count(String table, LocalDateTime from, LocalDateTime to) {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from " + table
+                + " where timestamp >= ? and timestamp < ?", Integer.class, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return (count != null) ? count : 0;
+    }
+}
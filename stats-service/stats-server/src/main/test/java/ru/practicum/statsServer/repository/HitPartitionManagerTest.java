@@ -0,0 +1,21 @@
+package ru.practicum.statsServer.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HitPartitionManagerTest {
+
+    @Test
+    void expiredPartitions_shouldSelectPartitionsEndedBeforeThreshold() {
+        List<String> partitions = List.of("hits_default", "hits_p20241016", "hits_p20241017", "hits_p20241018",
+                "hits_p202409", "hits_p202410", "hits_archive");
+
+        List<String> expired = HitPartitionManager.expiredPartitions(partitions, LocalDateTime.of(2024, 10, 18, 0, 0));
+
+        assertEquals(List.of("hits_p20241016", "hits_p20241017", "hits_p202409"), expired);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.statsServer.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsServer.model.RollupPlan;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JdbcHitRollupRepositoryTest {
+
+    @Autowired
+    private JdbcHitRollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void addHits_withConcurrentFirstHitsOfBucket_shouldCountBoth() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2021, 2, 1, 10, 0, 0);
+        NewHitDto hit = new NewHitDto("testApp", "/rollup-race", "10.0.0.1", start.plusSeconds(5));
+
+        CompletableFuture<Void> second = transactionTemplate.execute(status -> {
+            rollupRepository.addHits(List.of(hit));
+            CompletableFuture<Void> concurrent = CompletableFuture.runAsync(() -> transactionTemplate
+                    .executeWithoutResult(s -> rollupRepository.addHits(List.of(hit))));
+            sleep();
+            return concurrent;
+        });
+        second.get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(new StatsItemDto("testApp", "/rollup-race", 2L)),
+                rollupRepository.findHits(RollupPlan.of(start, start.plusHours(1)), List.of("/rollup-race")));
+    }
+
+    /**
+     * Дает второй транзакции дойти до вставки тех же строк, пока первая еще не завершена.
+     */
+    private static void sleep() {
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.statsServer.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.statsDto.HitBatchAckDto;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsServer.exceptions.IsBadRequestException;
+import ru.practicum.statsServer.interfaces.HitService;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {"stats.storage.engine=memory", "stats.storage.memory.snapshot-path="})
+@ActiveProfiles("test")
+class ColumnarHitServiceTest {
+
+    @Autowired
+    private HitService hitService;
+
+    @Test
+    void hitService_shouldUseColumnarStore() {
+        assertInstanceOf(ColumnarHitService.class, hitService);
+    }
+
+    @Test
+    void getStats_shouldCountHitsAddedOneByOneAndInBatches() {
+        LocalDateTime start = LocalDateTime.of(2021, 5, 1, 12, 0, 0);
+        hitService.addHit(new NewHitDto("testApp", "/columnar/0", "192.168.1.1", start));
+        HitBatchAckDto ack = hitService.addHits(IntStream.range(0, 2500)
+                .mapToObj(i -> new NewHitDto("testApp", "/columnar/" + (i % 2), "192.168.1." + (i % 7),
+                        start.plusSeconds(i)))
+                .iterator());
+
+        assertEquals(2500, ack.getSaved());
+        assertEquals(List.of(new StatsItemDto("testApp", "/columnar/0", 1251L),
+                        new StatsItemDto("testApp", "/columnar/1", 1250L)),
+                hitService.getStats(start, start.plusHours(1), List.of("/columnar/0", "/columnar/1"), false));
+        assertEquals(List.of(new StatsItemDto("testApp", "/columnar/0", 7L)),
+                hitService.getStats(start, start.plusHours(1), List.of("/columnar/0"), true));
+    }
+
+    @Test
+    void addHits_withInvalidHitAfterFirstThousand_shouldSaveNothing() {
+        LocalDateTime start = LocalDateTime.of(2021, 6, 1, 12, 0, 0);
+        Iterator<NewHitDto> hits = IntStream.range(0, 1500)
+                .mapToObj(i -> {
+                    if (i == 1200) {
+                        throw new IsBadRequestException("Hit #" + i + " is malformed");
+                    }
+                    return new NewHitDto("testApp", "/columnar/partial", "192.168.1.1", start.plusSeconds(i));
+                })
+                .iterator();
+
+        assertThrows(IsBadRequestException.class, () -> hitService.addHits(hits));
+        assertEquals(List.of(), hitService.getStats(start, start.plusHours(1), List.of("/columnar/partial"), false));
+    }
+
+    @Test
+    void getStats_withStartAfterEnd_shouldThrowException() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(IsBadRequestException.class, () -> hitService.getStats(now, now.minusDays(1), null, false));
+    }
+}
@@ -5,20 +5,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.statsDto.HitBatchAckDto;
 import ru.practicum.statsDto.NewHitDto;
 import ru.practicum.statsDto.StatsItem;
 import ru.practicum.statsDto.StatsItemDto;
 import ru.practicum.statsServer.exceptions.IsBadRequestException;
 import ru.practicum.statsServer.model.Hit;
+import ru.practicum.statsServer.model.RollupPlan;
+import ru.practicum.statsServer.repository.JdbcHitRepository;
+import ru.practicum.statsServer.repository.JdbcHitRollupRepository;
+import ru.practicum.statsServer.repository.JdbcHitSketchRepository;
 import ru.practicum.statsServer.repository.JpaHitRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +36,15 @@ class HitServiceImplTest {
     @Mock
     private JpaHitRepository hitRepository;
 
+    @Mock
+    private JdbcHitRepository jdbcHitRepository;
+
+    @Mock
+    private JdbcHitRollupRepository rollupRepository;
+
+    @Mock
+    private JdbcHitSketchRepository sketchRepository;
+
     @InjectMocks
     private HitServiceImpl hitService;
 
@@ -41,6 +59,30 @@ class HitServiceImplTest {
         hitService.addHit(dto);
 
         verify(hitRepository, times(1)).save(org.mockito.ArgumentMatchers.any(Hit.class));
+        verify(rollupRepository, times(1)).addHits(List.of(dto));
+        verifyNoInteractions(sketchRepository);
+    }
+
+    @Test
+    void addHits_shouldSaveHitsInChunks() {
+        List<NewHitDto> batch = IntStream.range(0, 2500)
+                .mapToObj(i -> new NewHitDto("testApp", "/test", "192.168.1.1",
+                        LocalDateTime.of(2023, 1, 1, 12, 0, 0)))
+                .toList();
+
+        HitBatchAckDto ack = hitService.addHits(batch.iterator());
+
+        assertEquals(2500, ack.getSaved());
+        verify(jdbcHitRepository, times(3)).saveAll(anyList());
+        verify(rollupRepository, times(3)).addHits(anyList());
+    }
+
+    @Test
+    void addHits_withEmptyBatch_shouldNotTouchRepository() {
+        HitBatchAckDto ack = hitService.addHits(List.<NewHitDto>of().iterator());
+
+        assertEquals(0, ack.getSaved());
+        verify(jdbcHitRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -93,7 +135,7 @@ class HitServiceImplTest {
     }
 
     @Test
-    void getStats_whenUrisIsEmptyAndUniqueFalse_shouldCallFindAllNonUniqueHits() {
+    void getStats_whenUrisIsEmptyAndUniqueFalse_shouldReadRollups() {
         LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
         LocalDateTime end = LocalDateTime.of(2023, 12, 31, 0, 0);
         List<String> uris = List.of();
@@ -117,7 +159,7 @@ class HitServiceImplTest {
 
         List<StatsItem> statsItems = List.of(statsItem);
 
-        when(hitRepository.findAllNonUniqueHits(start, end)).thenReturn(statsItems);
+        when(rollupRepository.findHits(RollupPlan.of(start, end), uris)).thenReturn(statsItems);
 
         List<StatsItemDto> result = hitService.getStats(start, end, uris, false);
 
@@ -125,7 +167,7 @@ class HitServiceImplTest {
         assertEquals("testApp", result.get(0).getApp());
         assertEquals("/test", result.get(0).getUri());
         assertEquals(3L, result.get(0).getHits());
-        verify(hitRepository, times(1)).findAllNonUniqueHits(start, end);
+        verify(rollupRepository, times(1)).findHits(RollupPlan.of(start, end), uris);
     }
 
     @Test
@@ -165,7 +207,7 @@ class HitServiceImplTest {
     }
 
     @Test
-    void getStats_whenUrisProvidedAndUniqueFalse_shouldCallFindAllNonUniqueHitsInUris() {
+    void getStats_whenUrisProvidedAndUniqueFalse_shouldReadRollupsInUris() {
         LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
         LocalDateTime end = LocalDateTime.of(2023, 12, 31, 0, 0);
         List<String> uris = List.of("/test");
@@ -189,7 +231,7 @@ class HitServiceImplTest {
 
         List<StatsItem> statsItems = List.of(statsItem);
 
-        when(hitRepository.findAllNonUniqueHitsInUris(start, end, uris)).thenReturn(statsItems);
+        when(rollupRepository.findHits(RollupPlan.of(start, end), uris)).thenReturn(statsItems);
 
         List<StatsItemDto> result = hitService.getStats(start, end, uris, false);
 
@@ -197,6 +239,26 @@ class HitServiceImplTest {
         assertEquals("testApp", result.get(0).getApp());
         assertEquals("/test", result.get(0).getUri());
         assertEquals(10L, result.get(0).getHits());
-        verify(hitRepository, times(1)).findAllNonUniqueHitsInUris(start, end, uris);
+        verify(rollupRepository, times(1)).findHits(RollupPlan.of(start, end), uris);
+    }
+
+    @Test
+    void getStats_whenUniqueAndApproximate_shouldReadSketches() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 12, 31, 0, 0);
+        List<String> uris = List.of("/test");
+        LocalDateTime builtUntil = LocalDateTime.of(2023, 7, 1, 5, 0);
+        RollupPlan plan = RollupPlan.of(start, end, JdbcHitSketchRepository.FINEST_UNIT, builtUntil);
+
+        when(sketchRepository.findBuiltUntil()).thenReturn(builtUntil);
+        when(sketchRepository.findUniqueHits(plan, uris))
+                .thenReturn(List.of(new StatsItemDto("testApp", "/test", 12L)));
+
+        List<StatsItemDto> result = hitService.getStats(start, end, uris, true, true);
+
+        assertEquals(1, result.size());
+        assertEquals(12L, result.get(0).getHits());
+        verify(sketchRepository, times(1)).findUniqueHits(plan, uris);
+        verify(hitRepository, never()).findAllUniqueHitsInUris(start, end, uris);
     }
-}
\ No newline at end of file
+}
@@ -6,14 +6,19 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.statsDto.HitBatchAckDto;
 import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItem;
 import ru.practicum.statsDto.StatsItemDto;
 import ru.practicum.statsServer.exceptions.IsBadRequestException;
 import ru.practicum.statsServer.model.Hit;
+import ru.practicum.statsServer.repository.HitSketchBuilder;
 import ru.practicum.statsServer.repository.JpaHitRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -30,6 +35,9 @@ class HitServiceImplWithDbTest {
     @Autowired
     private JpaHitRepository hitRepository;
 
+    @Autowired
+    private HitSketchBuilder sketchBuilder;
+
     @Test
     void addHit_shouldSaveToDatabase() {
         NewHitDto dto = new NewHitDto();
@@ -49,6 +57,22 @@ class HitServiceImplWithDbTest {
         assertEquals(LocalDateTime.of(2023, 1, 1, 12, 0, 0), hit.getTimestamp());
     }
 
+    @Test
+    void addHits_shouldSaveWholeBatchToDatabase() {
+        List<NewHitDto> batch = IntStream.range(0, 2500)
+                .mapToObj(i -> new NewHitDto("testApp", "/test/" + (i % 3), "192.168.1." + (i % 7),
+                        LocalDateTime.of(2023, 1, 1, 12, 0, 0).plusSeconds(i)))
+                .toList();
+
+        HitBatchAckDto ack = hitService.addHits(batch.iterator());
+
+        assertEquals(2500, ack.getSaved());
+        assertEquals(2500, hitRepository.count());
+        List<StatsItemDto> stats = hitService.getStats(LocalDateTime.of(2023, 1, 1, 0, 0),
+                LocalDateTime.of(2023, 1, 2, 0, 0), List.of("/test/0"), false);
+        assertEquals(834, stats.get(0).getHits());
+    }
+
     @Test
     void getStats_whenStartAfterEnd_shouldThrowException() {
         LocalDateTime start = LocalDateTime.of(2023, 12, 31, 0, 0);
@@ -62,27 +86,27 @@ class HitServiceImplWithDbTest {
 
     @Test
     void getStats_withNonUniqueHits_shouldReturnCorrectStats() {
-        Hit hit1 = new Hit();
+        NewHitDto hit1 = new NewHitDto();
         hit1.setApp("app1");
         hit1.setUri("/uri1");
         hit1.setIp("192.168.1.1");
         hit1.setTimestamp(LocalDateTime.of(2023, 6, 1, 10, 0, 0));
 
-        Hit hit2 = new Hit();
+        NewHitDto hit2 = new NewHitDto();
         hit2.setApp("app1");
         hit2.setUri("/uri1");
         hit2.setIp("192.168.1.2");
         hit2.setTimestamp(LocalDateTime.of(2023, 6, 1, 11, 0, 0));
 
-        Hit hit3 = new Hit();
+        NewHitDto hit3 = new NewHitDto();
         hit3.setApp("app2");
         hit3.setUri("/uri2");
         hit3.setIp("192.168.1.3");
         hit3.setTimestamp(LocalDateTime.of(2023, 6, 1, 12, 0, 0));
 
-        hitRepository.save(hit1);
-        hitRepository.save(hit2);
-        hitRepository.save(hit3);
+        hitService.addHit(hit1);
+        hitService.addHit(hit2);
+        hitService.addHit(hit3);
 
         LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
         LocalDateTime end = LocalDateTime.of(2023, 12, 31, 0, 0);
@@ -100,27 +124,27 @@ class HitServiceImplWithDbTest {
 
     @Test
     void getStats_withUniqueHits_shouldReturnCorrectStats() {
-        Hit hit1 = new Hit();
+        NewHitDto hit1 = new NewHitDto();
         hit1.setApp("app1");
         hit1.setUri("/uri1");
         hit1.setIp("192.168.1.1");
         hit1.setTimestamp(LocalDateTime.of(2023, 6, 1, 10, 0, 0));
 
-        Hit hit2 = new Hit();
+        NewHitDto hit2 = new NewHitDto();
         hit2.setApp("app1");
         hit2.setUri("/uri1");
         hit2.setIp("192.168.1.1");
         hit2.setTimestamp(LocalDateTime.of(2023, 6, 1, 11, 0, 0));
 
-        Hit hit3 = new Hit();
+        NewHitDto hit3 = new NewHitDto();
         hit3.setApp("app1");
         hit3.setUri("/uri1");
         hit3.setIp("192.168.1.2");
         hit3.setTimestamp(LocalDateTime.of(2023, 6, 1, 12, 0, 0));
 
-        hitRepository.save(hit1);
-        hitRepository.save(hit2);
-        hitRepository.save(hit3);
+        hitService.addHit(hit1);
+        hitService.addHit(hit2);
+        hitService.addHit(hit3);
 
         LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
         LocalDateTime end = LocalDateTime.of(2023, 12, 31, 0, 0);
@@ -132,22 +156,65 @@ class HitServiceImplWithDbTest {
         assertEquals(2, result.get(0).getHits());
     }
 
+    @Test
+    void getStats_withPartialMinutesAtEdges_shouldCountRollupsAndRawHits() {
+        List<LocalDateTime> times = List.of(
+                LocalDateTime.of(2023, 6, 1, 10, 0, 10),
+                LocalDateTime.of(2023, 6, 1, 10, 0, 40),
+                LocalDateTime.of(2023, 6, 1, 10, 30, 0),
+                LocalDateTime.of(2023, 6, 2, 0, 0, 0),
+                LocalDateTime.of(2023, 6, 3, 23, 59, 20),
+                LocalDateTime.of(2023, 6, 3, 23, 59, 50),
+                LocalDateTime.of(2023, 6, 4, 0, 0, 0));
+        for (LocalDateTime time : times) {
+            hitService.addHit(new NewHitDto("app1", "/uri1", "192.168.1.1", time));
+        }
+
+        LocalDateTime start = LocalDateTime.of(2023, 6, 1, 10, 0, 30);
+        LocalDateTime end = LocalDateTime.of(2023, 6, 3, 23, 59, 30);
+        List<StatsItemDto> result = hitService.getStats(start, end, null, false);
+
+        assertEquals(1, result.size());
+        assertEquals(4, result.get(0).getHits());
+        assertEquals(7, hitService.getStats(times.get(0), times.get(6), List.of("/uri1"), false)
+                .get(0).getHits());
+    }
+
+    @Test
+    void getStats_withApproximateUniqueHits_shouldStayWithinErrorBound() {
+        List<NewHitDto> batch = IntStream.range(0, 6000)
+                .mapToObj(i -> new NewHitDto("app1", "/uri1", "10.0." + (i % 3000) / 250 + "." + (i % 250),
+                        LocalDateTime.of(2023, 6, 1, 9, 30, 15).plusMinutes(i % 1800)))
+                .toList();
+        hitService.addHits(batch.iterator());
+        int built = sketchBuilder.build(LocalDateTime.of(2023, 6, 3, 0, 0, 0));
+
+        LocalDateTime start = LocalDateTime.of(2023, 6, 1, 9, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 6, 3, 0, 0, 0);
+        long exact = hitService.getStats(start, end, List.of("/uri1"), true, false).get(0).getHits();
+        long approximate = hitService.getStats(start, end, List.of("/uri1"), true, true).get(0).getHits();
+
+        assertEquals(24, built);
+        assertEquals(3000, exact);
+        assertEquals(exact, approximate, exact * 0.02);
+    }
+
     @Test
     void getStats_withUrisFilter_shouldReturnFilteredStats() {
-        Hit hit1 = new Hit();
+        NewHitDto hit1 = new NewHitDto();
         hit1.setApp("app1");
         hit1.setUri("/uri1");
         hit1.setIp("192.168.1.1");
         hit1.setTimestamp(LocalDateTime.of(2023, 6, 1, 10, 0, 0));
 
-        Hit hit2 = new Hit();
+        NewHitDto hit2 = new NewHitDto();
         hit2.setApp("app1");
         hit2.setUri("/uri2");
         hit2.setIp("192.168.1.2");
         hit2.setTimestamp(LocalDateTime.of(2023, 6, 1, 11, 0, 0));
 
-        hitRepository.save(hit1);
-        hitRepository.save(hit2);
+        hitService.addHit(hit1);
+        hitService.addHit(hit2);
 
         LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
         LocalDateTime end = LocalDateTime.of(2023, 12, 31, 0, 0);
@@ -159,4 +226,27 @@ class HitServiceImplWithDbTest {
         assertEquals("/uri1", result.get(0).getUri());
         assertEquals(1, result.get(0).getHits());
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamStats_withLimit_shouldReturnFirstItemsOfStats() {
+        LocalDateTime time = LocalDateTime.of(2023, 7, 1, 10, 0, 0);
+        hitService.addHits(IntStream.range(0, 60)
+                .mapToObj(i -> new NewHitDto("app1", "/stream/" + (i % 10), "10.0.0." + (i % (i % 10 + 1)),
+                        time.plusSeconds(i * 37L)))
+                .iterator());
+        LocalDateTime start = LocalDateTime.of(2023, 7, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 7, 2, 0, 0);
+
+        for (boolean unique : new boolean[]{false, true}) {
+            List<StatsItemDto> stats = hitService.getStats(start, end, null, unique);
+            List<StatsItem> streamed = new ArrayList<>();
+
+            hitService.streamStats(start, end, null, unique, false, 3, streamed::add);
+
+            assertEquals(3, streamed.size());
+            for (int i = 0; i < streamed.size(); i++) {
+                assertEquals(stats.get(i).getHits(), streamed.get(i).getHits());
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.statsServer.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+import ru.practicum.statsServer.interfaces.HitService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"stats.storage.engine=memory", "stats.storage.memory.snapshot-path=",
+        "stats.ingest.mode=wal", "stats.ingest.wal.segment-size=64KB", "stats.ingest.wal.apply-interval=PT1H"})
+@ActiveProfiles("test")
+class LoggedHitServiceTest {
+
+    @Autowired
+    private HitService hitService;
+
+    @DynamicPropertySource
+    static void walDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("hit-log").toString();
+        registry.add("stats.ingest.wal.directory", () -> directory);
+    }
+
+    @Test
+    void addHit_shouldReachStorageAfterApply() {
+        assertInstanceOf(LoggedHitService.class, hitService);
+        LocalDateTime start = LocalDateTime.of(2022, 3, 1, 10, 0, 0);
+        for (int i = 0; i < 2000; i++) {
+            hitService.addHit(new NewHitDto("testApp", "/logged", "10.1.0." + (i % 10), start.plusSeconds(i)));
+        }
+        assertTrue(hitService.getStats(start, start.plusHours(1), List.of("/logged"), false).isEmpty());
+
+        long applied = ((LoggedHitService) hitService).apply();
+
+        assertEquals(2000, applied);
+        assertEquals(List.of(new StatsItemDto("testApp", "/logged", 10L)),
+                hitService.getStats(start, start.plusHours(1), List.of("/logged"), true));
+        assertEquals(0, ((LoggedHitService) hitService).apply());
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.statsServer.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.statsDto.NewHitDto;
+import ru.practicum.statsDto.StatsItemDto;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarHitStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+
+    @Test
+    void getStats_shouldMatchRowByRowCounting() {
+        List<NewHitDto> hits = randomHits(20_000, 42);
+        ColumnarHitStore store = new ColumnarHitStore(1_000);
+        store.addAll(hits);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime start = START.plusSeconds(random.nextInt(40_000)).plusNanos(random.nextInt(2) * 500_000L);
+            LocalDateTime end = start.plusSeconds(random.nextInt(50_000));
+            List<String> uris = random.nextBoolean() ? null : List.of("/events/1", "/events/3", "/unknown");
+            boolean unique = random.nextBoolean();
+
+            assertEquals(expected(hits, start, end, uris, unique), byKey(store.getStats(start, end, uris, unique)),
+                    "start=" + start + ", end=" + end + ", uris=" + uris + ", unique=" + unique);
+        }
+    }
+
+    @Test
+    void getStats_shouldIncludeBothEndsOfPeriod() {
+        ColumnarHitStore store = new ColumnarHitStore(4);
+        store.addAll(List.of(hit("/events/1", "10.0.0.1", START),
+                hit("/events/1", "10.0.0.1", START.plusSeconds(10)),
+                hit("/events/1", "10.0.0.1", START.plusSeconds(11))));
+
+        List<StatsItemDto> stats = store.getStats(START, START.plusSeconds(10), null, false);
+
+        assertEquals(List.of(new StatsItemDto("ewm-main-service", "/events/1", 2L)), stats);
+    }
+
+    @Test
+    void getStats_shouldSortByHitsDescending() {
+        ColumnarHitStore store = new ColumnarHitStore();
+        store.addAll(List.of(hit("/events/1", "10.0.0.1", START),
+                hit("/events/2", "10.0.0.1", START),
+                hit("/events/2", "10.0.0.2", START)));
+
+        List<StatsItemDto> stats = store.getStats(START, START, null, false);
+
+        assertEquals(List.of("/events/2", "/events/1"), stats.stream().map(StatsItemDto::getUri).toList());
+    }
+
+    @Test
+    void getStats_withUnknownUris_shouldReturnEmptyList() {
+        ColumnarHitStore store = new ColumnarHitStore();
+        store.add(hit("/events/1", "10.0.0.1", START));
+
+        assertTrue(store.getStats(START, START, List.of("/events/2"), false).isEmpty());
+    }
+
+    @Test
+    void getStats_withUnique_shouldCompareAddressesAsStrings() {
+        ColumnarHitStore store = new ColumnarHitStore();
+        store.addAll(List.of(hit("/events/1", "2001:db8::1", START),
+                hit("/events/1", "2001:db8::1", START),
+                hit("/events/1", "2001:DB8::1", START),
+                hit("/events/1", "10.0.0.1", START),
+                hit("/events/1", "10.0.0.01", START),
+                hit("/events/1", "unknown", START)));
+
+        assertEquals(5L, store.getStats(START, START, null, true).get(0).getHits());
+    }
+
+    @Test
+    void save_shouldRestoreSameStats(@TempDir Path directory) throws IOException {
+        List<NewHitDto> hits = randomHits(5_000, 1);
+        ColumnarHitStore store = new ColumnarHitStore(700);
+        store.addAll(hits);
+        Path snapshot = directory.resolve("hits.snapshot");
+
+        store.save(snapshot);
+        ColumnarHitStore restored = ColumnarHitStore.load(snapshot);
+
+        assertEquals(store.size(), restored.size());
+        LocalDateTime end = START.plusDays(1);
+        for (boolean unique : new boolean[]{false, true}) {
+            assertEquals(store.getStats(START, end, null, unique), restored.getStats(START, end, null, unique));
+        }
+    }
+
+    @Test
+    void removeBefore_shouldRemoveOnlyFullChunksOlderThanCutoff() {
+        ColumnarHitStore store = new ColumnarHitStore(2);
+        for (int i = 0; i < 5; i++) {
+            store.add(hit("/events/1", "10.0.0.1", START.plusHours(i)));
+        }
+
+        long removed = store.removeBefore(START.plusHours(3));
+
+        assertEquals(2, removed);
+        assertEquals(3, store.size());
+        assertEquals(3L, store.getStats(START, START.plusDays(1), null, false).get(0).getHits());
+    }
+
+    @Test
+    void parseIpv4_shouldAcceptOnlyCanonicalAddresses() {
+        assertEquals(0xC0A80101L, IpCodec.parseIpv4("192.168.1.1"));
+        assertEquals(0L, IpCodec.parseIpv4("0.0.0.0"));
+        assertEquals(0xFFFFFFFFL, IpCodec.parseIpv4("255.255.255.255"));
+        for (String ip : new String[]{"", "1.2.3", "1.2.3.4.5", "1.2.3.256", "01.2.3.4", "1..3.4", "1.2.3.4.", "::1"}) {
+            assertEquals(-1, IpCodec.parseIpv4(ip), ip);
+        }
+    }
+
+    /**
+     * Хиты вперемешку по времени в пределах суток, чтобы часть фрагментов была неупорядоченной.
+     */
+    private static List<NewHitDto> randomHits(int count, long seed) {
+        Random random = new Random(seed);
+        List<NewHitDto> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String uri = "/events/" + random.nextInt(20);
+            String ip = random.nextInt(10) == 0 ? "2001:db8::" + random.nextInt(50) : "10.0.0." + random.nextInt(100);
+            hits.add(new NewHitDto(random.nextBoolean() ? "ewm-main-service" : "other", uri, ip,
+                    START.plusSeconds(i * 4L + random.nextInt(200))));
+        }
+        Collections.shuffle(hits.subList(count / 2, count), random);
+        return hits;
+    }
+
+    private static Map<String, Long> expected(List<NewHitDto> hits, LocalDateTime start, LocalDateTime end,
+                                              List<String> uris, boolean unique) {
+        Map<String, Set<String>> ips = new HashMap<>();
+        Map<String, Long> counts = new HashMap<>();
+        for (NewHitDto hit : hits) {
+            if (hit.getTimestamp().isBefore(start) || hit.getTimestamp().isAfter(end)
+                    || uris != null && !uris.contains(hit.getUri())) {
+                continue;
+            }
+            String key = hit.getApp() + hit.getUri();
+            ips.computeIfAbsent(key, k -> new HashSet<>()).add(hit.getIp());
+            counts.merge(key, 1L, Long::sum);
+        }
+        if (unique) {
+            counts.replaceAll((key, count) -> (long) ips.get(key).size());
+        }
+        return counts;
+    }
+
+    private static Map<String, Long> byKey(List<StatsItemDto> items) {
+        Map<String, Long> counts = new HashMap<>();
+        items.forEach(item -> counts.put(item.getApp() + item.getUri(), item.getHits()));
+        return counts;
+    }
+
+    private static NewHitDto hit(String uri, String ip, LocalDateTime timestamp) {
+        return new NewHitDto("ewm-main-service", uri, ip, timestamp);
+    }
+}
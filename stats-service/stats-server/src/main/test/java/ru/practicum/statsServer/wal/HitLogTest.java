@@ -0,0 +1,123 @@
+package ru.practicum.statsServer.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.statsDto.NewHitDto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HitLogTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void read_shouldReturnAppendedHitsInOrder() throws IOException {
+        List<NewHitDto> hits = hits(100);
+        try (HitLog log = HitLog.open(directory, HitLog.MIN_SEGMENT_SIZE)) {
+            for (NewHitDto hit : hits) {
+                log.append(hit);
+            }
+
+            HitLog.Batch first = log.read(log.checkpoint(), 60);
+            HitLog.Batch second = log.read(first.end(), 60);
+
+            assertEquals(hits.subList(0, 60), first.hits());
+            assertEquals(hits.subList(60, 100), second.hits());
+            assertEquals(log.end(), second.end());
+        }
+    }
+
+    @Test
+    void append_shouldRotateSegmentsAndCommitShouldDeleteAppliedOnes() throws IOException {
+        List<NewHitDto> hits = hits(5_000);
+        try (HitLog log = HitLog.open(directory, HitLog.MIN_SEGMENT_SIZE)) {
+            for (NewHitDto hit : hits) {
+                log.append(hit);
+            }
+            assertTrue(segments() > 1);
+
+            HitLog.Batch batch = log.read(log.checkpoint(), Integer.MAX_VALUE);
+            log.commit(batch.end());
+
+            assertEquals(hits, batch.hits());
+            assertEquals(1, segments());
+        }
+    }
+
+    @Test
+    void open_shouldReplayHitsAfterCheckpoint() throws IOException {
+        List<NewHitDto> hits = hits(300);
+        try (HitLog log = HitLog.open(directory, HitLog.MIN_SEGMENT_SIZE)) {
+            for (NewHitDto hit : hits) {
+                log.append(hit);
+            }
+            log.commit(log.read(log.checkpoint(), 100).end());
+        }
+
+        try (HitLog log = HitLog.open(directory, HitLog.MIN_SEGMENT_SIZE)) {
+            log.append(hit(300));
+
+            List<NewHitDto> replayed = log.read(log.checkpoint(), Integer.MAX_VALUE).hits();
+
+            List<NewHitDto> expected = new ArrayList<>(hits.subList(100, 300));
+            expected.add(hit(300));
+            assertEquals(expected, replayed);
+        }
+    }
+
+    @Test
+    void open_shouldSkipTornRecordAtEndOfSegment() throws IOException {
+        try (HitLog log = HitLog.open(directory, HitLog.MIN_SEGMENT_SIZE)) {
+            log.append(hit(0));
+            log.append(hit(1));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".wal")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, 0);
+            int secondRecord = 2 * Integer.BYTES + length.flip().getInt();
+            channel.write(ByteBuffer.wrap(new byte[]{42}), secondRecord + 20);
+        }
+
+        try (HitLog log = HitLog.open(directory, HitLog.MIN_SEGMENT_SIZE)) {
+            log.append(hit(2));
+
+            assertEquals(List.of(hit(0), hit(2)), log.read(log.checkpoint(), Integer.MAX_VALUE).hits());
+        }
+    }
+
+    private long segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).count();
+        }
+    }
+
+    private static List<NewHitDto> hits(int count) {
+        return IntStream.range(0, count).mapToObj(HitLogTest::hit).toList();
+    }
+
+    private static NewHitDto hit(int i) {
+        String ip = i % 5 == 0 ? "2001:db8::" + i : "10.0.0." + i % 256;
+        return new NewHitDto("ewm-main-service", "/events/" + (i % 17), ip,
+                START.plusSeconds(i).plusNanos(i % 3 * 1_000_000L));
+    }
+}